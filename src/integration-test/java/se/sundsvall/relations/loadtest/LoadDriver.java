@@ -0,0 +1,278 @@
+package se.sundsvall.relations.loadtest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import se.sundsvall.relations.api.model.Relation;
+import se.sundsvall.relations.api.model.ResourceIdentifier;
+import se.sundsvall.relations.loadtest.SyntheticDataGenerator.SeededData;
+import se.sundsvall.relations.loadtest.SyntheticDataGenerator.SeededRelation;
+import tools.jackson.databind.json.JsonMapper;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.HttpHeaders.LOCATION;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+/**
+ * Drives a mix of create, find, get, update and delete requests against a running service from a fixed number of
+ * concurrent clients and records the latency of every request per endpoint.
+ * <p>
+ * Reads and finds use the sample of seeded relations. Updates and deletes only touch relations created during the run,
+ * and a relation is taken out of the pool while it is being updated, so that clients never race each other into
+ * not found responses.
+ */
+final class LoadDriver {
+
+	enum Endpoint {
+		CREATE("POST /{municipalityId}/relations", 10),
+		FIND("GET /{municipalityId}/relations", 45),
+		GET("GET /{municipalityId}/relations/{id}", 30),
+		UPDATE("PUT /{municipalityId}/relations/{id}", 10),
+		DELETE("DELETE /{municipalityId}/relations/{id}", 5);
+
+		private static final int TOTAL_WEIGHT = Arrays.stream(values()).mapToInt(endpoint -> endpoint.weight).sum();
+
+		private final String path;
+		private final int weight;
+
+		Endpoint(final String path, final int weight) {
+			this.path = path;
+			this.weight = weight;
+		}
+
+		static Endpoint pick() {
+			var remaining = ThreadLocalRandom.current().nextInt(TOTAL_WEIGHT);
+			for (final var endpoint : values()) {
+				remaining -= endpoint.weight;
+				if (remaining < 0) {
+					return endpoint;
+				}
+			}
+			return FIND;
+		}
+	}
+
+	private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+	private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(REQUEST_TIMEOUT).build();
+	private final ConcurrentLinkedQueue<SeededRelation> created = new ConcurrentLinkedQueue<>();
+	private final String baseUrl;
+	private final JsonMapper jsonMapper;
+	private final SeededData seededData;
+
+	LoadDriver(final String baseUrl, final JsonMapper jsonMapper, final SeededData seededData) {
+		this.baseUrl = baseUrl;
+		this.jsonMapper = jsonMapper;
+		this.seededData = seededData;
+	}
+
+	/**
+	 * Runs the traffic for the given duration.
+	 *
+	 * @param  clients  number of concurrent clients
+	 * @param  duration how long to run
+	 * @return          latencies and errors per endpoint
+	 */
+	LoadReport run(final int clients, final Duration duration) {
+		final var registry = new SimpleMeterRegistry();
+		final var deadline = System.nanoTime() + duration.toNanos();
+		final var started = System.nanoTime();
+
+		try (final var executor = Executors.newFixedThreadPool(clients)) {
+			for (var client = 0; client < clients; client++) {
+				executor.submit(() -> {
+					while (System.nanoTime() < deadline) {
+						send(registry, Endpoint.pick());
+					}
+				});
+			}
+		}
+		return LoadReport.of(registry, Duration.ofNanos(System.nanoTime() - started));
+	}
+
+	private void send(final SimpleMeterRegistry registry, final Endpoint requested) {
+		// Nothing to delete or update until something has been created
+		final var endpoint = (requested == Endpoint.DELETE || requested == Endpoint.UPDATE) && created.isEmpty() ? Endpoint.CREATE : requested;
+		final var start = System.nanoTime();
+		var success = false;
+		try {
+			success = switch (endpoint) {
+				case CREATE -> create();
+				case FIND -> find();
+				case GET -> get();
+				case UPDATE -> update();
+				case DELETE -> delete();
+			};
+		} catch (final IOException e) {
+			// Counted as an error below
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			timer(registry, endpoint).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			if (!success) {
+				Counter.builder("loadtest.errors").tag("endpoint", endpoint.name()).register(registry).increment();
+			}
+		}
+	}
+
+	private boolean create() throws IOException, InterruptedException {
+		final var municipalityId = randomSeeded().municipalityId();
+		final var relation = newRelation();
+		final var response = httpClient.send(request(municipalityId, "")
+			.header(CONTENT_TYPE, APPLICATION_JSON_VALUE)
+			.POST(BodyPublishers.ofString(jsonMapper.writeValueAsString(relation)))
+			.build(), BodyHandlers.discarding());
+
+		if (response.statusCode() != 201) {
+			return false;
+		}
+		response.headers().firstValue(LOCATION)
+			.map(location -> location.substring(location.lastIndexOf('/') + 1))
+			.ifPresent(id -> created.offer(new SeededRelation(municipalityId, id, relation)));
+		return true;
+	}
+
+	private boolean find() throws IOException, InterruptedException {
+		final var seeded = randomSeeded();
+		final var filter = ThreadLocalRandom.current().nextBoolean()
+			? "source.resourceId:'%s'".formatted(seeded.relation().getSource().getResourceId())
+			: "type.name:'%s'".formatted(seeded.relation().getType());
+
+		return isSuccessful(httpClient.send(request(seeded.municipalityId(), "?limit=20&filter=" + URLEncoder.encode(filter, UTF_8))
+			.GET()
+			.build(), BodyHandlers.discarding()).statusCode());
+	}
+
+	private boolean get() throws IOException, InterruptedException {
+		final var seeded = randomSeeded();
+		return isSuccessful(httpClient.send(request(seeded.municipalityId(), "/" + seeded.id())
+			.GET()
+			.build(), BodyHandlers.discarding()).statusCode());
+	}
+
+	private boolean update() throws IOException, InterruptedException {
+		final var target = created.poll();
+		if (target == null) {
+			return create();
+		}
+		final var relation = target.relation();
+		relation.setTarget(resourceIdentifier(relation.getTarget().getService(), relation.getTarget().getType()));
+		try {
+			return isSuccessful(httpClient.send(request(target.municipalityId(), "/" + target.id())
+				.header(CONTENT_TYPE, APPLICATION_JSON_VALUE)
+				.PUT(BodyPublishers.ofString(jsonMapper.writeValueAsString(relation)))
+				.build(), BodyHandlers.discarding()).statusCode());
+		} finally {
+			created.offer(target);
+		}
+	}
+
+	private boolean delete() throws IOException, InterruptedException {
+		final var target = created.poll();
+		if (target == null) {
+			return create();
+		}
+		return isSuccessful(httpClient.send(request(target.municipalityId(), "/" + target.id())
+			.DELETE()
+			.build(), BodyHandlers.discarding()).statusCode());
+	}
+
+	private HttpRequest.Builder request(final String municipalityId, final String path) {
+		return HttpRequest.newBuilder(URI.create(baseUrl + "/" + municipalityId + "/relations" + path)).timeout(REQUEST_TIMEOUT);
+	}
+
+	private SeededRelation randomSeeded() {
+		final var sample = seededData.sample();
+		return sample.get(ThreadLocalRandom.current().nextInt(sample.size()));
+	}
+
+	private Relation newRelation() {
+		final var template = randomSeeded().relation();
+		final var types = seededData.types();
+		return Relation.builder()
+			.withType(types.get(ThreadLocalRandom.current().nextInt(types.size())))
+			.withSource(resourceIdentifier(template.getSource().getService(), template.getSource().getType()))
+			.withTarget(resourceIdentifier(template.getTarget().getService(), template.getTarget().getType()))
+			.build();
+	}
+
+	private static ResourceIdentifier resourceIdentifier(final String service, final String type) {
+		return ResourceIdentifier.builder()
+			.withResourceId("loadtest-" + ThreadLocalRandom.current().nextLong(Long.MAX_VALUE))
+			.withService(service)
+			.withType(type)
+			.withNamespace("LOADTEST")
+			.build();
+	}
+
+	private static boolean isSuccessful(final int statusCode) {
+		return statusCode >= 200 && statusCode < 300;
+	}
+
+	private static Timer timer(final SimpleMeterRegistry registry, final Endpoint endpoint) {
+		return Timer.builder("loadtest.requests")
+			.tag("endpoint", endpoint.name())
+			.publishPercentiles(0.5, 0.95, 0.99)
+			.percentilePrecision(2)
+			// Keep every sample for the whole run instead of a rolling window
+			.distributionStatisticExpiry(Duration.ofDays(1))
+			.distributionStatisticBufferLength(1)
+			.register(registry);
+	}
+
+	/**
+	 * Latency percentiles, throughput and errors per endpoint.
+	 */
+	record LoadReport(Duration elapsed, List<EndpointResult> results) {
+
+		static LoadReport of(final SimpleMeterRegistry registry, final Duration elapsed) {
+			final var results = new ArrayList<EndpointResult>();
+			for (final var endpoint : Endpoint.values()) {
+				final var timer = registry.find("loadtest.requests").tag("endpoint", endpoint.name()).timer();
+				if (timer == null) {
+					continue;
+				}
+				final var errors = registry.find("loadtest.errors").tag("endpoint", endpoint.name()).counter();
+				final var percentiles = timer.takeSnapshot().percentileValues();
+				results.add(new EndpointResult(endpoint, timer.count(), errors != null ? (long) errors.count() : 0,
+					timer.count() / (elapsed.toMillis() / 1000d),
+					percentiles[0].value(TimeUnit.MILLISECONDS),
+					percentiles[1].value(TimeUnit.MILLISECONDS),
+					percentiles[2].value(TimeUnit.MILLISECONDS)));
+			}
+			return new LoadReport(elapsed, results);
+		}
+
+		long errors() {
+			return results.stream().mapToLong(EndpointResult::errors).sum();
+		}
+
+		String format() {
+			final var builder = new StringBuilder("%n%-42s %10s %8s %10s %10s %10s %10s%n".formatted("Endpoint", "Requests", "Errors", "Req/s", "p50 ms", "p95 ms", "p99 ms"));
+			results.forEach(result -> builder.append(String.format(Locale.ROOT, "%-42s %10d %8d %10.1f %10.2f %10.2f %10.2f%n",
+				result.endpoint().path, result.requests(), result.errors(), result.throughput(), result.p50(), result.p95(), result.p99())));
+			builder.append(String.format(Locale.ROOT, "%-42s %10d %8d %10.1f%n", "Total",
+				results.stream().mapToLong(EndpointResult::requests).sum(), errors(), results.stream().mapToDouble(EndpointResult::throughput).sum()));
+			return builder.toString();
+		}
+	}
+
+	record EndpointResult(Endpoint endpoint, long requests, long errors, double throughput, double p50, double p95, double p99) {}
+}
@@ -0,0 +1,116 @@
+package se.sundsvall.relations.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.Resource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import se.sundsvall.relations.Application;
+import tools.jackson.databind.json.JsonMapper;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+/**
+ * Load test against the MariaDB test container. Seeds the database with synthetic relations, warms the service up and
+ * then runs mixed traffic while recording latency and throughput per endpoint. The report is logged and written to
+ * {@code target/loadtest-report-platform.txt}, or {@code target/loadtest-report-virtual.txt} when the service runs on
+ * virtual threads, so that the two modes can be compared.
+ * <p>
+ * Only runs when asked for, e.g. {@code mvn verify -Dloadtest=true -Dit.test=RelationsLoadIT
+ * -Dloadtest.relations=10000000}, adding {@code -Dspring.threads.virtual.enabled=true} for virtual threads. Volumes,
+ * concurrency and durations are set with the {@code loadtest.*} properties below.
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+@ActiveProfiles("it")
+@SpringBootTest(
+	webEnvironment = RANDOM_PORT,
+	classes = Application.class,
+	properties = {
+		"spring.main.banner-mode=off",
+		"logging.level.se.sundsvall.dept44.payload=OFF"
+	})
+@Sql("/db/scripts/truncate.sql")
+class RelationsLoadIT {
+
+	private static final Logger LOG = LoggerFactory.getLogger(RelationsLoadIT.class);
+
+	@Value("${loadtest.relations:100000}")
+	private long relations;
+
+	@Value("${loadtest.municipalities:290}")
+	private int municipalities;
+
+	@Value("${loadtest.sample-size:10000}")
+	private int sampleSize;
+
+	@Value("${loadtest.batch-size:1000}")
+	private int batchSize;
+
+	@Value("${loadtest.seed:2281}")
+	private long seed;
+
+	@Value("${loadtest.clients:16}")
+	private int clients;
+
+	@Value("${loadtest.warmup:PT15S}")
+	private Duration warmup;
+
+	@Value("${loadtest.duration:PT1M}")
+	private Duration duration;
+
+	@Value("${spring.threads.virtual.enabled:false}")
+	private boolean virtualThreads;
+
+	@Value("classpath:/RelationsLoadIT/municipality-ids.txt")
+	private Resource municipalityIdsResource;
+
+	@Value("${local.server.port}")
+	private int port;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private JsonMapper jsonMapper;
+
+	@Test
+	void mixedTraffic() throws IOException, SQLException {
+		final var municipalityIds = municipalityIdsResource.getContentAsString(UTF_8).lines()
+			.filter(line -> !line.isBlank())
+			.limit(municipalities)
+			.toList();
+
+		LOG.info("Seeding {} relations across {} municipalities", relations, municipalityIds.size());
+		final var seeded = new SyntheticDataGenerator(dataSource, municipalityIds, sampleSize, batchSize, seed).generate(relations);
+
+		final var mode = virtualThreads ? "virtual" : "platform";
+		final var driver = new LoadDriver("http://localhost:" + port, jsonMapper, seeded);
+		LOG.info("Warming up with {} clients for {}", clients, warmup);
+		driver.run(clients, warmup);
+
+		LOG.info("Running with {} clients for {}", clients, duration);
+		final var report = driver.run(clients, duration);
+
+		final var formatted = report.format();
+		LOG.info("Load test on {} threads finished in {}:{}", mode, report.elapsed(), formatted);
+		final var reportFile = Path.of("target", "loadtest-report-" + mode + ".txt");
+		Files.createDirectories(reportFile.getParent());
+		Files.writeString(reportFile, "Threads: " + mode + ", clients: " + clients + System.lineSeparator() + formatted, UTF_8);
+
+		assertThat(report.results()).hasSize(LoadDriver.Endpoint.values().length);
+		assertThat(report.errors()).isZero();
+	}
+}
@@ -0,0 +1,289 @@
+package se.sundsvall.relations.loadtest;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import se.sundsvall.relations.api.model.Relation;
+import se.sundsvall.relations.api.model.ResourceIdentifier;
+
+import static se.sundsvall.relations.integration.db.model.ResourceIdentifierEntity.resourceKey;
+
+/**
+ * Seeds the database with synthetic relations straight through JDBC, as creating millions of relations through the API
+ * would take longer than the load test itself. The rows are shaped like the ones the service writes: each resource has
+ * one identifier per municipality, shared by its relations, and a two-way relation gets an inverse row pointing at the
+ * same identifiers swapped.
+ * <p>
+ * Municipalities, resource services and relation types are drawn from skewed distributions so that a few large
+ * municipalities and services dominate, like in production. A sample of the seeded relations is kept for the traffic
+ * that reads and updates existing data.
+ */
+final class SyntheticDataGenerator {
+
+	private static final Logger LOG = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+	private static final Duration CREATED_SPAN = Duration.ofDays(3 * 365);
+	private static final double MODIFIED_SHARE = 0.3;
+
+	private static final List<ResourceProfile> RESOURCE_PROFILES = List.of(
+		new ResourceProfile("casedata", "case", "SBK_MEX", 30),
+		new ResourceProfile("supportmanagement", "errand", "CONTACTCENTER", 25),
+		new ResourceProfile("partyassets", "asset", "PARKINGPERMIT", 15),
+		new ResourceProfile("contract", "contract", "LAND_LEASE", 10),
+		new ResourceProfile("estateservice", "estate", "FASTIGHET", 10),
+		new ResourceProfile("document", "document", "DIARY", 10));
+
+	private static final List<TypeProfile> TYPE_PROFILES = List.of(
+		new TypeProfile("RELATES_TO", "Relates to", null, null, 30),
+		new TypeProfile("REFERENCES", "References", null, null, 15),
+		new TypeProfile("DUPLICATES", "Duplicates", null, null, 5),
+		new TypeProfile("PARENT", "Parent", "CHILD", "Child", 25),
+		new TypeProfile("PRECEDES", "Precedes", "FOLLOWS", "Follows", 15),
+		new TypeProfile("BLOCKS", "Blocks", "BLOCKED_BY", "Blocked by", 10));
+
+	private static final int[] RESOURCE_WEIGHTS = RESOURCE_PROFILES.stream().mapToInt(ResourceProfile::weight).toArray();
+	private static final int[] TYPE_WEIGHTS = TYPE_PROFILES.stream().mapToInt(TypeProfile::weight).toArray();
+
+	private static final String INSERT_RELATION_TYPE = "INSERT INTO relation_type(id, name, display_name, counter_type_id) VALUES (?, ?, ?, ?)";
+	private static final String INSERT_RESOURCE_IDENTIFIER = "INSERT IGNORE INTO resource_identifier(id, municipality_id, resource_key, resource_id, type, service, namespace) VALUES (?, ?, ?, ?, ?, ?, ?)";
+	private static final String INSERT_RELATION = """
+		INSERT INTO relation(id, municipality_id, type_id, created, modified, resource_source_identifier_id, resource_target_identifier_id, inverse_relation_id)
+		VALUES (?, ?, ?, ?, ?, ?, ?, ?)""";
+
+	private final DataSource dataSource;
+	private final List<String> municipalityIds;
+	private final int sampleSize;
+	private final int batchSize;
+	private final Random random;
+	private final LocalDateTime now = LocalDateTime.now();
+
+	SyntheticDataGenerator(final DataSource dataSource, final List<String> municipalityIds, final int sampleSize, final int batchSize, final long seed) {
+		this.dataSource = dataSource;
+		this.random = new Random(seed);
+		this.municipalityIds = new ArrayList<>(municipalityIds);
+		this.sampleSize = sampleSize;
+		this.batchSize = batchSize;
+		// Spread the large municipalities over the list instead of always favoring the first county
+		Collections.shuffle(this.municipalityIds, random);
+	}
+
+	/**
+	 * Writes the relation types and the given number of relations, not counting the inverse rows of two-way relations.
+	 *
+	 * @param  relations number of relations to create
+	 * @return           the seeded types and a sample of the seeded relations
+	 */
+	SeededData generate(final long relations) throws SQLException {
+		try (final var connection = dataSource.getConnection()) {
+			connection.setAutoCommit(false);
+			// Inverse relations and counter types reference rows written in the same batch
+			execute(connection, "SET FOREIGN_KEY_CHECKS = 0");
+			try {
+				final var typeIds = insertRelationTypes(connection);
+				final var sample = insertRelations(connection, relations, typeIds);
+				return new SeededData(typeNames(), sample);
+			} finally {
+				execute(connection, "SET FOREIGN_KEY_CHECKS = 1");
+				connection.setAutoCommit(true);
+			}
+		}
+	}
+
+	private List<TypeIds> insertRelationTypes(final Connection connection) throws SQLException {
+		final var typeIds = new ArrayList<TypeIds>();
+		try (final var statement = connection.prepareStatement(INSERT_RELATION_TYPE)) {
+			for (final var profile : TYPE_PROFILES) {
+				final var id = timeOrderedId();
+				final var counterId = profile.isTwoWay() ? timeOrderedId() : null;
+				addRelationType(statement, id, profile.name(), profile.displayName(), counterId);
+				if (counterId != null) {
+					addRelationType(statement, counterId, profile.counterName(), profile.counterDisplayName(), id);
+				}
+				typeIds.add(new TypeIds(id, counterId));
+			}
+			statement.executeBatch();
+		}
+		connection.commit();
+		return typeIds;
+	}
+
+	private List<SeededRelation> insertRelations(final Connection connection, final long relations, final List<TypeIds> typeIds) throws SQLException {
+		final var sample = new ArrayList<SeededRelation>(sampleSize);
+		final var resourcesPerService = Math.max(1, relations / 3);
+		final var progressStep = Math.max(1, relations / 10);
+
+		try (final var identifiers = connection.prepareStatement(INSERT_RESOURCE_IDENTIFIER);
+			final var rows = connection.prepareStatement(INSERT_RELATION)) {
+
+			for (long index = 0; index < relations; index++) {
+				final var typeIndex = pickWeighted(TYPE_WEIGHTS);
+				final var type = TYPE_PROFILES.get(typeIndex);
+				final var ids = typeIds.get(typeIndex);
+				final var municipalityId = municipalityIds.get((int) pickSkewed(municipalityIds.size()));
+				final var source = resourceIdentifier(resourcesPerService);
+				final var target = resourceIdentifier(resourcesPerService);
+				final var created = now.minusSeconds((long) (random.nextDouble() * CREATED_SPAN.toSeconds()));
+				final var modified = random.nextDouble() < MODIFIED_SHARE ? created.plusMinutes(random.nextInt(60 * 24 * 30)) : null;
+
+				final var sourceId = addResourceIdentifier(identifiers, municipalityId, source);
+				final var targetId = addResourceIdentifier(identifiers, municipalityId, target);
+				final var id = timeOrderedId();
+				final var inverseId = type.isTwoWay() ? timeOrderedId() : null;
+				addRelation(rows, id, municipalityId, ids.id(), created, modified, sourceId, targetId, inverseId);
+				if (inverseId != null) {
+					addRelation(rows, inverseId, municipalityId, ids.counterId(), created, modified, targetId, sourceId, id);
+				}
+
+				sample(sample, index, new SeededRelation(municipalityId, id, Relation.builder()
+					.withType(type.name())
+					.withSource(source)
+					.withTarget(target)
+					.build()));
+
+				if ((index + 1) % batchSize == 0) {
+					flush(connection, identifiers, rows);
+				}
+				if ((index + 1) % progressStep == 0) {
+					LOG.info("Seeded {} of {} relations", index + 1, relations);
+				}
+			}
+			flush(connection, identifiers, rows);
+		}
+		return sample;
+	}
+
+	/**
+	 * Reservoir sampling, so that the sample is spread evenly over all seeded relations without knowing them up front.
+	 */
+	private void sample(final List<SeededRelation> sample, final long index, final SeededRelation relation) {
+		if (sample.size() < sampleSize) {
+			sample.add(relation);
+			return;
+		}
+		final var slot = (long) (random.nextDouble() * (index + 1));
+		if (slot < sampleSize) {
+			sample.set((int) slot, relation);
+		}
+	}
+
+	private ResourceIdentifier resourceIdentifier(final long resourcesPerService) {
+		final var profile = RESOURCE_PROFILES.get(pickWeighted(RESOURCE_WEIGHTS));
+		return ResourceIdentifier.builder()
+			// Skewed so that some resources have many relations and most have few
+			.withResourceId(profile.type() + "-" + pickSkewed(resourcesPerService))
+			.withType(profile.type())
+			.withService(profile.service())
+			.withNamespace(profile.namespace())
+			.build();
+	}
+
+	private List<String> typeNames() {
+		return TYPE_PROFILES.stream().map(TypeProfile::name).toList();
+	}
+
+	private int pickWeighted(final int[] weights) {
+		var remaining = random.nextInt(Arrays.stream(weights).sum());
+		for (var index = 0; index < weights.length; index++) {
+			remaining -= weights[index];
+			if (remaining < 0) {
+				return index;
+			}
+		}
+		return weights.length - 1;
+	}
+
+	private long pickSkewed(final long size) {
+		final var uniform = random.nextDouble();
+		return (long) (size * uniform * uniform);
+	}
+
+	/**
+	 * Version 7 UUID, matching the ids Hibernate generates for the entities so that the primary key indexes grow the same
+	 * way as in production.
+	 */
+	private String timeOrderedId() {
+		final var mostSignificant = (System.currentTimeMillis() << 16) | 0x7000L | (random.nextInt() & 0x0FFFL);
+		final var leastSignificant = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+		return new UUID(mostSignificant, leastSignificant).toString();
+	}
+
+	private static void addRelationType(final PreparedStatement statement, final String id, final String name, final String displayName, final String counterId) throws SQLException {
+		statement.setString(1, id);
+		statement.setString(2, name);
+		statement.setString(3, displayName);
+		statement.setString(4, counterId);
+		statement.addBatch();
+	}
+
+	/**
+	 * The id is derived from the resource instead of time-ordered, so that a resource drawn again maps to the identifier
+	 * already inserted, which the insert then ignores, without keeping every seeded resource in memory.
+	 */
+	private static String addResourceIdentifier(final PreparedStatement statement, final String municipalityId, final ResourceIdentifier identifier) throws SQLException {
+		final var id = UUID.nameUUIDFromBytes(String.join("|", municipalityId, identifier.getService(), identifier.getType(), identifier.getNamespace(), identifier.getResourceId())
+			.getBytes(StandardCharsets.UTF_8)).toString();
+		statement.setString(1, id);
+		statement.setString(2, municipalityId);
+		statement.setString(3, resourceKey(municipalityId, identifier.getService(), identifier.getType(), identifier.getNamespace(), identifier.getResourceId()));
+		statement.setString(4, identifier.getResourceId());
+		statement.setString(5, identifier.getType());
+		statement.setString(6, identifier.getService());
+		statement.setString(7, identifier.getNamespace());
+		statement.addBatch();
+		return id;
+	}
+
+	private static void addRelation(final PreparedStatement statement, final String id, final String municipalityId, final String typeId, final LocalDateTime created,
+		final LocalDateTime modified, final String sourceId, final String targetId, final String inverseId) throws SQLException {
+
+		statement.setString(1, id);
+		statement.setString(2, municipalityId);
+		statement.setString(3, typeId);
+		statement.setTimestamp(4, Timestamp.valueOf(created));
+		statement.setTimestamp(5, modified != null ? Timestamp.valueOf(modified) : null);
+		statement.setString(6, sourceId);
+		statement.setString(7, targetId);
+		statement.setString(8, inverseId);
+		statement.addBatch();
+	}
+
+	private static void flush(final Connection connection, final PreparedStatement identifiers, final PreparedStatement rows) throws SQLException {
+		identifiers.executeBatch();
+		rows.executeBatch();
+		connection.commit();
+	}
+
+	private static void execute(final Connection connection, final String sql) throws SQLException {
+		try (final var statement = connection.createStatement()) {
+			statement.execute(sql);
+		}
+	}
+
+	record SeededData(List<String> types, List<SeededRelation> sample) {}
+
+	record SeededRelation(String municipalityId, String id, Relation relation) {}
+
+	private record ResourceProfile(String service, String type, String namespace, int weight) {}
+
+	private record TypeProfile(String name, String displayName, String counterName, String counterDisplayName, int weight) {
+
+		boolean isTwoWay() {
+			return counterName != null;
+		}
+	}
+
+	private record TypeIds(String id, String counterId) {}
+}
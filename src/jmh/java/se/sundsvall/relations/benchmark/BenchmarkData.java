@@ -0,0 +1,87 @@
+package se.sundsvall.relations.benchmark;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import se.sundsvall.relations.api.model.Relation;
+import se.sundsvall.relations.api.model.RelationType;
+import se.sundsvall.relations.api.model.ResourceIdentifier;
+import se.sundsvall.relations.integration.db.model.RelationEntity;
+import se.sundsvall.relations.integration.db.model.RelationTypeEntity;
+import se.sundsvall.relations.integration.db.model.ResourceIdentifierEntity;
+
+/**
+ * Fixtures shared by the benchmarks, shaped like the data the service stores for a two-way relation.
+ */
+final class BenchmarkData {
+
+	static final String MUNICIPALITY_ID = "2281";
+
+	private static final OffsetDateTime CREATED = OffsetDateTime.parse("2025-01-01T12:00:00+01:00");
+
+	private BenchmarkData() {}
+
+	static RelationType relationType() {
+		return RelationType.builder()
+			.withName("PARENT")
+			.withDisplayName("Parent")
+			.withCounterName("CHILD")
+			.withCounterDisplayName("Child")
+			.build();
+	}
+
+	static RelationTypeEntity relationTypeEntity() {
+		final var type = RelationTypeEntity.builder()
+			.withId(UUID.randomUUID().toString())
+			.withName("PARENT")
+			.withDisplayName("Parent")
+			.build();
+		type.setCounterType(RelationTypeEntity.builder()
+			.withId(UUID.randomUUID().toString())
+			.withName("CHILD")
+			.withDisplayName("Child")
+			.withCounterType(type)
+			.build());
+		return type;
+	}
+
+	static Relation relation(final int index) {
+		return Relation.builder()
+			.withType("PARENT")
+			.withSource(resourceIdentifier("case-" + index))
+			.withTarget(resourceIdentifier("errand-" + index))
+			.build();
+	}
+
+	static RelationEntity relationEntity(final RelationTypeEntity type, final int index) {
+		return RelationEntity.builder()
+			.withId(UUID.randomUUID().toString())
+			.withMunicipalityId(MUNICIPALITY_ID)
+			.withType(type)
+			.withSource(resourceIdentifierEntity("case-" + index))
+			.withTarget(resourceIdentifierEntity("errand-" + index))
+			.withCreated(CREATED)
+			.withModified(CREATED.plusMinutes(index))
+			.build();
+	}
+
+	private static ResourceIdentifier resourceIdentifier(final String resourceId) {
+		return ResourceIdentifier.builder()
+			.withResourceId(resourceId)
+			.withType("case")
+			.withService("casedata")
+			.withNamespace("MY_NAMESPACE")
+			.build();
+	}
+
+	private static ResourceIdentifierEntity resourceIdentifierEntity(final String resourceId) {
+		return ResourceIdentifierEntity.builder()
+			.withId(UUID.randomUUID().toString())
+			.withMunicipalityId(MUNICIPALITY_ID)
+			.withResourceId(resourceId)
+			.withType("case")
+			.withService("casedata")
+			.withNamespace("MY_NAMESPACE")
+			.withModified(CREATED)
+			.build();
+	}
+}
@@ -0,0 +1,74 @@
+package se.sundsvall.relations.benchmark;
+
+import com.turkraft.springfilter.converter.FilterStringConverterImpl;
+import com.turkraft.springfilter.parser.FilterParser;
+import com.turkraft.springfilter.parser.node.FilterNode;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.convert.support.DefaultConversionService;
+import se.sundsvall.relations.service.CachingFilterStringConverter;
+
+import static se.sundsvall.relations.service.CachingFilterStringConverter.FILTER_TEMPLATES_CACHE;
+
+/**
+ * Parsing of filter strings like the ones clients send to the find relations endpoint, straight through the parser and
+ * through the filter template cache once warm. Only the spring-filter parser, operator and function beans are started,
+ * which is all the parser depends on.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterParsingBenchmark {
+
+	@Param({
+		"source.resourceId:'case-1'",
+		"type.name:'PARENT' and source.service:'casedata'",
+		"(source.resourceId:'case-1' or target.resourceId:'case-1') and type.name in ['PARENT', 'CHILD'] and created > '2025-01-01T00:00:00+01:00'"
+	})
+	private String filter;
+
+	private AnnotationConfigApplicationContext context;
+	private FilterParser filterParser;
+	private CachingFilterStringConverter cachingConverter;
+
+	@Setup
+	public void setup() {
+		context = new AnnotationConfigApplicationContext(
+			"com.turkraft.springfilter.parser",
+			"com.turkraft.springfilter.definition",
+			"com.turkraft.springfilter.language");
+		filterParser = context.getBean(FilterParser.class);
+		cachingConverter = new CachingFilterStringConverter(new FilterStringConverterImpl(filterParser, new DefaultConversionService()), new ConcurrentMapCacheManager(FILTER_TEMPLATES_CACHE));
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public FilterNode parse() {
+		return filterParser.parse(filter);
+	}
+
+	@Benchmark
+	public FilterNode parseWithTemplateCache() {
+		return cachingConverter.convert(filter);
+	}
+}
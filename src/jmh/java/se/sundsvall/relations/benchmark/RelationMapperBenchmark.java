@@ -0,0 +1,56 @@
+package se.sundsvall.relations.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import se.sundsvall.relations.api.model.Relation;
+import se.sundsvall.relations.integration.db.model.RelationEntity;
+import se.sundsvall.relations.integration.db.model.RelationTypeEntity;
+import se.sundsvall.relations.service.mapper.RelationMapper;
+
+import static se.sundsvall.relations.benchmark.BenchmarkData.MUNICIPALITY_ID;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RelationMapperBenchmark {
+
+	private final RelationMapper relationMapper = new RelationMapper();
+
+	private RelationTypeEntity type;
+	private Relation relation;
+	private RelationEntity entity;
+
+	@Setup
+	public void setup() {
+		type = BenchmarkData.relationTypeEntity();
+		relation = BenchmarkData.relation(1);
+		entity = BenchmarkData.relationEntity(type, 1);
+	}
+
+	@Benchmark
+	public Relation toRelation() {
+		return relationMapper.toRelation(entity);
+	}
+
+	@Benchmark
+	public RelationEntity toRelationEntity() {
+		return relationMapper.toRelationEntity(MUNICIPALITY_ID, relation, type);
+	}
+
+	@Benchmark
+	public RelationEntity toInverseRelationEntity() {
+		return relationMapper.toInverseRelationEntity(entity);
+	}
+}
@@ -0,0 +1,64 @@
+package se.sundsvall.relations.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import se.sundsvall.relations.api.model.RelationPagedResponse;
+import se.sundsvall.relations.api.model.RelationPagingMetaData;
+import se.sundsvall.relations.service.mapper.RelationMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Serialization of a relation page as written by the find relations endpoint. The relations are mapped up front so only
+ * the Jackson part is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RelationPagedResponseSerializationBenchmark {
+
+	@Param({
+		"10", "100", "1000"
+	})
+	private int relations;
+
+	private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+	private RelationPagedResponse response;
+
+	@Setup
+	public void setup() {
+		final var relationMapper = new RelationMapper();
+		final var type = BenchmarkData.relationTypeEntity();
+		final var content = IntStream.range(0, relations)
+			.mapToObj(index -> relationMapper.toRelation(BenchmarkData.relationEntity(type, index)))
+			.toList();
+		final var page = new PageImpl<>(content, PageRequest.of(0, relations, Sort.by("created")), relations * 10L);
+
+		response = RelationPagedResponse.builder()
+			.withRelations(content)
+			.withMetaData(RelationPagingMetaData.fromPage(page))
+			.build();
+	}
+
+	@Benchmark
+	public byte[] serialize() {
+		return jsonMapper.writeValueAsBytes(response);
+	}
+}
@@ -0,0 +1,46 @@
+package se.sundsvall.relations.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import se.sundsvall.relations.api.model.RelationType;
+import se.sundsvall.relations.integration.db.model.RelationTypeEntity;
+import se.sundsvall.relations.service.mapper.RelationTypeMapper;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RelationTypeMapperBenchmark {
+
+	private final RelationTypeMapper relationTypeMapper = new RelationTypeMapper();
+
+	private RelationType relationType;
+	private RelationTypeEntity relationTypeEntity;
+
+	@Setup
+	public void setup() {
+		relationType = BenchmarkData.relationType();
+		relationTypeEntity = BenchmarkData.relationTypeEntity();
+	}
+
+	@Benchmark
+	public RelationType toRelationType() {
+		return relationTypeMapper.toRelationType(relationTypeEntity);
+	}
+
+	@Benchmark
+	public RelationTypeEntity toRelationTypeEntity() {
+		return relationTypeMapper.toRelationTypeEntity(relationType);
+	}
+}
@@ -1,10 +1,14 @@
 package se.sundsvall.relations;
 
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import se.sundsvall.dept44.ServiceApplication;
 
 import static org.springframework.boot.SpringApplication.run;
 
 @ServiceApplication
+@EnableCaching
+@EnableScheduling
 public class Application {
 	public static void main(final String... args) {
 		run(Application.class, args);
@@ -0,0 +1,31 @@
+package se.sundsvall.relations.api;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import se.sundsvall.relations.integration.db.ReadYourWrites;
+
+/**
+ * Lets a client that has just written ask for its reads to be served by the primary database, by sending
+ * {@value #READ_YOUR_WRITES_HEADER}: true. Without the header, reads may be served by the read replica and lag behind.
+ */
+@Component
+class ReadYourWritesFilter extends OncePerRequestFilter {
+
+	static final String READ_YOUR_WRITES_HEADER = "X-Read-Your-Writes";
+
+	@Override
+	protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response, final FilterChain filterChain) throws ServletException, IOException {
+		if (!Boolean.parseBoolean(request.getHeader(READ_YOUR_WRITES_HEADER))) {
+			filterChain.doFilter(request, response);
+			return;
+		}
+		try (final var scope = ReadYourWrites.request()) {
+			filterChain.doFilter(request, response);
+		}
+	}
+}
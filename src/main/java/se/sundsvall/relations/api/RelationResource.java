@@ -10,8 +10,18 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.annotation.Nullable;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
 import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -21,27 +31,48 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import se.sundsvall.dept44.common.validators.annotation.ValidMunicipalityId;
 import se.sundsvall.dept44.common.validators.annotation.ValidUuid;
 import se.sundsvall.dept44.problem.Problem;
 import se.sundsvall.dept44.problem.violations.ConstraintViolationProblem;
 import se.sundsvall.relations.api.model.Relation;
+import se.sundsvall.relations.api.model.RelationBatchResult;
+import se.sundsvall.relations.api.model.RelationChange;
+import se.sundsvall.relations.api.model.RelationDeleteResponse;
+import se.sundsvall.relations.api.model.RelationGraph;
+import se.sundsvall.relations.api.model.RelationLookupResponse;
+import se.sundsvall.relations.api.model.RelationNeighbor;
 import se.sundsvall.relations.api.model.RelationPageParameters;
 import se.sundsvall.relations.api.model.RelationPagedResponse;
 import se.sundsvall.relations.integration.db.model.RelationEntity;
+import se.sundsvall.relations.service.ETags;
+import se.sundsvall.relations.service.FilterGuard;
+import se.sundsvall.relations.service.RelationChangeTopic;
 import se.sundsvall.relations.service.RelationService;
+import tools.jackson.databind.json.JsonMapper;
 
 import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.HttpHeaders.ETAG;
+import static org.springframework.http.HttpHeaders.IF_MATCH;
 import static org.springframework.http.HttpHeaders.LOCATION;
 import static org.springframework.http.MediaType.ALL_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
 import static org.springframework.http.MediaType.APPLICATION_PROBLEM_JSON_VALUE;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM_VALUE;
 import static org.springframework.http.ResponseEntity.created;
 import static org.springframework.http.ResponseEntity.noContent;
 import static org.springframework.http.ResponseEntity.ok;
 import static org.springframework.web.util.UriComponentsBuilder.fromPath;
+import static tools.jackson.core.StreamWriteFeature.AUTO_CLOSE_TARGET;
 
 @RestController
 @Validated
@@ -53,10 +84,24 @@ import static org.springframework.web.util.UriComponentsBuilder.fromPath;
 @ApiResponse(responseCode = "500", description = "Internal Server Error", content = @Content(mediaType = APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = Problem.class)))
 class RelationResource {
 
+	private static final int MAX_BATCH_SIZE = 1000;
+	private static final int MAX_GRAPH_DEPTH = 10;
+	private static final int MAX_LOOKUP_SIZE = 100;
+	private static final int MAX_CHANGES_LIMIT = 10000;
+
 	private final RelationService service;
+	private final FilterGuard filterGuard;
+	private final RelationChangeTopic changeTopic;
+	private final JsonMapper jsonMapper;
+	private final Duration subscriptionTimeout;
 
-	RelationResource(RelationService service) {
+	RelationResource(RelationService service, FilterGuard filterGuard, RelationChangeTopic changeTopic, JsonMapper jsonMapper,
+		@Value("${relations.subscription.timeout:PT30M}") Duration subscriptionTimeout) {
 		this.service = service;
+		this.filterGuard = filterGuard;
+		this.changeTopic = changeTopic;
+		this.jsonMapper = jsonMapper;
+		this.subscriptionTimeout = subscriptionTimeout;
 	}
 
 	@PostMapping(consumes = APPLICATION_JSON_VALUE, produces = ALL_VALUE)
@@ -72,43 +117,145 @@ class RelationResource {
 			.build();
 	}
 
+	@PostMapping(path = "/batch", consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
+	@Operation(summary = "Create relations in batch", description = "Creates up to 1000 relations in one transaction. The result for each relation is reported with the index it had in the request.", responses = {
+		@ApiResponse(responseCode = "200", description = "Successful operation", useReturnTypeSchema = true)
+	})
+	ResponseEntity<List<RelationBatchResult>> createRelations(
+		@Parameter(name = "municipalityId", description = "Municipality id", example = "2281") @ValidMunicipalityId @PathVariable final String municipalityId,
+		@Valid @NotEmpty @Size(max = MAX_BATCH_SIZE) @RequestBody final List<@Valid @NotNull Relation> relations) {
+
+		return ok(service.createRelations(municipalityId, relations));
+	}
+
 	@GetMapping(path = "/{id}", produces = APPLICATION_JSON_VALUE)
-	@Operation(summary = "Get relation", description = "Get relation with matching id.", responses = {
-		@ApiResponse(responseCode = "200", description = "Successful Operation", useReturnTypeSchema = true)
+	@Operation(summary = "Get relation", description = "Get relation with matching id. Answers 304 when If-None-Match holds the current ETag.", responses = {
+		@ApiResponse(responseCode = "200", headers = @Header(name = ETAG, schema = @Schema(type = "string")), description = "Successful Operation", useReturnTypeSchema = true),
+		@ApiResponse(responseCode = "304", description = "Not Modified")
 	})
 	ResponseEntity<Relation> getRelation(
 		@Parameter(name = "municipalityId", description = "Municipality id", example = "2281") @ValidMunicipalityId @PathVariable final String municipalityId,
 		@Parameter(name = "id", description = "id of relation", example = "b9702590-1a65-4b78-9de5-44e46e25b62c") @ValidUuid @PathVariable final String id) {
 
-		return ok(service.getRelation(municipalityId, id));
+		final var relation = service.getRelation(municipalityId, id);
+		return ok()
+			.eTag(ETags.of(relation))
+			.body(relation);
+	}
+
+	@PostMapping(path = "/lookup", consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
+	@Operation(summary = "Get relations", description = "Get up to 100 relations by id in one request. Ids that do not match any relation are reported as missing.", responses = {
+		@ApiResponse(responseCode = "200", description = "Successful Operation", useReturnTypeSchema = true)
+	})
+	ResponseEntity<RelationLookupResponse> getRelations(
+		@Parameter(name = "municipalityId", description = "Municipality id", example = "2281") @ValidMunicipalityId @PathVariable final String municipalityId,
+		@NotEmpty @Size(max = MAX_LOOKUP_SIZE) @RequestBody final List<@ValidUuid String> ids) {
+
+		return ok(service.getRelations(municipalityId, ids));
 	}
 
 	@GetMapping(produces = APPLICATION_JSON_VALUE)
-	@Operation(summary = "Find matching relations", description = "Query for relations with or without filters.", responses = {
+	@Operation(summary = "Find matching relations", description = "Query for relations with or without filters. Filters that are too large or use fields and operators that are not allowed are rejected.", responses = {
 		@ApiResponse(responseCode = "200", description = "Successful Operation", useReturnTypeSchema = true)
 	})
 	ResponseEntity<RelationPagedResponse> findRelations(
 		@Parameter(name = "municipalityId", description = "Municipality id", example = "2281") @ValidMunicipalityId @PathVariable final String municipalityId,
 		@Parameter(description = "Syntax description: [spring-filter](https://github.com/turkraft/spring-filter/blob/85730f950a5f8623159cc0eb4d737555f9382bb7/README.md#syntax)",
-			example = "sourceId:'SUPPORT-CASE-ID' or targetId:'SUPPORT-CASE-ID'",
+			example = "source.resourceId:'SUPPORT-CASE-ID' or target.resourceId:'SUPPORT-CASE-ID'",
 			schema = @Schema(implementation = String.class)) @Nullable @Filter final Specification<RelationEntity> filter,
 		@ParameterObject final RelationPageParameters pageParameters) {
 
+		filterGuard.check(filter);
 		return ok(service.findRelations(municipalityId, filter, pageParameters));
 	}
 
+	@GetMapping(path = "/export", produces = APPLICATION_NDJSON_VALUE)
+	@Operation(summary = "Export matching relations", description = "Streams all relations matching the filter as newline delimited JSON, one relation per line.", responses = {
+		@ApiResponse(responseCode = "200", description = "Successful Operation", content = @Content(mediaType = APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = Relation.class)))
+	})
+	ResponseEntity<StreamingResponseBody> exportRelations(
+		@Parameter(name = "municipalityId", description = "Municipality id", example = "2281") @ValidMunicipalityId @PathVariable final String municipalityId,
+		@Parameter(description = "Syntax description: [spring-filter](https://github.com/turkraft/spring-filter/blob/85730f950a5f8623159cc0eb4d737555f9382bb7/README.md#syntax)",
+			example = "source.resourceId:'SUPPORT-CASE-ID' or target.resourceId:'SUPPORT-CASE-ID'",
+			schema = @Schema(implementation = String.class)) @Nullable @Filter final Specification<RelationEntity> filter) {
+
+		// Checked up front, as the response is committed once streaming starts
+		filterGuard.check(filter);
+		return ndjson(consumer -> service.exportRelations(municipalityId, filter, consumer::accept));
+	}
+
+	@GetMapping(path = "/changes", produces = APPLICATION_NDJSON_VALUE)
+	@Operation(summary = "Get relation changes", description = "Streams the changes made to relations after the given sequence, in order, as newline delimited JSON, one change per line. Continue from the sequence of the last change read. A change appears once its transaction has committed and the change has been given its sequence, shortly after the commit.", responses = {
+		@ApiResponse(responseCode = "200", description = "Successful Operation", content = @Content(mediaType = APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = RelationChange.class)))
+	})
+	ResponseEntity<StreamingResponseBody> getRelationChanges(
+		@Parameter(name = "municipalityId", description = "Municipality id", example = "2281") @ValidMunicipalityId @PathVariable final String municipalityId,
+		@Parameter(name = "after", description = "Sequence of the last change read. All changes are returned when omitted", example = "42") @Min(0) @RequestParam(defaultValue = "0") final long after,
+		@Parameter(name = "limit", description = "Maximum number of changes to return", example = "1000") @Min(1) @Max(MAX_CHANGES_LIMIT) @RequestParam(defaultValue = "1000") final int limit) {
+
+		return ndjson(consumer -> service.exportChanges(municipalityId, after, limit, consumer::accept));
+	}
+
+	@GetMapping(path = "/subscribe", produces = TEXT_EVENT_STREAM_VALUE)
+	@Operation(summary = "Subscribe to relation changes", description = "Pushes the changes made to relations with the resource as source or target as server-sent events, one change per event with its sequence as event id. The stream is closed after a while without holding a thread, and clients reconnect to continue. Changes made while disconnected can be read from the change feed.", responses = {
+		@ApiResponse(responseCode = "200", description = "Successful Operation", content = @Content(mediaType = TEXT_EVENT_STREAM_VALUE, schema = @Schema(implementation = RelationChange.class)))
+	})
+	SseEmitter subscribe(
+		@Parameter(name = "municipalityId", description = "Municipality id", example = "2281") @ValidMunicipalityId @PathVariable final String municipalityId,
+		@Parameter(name = "resourceId", description = "Unique id for the resource", example = "some-id") @NotBlank @RequestParam final String resourceId) {
+
+		final var emitter = new SseEmitter(subscriptionTimeout.toMillis());
+		// A subscriber falling too far behind is completed, and reconnects to continue from the change feed
+		final var subscription = changeTopic.subscribe(municipalityId, resourceId, change -> send(emitter, change), emitter::complete);
+		emitter.onCompletion(subscription::close);
+		emitter.onError(error -> subscription.close());
+		emitter.onTimeout(emitter::complete);
+		return emitter;
+	}
+
+	@GetMapping(path = "/graph", produces = APPLICATION_JSON_VALUE)
+	@Operation(summary = "Get relation graph", description = "Follows relations from source to target, starting at the resource, and returns all resources reached within the given depth together with the relations between them.", responses = {
+		@ApiResponse(responseCode = "200", description = "Successful Operation", useReturnTypeSchema = true)
+	})
+	ResponseEntity<RelationGraph> getRelationGraph(
+		@Parameter(name = "municipalityId", description = "Municipality id", example = "2281") @ValidMunicipalityId @PathVariable final String municipalityId,
+		@Parameter(name = "resourceId", description = "Resource id to start from", example = "some-id") @NotBlank @RequestParam final String resourceId,
+		@Parameter(name = "depth", description = "Maximum number of relations to follow from the resource", example = "3") @Min(1) @Max(MAX_GRAPH_DEPTH) @RequestParam(defaultValue = "3") final int depth,
+		@Parameter(name = "types", description = "Only follow relations of these types. All types are followed when omitted", example = "LINK") @RequestParam(required = false) final List<String> types) {
+
+		return ok(service.getRelationGraph(municipalityId, resourceId, depth, types));
+	}
+
+	@GetMapping(path = "/neighbors", produces = APPLICATION_JSON_VALUE)
+	@Operation(summary = "Get neighbors", description = "Get the relations going out from the resource, answered from memory when the adjacency index is enabled.", responses = {
+		@ApiResponse(responseCode = "200", description = "Successful Operation", useReturnTypeSchema = true)
+	})
+	ResponseEntity<List<RelationNeighbor>> getNeighbors(
+		@Parameter(name = "municipalityId", description = "Municipality id", example = "2281") @ValidMunicipalityId @PathVariable final String municipalityId,
+		@Parameter(name = "service", description = "Name of service where the resource exists", example = "case-data") @NotBlank @RequestParam("service") final String resourceService,
+		@Parameter(name = "type", description = "Type of the resource", example = "case") @NotBlank @RequestParam("type") final String resourceType,
+		@Parameter(name = "resourceId", description = "Unique id for the resource", example = "some-id") @NotBlank @RequestParam final String resourceId) {
+
+		return ok(service.getNeighbors(municipalityId, resourceService, resourceType, resourceId));
+	}
+
 	@PutMapping(path = "/{id}", consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
-	@Operation(summary = "Save relation", description = "Replace relation by saving new values", responses = {
-		@ApiResponse(responseCode = "200", description = "Successful operation", useReturnTypeSchema = true),
-		@ApiResponse(responseCode = "404", description = "Not found", content = @Content(mediaType = APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = Problem.class)))
+	@Operation(summary = "Save relation", description = "Replace relation by saving new values. When If-Match is given, the relation is only replaced if its current ETag matches.", responses = {
+		@ApiResponse(responseCode = "200", headers = @Header(name = ETAG, schema = @Schema(type = "string")), description = "Successful operation", useReturnTypeSchema = true),
+		@ApiResponse(responseCode = "404", description = "Not found", content = @Content(mediaType = APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = Problem.class))),
+		@ApiResponse(responseCode = "412", description = "Precondition Failed", content = @Content(mediaType = APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = Problem.class)))
 	})
 	ResponseEntity<Relation> saveRelation(
 		@Parameter(name = "municipalityId", description = "Municipality id", example = "2281") @ValidMunicipalityId @PathVariable final String municipalityId,
 		@Parameter(name = "id", description = "id of relation", example = "b9702590-1a65-4b78-9de5-44e46e25b62c") @ValidUuid @PathVariable final String id,
+		@Parameter(name = IF_MATCH, description = "ETag the relation must have to be replaced") @RequestHeader(name = IF_MATCH, required = false) final String ifMatch,
 		@Valid @NotNull @RequestBody final Relation relation) {
 
 		relation.setId(id);
-		return ok(service.saveRelation(municipalityId, relation));
+		final var saved = service.saveRelation(municipalityId, relation, ifMatch);
+		return ok()
+			.eTag(ETags.of(saved))
+			.body(saved);
 	}
 
 	@DeleteMapping(path = "/{id}", produces = ALL_VALUE)
@@ -125,4 +272,45 @@ class RelationResource {
 			.header(CONTENT_TYPE, ALL_VALUE)
 			.build();
 	}
+
+	@DeleteMapping(produces = APPLICATION_JSON_VALUE)
+	@Operation(summary = "Delete relations of resource", description = "Deletes every relation with the resource as source or target, in any namespace, together with their inverse relations, in one transaction. The number of deleted relations is returned.", responses = {
+		@ApiResponse(responseCode = "200", description = "Successful operation", useReturnTypeSchema = true)
+	})
+	ResponseEntity<RelationDeleteResponse> deleteRelations(
+		@Parameter(name = "municipalityId", description = "Municipality id", example = "2281") @ValidMunicipalityId @PathVariable final String municipalityId,
+		@Parameter(name = "service", description = "Name of service where the resource exists", example = "case-data") @NotBlank @RequestParam("service") final String resourceService,
+		@Parameter(name = "type", description = "Type of the resource", example = "case") @NotBlank @RequestParam("type") final String resourceType,
+		@Parameter(name = "resourceId", description = "Unique id for the resource", example = "some-id") @NotBlank @RequestParam final String resourceId) {
+
+		return ok(service.deleteRelations(municipalityId, resourceService, resourceType, resourceId));
+	}
+
+	private static void send(final SseEmitter emitter, final RelationChange change) {
+		try {
+			emitter.send(SseEmitter.event()
+				.id(String.valueOf(change.getSequence()))
+				.data(change, APPLICATION_JSON));
+		} catch (final IOException | IllegalStateException e) {
+			// The client is gone or the emitter has completed, which ends the subscription
+			emitter.completeWithError(e);
+		}
+	}
+
+	/**
+	 * Streams the values passed to the consumer as newline delimited JSON.
+	 */
+	private ResponseEntity<StreamingResponseBody> ndjson(final Consumer<Consumer<Object>> producer) {
+		final var writer = jsonMapper.writer()
+			.without(AUTO_CLOSE_TARGET)
+			.withRootValueSeparator("\n");
+
+		return ok()
+			.contentType(APPLICATION_NDJSON)
+			.body(outputStream -> {
+				try (final var sequenceWriter = writer.writeValues(outputStream)) {
+					producer.accept(sequenceWriter::write);
+				}
+			});
+	}
 }
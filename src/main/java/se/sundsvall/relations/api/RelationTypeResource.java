@@ -18,14 +18,18 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import se.sundsvall.dept44.problem.Problem;
 import se.sundsvall.dept44.problem.violations.ConstraintViolationProblem;
 import se.sundsvall.relations.api.model.RelationType;
+import se.sundsvall.relations.service.ETags;
 import se.sundsvall.relations.service.RelationTypeService;
 
 import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.HttpHeaders.ETAG;
+import static org.springframework.http.HttpHeaders.IF_MATCH;
 import static org.springframework.http.HttpHeaders.LOCATION;
 import static org.springframework.http.MediaType.ALL_VALUE;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
@@ -66,36 +70,49 @@ class RelationTypeResource {
 	}
 
 	@GetMapping(path = "/{type}", produces = APPLICATION_JSON_VALUE)
-	@Operation(summary = "Get relation type", description = "Get relation type with RelationType.type as key.", responses = {
-		@ApiResponse(responseCode = "200", description = "Successful Operation", useReturnTypeSchema = true),
+	@Operation(summary = "Get relation type", description = "Get relation type with RelationType.type as key. Answers 304 when If-None-Match holds the current ETag.", responses = {
+		@ApiResponse(responseCode = "200", headers = @Header(name = ETAG, schema = @Schema(type = "string")), description = "Successful Operation", useReturnTypeSchema = true),
+		@ApiResponse(responseCode = "304", description = "Not Modified"),
 		@ApiResponse(responseCode = "404", description = "Not found", content = @Content(mediaType = APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = Problem.class)))
 	})
 	ResponseEntity<RelationType> getType(
 		@Parameter(name = "type", description = "relation type name", example = "BLOCKS") @PathVariable final String type) {
 
-		return ok(service.getType(type));
+		final var relationType = service.getType(type);
+		return ok()
+			.eTag(ETags.of(relationType))
+			.body(relationType);
 	}
 
 	@GetMapping(produces = APPLICATION_JSON_VALUE)
-	@Operation(summary = "Get relation types", description = "Get all relation types.", responses = {
-		@ApiResponse(responseCode = "200", description = "Successful Operation", useReturnTypeSchema = true)
+	@Operation(summary = "Get relation types", description = "Get all relation types. Answers 304 when If-None-Match holds the current ETag.", responses = {
+		@ApiResponse(responseCode = "200", headers = @Header(name = ETAG, schema = @Schema(type = "string")), description = "Successful Operation", useReturnTypeSchema = true),
+		@ApiResponse(responseCode = "304", description = "Not Modified")
 	})
 	ResponseEntity<List<RelationType>> getAllTypes() {
 
-		return ok(service.getAllTypes());
+		final var catalog = service.getAllTypes();
+		return ok()
+			.eTag(catalog.etag())
+			.body(catalog.types());
 	}
 
 	@PutMapping(path = "/{type}", consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
-	@Operation(summary = "Save relation type", description = "Replace relation type by saving new values", responses = {
-		@ApiResponse(responseCode = "200", description = "Successful operation", useReturnTypeSchema = true),
+	@Operation(summary = "Save relation type", description = "Replace relation type by saving new values. When If-Match is given, the type is only replaced if its current ETag matches.", responses = {
+		@ApiResponse(responseCode = "200", headers = @Header(name = ETAG, schema = @Schema(type = "string")), description = "Successful operation", useReturnTypeSchema = true),
 		@ApiResponse(responseCode = "404", description = "Not found", content = @Content(mediaType = APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = Problem.class))),
-		@ApiResponse(responseCode = "409", description = "Conflict", content = @Content(mediaType = APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = Problem.class)))
+		@ApiResponse(responseCode = "409", description = "Conflict", content = @Content(mediaType = APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = Problem.class))),
+		@ApiResponse(responseCode = "412", description = "Precondition Failed", content = @Content(mediaType = APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = Problem.class)))
 	})
 	ResponseEntity<RelationType> saveRelationType(
 		@Parameter(name = "type", description = "name of relation type", example = "DUPLICATE") @PathVariable final String type,
+		@Parameter(name = IF_MATCH, description = "ETag the relation type must have to be replaced") @RequestHeader(name = IF_MATCH, required = false) final String ifMatch,
 		@Valid @NotNull @RequestBody final RelationType relationType) {
 
-		return ok(service.saveRelationType(type, relationType));
+		final var saved = service.saveRelationType(type, relationType, ifMatch);
+		return ok()
+			.eTag(ETags.of(saved))
+			.body(saved);
 	}
 
 	@DeleteMapping(path = "/{type}", produces = ALL_VALUE)
@@ -0,0 +1,27 @@
+package se.sundsvall.relations.api.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(setterPrefix = "with")
+@Schema(description = "Result for one relation in a batch")
+public class RelationBatchResult {
+
+	@Schema(description = "Position of the relation in the request", examples = "0")
+	private int index;
+
+	@Schema(description = "Unique id for the created relation. Absent when the relation was not created", examples = "f4de6b8b-f727-4ed1-9959-b9d5bde1922f")
+	private String id;
+
+	@Schema(description = "Http status for the relation", examples = "201")
+	private int status;
+
+	@Schema(description = "Reason why the relation was not created", examples = "'some-type' is not a valid type")
+	private String detail;
+}
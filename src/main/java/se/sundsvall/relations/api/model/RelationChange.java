@@ -0,0 +1,37 @@
+package se.sundsvall.relations.api.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.OffsetDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(setterPrefix = "with")
+@Schema(description = "Change made to a relation, as listed in the change feed")
+public class RelationChange {
+
+	@Schema(description = "Position of the change in the feed. Pass the last one read as 'after' to continue from it", examples = "42")
+	private long sequence;
+
+	@Schema(description = "Kind of change", examples = "CREATED")
+	private RelationChangeType changeType;
+
+	@Schema(description = "Unique id for the relation", examples = "f4de6b8b-f727-4ed1-9959-b9d5bde1922f")
+	private String relationId;
+
+	@Schema(description = "Type of relation", examples = "LINK")
+	private String type;
+
+	@Schema(description = "Source identifiers")
+	private ResourceIdentifier source;
+
+	@Schema(description = "Target identifiers")
+	private ResourceIdentifier target;
+
+	@Schema(description = "Timestamp when the change was made", examples = "2000-10-31T01:30:00.000+02:00")
+	private OffsetDateTime occurred;
+}
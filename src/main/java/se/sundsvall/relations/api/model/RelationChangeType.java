@@ -0,0 +1,10 @@
+package se.sundsvall.relations.api.model;
+
+/**
+ * Kind of change made to a relation.
+ */
+public enum RelationChangeType {
+	CREATED,
+	UPDATED,
+	DELETED
+}
@@ -0,0 +1,18 @@
+package se.sundsvall.relations.api.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(setterPrefix = "with")
+@Schema(description = "Result of deleting the relations of a resource")
+public class RelationDeleteResponse {
+
+	@Schema(description = "Number of deleted relations, inverse relations included", examples = "4")
+	private int deleted;
+}
@@ -0,0 +1,25 @@
+package se.sundsvall.relations.api.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(setterPrefix = "with")
+@Schema(description = "Resources reachable from a resource and the relations connecting them")
+public class RelationGraph {
+
+	@Schema(description = "Resources in the graph, in the order they were reached")
+	private List<ResourceIdentifier> nodes;
+
+	@Schema(description = "Relations between the resources in the graph")
+	private List<Relation> edges;
+
+	@Schema(description = "True when the traversal stopped because the node or edge limit was reached", examples = "false")
+	private boolean truncated;
+}
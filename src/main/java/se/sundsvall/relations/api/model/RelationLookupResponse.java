@@ -0,0 +1,22 @@
+package se.sundsvall.relations.api.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(setterPrefix = "with")
+@Schema(description = "Relations found for a list of ids")
+public class RelationLookupResponse {
+
+	@Schema(description = "Found relations, in the order their ids were requested")
+	private List<Relation> relations;
+
+	@Schema(description = "Requested ids that did not match any relation in the municipality")
+	private List<String> missingIds;
+}
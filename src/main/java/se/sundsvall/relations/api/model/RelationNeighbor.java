@@ -0,0 +1,24 @@
+package se.sundsvall.relations.api.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(setterPrefix = "with")
+@Schema(description = "Relation from a resource to a neighboring resource")
+public class RelationNeighbor {
+
+	@Schema(description = "Unique id for the relation", examples = "f4de6b8b-f727-4ed1-9959-b9d5bde1922f")
+	private String relationId;
+
+	@Schema(description = "Type of relation", examples = "LINK")
+	private String type;
+
+	@Schema(description = "The neighboring resource")
+	private ResourceIdentifier target;
+}
@@ -1,8 +1,20 @@
 package se.sundsvall.relations.api.model;
 
 import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import se.sundsvall.dept44.models.api.paging.AbstractParameterPagingAndSortingBase;
 
+@Data
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
 @Schema(description = "Page parameters")
 public class RelationPageParameters extends AbstractParameterPagingAndSortingBase {
+
+	@Schema(description = "Opt-in cursor paging. Send an empty value to fetch the first page and the value of _meta.nextCursor to fetch the following pages. When present, page is ignored and no total count is calculated. Can not be combined with sort on properties that may be empty, such as modified.")
+	private String cursor;
+
+	@Schema(description = "Skip the total count of matches. The page is then fetched with one extra row to tell whether there is a next page, reported as _meta.hasNext instead of totalRecords and totalPages.", defaultValue = "false")
+	private boolean skipCount;
 }
@@ -8,7 +8,6 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import se.sundsvall.dept44.models.api.paging.PagingAndSortingMetaData;
 
 import static io.swagger.v3.oas.annotations.media.Schema.AccessMode.READ_ONLY;
 
@@ -20,8 +19,8 @@ import static io.swagger.v3.oas.annotations.media.Schema.AccessMode.READ_ONLY;
 public class RelationPagedResponse {
 
 	@JsonProperty("_meta")
-	@Schema(implementation = PagingAndSortingMetaData.class, accessMode = READ_ONLY)
-	private PagingAndSortingMetaData metaData;
+	@Schema(implementation = RelationPagingMetaData.class, accessMode = READ_ONLY)
+	private RelationPagingMetaData metaData;
 
 	@ArraySchema(schema = @Schema(implementation = Relation.class, accessMode = READ_ONLY))
 	private List<Relation> relations;
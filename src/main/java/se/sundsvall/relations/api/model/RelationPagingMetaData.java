@@ -0,0 +1,61 @@
+package se.sundsvall.relations.api.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import se.sundsvall.dept44.models.api.paging.PagingAndSortingMetaData;
+
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
+import static io.swagger.v3.oas.annotations.media.Schema.AccessMode.READ_ONLY;
+
+@Getter
+@Setter
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+@Schema(description = "Paging and sorting meta data")
+public class RelationPagingMetaData extends PagingAndSortingMetaData {
+
+	@JsonInclude(NON_NULL)
+	@Schema(description = "Cursor for the next page when cursor paging is used. Absent when there are no more matches", examples = "aWQJcwliOTcwMjU5MC0xYTY1LTRiNzgtOWRlNS00NGU0NmUyNWI2MmM", accessMode = READ_ONLY)
+	private String nextCursor;
+
+	@JsonInclude(NON_NULL)
+	@Schema(description = "Whether there are more matches after this page. Only present when the total count is skipped", examples = "true", accessMode = READ_ONLY)
+	private Boolean hasNext;
+
+	public static RelationPagingMetaData fromPage(final Page<?> page) {
+		final var metaData = new RelationPagingMetaData();
+		metaData.withPageData(page);
+		return metaData;
+	}
+
+	public static RelationPagingMetaData fromSlice(final Slice<?> slice) {
+		final var metaData = withSort(slice.getSort());
+		metaData.setPage(slice.getNumber() + 1);
+		metaData.setCount(slice.getNumberOfElements());
+		metaData.setLimit(slice.getSize());
+		metaData.setHasNext(slice.hasNext());
+		return metaData;
+	}
+
+	public static RelationPagingMetaData fromCursor(final int count, final int limit, final Sort sort, final String nextCursor) {
+		final var metaData = withSort(sort);
+		metaData.setCount(count);
+		metaData.setLimit(limit);
+		metaData.setNextCursor(nextCursor);
+		return metaData;
+	}
+
+	private static RelationPagingMetaData withSort(final Sort sort) {
+		final var metaData = new RelationPagingMetaData();
+		metaData.setSortBy(sort.stream().map(Sort.Order::getProperty).toList());
+		sort.stream().findFirst().map(Sort.Order::getDirection).ifPresent(metaData::setSortDirection);
+		return metaData;
+	}
+}
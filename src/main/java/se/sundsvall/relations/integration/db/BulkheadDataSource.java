@@ -0,0 +1,131 @@
+package se.sundsvall.relations.integration.db;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Lets a fixed number of threads hold a database connection at the same time and queues the rest, fairly, for at most
+ * the given wait. Meant to be sized to the connection pool when requests run on virtual threads, so that thousands of
+ * blocked requests queue here, where the wait is measured, instead of all polling the pool.
+ * <p>
+ * The permit is taken when a connection is fetched and given back when it is closed, so a transaction holds one permit
+ * for as long as it holds its connection and never waits for a second one.
+ */
+public class BulkheadDataSource extends DelegatingDataSource implements AutoCloseable {
+
+	static final String WAIT_TIMER = "relations.db.bulkhead.wait";
+	static final String REJECTED_COUNTER = "relations.db.bulkhead.rejected";
+	static final String AVAILABLE_GAUGE = "relations.db.bulkhead.available";
+
+	private final Semaphore permits;
+	private final Duration maxWait;
+	private final Timer waitTimer;
+	private final Counter rejectedCounter;
+
+	public BulkheadDataSource(final DataSource target, final int maxConcurrentCalls, final Duration maxWait, final MeterRegistry meterRegistry) {
+		super(target);
+		this.permits = new Semaphore(maxConcurrentCalls, true);
+		this.maxWait = maxWait;
+		this.waitTimer = Timer.builder(WAIT_TIMER)
+			.description("Time spent waiting for a database connection permit")
+			.publishPercentileHistogram()
+			.register(meterRegistry);
+		this.rejectedCounter = Counter.builder(REJECTED_COUNTER)
+			.description("Connection requests that gave up waiting for a permit")
+			.register(meterRegistry);
+		Gauge.builder(AVAILABLE_GAUGE, permits, Semaphore::availablePermits).register(meterRegistry);
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		acquire();
+		return releasingOnClose(() -> obtainTargetDataSource().getConnection());
+	}
+
+	@Override
+	public Connection getConnection(final String username, final String password) throws SQLException {
+		acquire();
+		return releasingOnClose(() -> obtainTargetDataSource().getConnection(username, password));
+	}
+
+	/**
+	 * Closes the wrapped data source, which the application context no longer sees once it is wrapped.
+	 */
+	@Override
+	public void close() throws Exception {
+		if (obtainTargetDataSource() instanceof final AutoCloseable closeable) {
+			closeable.close();
+		}
+	}
+
+	private void acquire() throws SQLException {
+		final var start = System.nanoTime();
+		final boolean acquired;
+		try {
+			acquired = permits.tryAcquire(maxWait.toNanos(), NANOSECONDS);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+		} finally {
+			waitTimer.record(System.nanoTime() - start, NANOSECONDS);
+		}
+		if (!acquired) {
+			rejectedCounter.increment();
+			throw new SQLTransientConnectionException("No database connection available within " + maxWait);
+		}
+	}
+
+	private Connection releasingOnClose(final ConnectionSupplier supplier) throws SQLException {
+		final Connection connection;
+		try {
+			connection = supplier.get();
+		} catch (final SQLException | RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+
+		final var released = new AtomicBoolean();
+		return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {
+			Connection.class
+		}, (proxy, method, args) -> switch (method.getName()) {
+			case "equals" -> proxy == args[0];
+			case "hashCode" -> System.identityHashCode(proxy);
+			case "close" -> {
+				try {
+					connection.close();
+				} finally {
+					if (released.compareAndSet(false, true)) {
+						permits.release();
+					}
+				}
+				yield null;
+			}
+			default -> {
+				try {
+					yield method.invoke(connection, args);
+				} catch (final InvocationTargetException e) {
+					throw e.getCause();
+				}
+			}
+		});
+	}
+
+	@FunctionalInterface
+	private interface ConnectionSupplier {
+		Connection get() throws SQLException;
+	}
+}
@@ -0,0 +1,36 @@
+package se.sundsvall.relations.integration.db;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Puts the data source behind a {@link BulkheadDataSource} when requests run on virtual threads. With platform threads
+ * the servlet thread pool already bounds the number of requests waiting for a connection.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+class BulkheadDataSourceConfiguration {
+
+	@Bean
+	static BeanPostProcessor bulkheadDataSourcePostProcessor(final ObjectProvider<MeterRegistry> meterRegistry,
+		@Value("${relations.db-bulkhead.max-concurrent-calls:${spring.datasource.hikari.maximum-pool-size:10}}") final int maxConcurrentCalls,
+		@Value("${relations.db-bulkhead.max-wait:PT10S}") final Duration maxWait) {
+
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+				if (bean instanceof final DataSource dataSource && !(bean instanceof BulkheadDataSource)) {
+					return new BulkheadDataSource(dataSource, maxConcurrentCalls, maxWait, meterRegistry.getObject());
+				}
+				return bean;
+			}
+		};
+	}
+}
@@ -0,0 +1,87 @@
+package se.sundsvall.relations.integration.db;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * Puts the data source behind a {@link ReadReplicaDataSource} when {@code relations.datasource.replica.url} is set. The
+ * replica gets a pool of its own, configured with {@code relations.datasource.replica.hikari.*}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "relations.datasource.replica", name = "url")
+class ReadReplicaConfiguration {
+
+	@Bean
+	static ReadReplicaPostProcessor readReplicaDataSourcePostProcessor(final ObjectProvider<MeterRegistry> meterRegistry, final Environment environment,
+		@Value("${relations.datasource.replica.url}") final String url,
+		@Value("${relations.datasource.replica.username:${spring.datasource.username:}}") final String username,
+		@Value("${relations.datasource.replica.password:${spring.datasource.password:}}") final String password,
+		@Value("${relations.datasource.replica.driver-class-name:${spring.datasource.driver-class-name:}}") final String driverClassName) {
+
+		return new ReadReplicaPostProcessor(() -> {
+			final var replica = DataSourceBuilder.create()
+				.type(HikariDataSource.class)
+				.url(url)
+				.username(username)
+				.password(password)
+				.driverClassName(driverClassName.isEmpty() ? null : driverClassName)
+				.build();
+			replica.setPoolName("replica");
+			replica.setReadOnly(true);
+			Binder.get(environment).bind("relations.datasource.replica.hikari", Bindable.ofInstance(replica));
+			replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry.getObject()));
+			return replica;
+		}, meterRegistry);
+	}
+
+	/**
+	 * Carries the read-your-writes mark over to the threads running asynchronous requests, e.g. streamed exports.
+	 */
+	@Bean
+	TaskDecorator readYourWritesTaskDecorator() {
+		return task -> {
+			final var requested = ReadYourWrites.isRequested();
+			return () -> {
+				try (final var scope = ReadYourWrites.apply(requested)) {
+					task.run();
+				}
+			};
+		};
+	}
+
+	/**
+	 * Ordered, so that it wraps the data source before the post-processors without an order, e.g. the one adding the
+	 * connection bulkhead, which then guards the replica as well. The bean method returns this type, as the order is read
+	 * from the declared type.
+	 */
+	record ReadReplicaPostProcessor(Supplier<DataSource> replicaFactory, ObjectProvider<MeterRegistry> meterRegistry) implements BeanPostProcessor, Ordered {
+
+		@Override
+		public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+			if (bean instanceof final DataSource dataSource && !(bean instanceof ReadReplicaDataSource) && !(bean instanceof BulkheadDataSource)) {
+				return new ReadReplicaDataSource(dataSource, replicaFactory.get(), meterRegistry.getObject());
+			}
+			return bean;
+		}
+
+		@Override
+		public int getOrder() {
+			return Ordered.HIGHEST_PRECEDENCE;
+		}
+	}
+}
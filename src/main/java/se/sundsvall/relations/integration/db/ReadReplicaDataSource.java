@@ -0,0 +1,97 @@
+package se.sundsvall.relations.integration.db;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.EnumMap;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import static org.springframework.transaction.support.TransactionSynchronizationManager.isCurrentTransactionReadOnly;
+
+/**
+ * Sends read-only transactions to the read replica and everything else, including reads outside of transactions, to
+ * the primary database. Threads that need to read their own writes stay on the primary, see {@link ReadYourWrites}.
+ * <p>
+ * The transaction manager fetches a connection before it marks the transaction as read-only, so the physical
+ * connection is fetched lazily, when the first statement runs, and routed then.
+ */
+public class ReadReplicaDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+	static final String ROUTED_COUNTER = "relations.db.routed";
+
+	private final DataSource primary;
+	private final DataSource replica;
+
+	public ReadReplicaDataSource(final DataSource primary, final DataSource replica, final MeterRegistry meterRegistry) {
+		super(new Router(primary, replica, meterRegistry));
+		this.primary = primary;
+		this.replica = replica;
+	}
+
+	/**
+	 * Closes both pools, which the application context no longer sees once they are wrapped.
+	 */
+	@Override
+	public void close() throws Exception {
+		try {
+			if (replica instanceof final AutoCloseable closeable) {
+				closeable.close();
+			}
+		} finally {
+			if (primary instanceof final AutoCloseable closeable) {
+				closeable.close();
+			}
+		}
+	}
+
+	enum Route {
+		READ_WRITE("primary"),
+		READ_YOUR_WRITES("primary"),
+		READ_ONLY("replica");
+
+		private final String target;
+
+		Route(final String target) {
+			this.target = target;
+		}
+	}
+
+	private static final class Router extends AbstractRoutingDataSource {
+
+		private final Map<Route, Counter> counters = new EnumMap<>(Route.class);
+
+		private Router(final DataSource primary, final DataSource replica, final MeterRegistry meterRegistry) {
+			setTargetDataSources(Map.of(
+				Route.READ_WRITE, primary,
+				Route.READ_YOUR_WRITES, primary,
+				Route.READ_ONLY, replica));
+			setDefaultTargetDataSource(primary);
+			setLenientFallback(false);
+			afterPropertiesSet();
+
+			for (final var route : Route.values()) {
+				counters.put(route, Counter.builder(ROUTED_COUNTER)
+					.description("Database connections fetched, per database and reason")
+					.tag("target", route.target)
+					.tag("reason", route.name().toLowerCase().replace('_', '-'))
+					.register(meterRegistry));
+			}
+		}
+
+		@Override
+		protected Object determineCurrentLookupKey() {
+			final Route route;
+			if (!isCurrentTransactionReadOnly()) {
+				route = Route.READ_WRITE;
+			} else if (ReadYourWrites.isRequested()) {
+				route = Route.READ_YOUR_WRITES;
+			} else {
+				route = Route.READ_ONLY;
+			}
+			counters.get(route).increment();
+			return route;
+		}
+	}
+}
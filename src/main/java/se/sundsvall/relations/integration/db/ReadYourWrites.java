@@ -0,0 +1,43 @@
+package se.sundsvall.relations.integration.db;
+
+/**
+ * Marks the current thread as needing to read its own writes, which keeps read-only transactions on the primary
+ * database instead of the read replica. Has no effect when no replica is configured.
+ */
+public final class ReadYourWrites {
+
+	private static final ThreadLocal<Boolean> REQUESTED = new ThreadLocal<>();
+
+	private ReadYourWrites() {}
+
+	public static boolean isRequested() {
+		return Boolean.TRUE.equals(REQUESTED.get());
+	}
+
+	/**
+	 * Reads on the primary database until the returned scope is closed. The connection is chosen when the first statement
+	 * runs, so this also applies to a read-only transaction started before the scope was opened.
+	 */
+	public static Scope request() {
+		return apply(true);
+	}
+
+	static Scope apply(final boolean requested) {
+		final var previous = REQUESTED.get();
+		REQUESTED.set(requested);
+		return () -> {
+			if (previous == null) {
+				REQUESTED.remove();
+			} else {
+				REQUESTED.set(previous);
+			}
+		};
+	}
+
+	@FunctionalInterface
+	public interface Scope extends AutoCloseable {
+
+		@Override
+		void close();
+	}
+}
@@ -0,0 +1,50 @@
+package se.sundsvall.relations.integration.db;
+
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import jakarta.persistence.QueryHint;
+import java.util.List;
+import java.util.stream.Stream;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import se.sundsvall.relations.integration.db.model.RelationChangeEntity;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+@CircuitBreaker(name = "relationChangeRepository")
+public interface RelationChangeRepository extends JpaRepository<RelationChangeEntity, Long> {
+
+	/**
+	 * Streams the changes in the municipality after the given sequence, in sequence order. Changes not yet given a
+	 * sequence are left out. The stream must be consumed and closed within a transaction.
+	 *
+	 * @param  municipalityId the municipality id
+	 * @param  sequence       the sequence to continue after
+	 * @param  limit          the maximum number of changes
+	 * @return                a stream of changes
+	 */
+	@QueryHints({
+		@QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+		@QueryHint(name = HINT_READ_ONLY, value = "true")
+	})
+	Stream<RelationChangeEntity> findByMunicipalityIdAndSequenceGreaterThanOrderBySequence(String municipalityId, long sequence, Limit limit);
+
+	/**
+	 * Finds the committed changes not yet given a sequence, in id order.
+	 *
+	 * @param  limit the maximum number of changes
+	 * @return       the changes
+	 */
+	List<RelationChangeEntity> findBySequenceIsNullOrderById(Limit limit);
+
+	/**
+	 * Finds the changes in all municipalities after the given sequence, in sequence order.
+	 *
+	 * @param  sequence the sequence to continue after
+	 * @param  limit    the maximum number of changes
+	 * @return          the changes
+	 */
+	@QueryHints(@QueryHint(name = HINT_READ_ONLY, value = "true"))
+	List<RelationChangeEntity> findBySequenceGreaterThanOrderBySequence(long sequence, Limit limit);
+}
@@ -0,0 +1,22 @@
+package se.sundsvall.relations.integration.db;
+
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import se.sundsvall.relations.integration.db.model.RelationChangeSequenceEntity;
+
+import static jakarta.persistence.LockModeType.PESSIMISTIC_WRITE;
+
+@CircuitBreaker(name = "relationChangeSequenceRepository")
+public interface RelationChangeSequenceRepository extends JpaRepository<RelationChangeSequenceEntity, Integer> {
+
+	/**
+	 * Reads the counter and locks it until the transaction ends, making other instances wait before assigning sequences.
+	 *
+	 * @param  id the id of the counter
+	 * @return    the counter, or empty if it hasn't been created yet
+	 */
+	@Lock(PESSIMISTIC_WRITE)
+	Optional<RelationChangeSequenceEntity> findWithLockById(Integer id);
+}
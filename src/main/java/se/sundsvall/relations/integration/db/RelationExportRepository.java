@@ -0,0 +1,18 @@
+package se.sundsvall.relations.integration.db;
+
+import java.util.stream.Stream;
+import org.springframework.data.jpa.domain.Specification;
+import se.sundsvall.relations.integration.db.model.RelationEntity;
+
+public interface RelationExportRepository {
+
+	/**
+	 * Streams all relations matching the specification through a forward-only cursor. The stream must be consumed and
+	 * closed within a transaction. The persistence context is cleared at regular intervals while streaming, so memory use
+	 * does not grow with the number of matches, and entities loaded earlier in the transaction are detached.
+	 *
+	 * @param  specification the specification to match relations against
+	 * @return               a stream of matching relations
+	 */
+	Stream<RelationEntity> streamAll(Specification<RelationEntity> specification);
+}
@@ -0,0 +1,60 @@
+package se.sundsvall.relations.integration.db;
+
+import jakarta.persistence.EntityManager;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import org.springframework.data.jpa.domain.Specification;
+import se.sundsvall.relations.integration.db.model.RelationEntity;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+class RelationExportRepositoryImpl implements RelationExportRepository {
+
+	static final int FETCH_SIZE = 500;
+	static final int CLEAR_INTERVAL = 100;
+
+	private final EntityManager entityManager;
+
+	RelationExportRepositoryImpl(final EntityManager entityManager) {
+		this.entityManager = entityManager;
+	}
+
+	@Override
+	public Stream<RelationEntity> streamAll(final Specification<RelationEntity> specification) {
+		final var criteriaBuilder = entityManager.getCriteriaBuilder();
+		final var query = criteriaBuilder.createQuery(RelationEntity.class);
+		final var root = query.from(RelationEntity.class);
+
+		// Fetch the eager associations in the same row to avoid one extra select per streamed relation. The inverse relation
+		// is lazy and left out, as neither the export nor the adjacency index reads more than its id
+		root.fetch("type");
+		root.fetch("source");
+		root.fetch("target");
+
+		Optional.ofNullable(specification)
+			.map(spec -> spec.toPredicate(root, query, criteriaBuilder))
+			.ifPresent(query::where);
+
+		// Hibernate backs the result stream with forward-only ScrollableResults
+		final var rows = new AtomicLong();
+		return entityManager.createQuery(query)
+			.setHint(HINT_FETCH_SIZE, FETCH_SIZE)
+			.setHint(HINT_READ_ONLY, true)
+			.getResultStream()
+			.map(entity -> clearEvery(rows, entity));
+	}
+
+	/**
+	 * Clears the persistence context every {@link #CLEAR_INTERVAL} rows. Clearing, unlike detaching each relation, also
+	 * releases the types and resource identifiers loaded with them. Relations read before the clear have been consumed by
+	 * then, as the stream is processed one row at a time.
+	 */
+	private RelationEntity clearEvery(final AtomicLong rows, final RelationEntity entity) {
+		if (rows.incrementAndGet() % CLEAR_INTERVAL == 0) {
+			entityManager.clear();
+		}
+		return entity;
+	}
+}
@@ -1,16 +1,74 @@
 package se.sundsvall.relations.integration.db;
 
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import se.sundsvall.relations.integration.db.model.RelationEntity;
 import se.sundsvall.relations.integration.db.model.RelationTypeEntity;
+import se.sundsvall.relations.integration.db.model.ResourceIdentifierEntity;
 
+/**
+ * The read methods load the associations needed to map a relation (type, source and target) in the same statement
+ * through an entity graph, instead of one secondary select per association and row.
+ */
 @CircuitBreaker(name = "relationRepository")
-public interface RelationRepository extends JpaRepository<RelationEntity, String>, JpaSpecificationExecutor<RelationEntity> {
+public interface RelationRepository extends JpaRepository<RelationEntity, String>, JpaSpecificationExecutor<RelationEntity>, RelationExportRepository {
 
+	@EntityGraph(attributePaths = {
+		"type.counterType", "source", "target"
+	})
 	Optional<RelationEntity> findByIdAndMunicipalityId(String id, String municipalityId);
 
+	@EntityGraph(attributePaths = {
+		"type.counterType", "source", "target"
+	})
+	List<RelationEntity> findByMunicipalityIdAndIdIn(String municipalityId, Collection<String> ids);
+
+	@Override
+	@EntityGraph(attributePaths = {
+		"type.counterType", "source", "target"
+	})
+	List<RelationEntity> findAll(Specification<RelationEntity> specification);
+
+	@Override
+	@EntityGraph(attributePaths = {
+		"type.counterType", "source", "target"
+	})
+	Page<RelationEntity> findAll(Specification<RelationEntity> specification, Pageable pageable);
+
+	@Override
+	@EntityGraph(attributePaths = {
+		"type.counterType", "source", "target"
+	})
+	<S extends RelationEntity, R> R findBy(Specification<RelationEntity> specification, Function<? super SpecificationFluentQuery<S>, R> queryFunction);
+
+	@EntityGraph(attributePaths = {
+		"type.counterType", "source", "target"
+	})
+	@Query("select relation from RelationEntity relation where relation.municipalityId = :municipalityId and (relation.source in :identifiers or relation.target in :identifiers)")
+	List<RelationEntity> findBySourceOrTargetIn(@Param("municipalityId") String municipalityId, @Param("identifiers") Collection<ResourceIdentifierEntity> identifiers);
+
+	/**
+	 * Deletes the relations with one statement, without loading them or cascading to their inverse relations and
+	 * identifiers.
+	 *
+	 * @param  ids the relation ids
+	 * @return     the number of deleted relations
+	 */
+	@Modifying
+	@Query("delete from RelationEntity relation where relation.id in :ids")
+	int deleteByIdIn(@Param("ids") Collection<String> ids);
+
 	boolean existsByType(RelationTypeEntity type);
 }
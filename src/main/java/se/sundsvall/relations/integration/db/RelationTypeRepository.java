@@ -2,12 +2,16 @@ package se.sundsvall.relations.integration.db;
 
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import java.util.Optional;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import se.sundsvall.relations.integration.db.model.RelationTypeEntity;
 
 @CircuitBreaker(name = "relationTypeRepository")
 public interface RelationTypeRepository extends JpaRepository<RelationTypeEntity, String> {
 
+	String RELATION_TYPES_CACHE = "relationTypes";
+
+	@Cacheable(cacheNames = RELATION_TYPES_CACHE, key = "#p0", unless = "#result == null")
 	Optional<RelationTypeEntity> findByName(String name);
 
 	boolean existsByName(String name);
@@ -0,0 +1,82 @@
+package se.sundsvall.relations.integration.db;
+
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import se.sundsvall.relations.integration.db.model.ResourceIdentifierEntity;
+
+import static jakarta.persistence.LockModeType.PESSIMISTIC_READ;
+import static jakarta.persistence.LockModeType.PESSIMISTIC_WRITE;
+import static org.hibernate.jpa.HibernateHints.HINT_FLUSH_MODE;
+
+@CircuitBreaker(name = "resourceIdentifierRepository")
+public interface ResourceIdentifierRepository extends JpaRepository<ResourceIdentifierEntity, String> {
+
+	/**
+	 * Finds the identifiers in the municipality with any of the resource ids. The comparison follows the collation of the
+	 * column, so the result may include identifiers differing only in case.
+	 *
+	 * @param  municipalityId the municipality id
+	 * @param  resourceIds    the resource ids
+	 * @return                the identifiers
+	 */
+	List<ResourceIdentifierEntity> findByMunicipalityIdAndResourceIdIn(String municipalityId, Collection<String> resourceIds);
+
+	/**
+	 * Finds the identifiers with any of the resource keys and locks them in share mode until the transaction ends, so that
+	 * they can't be removed before the relations referring to them have been saved. Pending changes are not flushed, as
+	 * they may refer to identifiers not resolved yet.
+	 *
+	 * @param  resourceKeys the resource keys
+	 * @return              the identifiers
+	 */
+	@Lock(PESSIMISTIC_READ)
+	@QueryHints(@QueryHint(name = HINT_FLUSH_MODE, value = "COMMIT"))
+	List<ResourceIdentifierEntity> findWithLockByResourceKeyIn(Collection<String> resourceKeys);
+
+	/**
+	 * Locks the identifiers with the given ids until the transaction ends, making transactions resolving the same
+	 * identifiers wait.
+	 *
+	 * @param  ids the identifier ids
+	 * @return     the identifiers
+	 */
+	@Lock(PESSIMISTIC_WRITE)
+	List<ResourceIdentifierEntity> findWithLockByIdIn(Collection<String> ids);
+
+	/**
+	 * Inserts the identifier unless one with the same resource key exists. An identifier inserted by a transaction not yet
+	 * committed makes the insert wait for it. Pending changes are not flushed, like when finding by resource key.
+	 *
+	 * @param identifier the identifier, with id and resource key set
+	 */
+	@Modifying
+	@QueryHints(@QueryHint(name = HINT_FLUSH_MODE, value = "COMMIT"))
+	@Query(value = """
+		insert into resource_identifier (id, municipality_id, resource_key, resource_id, type, service, namespace)
+		values (:#{#identifier.id}, :#{#identifier.municipalityId}, :#{#identifier.resourceKey}, :#{#identifier.resourceId},
+			:#{#identifier.type}, :#{#identifier.service}, :#{#identifier.namespace})
+		on duplicate key update id = id""", nativeQuery = true)
+	void insertIfAbsent(@Param("identifier") ResourceIdentifierEntity identifier);
+
+	/**
+	 * Deletes the identifiers among the given ones that no relation refers to. Pending changes are flushed first, so that
+	 * relations deleted or repointed in the same transaction are taken into account.
+	 *
+	 * @param  ids the identifier ids
+	 * @return     the number of deleted identifiers
+	 */
+	@Modifying(flushAutomatically = true)
+	@Query("""
+		delete from ResourceIdentifierEntity identifier
+		where identifier.id in :ids
+		and not exists (select 1 from RelationEntity relation where relation.source = identifier or relation.target = identifier)""")
+	int deleteUnreferenced(@Param("ids") Collection<String> ids);
+}
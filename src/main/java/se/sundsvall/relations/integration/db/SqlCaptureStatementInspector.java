@@ -0,0 +1,44 @@
+package se.sundsvall.relations.integration.db;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Hands the SQL Hibernate prepares to whoever has started a capture on the current thread, leaving the statements
+ * unchanged. Registered through {@code spring.jpa.properties.hibernate.session_factory.statement_inspector}. The SQL
+ * contains parameter markers, never the bound values.
+ */
+public class SqlCaptureStatementInspector implements StatementInspector {
+
+	static final int MAX_CAPTURED_STATEMENTS = 10;
+
+	private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+	/**
+	 * Starts capturing the statements prepared on the current thread, discarding any earlier capture.
+	 */
+	public static void startCapture() {
+		CAPTURED.set(new ArrayList<>());
+	}
+
+	/**
+	 * Stops capturing on the current thread.
+	 *
+	 * @return the statements prepared since the capture was started, at most {@value #MAX_CAPTURED_STATEMENTS}
+	 */
+	public static List<String> stopCapture() {
+		final var captured = CAPTURED.get();
+		CAPTURED.remove();
+		return captured != null ? List.copyOf(captured) : List.of();
+	}
+
+	@Override
+	public String inspect(final String sql) {
+		final var captured = CAPTURED.get();
+		if (captured != null && captured.size() < MAX_CAPTURED_STATEMENTS) {
+			captured.add(sql);
+		}
+		return sql;
+	}
+}
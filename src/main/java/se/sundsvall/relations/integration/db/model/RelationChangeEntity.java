@@ -0,0 +1,103 @@
+package se.sundsvall.relations.integration.db.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.TimeZoneStorage;
+import se.sundsvall.relations.api.model.RelationChangeType;
+
+import static jakarta.persistence.EnumType.STRING;
+import static jakarta.persistence.GenerationType.SEQUENCE;
+import static java.time.OffsetDateTime.now;
+import static java.time.temporal.ChronoUnit.MILLIS;
+import static org.hibernate.annotations.TimeZoneStorageType.NORMALIZE;
+import static org.hibernate.type.SqlTypes.VARCHAR;
+
+/**
+ * Outbox row written in the same transaction as the change to the relation. The relation is copied, not referenced,
+ * so the row outlives a deleted relation. Ids are taken from a pooled sequence, so the inserts can be batched, and
+ * follow neither the order of the changes nor the order they are committed in. The change feed is instead ordered by
+ * the sequence, which is assigned in commit order once the change has been committed, see
+ * {@code RelationChangeSequencer}.
+ */
+@Data
+@Builder(setterPrefix = "with")
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "relation_change",
+	indexes = {
+		@Index(name = "idx_relation_change_municipality_id_sequence", columnList = "municipality_id, sequence"),
+		@Index(name = "idx_relation_change_sequence_id", columnList = "sequence, id")
+	})
+public class RelationChangeEntity {
+
+	@Id
+	@GeneratedValue(strategy = SEQUENCE, generator = "relation_change_seq")
+	@SequenceGenerator(name = "relation_change_seq", sequenceName = "relation_change_seq", allocationSize = 50)
+	@Column(name = "id")
+	private Long id;
+
+	@Column(name = "sequence")
+	private Long sequence;
+
+	@Column(name = "municipality_id", nullable = false)
+	private String municipalityId;
+
+	@Enumerated(STRING)
+	@JdbcTypeCode(VARCHAR)
+	@Column(name = "change_type", nullable = false)
+	private RelationChangeType changeType;
+
+	@Column(name = "relation_id", nullable = false)
+	private String relationId;
+
+	@Column(name = "type", nullable = false)
+	private String type;
+
+	@Column(name = "source_resource_id", nullable = false)
+	private String sourceResourceId;
+
+	@Column(name = "source_type", nullable = false)
+	private String sourceType;
+
+	@Column(name = "source_service", nullable = false)
+	private String sourceService;
+
+	@Column(name = "source_namespace")
+	private String sourceNamespace;
+
+	@Column(name = "target_resource_id", nullable = false)
+	private String targetResourceId;
+
+	@Column(name = "target_type", nullable = false)
+	private String targetType;
+
+	@Column(name = "target_service", nullable = false)
+	private String targetService;
+
+	@Column(name = "target_namespace")
+	private String targetNamespace;
+
+	@Column(name = "occurred", nullable = false)
+	@TimeZoneStorage(NORMALIZE)
+	private OffsetDateTime occurred;
+
+	@PrePersist
+	void onCreate() {
+		occurred = now(ZoneId.systemDefault()).truncatedTo(MILLIS);
+	}
+}
@@ -0,0 +1,32 @@
+package se.sundsvall.relations.integration.db.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The last sequence given to a relation change. The table holds a single row, which is locked while sequences are
+ * assigned so that only one instance assigns them at a time.
+ */
+@Data
+@Builder(setterPrefix = "with")
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "relation_change_sequence")
+public class RelationChangeSequenceEntity {
+
+	public static final int COUNTER_ID = 1;
+
+	@Id
+	@Column(name = "id")
+	private Integer id;
+
+	@Column(name = "last_sequence", nullable = false)
+	private long lastSequence;
+}
@@ -1,11 +1,15 @@
 package se.sundsvall.relations.integration.db.model;
 
+import jakarta.persistence.Access;
+import jakarta.persistence.AccessType;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
+import jakarta.persistence.ConstraintMode;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.ForeignKey;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToOne;
@@ -27,6 +31,7 @@ import org.hibernate.annotations.UuidGenerator;
 import static java.time.OffsetDateTime.now;
 import static java.time.temporal.ChronoUnit.MILLIS;
 import static org.hibernate.annotations.TimeZoneStorageType.NORMALIZE;
+import static org.hibernate.annotations.UuidGenerator.Style.VERSION_7;
 
 @Data
 @Builder(setterPrefix = "with")
@@ -34,13 +39,12 @@ import static org.hibernate.annotations.TimeZoneStorageType.NORMALIZE;
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "relation",
+	indexes = {
+		@Index(name = "idx_relation_municipality_id_type_id_created", columnList = "municipality_id, type_id, created"),
+		@Index(name = "idx_relation_resource_source_identifier_id", columnList = "resource_source_identifier_id"),
+		@Index(name = "idx_relation_resource_target_identifier_id", columnList = "resource_target_identifier_id")
+	},
 	uniqueConstraints = {
-		@UniqueConstraint(name = "uq_relation_resource_source_identifier_id", columnNames = {
-			"resource_source_identifier_id"
-		}),
-		@UniqueConstraint(name = "uq_relation_counter_resource_target_identifier_id", columnNames = {
-			"resource_target_identifier_id"
-		}),
 		@UniqueConstraint(name = "uq_relation_inverse_relation_id", columnNames = {
 			"inverse_relation_id"
 		})
@@ -48,7 +52,7 @@ import static org.hibernate.annotations.TimeZoneStorageType.NORMALIZE;
 public class RelationEntity {
 
 	@Id
-	@UuidGenerator
+	@UuidGenerator(style = VERSION_7)
 	@Column(name = "id")
 	private String id;
 
@@ -67,20 +71,44 @@ public class RelationEntity {
 	@TimeZoneStorage(NORMALIZE)
 	private OffsetDateTime modified;
 
-	@OneToOne(cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+	@ManyToOne(cascade = {
+		CascadeType.PERSIST, CascadeType.MERGE
+	}, fetch = FetchType.EAGER)
 	@JoinColumn(name = "resource_source_identifier_id", nullable = false, foreignKey = @ForeignKey(name = "fk_relation_source_resource_identifier"))
 	private ResourceIdentifierEntity source;
 
-	@OneToOne(cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+	@ManyToOne(cascade = {
+		CascadeType.PERSIST, CascadeType.MERGE
+	}, fetch = FetchType.EAGER)
 	@JoinColumn(name = "resource_target_identifier_id", nullable = false, foreignKey = @ForeignKey(name = "fk_relation_target_resource_identifier"))
 	private ResourceIdentifierEntity target;
 
+	/**
+	 * Read from the {@code inverse_relation_id} column, which is written through {@link #getInverseRelationId()}. The two
+	 * relations of a pair refer to each other, so the column has no foreign key, which would force one of them to be
+	 * inserted without the reference and updated afterwards.
+	 */
 	@ToString.Exclude
 	@EqualsAndHashCode.Exclude
-	@OneToOne(cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
-	@JoinColumn(name = "inverse_relation_id", unique = true, foreignKey = @ForeignKey(name = "fk_relation_inverse_relation_relation"))
+	@OneToOne(cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+	@JoinColumn(name = "inverse_relation_id", insertable = false, updatable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
 	private RelationEntity inverseRelation;
 
+	/**
+	 * The id of the inverse relation, read by Hibernate when the insert or update is prepared. The ids of both relations of
+	 * a pair have been generated by then, also when they are persisted together, so both rows are inserted with the
+	 * reference in one batch.
+	 */
+	@Access(AccessType.PROPERTY)
+	@Column(name = "inverse_relation_id")
+	public String getInverseRelationId() {
+		return inverseRelation != null ? inverseRelation.getId() : null;
+	}
+
+	void setInverseRelationId(final String inverseRelationId) {
+		// Loaded through the inverseRelation association, which is mapped to the same column
+	}
+
 	@PrePersist
 	void onCreate() {
 		created = now(ZoneId.systemDefault()).truncatedTo(MILLIS);
@@ -18,6 +18,8 @@ import lombok.NoArgsConstructor;
 import lombok.ToString;
 import org.hibernate.annotations.UuidGenerator;
 
+import static org.hibernate.annotations.UuidGenerator.Style.VERSION_7;
+
 @Data
 @Builder(setterPrefix = "with")
 @AllArgsConstructor
@@ -35,7 +37,7 @@ import org.hibernate.annotations.UuidGenerator;
 public class RelationTypeEntity {
 
 	@Id
-	@UuidGenerator
+	@UuidGenerator(style = VERSION_7)
 	@Column(name = "id")
 	private String id;
 
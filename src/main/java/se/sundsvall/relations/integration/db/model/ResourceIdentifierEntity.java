@@ -3,10 +3,19 @@ package se.sundsvall.relations.integration.db.model;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.stream.Stream;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -17,20 +26,39 @@ import org.hibernate.annotations.UuidGenerator;
 import static java.time.OffsetDateTime.now;
 import static java.time.temporal.ChronoUnit.MILLIS;
 import static org.hibernate.annotations.TimeZoneStorageType.NORMALIZE;
+import static org.hibernate.annotations.UuidGenerator.Style.VERSION_7;
 
 @Data
 @Builder(setterPrefix = "with")
 @Entity
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "resource_identifier")
+@Table(name = "resource_identifier",
+	indexes = {
+		@Index(name = "idx_resource_identifier_resource_id_type_service", columnList = "resource_id, type, service"),
+		@Index(name = "idx_resource_identifier_municipality_id_resource_id", columnList = "municipality_id, resource_id")
+	},
+	uniqueConstraints = {
+		@UniqueConstraint(name = "uq_resource_identifier_resource_key", columnNames = "resource_key")
+	})
 public class ResourceIdentifierEntity {
 
 	@Id
-	@UuidGenerator
+	@UuidGenerator(style = VERSION_7)
 	@Column(name = "id")
 	private String id;
 
+	@Column(name = "municipality_id", nullable = false)
+	private String municipalityId;
+
+	/**
+	 * Hash of the municipality, service, type, namespace and resource id, see {@link #resourceKey(String, String, String,
+	 * String, String)}. Unlike the columns themselves it tells identifiers differing only in case apart, so the database
+	 * can keep each resource unique.
+	 */
+	@Column(name = "resource_key", nullable = false, length = 64)
+	private String resourceKey;
+
 	@Column(name = "modified")
 	@TimeZoneStorage(NORMALIZE)
 	private OffsetDateTime modified;
@@ -47,8 +75,29 @@ public class ResourceIdentifierEntity {
 	@Column(name = "namespace")
 	private String namespace;
 
+	@PrePersist
+	void onCreate() {
+		resourceKey = resourceKey(municipalityId, service, type, namespace, resourceId);
+	}
+
 	@PreUpdate
 	void onUpdate() {
+		resourceKey = resourceKey(municipalityId, service, type, namespace, resourceId);
 		modified = now(ZoneId.systemDefault()).truncatedTo(MILLIS);
 	}
+
+	/**
+	 * The SHA-256 hex of the parts as UTF-8, separated by the unit separator (0x1F) with missing parts as NUL, the same as
+	 * {@code sha2(concat_ws(char(31), ...), 256)} in the migration that added the column.
+	 */
+	public static String resourceKey(final String municipalityId, final String service, final String type, final String namespace, final String resourceId) {
+		final var value = String.join("\u001F", Stream.of(municipalityId, service, type, namespace, resourceId)
+			.map(part -> Objects.requireNonNullElse(part, "\u0000"))
+			.toList());
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+		} catch (final NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
 }
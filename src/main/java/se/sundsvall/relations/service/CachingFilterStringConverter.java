@@ -0,0 +1,154 @@
+package se.sundsvall.relations.service;
+
+import com.turkraft.springfilter.converter.FilterStringConverter;
+import com.turkraft.springfilter.converter.FilterStringConverterImpl;
+import com.turkraft.springfilter.parser.ParseContext;
+import com.turkraft.springfilter.parser.node.CollectionNode;
+import com.turkraft.springfilter.parser.node.FieldNode;
+import com.turkraft.springfilter.parser.node.FilterNode;
+import com.turkraft.springfilter.parser.node.FunctionNode;
+import com.turkraft.springfilter.parser.node.InfixOperationNode;
+import com.turkraft.springfilter.parser.node.InputNode;
+import com.turkraft.springfilter.parser.node.PlaceholderNode;
+import com.turkraft.springfilter.parser.node.PostfixOperationNode;
+import com.turkraft.springfilter.parser.node.PrefixOperationNode;
+import com.turkraft.springfilter.parser.node.PriorityNode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Parses filters through spring-filter, but only once per filter template. A template is the filter with every quoted
+ * value replaced by a numbered marker, so that {@code type.name:'PARENT'} and {@code type.name:'CHILD'} share one parse.
+ * The parsed template is kept in the {@value #FILTER_TEMPLATES_CACHE} cache and each request gets a copy of it with its
+ * own values bound, which skips the parser for every filter shape seen before.
+ * <p>
+ * Filters that can't be split into a template, i.e. with escaped or unbalanced quotes, are parsed as they are.
+ */
+@Primary
+@Component
+public class CachingFilterStringConverter implements FilterStringConverter {
+
+	public static final String FILTER_TEMPLATES_CACHE = "filterTemplates";
+
+	private static final char QUOTE = '\'';
+	private static final char ESCAPE = '\\';
+	// Private use character, which never shows up in a filter sent by a client
+	private static final char MARKER = '\uE000';
+
+	private final FilterStringConverterImpl delegate;
+	private final CacheManager cacheManager;
+
+	public CachingFilterStringConverter(final FilterStringConverterImpl delegate, final CacheManager cacheManager) {
+		this.delegate = delegate;
+		this.cacheManager = cacheManager;
+	}
+
+	@Override
+	public FilterNode convert(final String input) {
+		final var cache = cacheManager.getCache(FILTER_TEMPLATES_CACHE);
+		final var template = FilterTemplate.of(input);
+		if (cache == null || template == null) {
+			return delegate.convert(input);
+		}
+		var parsed = cache.get(template.text(), FilterNode.class);
+		if (parsed == null) {
+			// Parsed outside of the cache, so that syntax errors reach the client as they are
+			parsed = delegate.convert(template.text());
+			cache.put(template.text(), parsed);
+		}
+		return bind(parsed, template.values());
+	}
+
+	@Override
+	public FilterNode convert(final String input, final ParseContext ctx) {
+		// A parse context may map fields and nodes, so the result isn't shared between filters
+		return delegate.convert(input, ctx);
+	}
+
+	@Override
+	public String convert(final FilterNode node) {
+		return delegate.convert(node);
+	}
+
+	@Override
+	public Set<ConvertiblePair> getConvertibleTypes() {
+		return delegate.getConvertibleTypes();
+	}
+
+	@Override
+	public Object convert(final Object source, final TypeDescriptor sourceType, final TypeDescriptor targetType) {
+		if (source instanceof final String input && FilterNode.class.isAssignableFrom(targetType.getType())) {
+			return convert(input);
+		}
+		return delegate.convert(source, sourceType, targetType);
+	}
+
+	/**
+	 * Copies the parsed template, replacing the markers with the values. Every node is copied, as spring-filter keeps
+	 * state on the nodes while building the query.
+	 */
+	static FilterNode bind(final FilterNode node, final List<String> values) {
+		return switch (node) {
+			case final InputNode input when input.getValue() instanceof final String text && isMarker(text) -> new InputNode(values.get(Integer.parseInt(text.substring(1))));
+			case final InputNode input -> new InputNode(input.getValue());
+			case final FieldNode field -> new FieldNode(field.getName());
+			case final PlaceholderNode placeholder -> new PlaceholderNode(placeholder.getPlaceholder());
+			case final PriorityNode priority -> new PriorityNode(bind(priority.getNode(), values));
+			case final CollectionNode collection -> new CollectionNode(bindAll(collection.getItems(), values));
+			case final FunctionNode function -> new FunctionNode(function.getFunction(), bindAll(function.getArguments(), values));
+			case final InfixOperationNode infix -> new InfixOperationNode(bind(infix.getLeft(), values), infix.getOperator(), bind(infix.getRight(), values));
+			case final PrefixOperationNode prefix -> new PrefixOperationNode(prefix.getOperator(), bind(prefix.getRight(), values));
+			case final PostfixOperationNode postfix -> new PostfixOperationNode(bind(postfix.getLeft(), values), postfix.getOperator());
+			default -> throw new IllegalStateException("Unsupported filter node: " + node.getClass().getName());
+		};
+	}
+
+	private static List<FilterNode> bindAll(final List<FilterNode> nodes, final List<String> values) {
+		return new ArrayList<>(nodes.stream().map(node -> bind(node, values)).toList());
+	}
+
+	private static boolean isMarker(final String text) {
+		return text.length() > 1 && text.charAt(0) == MARKER;
+	}
+
+	/**
+	 * A filter with its quoted values replaced by numbered markers.
+	 *
+	 * @param text   the filter with markers
+	 * @param values the values, in the order of the markers
+	 */
+	record FilterTemplate(String text, List<String> values) {
+
+		/**
+		 * @return the template of the filter, or null if the filter has escaped, unbalanced or marker characters
+		 */
+		static FilterTemplate of(final String filter) {
+			if (filter.indexOf(ESCAPE) >= 0 || filter.indexOf(MARKER) >= 0) {
+				return null;
+			}
+			final var text = new StringBuilder(filter.length());
+			final var values = new ArrayList<String>();
+			var index = 0;
+			while (index < filter.length()) {
+				final var start = filter.indexOf(QUOTE, index);
+				if (start < 0) {
+					text.append(filter, index, filter.length());
+					break;
+				}
+				final var end = filter.indexOf(QUOTE, start + 1);
+				if (end < 0) {
+					return null;
+				}
+				text.append(filter, index, start).append(QUOTE).append(MARKER).append(values.size()).append(QUOTE);
+				values.add(filter.substring(start + 1, end));
+				index = end + 1;
+			}
+			return new FilterTemplate(text.toString(), List.copyOf(values));
+		}
+	}
+}
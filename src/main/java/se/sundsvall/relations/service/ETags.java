@@ -0,0 +1,72 @@
+package se.sundsvall.relations.service;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import se.sundsvall.relations.api.model.Relation;
+import se.sundsvall.relations.api.model.RelationType;
+import se.sundsvall.relations.api.model.ResourceIdentifier;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.springframework.util.DigestUtils.md5DigestAsHex;
+
+/**
+ * Strong entity tags for relations and relation types. A tag is a digest of the values in the representation, so every
+ * instance of the service calculates the same tag for the same data. Relations are tagged on their source and target as
+ * well as their timestamps, as two updates within the same millisecond leave the modified timestamp the same.
+ */
+public final class ETags {
+
+	private static final String ANY = "*";
+	private static final String WEAK_PREFIX = "W/";
+	private static final String DELIMITER = "\u001f";
+
+	private ETags() {}
+
+	public static String of(final Relation relation) {
+		return digest(relation.getId(), relation.getType(), toInstant(relation.getCreated()), toInstant(relation.getModified()),
+			of(relation.getSource()), of(relation.getTarget()));
+	}
+
+	public static String of(final RelationType relationType) {
+		return digest(relationType.getName(), relationType.getDisplayName(), relationType.getCounterName(), relationType.getCounterDisplayName());
+	}
+
+	public static String of(final List<RelationType> relationTypes) {
+		return digest(relationTypes.stream().map(ETags::of).toArray());
+	}
+
+	/**
+	 * Evaluates an If-Match header value against the current tag of a resource. An absent header always matches. Weak tags
+	 * never match, as If-Match requires strong comparison.
+	 */
+	public static boolean matches(final String ifMatch, final String etag) {
+		if (ifMatch == null) {
+			return true;
+		}
+		return Arrays.stream(ifMatch.split(","))
+			.map(String::trim)
+			.filter(candidate -> !candidate.startsWith(WEAK_PREFIX))
+			.anyMatch(candidate -> ANY.equals(candidate) || candidate.equals(etag));
+	}
+
+	private static String of(final ResourceIdentifier resourceIdentifier) {
+		return resourceIdentifier == null ? null
+			: digest(resourceIdentifier.getResourceId(), resourceIdentifier.getType(), resourceIdentifier.getService(), resourceIdentifier.getNamespace());
+	}
+
+	private static Instant toInstant(final OffsetDateTime timestamp) {
+		return timestamp == null ? null : timestamp.toInstant();
+	}
+
+	private static String digest(final Object... values) {
+		final var joined = Stream.of(values)
+			.map(value -> Objects.toString(value, ""))
+			.collect(Collectors.joining(DELIMITER));
+		return "\"" + md5DigestAsHex(joined.getBytes(UTF_8)) + "\"";
+	}
+}
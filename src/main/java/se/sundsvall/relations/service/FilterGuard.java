@@ -0,0 +1,124 @@
+package se.sundsvall.relations.service;
+
+import com.turkraft.springfilter.converter.FilterSpecification;
+import com.turkraft.springfilter.language.AndOperator;
+import com.turkraft.springfilter.language.OrOperator;
+import com.turkraft.springfilter.parser.node.FieldNode;
+import com.turkraft.springfilter.parser.node.FilterNode;
+import com.turkraft.springfilter.parser.node.FunctionNode;
+import com.turkraft.springfilter.parser.node.InfixOperationNode;
+import com.turkraft.springfilter.parser.node.OperationNode;
+import com.turkraft.springfilter.parser.node.PostfixOperationNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import se.sundsvall.dept44.problem.Problem;
+import se.sundsvall.dept44.problem.ThrowableProblem;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+/**
+ * Rejects filters that are too large or use fields and operators that can't be answered efficiently, before any query
+ * is run. The limits are set with the {@code relations.filter.*} properties. An empty list of allowed fields or
+ * operators allows all of them. Functions, e.g. {@code size}, are allowed by adding their name to the allowed
+ * operators.
+ * <p>
+ * The depth is the number of nested operations, ignoring parentheses, and a predicate is a comparison such as
+ * {@code type.name : 'PARENT'} or {@code modified is null}.
+ */
+@Component
+public class FilterGuard {
+
+	static final String REJECTED_COUNTER = "relations.filter.rejected";
+
+	private static final String TOO_DEEP = "Filter is nested deeper than %d levels";
+	private static final String TOO_MANY_PREDICATES = "Filter has more than %d predicates";
+	private static final String FIELD_NOT_ALLOWED = "Filtering on '%s' is not allowed";
+	private static final String OPERATOR_NOT_ALLOWED = "Operator '%s' is not allowed in filter";
+
+	private final MeterRegistry meterRegistry;
+	private final int maxDepth;
+	private final int maxPredicates;
+	private final Set<String> allowedFields;
+	private final Set<String> allowedOperators;
+
+	public FilterGuard(final MeterRegistry meterRegistry,
+		@Value("${relations.filter.max-depth:10}") final int maxDepth,
+		@Value("${relations.filter.max-predicates:20}") final int maxPredicates,
+		@Value("${relations.filter.allowed-fields:}") final List<String> allowedFields,
+		@Value("${relations.filter.allowed-operators:}") final List<String> allowedOperators) {
+		this.meterRegistry = meterRegistry;
+		this.maxDepth = maxDepth;
+		this.maxPredicates = maxPredicates;
+		this.allowedFields = Set.copyOf(allowedFields);
+		this.allowedOperators = Set.copyOf(allowedOperators);
+	}
+
+	/**
+	 * @param  filter           the filter given by the client, or null
+	 * @throws ThrowableProblem with status 400 if the filter breaks any of the limits
+	 */
+	public void check(final Specification<?> filter) {
+		if (filter instanceof final FilterSpecification<?> filterSpecification && filterSpecification.getFilter() != null) {
+			final var predicates = check(filterSpecification.getFilter(), 0);
+			if (predicates > maxPredicates) {
+				throw reject("predicates", TOO_MANY_PREDICATES.formatted(maxPredicates));
+			}
+		}
+	}
+
+	/**
+	 * Walks the filter, rejecting it on the first field or operator that isn't allowed or when nested too deep.
+	 *
+	 * @return the number of predicates below the node
+	 */
+	private int check(final FilterNode node, final int depth) {
+		var nodeDepth = depth;
+		var predicates = 0;
+
+		if (node instanceof final FieldNode field && !isAllowed(allowedFields, field.getName())) {
+			throw reject("field", FIELD_NOT_ALLOWED.formatted(field.getName()));
+		}
+		if (node instanceof final OperationNode operation) {
+			checkOperator(operation.getOperator().getToken());
+			nodeDepth++;
+			predicates += isPredicate(operation) ? 1 : 0;
+		}
+		if (node instanceof final FunctionNode function) {
+			checkOperator(function.getFunction().getName());
+			nodeDepth++;
+		}
+		if (nodeDepth > maxDepth) {
+			throw reject("depth", TOO_DEEP.formatted(maxDepth));
+		}
+
+		for (final var child : node.getChildren()) {
+			predicates += check(child, nodeDepth);
+		}
+		return predicates;
+	}
+
+	private void checkOperator(final String operator) {
+		if (!isAllowed(allowedOperators, operator)) {
+			throw reject("operator", OPERATOR_NOT_ALLOWED.formatted(operator));
+		}
+	}
+
+	private static boolean isPredicate(final OperationNode operation) {
+		return operation instanceof PostfixOperationNode
+			|| (operation instanceof InfixOperationNode && !(operation.getOperator() instanceof AndOperator || operation.getOperator() instanceof OrOperator));
+	}
+
+	private static boolean isAllowed(final Set<String> allowed, final String value) {
+		return allowed.isEmpty() || allowed.contains(value);
+	}
+
+	private ThrowableProblem reject(final String reason, final String message) {
+		Counter.builder(REJECTED_COUNTER).tag("reason", reason).register(meterRegistry).increment();
+		return Problem.valueOf(BAD_REQUEST, message);
+	}
+}
@@ -0,0 +1,106 @@
+package se.sundsvall.relations.service;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.StringJoiner;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import se.sundsvall.dept44.problem.Problem;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.util.StringUtils.hasText;
+import static se.sundsvall.relations.service.ServiceMetrics.OUTCOME_INVALID_CURSOR;
+import static se.sundsvall.relations.service.ServiceMetrics.withOutcome;
+
+/**
+ * Converts keyset scroll positions to and from the opaque cursor tokens handed out to clients. Each key of the position
+ * (the sort properties plus id) is written as name, type and value so that the position can be restored with the same
+ * value types as the entity properties it was read from.
+ * <p>
+ * The keyset condition compares each key with the value of the last row, which matches nothing when that value is
+ * empty, so sort properties that may be empty are rejected in cursor mode.
+ */
+final class KeysetCursor {
+
+	private static final String INVALID_CURSOR = "Cursor '%s' is not valid for the requested sort order";
+	private static final String NULLABLE_SORT = "Sort on '%s' can not be combined with a cursor, as it may be empty";
+	private static final Set<String> NULLABLE_PROPERTIES = Set.of("modified", "inverseRelationId", "source.namespace", "source.modified", "target.namespace", "target.modified");
+	private static final String ENTRY_DELIMITER = "\n";
+	private static final String FIELD_DELIMITER = "\t";
+	private static final String STRING = "s";
+	private static final String TIMESTAMP = "t";
+	private static final String LONG = "l";
+	private static final String INTEGER = "i";
+
+	private KeysetCursor() {}
+
+	static String encode(final ScrollPosition position) {
+		if (!(position instanceof final KeysetScrollPosition keysetPosition)) {
+			throw new IllegalArgumentException("Only keyset positions can be encoded as cursor");
+		}
+
+		final var joiner = new StringJoiner(ENTRY_DELIMITER);
+		keysetPosition.getKeys().forEach((key, value) -> {
+			if (value == null) {
+				throw new IllegalArgumentException("Position has no value for key '%s'".formatted(key));
+			}
+			joiner.add(String.join(FIELD_DELIMITER, key, typeOf(value), URLEncoder.encode(String.valueOf(value), UTF_8)));
+		});
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(joiner.toString().getBytes(UTF_8));
+	}
+
+	static KeysetScrollPosition decode(final String cursor, final Sort sort) {
+		sort.stream()
+			.map(Sort.Order::getProperty)
+			.filter(NULLABLE_PROPERTIES::contains)
+			.findFirst()
+			.ifPresent(property -> {
+				throw withOutcome(OUTCOME_INVALID_CURSOR, Problem.valueOf(BAD_REQUEST, NULLABLE_SORT.formatted(property)));
+			});
+
+		if (!hasText(cursor)) {
+			return ScrollPosition.keyset();
+		}
+
+		try {
+			final var keys = new LinkedHashMap<String, Object>();
+			for (final var entry : new String(Base64.getUrlDecoder().decode(cursor), UTF_8).split(ENTRY_DELIMITER)) {
+				final var fields = entry.split(FIELD_DELIMITER, 3);
+				keys.put(fields[0], valueOf(fields[1], URLDecoder.decode(fields[2], UTF_8)));
+			}
+
+			if (!sort.stream().map(Sort.Order::getProperty).allMatch(keys::containsKey)) {
+				throw withOutcome(OUTCOME_INVALID_CURSOR, Problem.valueOf(BAD_REQUEST, INVALID_CURSOR.formatted(cursor)));
+			}
+			return ScrollPosition.forward(keys);
+		} catch (final IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+			throw withOutcome(OUTCOME_INVALID_CURSOR, Problem.valueOf(BAD_REQUEST, INVALID_CURSOR.formatted(cursor)));
+		}
+	}
+
+	private static String typeOf(final Object value) {
+		return switch (value) {
+			case OffsetDateTime _ -> TIMESTAMP;
+			case Long _ -> LONG;
+			case Integer _ -> INTEGER;
+			default -> STRING;
+		};
+	}
+
+	private static Object valueOf(final String type, final String value) {
+		return switch (type) {
+			case TIMESTAMP -> OffsetDateTime.parse(value);
+			case LONG -> Long.valueOf(value);
+			case INTEGER -> Integer.valueOf(value);
+			case STRING -> value;
+			default -> throw new IllegalArgumentException("Unknown cursor value type: " + type);
+		};
+	}
+}
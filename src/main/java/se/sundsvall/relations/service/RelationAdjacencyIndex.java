@@ -0,0 +1,499 @@
+package se.sundsvall.relations.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import se.sundsvall.relations.api.model.RelationNeighbor;
+import se.sundsvall.relations.api.model.ResourceIdentifier;
+import se.sundsvall.relations.integration.db.ReadYourWrites;
+import se.sundsvall.relations.integration.db.RelationRepository;
+import se.sundsvall.relations.integration.db.model.RelationEntity;
+import se.sundsvall.relations.integration.db.model.RelationTypeEntity;
+import se.sundsvall.relations.integration.db.model.ResourceIdentifierEntity;
+
+/**
+ * Optional in-memory index of the outgoing relations of every resource, keyed on municipality id, service, type,
+ * namespace and resource id, and looked up in any namespace like the database. Strings are interned to int ids and
+ * relations are kept in primitive arrays, so the index holds no object per relation. The index is rebuilt from the
+ * database at startup and on a schedule, and updated once the writes in {@link RelationService} have been committed.
+ * Disabled unless {@code relations.adjacency-index.enabled} is set.
+ */
+@Component
+public class RelationAdjacencyIndex {
+
+	private static final Logger LOG = LoggerFactory.getLogger(RelationAdjacencyIndex.class);
+
+	private final RelationRepository relationRepository;
+	private final boolean enabled;
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final List<Runnable> pendingDuringRebuild = new ArrayList<>();
+	private Graph graph = new Graph();
+	private boolean rebuilding;
+	private volatile boolean ready;
+
+	public RelationAdjacencyIndex(final RelationRepository relationRepository, final MeterRegistry meterRegistry,
+		@Value("${relations.adjacency-index.enabled:false}") final boolean enabled) {
+		this.relationRepository = relationRepository;
+		this.enabled = enabled;
+
+		if (enabled) {
+			Gauge.builder("relations.adjacency.index.nodes", this, index -> index.read(Graph::nodeCount)).register(meterRegistry);
+			Gauge.builder("relations.adjacency.index.edges", this, index -> index.read(Graph::edgeCount)).register(meterRegistry);
+			Gauge.builder("relations.adjacency.index.memory", this, index -> index.read(Graph::estimatedBytes)).baseUnit(BaseUnits.BYTES).register(meterRegistry);
+		}
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Loads every relation from the database into a new graph that replaces the current one. Writes committed while the
+	 * rebuild runs are replayed on the new graph, which is safe since adding and removing edges is idempotent. Lookups are
+	 * not answered from the index until the first rebuild has completed. Also run on
+	 * {@code relations.adjacency-index.rebuild-cron}, which drops the strings interned for resources no longer related.
+	 */
+	@Transactional(readOnly = true)
+	@EventListener(ApplicationReadyEvent.class)
+	@Scheduled(cron = "${relations.adjacency-index.rebuild-cron:0 0 3 * * *}")
+	public void rebuild() {
+		if (!enabled) {
+			return;
+		}
+
+		write(() -> rebuilding = true);
+		final var rebuilt = new Graph();
+		// Read from the primary database, as writes committed just before the rebuild may not have reached a replica yet
+		try (final var primary = ReadYourWrites.request(); final var relations = relationRepository.streamAll(null)) {
+			relations.map(RelationAdjacencyIndex::toEdge).forEach(rebuilt::add);
+			write(() -> {
+				graph = rebuilt;
+				pendingDuringRebuild.forEach(Runnable::run);
+			});
+			ready = true;
+		} finally {
+			write(() -> {
+				pendingDuringRebuild.clear();
+				rebuilding = false;
+			});
+		}
+		LOG.info("Adjacency index rebuilt with {} resources and {} relations", rebuilt.nodeCount(), rebuilt.edgeCount());
+	}
+
+	/**
+	 * Returns the outgoing relations of the resource, or empty when the index is disabled or not yet built. Unknown
+	 * resources give an empty list.
+	 */
+	public Optional<List<RelationNeighbor>> getNeighbors(final String municipalityId, final String service, final String type, final String resourceId) {
+		if (!enabled || !ready) {
+			return Optional.empty();
+		}
+		return Optional.of(read(current -> current.neighbors(municipalityId, service, type, resourceId)));
+	}
+
+	/**
+	 * Adds the relation, and its inverse for two-way types, once the current transaction commits.
+	 */
+	public void add(final RelationEntity entity) {
+		if (!enabled) {
+			return;
+		}
+		final var edges = toEdges(entity);
+		onCommit(current -> edges.forEach(current::add));
+	}
+
+	/**
+	 * Removes the relation, and its inverse, once the current transaction commits. The edges are captured when called, so
+	 * this should be invoked before the entity is modified.
+	 */
+	public void remove(final RelationEntity entity) {
+		if (!enabled) {
+			return;
+		}
+		final var edges = toEdges(entity);
+		onCommit(current -> edges.forEach(current::remove));
+	}
+
+	/**
+	 * Updates the name of the type, and of its counter type, once the current transaction commits.
+	 */
+	public void updateType(final RelationTypeEntity type) {
+		if (!enabled) {
+			return;
+		}
+		final var types = Stream.of(type, type.getCounterType())
+			.filter(entity -> entity != null && entity.getId() != null)
+			.toList();
+		onCommit(current -> types.forEach(entity -> current.renameType(entity.getId(), entity.getName())));
+	}
+
+	private void onCommit(final Consumer<Graph> change) {
+		if (!enabled) {
+			return;
+		}
+
+		final Runnable apply = () -> write(() -> {
+			change.accept(graph);
+			if (rebuilding) {
+				pendingDuringRebuild.add(() -> change.accept(graph));
+			}
+		});
+
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					apply.run();
+				}
+			});
+		} else {
+			apply.run();
+		}
+	}
+
+	private <T> T read(final Function<Graph, T> function) {
+		lock.readLock().lock();
+		try {
+			return function.apply(graph);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private void write(final Runnable runnable) {
+		lock.writeLock().lock();
+		try {
+			runnable.run();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private static List<Edge> toEdges(final RelationEntity entity) {
+		final var edges = new ArrayList<Edge>(2);
+		edges.add(toEdge(entity));
+		if (entity.getInverseRelation() != null && entity.getType().getCounterType() != null) {
+			edges.add(toEdge(entity.getInverseRelation()));
+		}
+		return edges;
+	}
+
+	private static Edge toEdge(final RelationEntity entity) {
+		return new Edge(entity.getMunicipalityId(), UUID.fromString(entity.getId()), entity.getType().getId(), entity.getType().getName(), toNode(entity.getSource()), toNode(entity.getTarget()));
+	}
+
+	private static Node toNode(final ResourceIdentifierEntity identifier) {
+		return new Node(identifier.getService(), identifier.getType(), identifier.getResourceId(), identifier.getNamespace());
+	}
+
+	/**
+	 * Snapshot of a relation, taken when a change is requested since the entity may be modified before it is applied.
+	 */
+	private record Edge(String municipalityId, UUID relationId, String typeId, String typeName, Node source, Node target) {
+	}
+
+	private record Node(String service, String type, String resourceId, String namespace) {
+	}
+
+	private record NodeKey(int municipalityId, int service, int type, int resourceId, int namespace) {
+
+		ResourceKey resource() {
+			return new ResourceKey(municipalityId, service, type, resourceId);
+		}
+	}
+
+	private record ResourceKey(int municipalityId, int service, int type, int resourceId) {
+	}
+
+	/**
+	 * The index data. Nodes and edges are identified by their position in the arrays. The outgoing edges of a node are
+	 * kept in an int array per node. Removed edges, and nodes left without edges, are reused through free lists. Interned
+	 * strings are kept until the next rebuild.
+	 */
+	private static final class Graph {
+
+		private static final int INITIAL_CAPACITY = 64;
+		private static final int NONE = -1;
+
+		// Interned strings for municipality ids, services, types, resource ids and namespaces
+		private final Map<String, Integer> stringIds = new HashMap<>();
+		private final List<String> strings = new ArrayList<>();
+
+		// Relation types, interned on id so that renaming a type only touches one entry
+		private final Map<String, Integer> typeIds = new HashMap<>();
+		private final List<String> typeNames = new ArrayList<>();
+
+		// A node per identifier, and the nodes of each resource in any namespace, as looked up by neighbors
+		private final Map<NodeKey, Integer> nodeIds = new HashMap<>();
+		private final Map<ResourceKey, int[]> resourceNodes = new HashMap<>();
+		private NodeKey[] nodeKeys = new NodeKey[INITIAL_CAPACITY];
+		private int[][] outgoing = new int[INITIAL_CAPACITY][];
+		private int[] outgoingCounts = new int[INITIAL_CAPACITY];
+		private int[] incomingCounts = new int[INITIAL_CAPACITY];
+		private int nodeHighWaterMark;
+		private int[] freeNodes = new int[INITIAL_CAPACITY];
+		private int freeNodeCount;
+
+		private long[] edgeIdHigh = new long[INITIAL_CAPACITY];
+		private long[] edgeIdLow = new long[INITIAL_CAPACITY];
+		private int[] edgeTypes = new int[INITIAL_CAPACITY];
+		private int[] edgeTargets = new int[INITIAL_CAPACITY];
+		private int edgeHighWaterMark;
+		private int[] freeEdges = new int[INITIAL_CAPACITY];
+		private int freeEdgeCount;
+
+		int nodeCount() {
+			return nodeHighWaterMark - freeNodeCount;
+		}
+
+		int edgeCount() {
+			return edgeHighWaterMark - freeEdgeCount;
+		}
+
+		void add(final Edge edge) {
+			final var source = node(edge.municipalityId(), edge.source());
+			if (indexOf(source, edge.relationId()) != NONE) {
+				return;
+			}
+
+			final var target = node(edge.municipalityId(), edge.target());
+			final var edgeId = allocateEdge();
+			edgeIdHigh[edgeId] = edge.relationId().getMostSignificantBits();
+			edgeIdLow[edgeId] = edge.relationId().getLeastSignificantBits();
+			edgeTypes[edgeId] = type(edge.typeId(), edge.typeName());
+			edgeTargets[edgeId] = target;
+			incomingCounts[target]++;
+
+			if (outgoing[source] == null) {
+				outgoing[source] = new int[2];
+			} else if (outgoingCounts[source] == outgoing[source].length) {
+				outgoing[source] = Arrays.copyOf(outgoing[source], outgoing[source].length * 2);
+			}
+			outgoing[source][outgoingCounts[source]++] = edgeId;
+		}
+
+		void remove(final Edge edge) {
+			final var source = findNode(edge.municipalityId(), edge.source());
+			if (source == NONE) {
+				return;
+			}
+			final var position = indexOf(source, edge.relationId());
+			if (position == NONE) {
+				return;
+			}
+
+			final var edgeId = outgoing[source][position];
+			final var target = edgeTargets[edgeId];
+			outgoing[source][position] = outgoing[source][--outgoingCounts[source]];
+			incomingCounts[target]--;
+			if (freeEdgeCount == freeEdges.length) {
+				freeEdges = Arrays.copyOf(freeEdges, freeEdges.length * 2);
+			}
+			freeEdges[freeEdgeCount++] = edgeId;
+
+			release(source);
+			if (target != source) {
+				release(target);
+			}
+		}
+
+		void renameType(final String typeId, final String typeName) {
+			Optional.ofNullable(typeIds.get(typeId)).ifPresent(id -> typeNames.set(id, typeName));
+		}
+
+		List<RelationNeighbor> neighbors(final String municipalityId, final String service, final String type, final String resourceId) {
+			final var nodes = findNodes(municipalityId, service, type, resourceId);
+			final var neighbors = new ArrayList<RelationNeighbor>();
+			for (final var source : nodes) {
+				for (var i = 0; i < outgoingCounts[source]; i++) {
+					final var edgeId = outgoing[source][i];
+					neighbors.add(RelationNeighbor.builder()
+						.withRelationId(new UUID(edgeIdHigh[edgeId], edgeIdLow[edgeId]).toString())
+						.withType(typeNames.get(edgeTypes[edgeId]))
+						.withTarget(toResourceIdentifier(edgeTargets[edgeId]))
+						.build());
+				}
+			}
+			return neighbors;
+		}
+
+		/**
+		 * Rough estimate of the heap used by the index, counting array slots, interned strings and hash map entries.
+		 */
+		long estimatedBytes() {
+			long bytes = (long) edgeIdHigh.length * (Long.BYTES * 2 + Integer.BYTES * 2) + (long) freeEdges.length * Integer.BYTES;
+			bytes += (long) nodeKeys.length * (Long.BYTES * 2 + Integer.BYTES * 3);
+			for (var node = 0; node < nodeHighWaterMark; node++) {
+				if (nodeKeys[node] != null) {
+					bytes += 32L + (long) Integer.BYTES * 5 + (outgoing[node] == null ? 0 : 16L + (long) outgoing[node].length * Integer.BYTES);
+				}
+			}
+			for (final var string : strings) {
+				bytes += 40L + string.length();
+			}
+			for (final var string : typeNames) {
+				bytes += 40L + string.length();
+			}
+			return bytes + 48L * (stringIds.size() + typeIds.size() + nodeIds.size()) + 64L * resourceNodes.size();
+		}
+
+		private int indexOf(final int node, final UUID relationId) {
+			if (outgoing[node] == null) {
+				return NONE;
+			}
+			for (var i = 0; i < outgoingCounts[node]; i++) {
+				final var edgeId = outgoing[node][i];
+				if (edgeIdHigh[edgeId] == relationId.getMostSignificantBits() && edgeIdLow[edgeId] == relationId.getLeastSignificantBits()) {
+					return i;
+				}
+			}
+			return NONE;
+		}
+
+		private int[] findNodes(final String municipalityId, final String service, final String type, final String resourceId) {
+			final var municipality = stringIds.get(municipalityId);
+			final var serviceId = stringIds.get(service);
+			final var typeId = stringIds.get(type);
+			final var resource = stringIds.get(resourceId);
+			if (municipality == null || serviceId == null || typeId == null || resource == null) {
+				return new int[0];
+			}
+			return resourceNodes.getOrDefault(new ResourceKey(municipality, serviceId, typeId, resource), new int[0]);
+		}
+
+		private int findNode(final String municipalityId, final Node identifier) {
+			final var municipality = stringIds.get(municipalityId);
+			final var serviceId = stringIds.get(identifier.service());
+			final var typeId = stringIds.get(identifier.type());
+			final var resource = stringIds.get(identifier.resourceId());
+			final var namespace = identifier.namespace() == null ? Integer.valueOf(NONE) : stringIds.get(identifier.namespace());
+			if (municipality == null || serviceId == null || typeId == null || resource == null || namespace == null) {
+				return NONE;
+			}
+			return nodeIds.getOrDefault(new NodeKey(municipality, serviceId, typeId, resource, namespace), NONE);
+		}
+
+		private int node(final String municipalityId, final Node identifier) {
+			final var key = new NodeKey(intern(municipalityId), intern(identifier.service()), intern(identifier.type()), intern(identifier.resourceId()), intern(identifier.namespace()));
+			final var existing = nodeIds.get(key);
+			if (existing != null) {
+				return existing;
+			}
+
+			final var node = allocateNode();
+			nodeKeys[node] = key;
+			nodeIds.put(key, node);
+			resourceNodes.merge(key.resource(), new int[] {
+				node
+			}, (nodes, added) -> {
+				final var merged = Arrays.copyOf(nodes, nodes.length + 1);
+				merged[nodes.length] = node;
+				return merged;
+			});
+			return node;
+		}
+
+		/**
+		 * Frees the node once no edge starts or ends in it.
+		 */
+		private void release(final int node) {
+			if (outgoingCounts[node] > 0 || incomingCounts[node] > 0) {
+				return;
+			}
+			final var key = nodeKeys[node];
+			nodeIds.remove(key);
+			final var remaining = Arrays.stream(resourceNodes.get(key.resource())).filter(other -> other != node).toArray();
+			if (remaining.length == 0) {
+				resourceNodes.remove(key.resource());
+			} else {
+				resourceNodes.put(key.resource(), remaining);
+			}
+			nodeKeys[node] = null;
+			outgoing[node] = null;
+
+			if (freeNodeCount == freeNodes.length) {
+				freeNodes = Arrays.copyOf(freeNodes, freeNodes.length * 2);
+			}
+			freeNodes[freeNodeCount++] = node;
+		}
+
+		private int allocateNode() {
+			if (freeNodeCount > 0) {
+				return freeNodes[--freeNodeCount];
+			}
+			if (nodeHighWaterMark == nodeKeys.length) {
+				final var capacity = nodeKeys.length * 2;
+				nodeKeys = Arrays.copyOf(nodeKeys, capacity);
+				outgoing = Arrays.copyOf(outgoing, capacity);
+				outgoingCounts = Arrays.copyOf(outgoingCounts, capacity);
+				incomingCounts = Arrays.copyOf(incomingCounts, capacity);
+			}
+			return nodeHighWaterMark++;
+		}
+
+		private int allocateEdge() {
+			if (freeEdgeCount > 0) {
+				return freeEdges[--freeEdgeCount];
+			}
+			if (edgeHighWaterMark == edgeIdHigh.length) {
+				final var capacity = edgeIdHigh.length * 2;
+				edgeIdHigh = Arrays.copyOf(edgeIdHigh, capacity);
+				edgeIdLow = Arrays.copyOf(edgeIdLow, capacity);
+				edgeTypes = Arrays.copyOf(edgeTypes, capacity);
+				edgeTargets = Arrays.copyOf(edgeTargets, capacity);
+			}
+			return edgeHighWaterMark++;
+		}
+
+		private int intern(final String value) {
+			if (value == null) {
+				return NONE;
+			}
+			return stringIds.computeIfAbsent(value, key -> {
+				strings.add(key);
+				return strings.size() - 1;
+			});
+		}
+
+		private int type(final String typeId, final String typeName) {
+			final var id = typeIds.computeIfAbsent(typeId, key -> {
+				typeNames.add(typeName);
+				return typeNames.size() - 1;
+			});
+			typeNames.set(id, typeName);
+			return id;
+		}
+
+		private ResourceIdentifier toResourceIdentifier(final int node) {
+			final var key = nodeKeys[node];
+			return ResourceIdentifier.builder()
+				.withResourceId(strings.get(key.resourceId()))
+				.withType(strings.get(key.type()))
+				.withService(strings.get(key.service()))
+				.withNamespace(key.namespace() == NONE ? null : strings.get(key.namespace()))
+				.build();
+		}
+	}
+}
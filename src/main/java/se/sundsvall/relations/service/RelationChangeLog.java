@@ -0,0 +1,68 @@
+package se.sundsvall.relations.service;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.stream.Stream;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import se.sundsvall.relations.api.model.RelationChange;
+import se.sundsvall.relations.api.model.RelationChangeType;
+import se.sundsvall.relations.integration.db.RelationChangeRepository;
+import se.sundsvall.relations.integration.db.model.RelationEntity;
+import se.sundsvall.relations.service.mapper.RelationMapper;
+
+/**
+ * Transactional outbox of relation changes. Changes are written through the caller's transaction, so they are
+ * committed or rolled back together with the relations they describe.
+ * <p>
+ * Changes are ordered in the feed by their sequence, which the {@link RelationChangeSequencer} assigns in commit order
+ * once the transaction has committed, and which also publishes them on the {@link RelationChangeTopic}. Until then the
+ * changes are left out of the feed.
+ */
+@Component
+public class RelationChangeLog {
+
+	private final RelationChangeRepository relationChangeRepository;
+	private final RelationMapper mapper;
+	private final RelationChangeSequencer sequencer;
+
+	public RelationChangeLog(final RelationChangeRepository relationChangeRepository, final RelationMapper mapper, final RelationChangeSequencer sequencer) {
+		this.relationChangeRepository = relationChangeRepository;
+		this.mapper = mapper;
+		this.sequencer = sequencer;
+	}
+
+	public void record(final RelationChangeType changeType, final RelationEntity relation) {
+		relationChangeRepository.save(mapper.toRelationChangeEntity(changeType, relation));
+		sequencer.requestAfterCommit();
+	}
+
+	/**
+	 * Records the change for each relation and for its inverse relation, if it has one.
+	 */
+	public void recordWithInverse(final RelationChangeType changeType, final Collection<RelationEntity> relations) {
+		record(changeType, relations.stream()
+			.flatMap(relation -> Stream.of(relation, relation.getInverseRelation()))
+			.filter(Objects::nonNull)
+			.toList());
+	}
+
+	/**
+	 * Records the change for each of the relations, leaving their inverse relations out.
+	 */
+	public void record(final RelationChangeType changeType, final Collection<RelationEntity> relations) {
+		relationChangeRepository.saveAll(relations.stream()
+			.map(relation -> mapper.toRelationChangeEntity(changeType, relation))
+			.toList());
+		sequencer.requestAfterCommit();
+	}
+
+	/**
+	 * Changes in the municipality after the given sequence, in order. The stream must be consumed and closed within a
+	 * transaction.
+	 */
+	public Stream<RelationChange> changesAfter(final String municipalityId, final long sequence, final int limit) {
+		return relationChangeRepository.findByMunicipalityIdAndSequenceGreaterThanOrderBySequence(municipalityId, sequence, Limit.of(limit))
+			.map(mapper::toRelationChange);
+	}
+}
@@ -0,0 +1,67 @@
+package se.sundsvall.relations.service;
+
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import se.sundsvall.relations.integration.db.RelationChangeRepository;
+import se.sundsvall.relations.integration.db.RelationChangeSequenceRepository;
+import se.sundsvall.relations.integration.db.model.RelationChangeEntity;
+import se.sundsvall.relations.integration.db.model.RelationChangeSequenceEntity;
+import se.sundsvall.relations.service.mapper.RelationMapper;
+
+import static se.sundsvall.relations.integration.db.model.RelationChangeSequenceEntity.COUNTER_ID;
+
+/**
+ * Publishes sequenced relation changes on the {@link RelationChangeTopic} of this instance. Every instance reads the
+ * changes after the last one it published, so subscribers see the changes made on any instance, at the latest
+ * {@code relations.change-feed.relay-interval} after they were sequenced. The instance sequencing a change relays it at
+ * once. Sequences become visible in order, as they are assigned while the counter is locked, so none is passed over.
+ * <p>
+ * Relaying starts after the last sequence assigned when it first runs. Earlier changes are read from the change feed.
+ */
+@Component
+public class RelationChangeRelay {
+
+	static final int BATCH_SIZE = 500;
+
+	private static final Logger LOG = LoggerFactory.getLogger(RelationChangeRelay.class);
+
+	private final RelationChangeRepository relationChangeRepository;
+	private final RelationChangeSequenceRepository relationChangeSequenceRepository;
+	private final RelationMapper mapper;
+	private final RelationChangeTopic changeTopic;
+	private Long lastSequence;
+
+	public RelationChangeRelay(final RelationChangeRepository relationChangeRepository, final RelationChangeSequenceRepository relationChangeSequenceRepository,
+		final RelationMapper mapper, final RelationChangeTopic changeTopic) {
+		this.relationChangeRepository = relationChangeRepository;
+		this.relationChangeSequenceRepository = relationChangeSequenceRepository;
+		this.mapper = mapper;
+		this.changeTopic = changeTopic;
+	}
+
+	@Scheduled(fixedDelayString = "${relations.change-feed.relay-interval:PT1S}")
+	public synchronized void relay() {
+		try {
+			if (lastSequence == null) {
+				lastSequence = relationChangeSequenceRepository.findById(COUNTER_ID)
+					.map(RelationChangeSequenceEntity::getLastSequence)
+					.orElse(0L);
+			}
+
+			List<RelationChangeEntity> changes;
+			do {
+				changes = relationChangeRepository.findBySequenceGreaterThanOrderBySequence(lastSequence, Limit.of(BATCH_SIZE));
+				for (final var change : changes) {
+					changeTopic.publish(change.getMunicipalityId(), mapper.toRelationChange(change));
+					lastSequence = change.getSequence();
+				}
+			} while (changes.size() == BATCH_SIZE);
+		} catch (final RuntimeException e) {
+			LOG.warn("Failed to relay relation changes, retrying on the next run", e);
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package se.sundsvall.relations.service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import se.sundsvall.relations.integration.db.RelationChangeRepository;
+import se.sundsvall.relations.integration.db.RelationChangeSequenceRepository;
+import se.sundsvall.relations.integration.db.model.RelationChangeEntity;
+import se.sundsvall.relations.integration.db.model.RelationChangeSequenceEntity;
+
+import static se.sundsvall.relations.integration.db.model.RelationChangeSequenceEntity.COUNTER_ID;
+
+/**
+ * Gives committed relation changes their position in the change feed. The counter row is locked while sequences are
+ * assigned, so one instance at a time reads the changes still without a sequence and numbers them after the last one
+ * given. A change is only seen once its transaction has committed, and sequences only become visible when the run that
+ * assigned them commits, so consumers never move past a sequence that is later filled in.
+ * <p>
+ * A run is requested when a transaction that recorded changes commits, and runs requested while one is pending are
+ * merged into it. A sweep every {@code relations.change-feed.sweep-interval} picks up changes whose run never happened.
+ * Sequenced changes are published by the {@link RelationChangeRelay} of every instance, which this one runs at once.
+ */
+@Component
+public class RelationChangeSequencer {
+
+	static final int BATCH_SIZE = 500;
+
+	private static final Logger LOG = LoggerFactory.getLogger(RelationChangeSequencer.class);
+
+	private final RelationChangeRepository relationChangeRepository;
+	private final RelationChangeSequenceRepository relationChangeSequenceRepository;
+	private final RelationChangeRelay changeRelay;
+	private final TransactionTemplate transactionTemplate;
+	private final ExecutorService executor = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("relation-change-sequencer").daemon().factory());
+	private final AtomicBoolean requested = new AtomicBoolean();
+
+	public RelationChangeSequencer(final RelationChangeRepository relationChangeRepository, final RelationChangeSequenceRepository relationChangeSequenceRepository,
+		final RelationChangeRelay changeRelay, final PlatformTransactionManager transactionManager) {
+		this.relationChangeRepository = relationChangeRepository;
+		this.relationChangeSequenceRepository = relationChangeSequenceRepository;
+		this.changeRelay = changeRelay;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	/**
+	 * Requests a run once the current transaction has been committed, or at once outside of transactions.
+	 */
+	public void requestAfterCommit() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					request();
+				}
+			});
+		} else {
+			request();
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${relations.change-feed.sweep-interval:PT1S}")
+	public void sweep() {
+		request();
+	}
+
+	void request() {
+		if (requested.compareAndSet(false, true)) {
+			try {
+				executor.execute(this::run);
+			} catch (final RejectedExecutionException e) {
+				// Shutting down, after the transaction requesting the run has committed. The changes are left without a sequence
+				// and picked up by the sweep of another instance or on the next start
+				requested.set(false);
+				LOG.debug("Sequencer is shut down, leaving relation changes to the next sweep");
+			}
+		}
+	}
+
+	private void run() {
+		// Cleared before reading, so that changes committed during the run request another one
+		requested.set(false);
+		try {
+			var batch = assign();
+			final var assigned = batch > 0;
+			while (batch == BATCH_SIZE) {
+				batch = assign();
+			}
+			if (assigned) {
+				changeRelay.relay();
+			}
+		} catch (final RuntimeException e) {
+			LOG.warn("Failed to assign sequences to relation changes, retrying on the next sweep", e);
+		}
+	}
+
+	/**
+	 * Assigns sequences to the next batch of changes without one.
+	 *
+	 * @return the number of changes given a sequence
+	 */
+	int assign() {
+		return transactionTemplate.execute(status -> {
+			final var counter = relationChangeSequenceRepository.findWithLockById(COUNTER_ID)
+				.orElseGet(() -> RelationChangeSequenceEntity.builder().withId(COUNTER_ID).build());
+			final List<RelationChangeEntity> changes = relationChangeRepository.findBySequenceIsNullOrderById(Limit.of(BATCH_SIZE));
+			var sequence = counter.getLastSequence();
+			for (final var change : changes) {
+				change.setSequence(++sequence);
+			}
+			counter.setLastSequence(sequence);
+			relationChangeSequenceRepository.save(counter);
+			return changes.size();
+		});
+	}
+
+	@PreDestroy
+	void shutdown() {
+		executor.shutdownNow();
+	}
+}
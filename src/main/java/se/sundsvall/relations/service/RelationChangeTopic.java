@@ -0,0 +1,189 @@
+package se.sundsvall.relations.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import se.sundsvall.relations.api.model.RelationChange;
+import se.sundsvall.relations.api.model.ResourceIdentifier;
+
+/**
+ * In-process topic of relation changes, keyed on municipality id and resource id. A change is delivered to the
+ * subscribers of both its source and its target resource once the transaction that made it has been committed.
+ * <p>
+ * Changes are published by the {@link RelationChangeRelay} of each instance, which reads them from the change feed, so
+ * subscribers see the changes made on all instances. Each subscriber has a queue of its own, holding at most {@code relations.subscription.queue-capacity}
+ * changes, and is called on a virtual thread draining it, one change at a time and in order. A slow subscriber thereby
+ * never holds up the delivery to the others. A subscriber whose queue is full is dropped and told so, and the changes
+ * it missed are left to the change feed.
+ */
+@Component
+public class RelationChangeTopic {
+
+	static final String SUBSCRIBERS_GAUGE = "relations.subscribers";
+	static final String DROPPED_COUNTER = "relations.subscribers.dropped";
+
+	private static final Logger LOG = LoggerFactory.getLogger(RelationChangeTopic.class);
+
+	private final Map<Key, Set<QueuedSubscriber>> subscribers = new ConcurrentHashMap<>();
+	private final Executor executor;
+	private final int queueCapacity;
+	private final Counter dropped;
+
+	@Autowired
+	public RelationChangeTopic(final MeterRegistry meterRegistry, @Value("${relations.subscription.queue-capacity:100}") final int queueCapacity) {
+		this(meterRegistry, queueCapacity, Executors.newVirtualThreadPerTaskExecutor());
+	}
+
+	RelationChangeTopic(final MeterRegistry meterRegistry, final int queueCapacity, final Executor executor) {
+		this.executor = executor;
+		this.queueCapacity = queueCapacity;
+
+		Gauge.builder(SUBSCRIBERS_GAUGE, subscribers, map -> map.values().stream().mapToInt(Set::size).sum())
+			.description("Subscribers waiting for relation changes")
+			.register(meterRegistry);
+		this.dropped = Counter.builder(DROPPED_COUNTER)
+			.description("Subscribers dropped as they fell too far behind")
+			.register(meterRegistry);
+	}
+
+	/**
+	 * Delivers the change to the subscribers of this instance once the current transaction has been committed, or at once
+	 * outside of transactions.
+	 */
+	public void publish(final String municipalityId, final RelationChange change) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					deliver(municipalityId, change);
+				}
+			});
+		} else {
+			deliver(municipalityId, change);
+		}
+	}
+
+	/**
+	 * Calls the subscriber with every change to a relation with the resource as source or target, until the returned
+	 * subscription is closed. Should the subscriber fall behind by more than the queue capacity, it is unsubscribed and
+	 * {@code onOverflow} is called instead.
+	 */
+	public Subscription subscribe(final String municipalityId, final String resourceId, final Consumer<RelationChange> subscriber, final Runnable onOverflow) {
+		final var key = new Key(municipalityId, resourceId);
+		final var queuedSubscriber = new QueuedSubscriber(key, subscriber, onOverflow);
+		subscribers.compute(key, (ignored, current) -> {
+			final var keySubscribers = current == null ? ConcurrentHashMap.<QueuedSubscriber>newKeySet() : current;
+			keySubscribers.add(queuedSubscriber);
+			return keySubscribers;
+		});
+
+		return () -> unsubscribe(queuedSubscriber);
+	}
+
+	private void unsubscribe(final QueuedSubscriber subscriber) {
+		subscribers.computeIfPresent(subscriber.key, (ignored, current) -> {
+			current.remove(subscriber);
+			return current.isEmpty() ? null : current;
+		});
+	}
+
+	private void deliver(final String municipalityId, final RelationChange change) {
+		Stream.of(change.getSource(), change.getTarget())
+			.filter(Objects::nonNull)
+			.map(ResourceIdentifier::getResourceId)
+			.distinct()
+			.map(resourceId -> subscribers.getOrDefault(new Key(municipalityId, resourceId), Set.of()))
+			.flatMap(Set::stream)
+			.forEach(subscriber -> subscriber.offer(change));
+	}
+
+	@FunctionalInterface
+	public interface Subscription extends AutoCloseable {
+
+		@Override
+		void close();
+	}
+
+	private record Key(String municipalityId, String resourceId) {}
+
+	/**
+	 * A subscriber with its queue. At most one drain runs at a time, so the subscriber is called in order.
+	 */
+	private final class QueuedSubscriber {
+
+		private final Key key;
+		private final Consumer<RelationChange> subscriber;
+		private final Runnable onOverflow;
+		private final BlockingQueue<RelationChange> queue = new ArrayBlockingQueue<>(queueCapacity);
+		private final AtomicBoolean draining = new AtomicBoolean();
+		private final AtomicBoolean overflowed = new AtomicBoolean();
+
+		private QueuedSubscriber(final Key key, final Consumer<RelationChange> subscriber, final Runnable onOverflow) {
+			this.key = key;
+			this.subscriber = subscriber;
+			this.onOverflow = onOverflow;
+		}
+
+		private void offer(final RelationChange change) {
+			if (overflowed.get()) {
+				return;
+			}
+			if (queue.offer(change)) {
+				scheduleDrain();
+			} else if (overflowed.compareAndSet(false, true)) {
+				unsubscribe(this);
+				queue.clear();
+				dropped.increment();
+				executor.execute(() -> run(onOverflow));
+			}
+		}
+
+		private void scheduleDrain() {
+			if (draining.compareAndSet(false, true)) {
+				executor.execute(this::drain);
+			}
+		}
+
+		private void drain() {
+			try {
+				for (var change = queue.poll(); change != null && !overflowed.get(); change = queue.poll()) {
+					final var next = change;
+					run(() -> subscriber.accept(next));
+				}
+			} finally {
+				draining.set(false);
+			}
+			// A change offered after the last poll but before the flag was cleared would otherwise wait for the next one
+			if (!queue.isEmpty() && !overflowed.get()) {
+				scheduleDrain();
+			}
+		}
+
+		private void run(final Runnable runnable) {
+			try {
+				runnable.run();
+			} catch (final RuntimeException e) {
+				// The change has been committed, so a failing subscriber must not stop the delivery to the others
+				LOG.warn("Failed to deliver relation changes for resource {}", key.resourceId(), e);
+			}
+		}
+	}
+}
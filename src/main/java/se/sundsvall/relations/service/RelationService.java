@@ -1,98 +1,514 @@
 package se.sundsvall.relations.service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
-import se.sundsvall.dept44.models.api.paging.PagingAndSortingMetaData;
+import org.springframework.transaction.annotation.Transactional;
 import se.sundsvall.dept44.problem.Problem;
 import se.sundsvall.relations.api.model.Relation;
+import se.sundsvall.relations.api.model.RelationBatchResult;
+import se.sundsvall.relations.api.model.RelationChange;
+import se.sundsvall.relations.api.model.RelationChangeType;
+import se.sundsvall.relations.api.model.RelationDeleteResponse;
+import se.sundsvall.relations.api.model.RelationGraph;
+import se.sundsvall.relations.api.model.RelationLookupResponse;
+import se.sundsvall.relations.api.model.RelationNeighbor;
 import se.sundsvall.relations.api.model.RelationPageParameters;
 import se.sundsvall.relations.api.model.RelationPagedResponse;
+import se.sundsvall.relations.api.model.RelationPagingMetaData;
+import se.sundsvall.relations.api.model.ResourceIdentifier;
 import se.sundsvall.relations.integration.db.RelationRepository;
 import se.sundsvall.relations.integration.db.RelationTypeRepository;
 import se.sundsvall.relations.integration.db.model.RelationEntity;
+import se.sundsvall.relations.integration.db.model.RelationTypeEntity;
+import se.sundsvall.relations.integration.db.model.ResourceIdentifierEntity;
 import se.sundsvall.relations.service.mapper.RelationMapper;
 
+import static java.util.stream.Collectors.toMap;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CREATED;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.PRECONDITION_FAILED;
+import static se.sundsvall.relations.integration.db.RelationTypeRepository.RELATION_TYPES_CACHE;
+import static se.sundsvall.relations.service.ServiceMetrics.Operation.CREATE_RELATION;
+import static se.sundsvall.relations.service.ServiceMetrics.Operation.CREATE_RELATIONS;
+import static se.sundsvall.relations.service.ServiceMetrics.Operation.DELETE_RELATION;
+import static se.sundsvall.relations.service.ServiceMetrics.Operation.DELETE_RELATIONS;
+import static se.sundsvall.relations.service.ServiceMetrics.Operation.EXPORT_CHANGES;
+import static se.sundsvall.relations.service.ServiceMetrics.Operation.EXPORT_RELATIONS;
+import static se.sundsvall.relations.service.ServiceMetrics.Operation.FIND_RELATIONS;
+import static se.sundsvall.relations.service.ServiceMetrics.Operation.GET_NEIGHBORS;
+import static se.sundsvall.relations.service.ServiceMetrics.Operation.GET_RELATION;
+import static se.sundsvall.relations.service.ServiceMetrics.Operation.GET_RELATIONS;
+import static se.sundsvall.relations.service.ServiceMetrics.Operation.GET_RELATION_GRAPH;
+import static se.sundsvall.relations.service.ServiceMetrics.Operation.SAVE_RELATION;
+import static se.sundsvall.relations.service.ServiceMetrics.OUTCOME_INVALID_TYPE;
+import static se.sundsvall.relations.service.ServiceMetrics.OUTCOME_REMOVED_TYPE;
+import static se.sundsvall.relations.service.ServiceMetrics.withOutcome;
 
 @Service
 public class RelationService {
 
 	private static final String NOT_FOUND_MSG = "Relation with id '%s' not found";
 	private static final String INVALID_TYPE = "'%s' is not a valid type";
+	private static final String REMOVED_TYPE = "A relation type used by the request has been removed";
+	private static final String TYPE_FOREIGN_KEY = "fk_relation_type_relation_type";
+	private static final String MODIFIED_MSG = "Relation with id '%s' has been modified";
+	static final int GRAPH_MAX_NODES = 1000;
+	static final int GRAPH_MAX_EDGES = 2000;
+	static final int GRAPH_FRONTIER_BATCH_SIZE = 500;
 
 	private final RelationRepository relationRepository;
 	private final RelationTypeRepository relationTypeRepository;
 	private final RelationMapper mapper;
+	private final RelationAdjacencyIndex adjacencyIndex;
+	private final ServiceMetrics metrics;
+	private final SlowFilterMonitor slowFilterMonitor;
+	private final RelationChangeLog changeLog;
+	private final ResourceIdentifierResolver resourceIdentifierResolver;
+	private final CacheManager cacheManager;
 
-	public RelationService(final RelationRepository relationRepository, final RelationTypeRepository relationTypeRepository, final RelationMapper mapper) {
+	public RelationService(final RelationRepository relationRepository, final RelationTypeRepository relationTypeRepository, final RelationMapper mapper, final RelationAdjacencyIndex adjacencyIndex,
+		final ServiceMetrics metrics, final SlowFilterMonitor slowFilterMonitor, final RelationChangeLog changeLog, final ResourceIdentifierResolver resourceIdentifierResolver,
+		final CacheManager cacheManager) {
 		this.relationRepository = relationRepository;
 		this.relationTypeRepository = relationTypeRepository;
 		this.mapper = mapper;
+		this.adjacencyIndex = adjacencyIndex;
+		this.metrics = metrics;
+		this.slowFilterMonitor = slowFilterMonitor;
+		this.changeLog = changeLog;
+		this.resourceIdentifierResolver = resourceIdentifierResolver;
+		this.cacheManager = cacheManager;
 	}
 
 	public static Specification<RelationEntity> withMunicipalityId(final String municipalityId) {
 		return (root, criteriaQuery, criteriaBuilder) -> criteriaBuilder.equal(root.get("municipalityId"), municipalityId);
 	}
 
+	static Specification<RelationEntity> withSource(final String service, final String type, final String resourceId) {
+		return (root, criteriaQuery, criteriaBuilder) -> criteriaBuilder.and(
+			criteriaBuilder.equal(root.get("source").get("service"), service),
+			criteriaBuilder.equal(root.get("source").get("type"), type),
+			criteriaBuilder.equal(root.get("source").get("resourceId"), resourceId));
+	}
+
+	static Specification<RelationEntity> withSourceResourceIdIn(final Collection<String> resourceIds) {
+		return (root, criteriaQuery, criteriaBuilder) -> root.get("source").get("resourceId").in(resourceIds);
+	}
+
+	static Specification<RelationEntity> withTypeIn(final Collection<String> types) {
+		if (types == null || types.isEmpty()) {
+			return Specification.unrestricted();
+		}
+		return (root, criteriaQuery, criteriaBuilder) -> root.get("type").get("name").in(types);
+	}
+
+	private static Specification<RelationEntity> withMunicipalityId(final String municipalityId, final Specification<RelationEntity> filter) {
+		return Optional.ofNullable(filter)
+			.map(withMunicipalityId(municipalityId)::and)
+			.orElse(withMunicipalityId(municipalityId));
+	}
+
+	@Transactional
 	public String createRelation(final String municipalityId, final Relation relation) {
-		final var type = relationTypeRepository.findByName(relation.getType())
-			.orElseThrow(() -> Problem.valueOf(BAD_REQUEST, INVALID_TYPE.formatted(relation.getType())));
+		return metrics.record(CREATE_RELATION, municipalityId, relation.getType(), () -> {
+			final var type = relationTypeRepository.findByName(relation.getType())
+				.orElseThrow(() -> withOutcome(OUTCOME_INVALID_TYPE, Problem.valueOf(BAD_REQUEST, INVALID_TYPE.formatted(relation.getType()))));
+
+			final var entity = toRelationEntity(municipalityId, relation, type);
+			resourceIdentifierResolver.resolve(municipalityId, List.of(entity));
+
+			final var saved = relationRepository.save(entity);
+			flush();
+			changeLog.recordWithInverse(RelationChangeType.CREATED, List.of(saved));
+			adjacencyIndex.add(saved);
+			return saved.getId();
+		});
+	}
+
+	/**
+	 * Creates all relations in one transaction. Types are resolved once per distinct name, resource identifiers with one
+	 * query for the whole batch, and the entities are saved together, letting Hibernate group the inserts into JDBC
+	 * batches. Relations with an unknown type are reported as failed while the rest are created.
+	 */
+	@Transactional
+	public List<RelationBatchResult> createRelations(final String municipalityId, final List<Relation> relations) {
+		final var typeNames = relations.stream().map(Relation::getType).distinct().toList();
+		return metrics.record(CREATE_RELATIONS, municipalityId, typeNames.size() == 1 ? typeNames.getFirst() : null, () -> createRelationBatch(municipalityId, relations));
+	}
+
+	private List<RelationBatchResult> createRelationBatch(final String municipalityId, final List<Relation> relations) {
+		final var types = relations.stream()
+			.map(Relation::getType)
+			.distinct()
+			.collect(toMap(Function.identity(), relationTypeRepository::findByName));
+
+		final var results = new ArrayList<RelationBatchResult>(relations.size());
+		final var entities = new ArrayList<RelationEntity>(relations.size());
+		final var createdResults = new ArrayList<RelationBatchResult>(relations.size());
+
+		for (var index = 0; index < relations.size(); index++) {
+			final var relation = relations.get(index);
+			final var type = types.get(relation.getType());
+
+			if (type.isEmpty()) {
+				results.add(RelationBatchResult.builder()
+					.withIndex(index)
+					.withStatus(BAD_REQUEST.value())
+					.withDetail(INVALID_TYPE.formatted(relation.getType()))
+					.build());
+				continue;
+			}
 
+			final var result = RelationBatchResult.builder().withIndex(index).withStatus(CREATED.value()).build();
+			results.add(result);
+			createdResults.add(result);
+			entities.add(toRelationEntity(municipalityId, relation, type.get()));
+		}
+
+		resourceIdentifierResolver.resolve(municipalityId, entities);
+		final var saved = relationRepository.saveAll(entities);
+		flush();
+		changeLog.recordWithInverse(RelationChangeType.CREATED, saved);
+		for (var i = 0; i < saved.size(); i++) {
+			createdResults.get(i).setId(saved.get(i).getId());
+			adjacencyIndex.add(saved.get(i));
+		}
+
+		return results;
+	}
+
+	/**
+	 * Writes the pending relations. Relation types are cached, see {@link RelationTypeRepository#findByName(String)}, so
+	 * a type removed on another instance may still be resolved here until its entry expires. Writing a relation of such a
+	 * type fails on the foreign key of the type, which is reported as a bad request after the cached types are evicted.
+	 */
+	private void flush() {
+		try {
+			relationRepository.flush();
+		} catch (final DataIntegrityViolationException e) {
+			final var cause = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+			if (cause == null || !cause.contains(TYPE_FOREIGN_KEY)) {
+				throw e;
+			}
+			Optional.ofNullable(cacheManager.getCache(RELATION_TYPES_CACHE)).ifPresent(Cache::clear);
+			throw withOutcome(OUTCOME_REMOVED_TYPE, Problem.valueOf(BAD_REQUEST, REMOVED_TYPE));
+		}
+	}
+
+	private RelationEntity toRelationEntity(final String municipalityId, final Relation relation, final RelationTypeEntity type) {
 		final var primaryRelation = mapper.toRelationEntity(municipalityId, relation, type);
 
 		if (type.getCounterType() != null) {
 			primaryRelation.setInverseRelation(mapper.toInverseRelationEntity(primaryRelation));
 		}
-
-		return relationRepository.save(primaryRelation).getId();
+		return primaryRelation;
 	}
 
+	@Transactional(readOnly = true)
 	public RelationPagedResponse findRelations(final String municipalityId, final Specification<RelationEntity> filter, final RelationPageParameters pageParameters) {
-		final var filterWithMunicipalityId = Optional.ofNullable(filter)
-			.map(withMunicipalityId(municipalityId)::and)
-			.orElse(withMunicipalityId(municipalityId));
+		return metrics.record(FIND_RELATIONS, municipalityId, null, filter, () -> {
+			final var response = slowFilterMonitor.time(municipalityId, filter, () -> findPage(withMunicipalityId(municipalityId, filter), pageParameters));
+			metrics.recordFoundRows(municipalityId, response.getRelations().size());
+			return response;
+		});
+	}
+
+	private RelationPagedResponse findPage(final Specification<RelationEntity> filterWithMunicipalityId, final RelationPageParameters pageParameters) {
+		if (pageParameters.getCursor() != null) {
+			return findRelationsByCursor(filterWithMunicipalityId, pageParameters);
+		}
+		if (pageParameters.isSkipCount()) {
+			return findRelationsWithoutCount(filterWithMunicipalityId, pageParameters);
+		}
 
 		final var matches = relationRepository.findAll(filterWithMunicipalityId, PageRequest.of(pageParameters.getPage() - 1, pageParameters.getLimit(), pageParameters.sort()));
 		final List<Relation> relations = matches.stream().map(mapper::toRelation).toList();
 
 		return RelationPagedResponse.builder()
 			.withRelations(relations)
-			.withMetaData(PagingAndSortingMetaData.create().withPageData(matches))
+			.withMetaData(RelationPagingMetaData.fromPage(matches))
 			.build();
 	}
 
-	public Relation saveRelation(final String municipalityId, final Relation relation) {
+	/**
+	 * Offset paging without the count query. The slice reads one row more than the limit to tell whether a next page
+	 * exists.
+	 */
+	private RelationPagedResponse findRelationsWithoutCount(final Specification<RelationEntity> specification, final RelationPageParameters pageParameters) {
+		final Slice<RelationEntity> slice = relationRepository.findBy(specification, query -> query
+			.slice(PageRequest.of(pageParameters.getPage() - 1, pageParameters.getLimit(), pageParameters.sort())));
+
+		return RelationPagedResponse.builder()
+			.withRelations(slice.stream().map(mapper::toRelation).toList())
+			.withMetaData(RelationPagingMetaData.fromSlice(slice))
+			.build();
+	}
+
+	/**
+	 * Keyset paging, continuing after the position encoded in the cursor. No total count is calculated, and the next
+	 * cursor is only returned when the window reports that more matches exist.
+	 */
+	private RelationPagedResponse findRelationsByCursor(final Specification<RelationEntity> specification, final RelationPageParameters pageParameters) {
+		final var sort = pageParameters.sort();
+		final var position = KeysetCursor.decode(pageParameters.getCursor(), sort);
+
+		final Window<RelationEntity> window = relationRepository.findBy(specification, query -> query
+			.sortBy(sort)
+			.limit(pageParameters.getLimit())
+			.scroll(position));
+
+		final var nextCursor = window.hasNext() ? KeysetCursor.encode(window.positionAt(window.size() - 1)) : null;
+
+		return RelationPagedResponse.builder()
+			.withRelations(window.stream().map(mapper::toRelation).toList())
+			.withMetaData(RelationPagingMetaData.fromCursor(window.size(), pageParameters.getLimit(), sort, nextCursor))
+			.build();
+	}
+
+	/**
+	 * Streams every relation matching the filter to the consumer, one row at a time. Rows are read through a forward-only
+	 * cursor inside a read-only transaction, so an exception thrown by the consumer (e.g. when the client disconnects)
+	 * stops the export and releases the cursor.
+	 */
+	@Transactional(readOnly = true)
+	public void exportRelations(final String municipalityId, final Specification<RelationEntity> filter, final Consumer<Relation> consumer) {
+		metrics.record(EXPORT_RELATIONS, municipalityId, null, filter, () -> {
+			try (final var relations = relationRepository.streamAll(withMunicipalityId(municipalityId, filter))) {
+				relations.map(mapper::toRelation).forEach(consumer);
+			}
+		});
+	}
+
+	/**
+	 * Streams the changes made to relations in the municipality after the given sequence, in order, to the consumer.
+	 */
+	@Transactional(readOnly = true)
+	public void exportChanges(final String municipalityId, final long after, final int limit, final Consumer<RelationChange> consumer) {
+		metrics.record(EXPORT_CHANGES, municipalityId, null, null, () -> {
+			try (final var changes = changeLog.changesAfter(municipalityId, after, limit)) {
+				changes.forEach(consumer);
+			}
+		});
+	}
+
+	/**
+	 * Breadth-first traversal over source to target edges, starting at every resource with the given resource id. Each hop
+	 * fetches the relations of the whole frontier in batched IN queries. Resources already reached are not expanded again,
+	 * which stops cycles, and the traversal ends early with truncated set when the node or edge limit is reached.
+	 */
+	@Transactional(readOnly = true)
+	public RelationGraph getRelationGraph(final String municipalityId, final String resourceId, final int depth, final List<String> types) {
+		return metrics.record(GET_RELATION_GRAPH, municipalityId, types != null && types.size() == 1 ? types.getFirst() : null, () -> traverse(municipalityId, resourceId, depth, types));
+	}
+
+	private RelationGraph traverse(final String municipalityId, final String resourceId, final int depth, final List<String> types) {
+		final var nodes = new LinkedHashSet<ResourceIdentifier>();
+		final var edges = new LinkedHashMap<String, Relation>();
+		var frontier = new LinkedHashSet<ResourceIdentifier>();
+		var truncated = false;
+
+		for (var hop = 0; hop < depth && !truncated; hop++) {
+			final var frontierResourceIds = hop == 0 ? List.of(resourceId) : frontier.stream().map(ResourceIdentifier::getResourceId).distinct().toList();
+			final var nextFrontier = new LinkedHashSet<ResourceIdentifier>();
+
+			for (final var batch : partition(frontierResourceIds)) {
+				final var remainingEdges = GRAPH_MAX_EDGES - edges.size();
+				final List<RelationEntity> matches = relationRepository.findBy(withMunicipalityId(municipalityId).and(withSourceResourceIdIn(batch)).and(withTypeIn(types)), query -> query
+					.sortBy(Sort.by("id"))
+					.limit(remainingEdges + 1)
+					.all());
+
+				for (final var relation : matches.stream().map(mapper::toRelation).toList()) {
+					// Only follow edges out of the resources in the frontier, not out of other resources sharing the resource id
+					if ((hop > 0 && !frontier.contains(relation.getSource())) || edges.containsKey(relation.getId())) {
+						continue;
+					}
+					final var newNodes = Stream.of(relation.getSource(), relation.getTarget()).distinct().filter(node -> !nodes.contains(node)).count();
+					if (edges.size() >= GRAPH_MAX_EDGES || nodes.size() + newNodes > GRAPH_MAX_NODES) {
+						truncated = true;
+						break;
+					}
+					edges.put(relation.getId(), relation);
+					nodes.add(relation.getSource());
+					if (nodes.add(relation.getTarget())) {
+						nextFrontier.add(relation.getTarget());
+					}
+				}
+				// Rows skipped above count against the limit too, so a full result may have left out edges of the frontier
+				if (matches.size() > remainingEdges) {
+					truncated = true;
+				}
+				if (truncated) {
+					break;
+				}
+			}
+
+			if (nextFrontier.isEmpty()) {
+				break;
+			}
+			frontier = nextFrontier;
+		}
+
+		return RelationGraph.builder()
+			.withNodes(List.copyOf(nodes))
+			.withEdges(List.copyOf(edges.values()))
+			.withTruncated(truncated)
+			.build();
+	}
+
+	private static <T> List<List<T>> partition(final List<T> list) {
+		final var batches = new ArrayList<List<T>>();
+		for (var i = 0; i < list.size(); i += GRAPH_FRONTIER_BATCH_SIZE) {
+			batches.add(list.subList(i, Math.min(i + GRAPH_FRONTIER_BATCH_SIZE, list.size())));
+		}
+		return batches;
+	}
+
+	/**
+	 * Replaces the relation. When an If-Match value is given, the relation is only saved if its current entity tag
+	 * matches. The changes are flushed before mapping, so the returned modified timestamp (and thereby the entity tag) is
+	 * the one stored.
+	 */
+	@Transactional
+	public Relation saveRelation(final String municipalityId, final Relation relation, final String ifMatch) {
+		return metrics.record(SAVE_RELATION, municipalityId, relation.getType(), () -> replaceRelation(municipalityId, relation, ifMatch));
+	}
+
+	private Relation replaceRelation(final String municipalityId, final Relation relation, final String ifMatch) {
 		final var entity = relationRepository.findByIdAndMunicipalityId(relation.getId(), municipalityId)
 			.orElseThrow(() -> Problem.valueOf(NOT_FOUND, NOT_FOUND_MSG.formatted(relation.getId())));
+
+		if (ifMatch != null && !ETags.matches(ifMatch, ETags.of(mapper.toRelation(entity)))) {
+			throw Problem.valueOf(PRECONDITION_FAILED, MODIFIED_MSG.formatted(relation.getId()));
+		}
 		final var type = relationTypeRepository.findByName(relation.getType())
-			.orElseThrow(() -> Problem.valueOf(BAD_REQUEST, INVALID_TYPE.formatted(relation.getType())));
+			.orElseThrow(() -> withOutcome(OUTCOME_INVALID_TYPE, Problem.valueOf(BAD_REQUEST, INVALID_TYPE.formatted(relation.getType()))));
 
+		adjacencyIndex.remove(entity);
+		final var hadInverse = entity.getInverseRelation() != null;
+		final var previousSource = entity.getSource();
+		final var previousTarget = entity.getTarget();
 		mapper.updateRelationEntity(entity, relation, type);
+		resourceIdentifierResolver.resolve(municipalityId, List.of(entity));
+
+		final var twoWay = type.getCounterType() != null;
 
 		// Update from two-way relation type to oneway relation type
-		if (type.getCounterType() == null && entity.getInverseRelation() != null) {
-			relationRepository.delete(entity.getInverseRelation());
+		if (!twoWay && entity.getInverseRelation() != null) {
+			final var inverseRelation = entity.getInverseRelation();
+			changeLog.record(RelationChangeType.DELETED, inverseRelation);
+			// Unlinked first, as the reference is not guarded by a foreign key and the removal must not cascade back
+			entity.setInverseRelation(null);
+			inverseRelation.setInverseRelation(null);
+			relationRepository.delete(inverseRelation);
 		}
 
-		return mapper.toRelation(relationRepository.save(entity));
+		final var saved = relationRepository.save(entity);
+		flush();
+		changeLog.record(RelationChangeType.UPDATED, saved);
+		if (twoWay) {
+			changeLog.record(hadInverse ? RelationChangeType.UPDATED : RelationChangeType.CREATED, saved.getInverseRelation());
+		}
+		resourceIdentifierResolver.removeUnreferenced(previousSource, previousTarget);
+		adjacencyIndex.add(saved);
+		return mapper.toRelation(saved);
 	}
 
+	@Transactional
 	public void deleteRelation(final String municipalityId, final String id) {
+		metrics.record(DELETE_RELATION, municipalityId, null, null, () -> {
+			final var entity = relationRepository.findByIdAndMunicipalityId(id, municipalityId)
+				.orElseThrow(() -> Problem.valueOf(NOT_FOUND, NOT_FOUND_MSG.formatted(id)));
+
+			changeLog.recordWithInverse(RelationChangeType.DELETED, List.of(entity));
+			relationRepository.delete(entity);
+			resourceIdentifierResolver.removeUnreferenced(entity.getSource(), entity.getTarget());
+			adjacencyIndex.remove(entity);
+		});
+	}
+
+	/**
+	 * Deletes every relation with the resource as source or target, in any namespace, together with the identifiers no
+	 * other relation refers to. The inverse relations refer to the resource as well, so they are among the relations
+	 * found. The relations are read with one query, for the change log and the adjacency index, and deleted with one
+	 * statement.
+	 *
+	 * @return the number of deleted relations, inverse relations included
+	 */
+	@Transactional
+	public RelationDeleteResponse deleteRelations(final String municipalityId, final String service, final String type, final String resourceId) {
+		return metrics.record(DELETE_RELATIONS, municipalityId, null, () -> {
+			final var identifiers = resourceIdentifierResolver.find(municipalityId, service, type, resourceId);
+			final var relations = identifiers.isEmpty() ? List.<RelationEntity>of() : relationRepository.findBySourceOrTargetIn(municipalityId, identifiers);
+			if (relations.isEmpty()) {
+				return RelationDeleteResponse.builder().build();
+			}
+
+			changeLog.record(RelationChangeType.DELETED, relations);
+			relations.forEach(adjacencyIndex::remove);
+			final var deleted = relationRepository.deleteByIdIn(relations.stream().map(RelationEntity::getId).toList());
+			resourceIdentifierResolver.removeUnreferenced(relations.stream()
+				.flatMap(relation -> Stream.of(relation.getSource(), relation.getTarget()))
+				.toArray(ResourceIdentifierEntity[]::new));
+
+			return RelationDeleteResponse.builder().withDeleted(deleted).build();
+		});
+	}
+
+	/**
+	 * Outgoing relations of the resource. Answered from the adjacency index when enabled, otherwise from the database.
+	 */
+	@Transactional(readOnly = true)
+	public List<RelationNeighbor> getNeighbors(final String municipalityId, final String service, final String type, final String resourceId) {
+		return metrics.record(GET_NEIGHBORS, municipalityId, null, () -> adjacencyIndex.getNeighbors(municipalityId, service, type, resourceId)
+			.orElseGet(() -> relationRepository.findAll(withMunicipalityId(municipalityId).and(withSource(service, type, resourceId))).stream()
+				.map(mapper::toRelationNeighbor)
+				.toList()));
+	}
 
-		final var entity = relationRepository.findByIdAndMunicipalityId(id, municipalityId)
-			.orElseThrow(() -> Problem.valueOf(NOT_FOUND, NOT_FOUND_MSG.formatted(id)));
+	/**
+	 * Resolves all ids with one IN query scoped by municipality. Found relations are returned in the order their ids were
+	 * requested and ids without a match are reported as missing.
+	 */
+	@Transactional(readOnly = true)
+	public RelationLookupResponse getRelations(final String municipalityId, final List<String> ids) {
+		return metrics.record(GET_RELATIONS, municipalityId, null, () -> {
+			final var distinctIds = List.copyOf(new LinkedHashSet<>(ids));
+			final var found = relationRepository.findByMunicipalityIdAndIdIn(municipalityId, distinctIds).stream()
+				.collect(toMap(RelationEntity::getId, Function.identity()));
 
-		relationRepository.delete(entity);
+			return RelationLookupResponse.builder()
+				.withRelations(distinctIds.stream().filter(found::containsKey).map(found::get).map(mapper::toRelation).toList())
+				.withMissingIds(distinctIds.stream().filter(id -> !found.containsKey(id)).toList())
+				.build();
+		});
 	}
 
+	@Transactional(readOnly = true)
 	public Relation getRelation(final String municipalityId, final String id) {
-		final var entity = relationRepository.findByIdAndMunicipalityId(id, municipalityId)
-			.orElseThrow(() -> Problem.valueOf(NOT_FOUND, NOT_FOUND_MSG.formatted(id)));
+		return metrics.record(GET_RELATION, municipalityId, null, () -> {
+			final var entity = relationRepository.findByIdAndMunicipalityId(id, municipalityId)
+				.orElseThrow(() -> Problem.valueOf(NOT_FOUND, NOT_FOUND_MSG.formatted(id)));
 
-		return mapper.toRelation(entity);
+			return mapper.toRelation(entity);
+		});
 	}
 }
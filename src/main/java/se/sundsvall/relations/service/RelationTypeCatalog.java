@@ -0,0 +1,14 @@
+package se.sundsvall.relations.service;
+
+import java.util.List;
+import se.sundsvall.relations.api.model.RelationType;
+
+/**
+ * All relation types together with the entity tag of the whole list.
+ */
+public record RelationTypeCatalog(List<RelationType> types, String etag) {
+
+	public static RelationTypeCatalog of(final List<RelationType> types) {
+		return new RelationTypeCatalog(List.copyOf(types), ETags.of(types));
+	}
+}
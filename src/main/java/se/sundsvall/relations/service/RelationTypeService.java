@@ -1,7 +1,13 @@
 package se.sundsvall.relations.service;
 
 import java.util.List;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import se.sundsvall.dept44.problem.Problem;
 import se.sundsvall.relations.api.model.RelationType;
 import se.sundsvall.relations.integration.db.RelationRepository;
@@ -10,25 +16,62 @@ import se.sundsvall.relations.service.mapper.RelationTypeMapper;
 
 import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.PRECONDITION_FAILED;
+import static se.sundsvall.relations.integration.db.RelationTypeRepository.RELATION_TYPES_CACHE;
+import static se.sundsvall.relations.service.ServiceMetrics.Operation.CREATE_TYPE;
+import static se.sundsvall.relations.service.ServiceMetrics.Operation.DELETE_TYPE;
+import static se.sundsvall.relations.service.ServiceMetrics.Operation.GET_ALL_TYPES;
+import static se.sundsvall.relations.service.ServiceMetrics.Operation.GET_TYPE;
+import static se.sundsvall.relations.service.ServiceMetrics.Operation.SAVE_TYPE;
 
 @Service
 public class RelationTypeService {
+
+	public static final String RELATION_TYPE_CATALOG_CACHE = "relationTypeCatalog";
+
 	private static final String NOT_FOUND_MSG = "Relation type with type '%s' not found";
 	private static final String SAME_TYPE_AND_COUNTER_TYPE_MSG = "Type and counter type cannot be the same: '%s'";
 	private static final String VALUE_ALREADY_EXISTS_MSG = "Value '%s' already exists as a type or counter type.";
 	private static final String TYPE_IS_USED_BY_RELATIONS_MSG = "Type '%s' is used by one or many Relations";
+	private static final String MODIFIED_MSG = "Relation type with type '%s' has been modified";
 
 	private final RelationTypeRepository relationTypeRepository;
 	private final RelationRepository relationRepository;
 	private final RelationTypeMapper mapper;
+	private final CacheManager cacheManager;
+	private final RelationAdjacencyIndex adjacencyIndex;
+	private final ServiceMetrics metrics;
 
-	public RelationTypeService(RelationTypeRepository relationTypeRepository, RelationRepository relationRepository, RelationTypeMapper mapper) {
+	public RelationTypeService(RelationTypeRepository relationTypeRepository, RelationRepository relationRepository, RelationTypeMapper mapper, CacheManager cacheManager, RelationAdjacencyIndex adjacencyIndex,
+		ServiceMetrics metrics) {
 		this.relationTypeRepository = relationTypeRepository;
 		this.relationRepository = relationRepository;
 		this.mapper = mapper;
+		this.cacheManager = cacheManager;
+		this.adjacencyIndex = adjacencyIndex;
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Populates the relation type cache (keyed on name, which covers counter types as well) so that the first relation
+	 * writes after startup doesn't have to hit the database.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void warmUpCache() {
+		final var cache = cacheManager.getCache(RELATION_TYPES_CACHE);
+		if (cache != null) {
+			relationTypeRepository.findAll().forEach(entity -> cache.put(entity.getName(), entity));
+		}
 	}
 
+	@CacheEvict(cacheNames = {
+		RELATION_TYPES_CACHE, RELATION_TYPE_CATALOG_CACHE
+	}, allEntries = true)
 	public String createType(RelationType type) {
+		return metrics.record(CREATE_TYPE, null, type.getName(), () -> create(type));
+	}
+
+	private String create(RelationType type) {
 		if (type.getName().equalsIgnoreCase(type.getCounterName())) {
 			throw Problem.valueOf(CONFLICT, SAME_TYPE_AND_COUNTER_TYPE_MSG.formatted(type.getName()));
 		}
@@ -41,31 +84,54 @@ public class RelationTypeService {
 		return relationTypeRepository.save(mapper.toRelationTypeEntity(type)).getName();
 	}
 
+	@Transactional(readOnly = true)
 	public RelationType getType(String type) {
-		return relationTypeRepository.findByName(type)
+		return metrics.record(GET_TYPE, null, type, () -> relationTypeRepository.findByName(type)
 			.map(mapper::toRelationType)
-			.orElseThrow(() -> Problem.valueOf(NOT_FOUND, NOT_FOUND_MSG.formatted(type)));
+			.orElseThrow(() -> Problem.valueOf(NOT_FOUND, NOT_FOUND_MSG.formatted(type))));
 	}
 
-	public List<RelationType> getAllTypes() {
-		return relationTypeRepository.findAll().stream()
+	/**
+	 * All relation types and their entity tag. The catalog is cached, so clients polling with If-None-Match are answered
+	 * without a database read until the catalog changes or the cache entry expires. Only cache misses are timed.
+	 */
+	@Cacheable(cacheNames = RELATION_TYPE_CATALOG_CACHE, key = "'all'")
+	@Transactional(readOnly = true)
+	public RelationTypeCatalog getAllTypes() {
+		return metrics.record(GET_ALL_TYPES, null, null, () -> RelationTypeCatalog.of(relationTypeRepository.findAll().stream()
 			.map(mapper::toRelationType)
-			.toList();
+			.toList()));
 	}
 
+	@CacheEvict(cacheNames = {
+		RELATION_TYPES_CACHE, RELATION_TYPE_CATALOG_CACHE
+	}, allEntries = true)
 	public void deleteRelationType(String type) {
-		final var entity = relationTypeRepository.findByName(type)
-			.orElseThrow(() -> Problem.valueOf(NOT_FOUND, NOT_FOUND_MSG.formatted(type)));
-		if (relationRepository.existsByType(entity)) {
-			throw Problem.valueOf(CONFLICT, TYPE_IS_USED_BY_RELATIONS_MSG.formatted(entity.getName()));
-		}
-		relationTypeRepository.delete(entity);
+		metrics.record(DELETE_TYPE, null, type, null, () -> {
+			final var entity = relationTypeRepository.findByName(type)
+				.orElseThrow(() -> Problem.valueOf(NOT_FOUND, NOT_FOUND_MSG.formatted(type)));
+			if (relationRepository.existsByType(entity)) {
+				throw Problem.valueOf(CONFLICT, TYPE_IS_USED_BY_RELATIONS_MSG.formatted(entity.getName()));
+			}
+			relationTypeRepository.delete(entity);
+		});
 	}
 
-	public RelationType saveRelationType(String type, RelationType relationType) {
+	@CacheEvict(cacheNames = {
+		RELATION_TYPES_CACHE, RELATION_TYPE_CATALOG_CACHE
+	}, allEntries = true)
+	public RelationType saveRelationType(String type, RelationType relationType, String ifMatch) {
+		return metrics.record(SAVE_TYPE, null, type, () -> replace(type, relationType, ifMatch));
+	}
+
+	private RelationType replace(String type, RelationType relationType, String ifMatch) {
 		final var existingEntity = relationTypeRepository.findByName(type)
 			.orElseThrow(() -> Problem.valueOf(NOT_FOUND, NOT_FOUND_MSG.formatted(type)));
 
+		if (ifMatch != null && !ETags.matches(ifMatch, ETags.of(mapper.toRelationType(existingEntity)))) {
+			throw Problem.valueOf(PRECONDITION_FAILED, MODIFIED_MSG.formatted(type));
+		}
+
 		if (relationType.getName().equalsIgnoreCase(relationType.getCounterName())) {
 			throw Problem.valueOf(CONFLICT, SAME_TYPE_AND_COUNTER_TYPE_MSG.formatted(relationType.getName()));
 		}
@@ -91,6 +157,8 @@ public class RelationTypeService {
 			}
 		}
 
-		return mapper.toRelationType(relationTypeRepository.save(updatedEntity));
+		final var savedEntity = relationTypeRepository.save(updatedEntity);
+		adjacencyIndex.updateType(savedEntity);
+		return mapper.toRelationType(savedEntity);
 	}
 }
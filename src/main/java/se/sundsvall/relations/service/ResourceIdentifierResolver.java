@@ -0,0 +1,124 @@
+package se.sundsvall.relations.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import org.hibernate.id.uuid.UuidVersion7Strategy;
+import org.springframework.stereotype.Component;
+import se.sundsvall.relations.integration.db.ResourceIdentifierRepository;
+import se.sundsvall.relations.integration.db.model.RelationEntity;
+import se.sundsvall.relations.integration.db.model.ResourceIdentifierEntity;
+
+import static se.sundsvall.relations.integration.db.model.ResourceIdentifierEntity.resourceKey;
+
+/**
+ * Keeps one resource identifier per municipality, service, type, namespace and resource id, shared by all relations of
+ * the resource. Identifiers are matched exactly, including case, through their resource key, which the database keeps
+ * unique.
+ * <p>
+ * Resolved identifiers are locked in share mode until the transaction ends, so that a concurrent removal of an
+ * identifier no longer referred to waits for the relations about to refer to it, instead of failing them on the foreign
+ * key. Identifiers are looked up and inserted in resource key order, so that transactions resolving the same resources
+ * lock them in the same order.
+ */
+@Component
+public class ResourceIdentifierResolver {
+
+	private final ResourceIdentifierRepository resourceIdentifierRepository;
+
+	public ResourceIdentifierResolver(final ResourceIdentifierRepository resourceIdentifierRepository) {
+		this.resourceIdentifierRepository = resourceIdentifierRepository;
+	}
+
+	/**
+	 * Points the source and target of the relations, and of their inverse relations, at the stored identifiers of the same
+	 * resources. Identifiers not stored yet are inserted, unless a concurrent transaction got there first, and read back.
+	 *
+	 * @param municipalityId the municipality that all the relations belong to
+	 * @param relations      the relations to resolve the identifiers of
+	 */
+	public void resolve(final String municipalityId, final Collection<RelationEntity> relations) {
+		final var wanted = new TreeMap<String, ResourceIdentifierEntity>();
+		relations.stream()
+			.flatMap(relation -> Stream.of(relation.getSource(), relation.getTarget()))
+			.forEach(identifier -> wanted.putIfAbsent(keyOf(municipalityId, identifier), identifier));
+		if (wanted.isEmpty()) {
+			return;
+		}
+
+		final var identifiers = findWithLock(List.copyOf(wanted.keySet()));
+		final var missing = wanted.keySet().stream()
+			.filter(key -> !identifiers.containsKey(key))
+			.toList();
+		if (!missing.isEmpty()) {
+			missing.forEach(key -> resourceIdentifierRepository.insertIfAbsent(toNewIdentifier(municipalityId, key, wanted.get(key))));
+			identifiers.putAll(findWithLock(missing));
+		}
+
+		for (final var relation : relations) {
+			relation.setSource(identifiers.get(keyOf(municipalityId, relation.getSource())));
+			relation.setTarget(identifiers.get(keyOf(municipalityId, relation.getTarget())));
+			if (relation.getInverseRelation() != null) {
+				relation.getInverseRelation().setSource(relation.getTarget());
+				relation.getInverseRelation().setTarget(relation.getSource());
+			}
+		}
+	}
+
+	/**
+	 * Finds the stored identifiers of the resource in any namespace, matched exactly.
+	 */
+	public List<ResourceIdentifierEntity> find(final String municipalityId, final String service, final String type, final String resourceId) {
+		return resourceIdentifierRepository.findByMunicipalityIdAndResourceIdIn(municipalityId, List.of(resourceId)).stream()
+			.filter(identifier -> resourceId.equals(identifier.getResourceId()) && service.equals(identifier.getService()) && type.equals(identifier.getType()))
+			.toList();
+	}
+
+	/**
+	 * Removes the identifiers among the given ones that are no longer referred to by any relation. The identifiers are
+	 * locked first, in id order, which makes the removal wait for transactions that have resolved them and lets those
+	 * started later insert them anew.
+	 *
+	 * @param identifiers identifiers that relations have been deleted from or pointed away from
+	 */
+	public void removeUnreferenced(final ResourceIdentifierEntity... identifiers) {
+		final var ids = Stream.of(identifiers)
+			.filter(Objects::nonNull)
+			.map(ResourceIdentifierEntity::getId)
+			.filter(Objects::nonNull)
+			.distinct()
+			.sorted()
+			.toList();
+		if (!ids.isEmpty()) {
+			resourceIdentifierRepository.findWithLockByIdIn(ids);
+			resourceIdentifierRepository.deleteUnreferenced(ids);
+		}
+	}
+
+	private Map<String, ResourceIdentifierEntity> findWithLock(final Collection<String> resourceKeys) {
+		final var identifiers = new HashMap<String, ResourceIdentifierEntity>();
+		resourceIdentifierRepository.findWithLockByResourceKeyIn(resourceKeys)
+			.forEach(identifier -> identifiers.put(identifier.getResourceKey(), identifier));
+		return identifiers;
+	}
+
+	private static ResourceIdentifierEntity toNewIdentifier(final String municipalityId, final String resourceKey, final ResourceIdentifierEntity identifier) {
+		return ResourceIdentifierEntity.builder()
+			.withId(UuidVersion7Strategy.INSTANCE.generateUuid(null).toString())
+			.withMunicipalityId(municipalityId)
+			.withResourceKey(resourceKey)
+			.withResourceId(identifier.getResourceId())
+			.withType(identifier.getType())
+			.withService(identifier.getService())
+			.withNamespace(identifier.getNamespace())
+			.build();
+	}
+
+	private static String keyOf(final String municipalityId, final ResourceIdentifierEntity identifier) {
+		return resourceKey(municipalityId, identifier.getService(), identifier.getType(), identifier.getNamespace(), identifier.getResourceId());
+	}
+}
@@ -0,0 +1,197 @@
+package se.sundsvall.relations.service;
+
+import com.turkraft.springfilter.converter.FilterSpecification;
+import com.turkraft.springfilter.parser.node.FieldNode;
+import com.turkraft.springfilter.parser.node.FilterNode;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import se.sundsvall.dept44.problem.ThrowableProblem;
+
+/**
+ * Times the service operations, tagged with operation, municipality, relation type, filter shape and outcome, and keeps
+ * a histogram of the number of rows returned when finding relations, tagged with municipality only and with a fixed set
+ * of {@link #FOUND_ROWS_BUCKETS buckets} to keep the number of series down.
+ * <p>
+ * The filter shape is the sorted set of fields referenced by the filter, without values, so that e.g. all lookups on
+ * source resource id share one series. Relation types and filter shapes come from client input, so only the first
+ * {@value #MAX_TAG_VALUES} distinct values of each are used as tags and the rest are reported as {@value #OTHER}.
+ * <p>
+ * The outcome of a failed operation follows the status of the problem thrown, unless the problem has been given an
+ * outcome of its own through {@link #withOutcome(String, ThrowableProblem)}, for causes sharing a status.
+ */
+@Component
+public class ServiceMetrics {
+
+	static final String OPERATION_TIMER = "relations.service";
+	static final String FIND_ROWS_SUMMARY = "relations.service.find.rows";
+	static final String NONE = "none";
+	static final String OTHER = "other";
+	static final String CUSTOM = "custom";
+	static final int MAX_TAG_VALUES = 200;
+	static final String OUTCOME_INVALID_TYPE = "invalid_type";
+	static final String OUTCOME_REMOVED_TYPE = "removed_type";
+	static final String OUTCOME_INVALID_CURSOR = "invalid_cursor";
+	static final double[] FOUND_ROWS_BUCKETS = {
+		1, 10, 50, 100, 500, 1000
+	};
+
+	public enum Operation {
+		CREATE_RELATION("created"),
+		CREATE_RELATIONS("created"),
+		FIND_RELATIONS("success"),
+		EXPORT_RELATIONS("success"),
+		EXPORT_CHANGES("success"),
+		GET_RELATION_GRAPH("success"),
+		GET_NEIGHBORS("success"),
+		GET_RELATIONS("success"),
+		GET_RELATION("success"),
+		SAVE_RELATION("updated"),
+		DELETE_RELATION("deleted"),
+		DELETE_RELATIONS("deleted"),
+		CREATE_TYPE("created"),
+		GET_TYPE("success"),
+		GET_ALL_TYPES("success"),
+		SAVE_TYPE("updated"),
+		DELETE_TYPE("deleted");
+
+		private final String successOutcome;
+
+		Operation(final String successOutcome) {
+			this.successOutcome = successOutcome;
+		}
+
+		String tagValue() {
+			return name().toLowerCase(Locale.ROOT);
+		}
+	}
+
+	private static final Map<ThrowableProblem, String> PROBLEM_OUTCOMES = Collections.synchronizedMap(new WeakHashMap<>());
+
+	private final MeterRegistry meterRegistry;
+	private final Set<String> types = ConcurrentHashMap.newKeySet();
+	private final Set<String> filterShapes = ConcurrentHashMap.newKeySet();
+
+	public ServiceMetrics(final MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	public <T> T record(final Operation operation, final String municipalityId, final String type, final Supplier<T> call) {
+		return record(operation, municipalityId, type, null, call);
+	}
+
+	public void record(final Operation operation, final String municipalityId, final String type, final Specification<?> filter, final Runnable call) {
+		record(operation, municipalityId, type, filter, () -> {
+			call.run();
+			return null;
+		});
+	}
+
+	public <T> T record(final Operation operation, final String municipalityId, final String type, final Specification<?> filter, final Supplier<T> call) {
+		final var sample = Timer.start(meterRegistry);
+		var outcome = "error";
+		try {
+			final var result = call.get();
+			outcome = operation.successOutcome;
+			return result;
+		} catch (final ThrowableProblem e) {
+			outcome = outcome(e);
+			throw e;
+		} finally {
+			sample.stop(Timer.builder(OPERATION_TIMER)
+				.tags(tags(municipalityId, filter))
+				.tag("operation", operation.tagValue())
+				.tag("type", bounded(types, type))
+				.tag("outcome", outcome)
+				.register(meterRegistry));
+		}
+	}
+
+	public void recordFoundRows(final String municipalityId, final int rows) {
+		DistributionSummary.builder(FIND_ROWS_SUMMARY)
+			.baseUnit("rows")
+			.tag("municipality", municipalityTag(municipalityId))
+			.serviceLevelObjectives(FOUND_ROWS_BUCKETS)
+			.register(meterRegistry)
+			.record(rows);
+	}
+
+	/**
+	 * Gives the problem the outcome to tag the operation with if it is thrown, instead of the one following its status.
+	 *
+	 * @param  outcome the outcome
+	 * @param  problem the problem
+	 * @return         the problem
+	 */
+	public static ThrowableProblem withOutcome(final String outcome, final ThrowableProblem problem) {
+		PROBLEM_OUTCOMES.put(problem, outcome);
+		return problem;
+	}
+
+	static String filterShape(final Specification<?> filter) {
+		if (filter == null) {
+			return NONE;
+		}
+		if (!(filter instanceof final FilterSpecification<?> filterSpecification) || filterSpecification.getFilter() == null) {
+			return CUSTOM;
+		}
+		final var fields = new TreeSet<String>();
+		collectFields(filterSpecification.getFilter(), fields);
+		return fields.isEmpty() ? NONE : String.join(",", fields);
+	}
+
+	private Tags tags(final String municipalityId, final Specification<?> filter) {
+		return Tags.of("municipality", municipalityTag(municipalityId), "filter", bounded(filterShapes, filterShape(filter)));
+	}
+
+	private static String municipalityTag(final String municipalityId) {
+		return municipalityId != null ? municipalityId : NONE;
+	}
+
+	private static void collectFields(final FilterNode node, final Set<String> fields) {
+		if (node instanceof final FieldNode field) {
+			fields.add(field.getName());
+		}
+		node.getChildren().forEach(child -> collectFields(child, fields));
+	}
+
+	private static String outcome(final ThrowableProblem problem) {
+		final var outcome = PROBLEM_OUTCOMES.remove(problem);
+		if (outcome != null) {
+			return outcome;
+		}
+		final var status = problem.getStatus() != null ? HttpStatus.resolve(problem.getStatus().value()) : null;
+		if (status == null) {
+			return "error";
+		}
+		return switch (status) {
+			case BAD_REQUEST -> "bad_request";
+			case NOT_FOUND -> "not_found";
+			case CONFLICT -> "conflict";
+			case PRECONDITION_FAILED -> "precondition_failed";
+			default -> "error";
+		};
+	}
+
+	private static String bounded(final Set<String> seen, final String value) {
+		if (value == null) {
+			return NONE;
+		}
+		if (seen.contains(value) || (seen.size() < MAX_TAG_VALUES && seen.add(value))) {
+			return value;
+		}
+		return OTHER;
+	}
+}
@@ -0,0 +1,26 @@
+package se.sundsvall.relations.service;
+
+import java.util.List;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import se.sundsvall.relations.service.SlowFilterMonitor.SlowFilter;
+
+/**
+ * Actuator endpoint listing the slowest filter shapes seen since startup, see {@link SlowFilterMonitor}.
+ */
+@Component
+@Endpoint(id = "slowfilters")
+public class SlowFilterEndpoint {
+
+	private final SlowFilterMonitor slowFilterMonitor;
+
+	public SlowFilterEndpoint(final SlowFilterMonitor slowFilterMonitor) {
+		this.slowFilterMonitor = slowFilterMonitor;
+	}
+
+	@ReadOperation
+	public List<SlowFilter> slowFilters() {
+		return slowFilterMonitor.getSlowest();
+	}
+}
@@ -0,0 +1,186 @@
+package se.sundsvall.relations.service;
+
+import com.turkraft.springfilter.converter.FilterSpecification;
+import com.turkraft.springfilter.converter.FilterStringConverter;
+import com.turkraft.springfilter.parser.node.CollectionNode;
+import com.turkraft.springfilter.parser.node.FieldNode;
+import com.turkraft.springfilter.parser.node.FilterNode;
+import com.turkraft.springfilter.parser.node.FunctionNode;
+import com.turkraft.springfilter.parser.node.InfixOperationNode;
+import com.turkraft.springfilter.parser.node.PostfixOperationNode;
+import com.turkraft.springfilter.parser.node.PrefixOperationNode;
+import com.turkraft.springfilter.parser.node.PriorityNode;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import se.sundsvall.relations.integration.db.SqlCaptureStatementInspector;
+
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Times the queries behind a filter and captures the SQL Hibernate generates for them. Queries slower than
+ * {@code relations.slow-filter.threshold} are logged with the filter and the SQL, at most once per
+ * {@code relations.slow-filter.log-interval} so that a slow filter hit in a loop doesn't flood the log.
+ * <p>
+ * The slowest execution of each normalized filter shape is kept for the {@code relations.slow-filter.top-size} slowest
+ * shapes and exposed through the {@code slowfilters} actuator endpoint. A normalized shape is the filter with every
+ * value replaced by {@code ?}, so that {@code type.name:'PARENT'} and {@code type.name:'CHILD'} are counted as one.
+ */
+@Component
+public class SlowFilterMonitor {
+
+	private static final Logger LOG = LoggerFactory.getLogger(SlowFilterMonitor.class);
+
+	static final String NONE = "none";
+	static final String CUSTOM = "custom";
+
+	private final FilterStringConverter filterStringConverter;
+	private final Duration threshold;
+	private final long logIntervalNanos;
+	private final int topSize;
+	private final Map<String, SlowFilter> slowest = new ConcurrentHashMap<>();
+	private final AtomicLong nextLogAt = new AtomicLong(System.nanoTime());
+	private final AtomicLong suppressed = new AtomicLong();
+	private volatile long fastestTrackedNanos;
+
+	public SlowFilterMonitor(final FilterStringConverter filterStringConverter,
+		@Value("${relations.slow-filter.threshold:PT0.5S}") final Duration threshold,
+		@Value("${relations.slow-filter.log-interval:PT10S}") final Duration logInterval,
+		@Value("${relations.slow-filter.top-size:20}") final int topSize) {
+		this.filterStringConverter = filterStringConverter;
+		this.threshold = threshold;
+		this.logIntervalNanos = logInterval.toNanos();
+		this.topSize = topSize;
+	}
+
+	/**
+	 * Runs the query, timing it and capturing its SQL.
+	 *
+	 * @param  municipalityId the municipality the query is scoped to
+	 * @param  filter         the filter given by the client, or null
+	 * @param  query          the query to run
+	 * @return                the result of the query
+	 */
+	public <T> T time(final String municipalityId, final Specification<?> filter, final Supplier<T> query) {
+		final var start = System.nanoTime();
+		SqlCaptureStatementInspector.startCapture();
+		try {
+			return query.get();
+		} finally {
+			final var sql = SqlCaptureStatementInspector.stopCapture();
+			record(municipalityId, filter, sql, System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * @return the slowest execution of each tracked filter shape, slowest first
+	 */
+	public List<SlowFilter> getSlowest() {
+		return slowest.values().stream()
+			.sorted(Comparator.comparing(SlowFilter::duration).reversed())
+			.toList();
+	}
+
+	void record(final String municipalityId, final Specification<?> filter, final List<String> sql, final long nanos) {
+		final var slow = nanos >= threshold.toNanos();
+		// Most queries are neither slow nor among the slowest, so bail out before rendering anything
+		if (!slow && nanos <= fastestTrackedNanos) {
+			return;
+		}
+		final var shape = normalize(filter);
+		final var tracked = slowest.get(shape);
+		if (!slow && tracked != null && tracked.duration().toNanos() >= nanos) {
+			return;
+		}
+		final var slowFilter = new SlowFilter(shape, render(filter), municipalityId, sql, Duration.ofNanos(nanos), OffsetDateTime.now());
+		track(slowFilter);
+		if (slow) {
+			log(slowFilter);
+		}
+	}
+
+	private synchronized void track(final SlowFilter slowFilter) {
+		final var tracked = slowest.get(slowFilter.shape());
+		if (tracked != null) {
+			if (slowFilter.duration().compareTo(tracked.duration()) > 0) {
+				slowest.put(slowFilter.shape(), slowFilter);
+			}
+		} else if (slowest.size() < topSize) {
+			slowest.put(slowFilter.shape(), slowFilter);
+		} else {
+			final var fastest = slowest.values().stream().min(Comparator.comparing(SlowFilter::duration)).orElseThrow();
+			if (slowFilter.duration().compareTo(fastest.duration()) <= 0) {
+				return;
+			}
+			slowest.remove(fastest.shape());
+			slowest.put(slowFilter.shape(), slowFilter);
+		}
+		fastestTrackedNanos = slowest.size() < topSize ? 0 : slowest.values().stream().map(SlowFilter::duration).min(Comparator.naturalOrder()).orElseThrow().toNanos();
+	}
+
+	private void log(final SlowFilter slowFilter) {
+		final var now = System.nanoTime();
+		final var next = nextLogAt.get();
+		if (now - next < 0 || !nextLogAt.compareAndSet(next, now + logIntervalNanos)) {
+			suppressed.incrementAndGet();
+			return;
+		}
+		LOG.warn("Slow filter query took {} ms in municipality {}, filter: '{}', shape: '{}', sql: {} ({} slow queries not logged since the previous one)",
+			slowFilter.duration().toMillis(), slowFilter.municipalityId(), slowFilter.filter(), slowFilter.shape(), slowFilter.sql(), suppressed.getAndSet(0));
+	}
+
+	private String render(final Specification<?> filter) {
+		if (filter instanceof final FilterSpecification<?> filterSpecification && filterSpecification.getFilter() != null) {
+			return filterStringConverter.convert(filterSpecification.getFilter());
+		}
+		return null;
+	}
+
+	static String normalize(final Specification<?> filter) {
+		if (filter == null) {
+			return NONE;
+		}
+		if (!(filter instanceof final FilterSpecification<?> filterSpecification) || filterSpecification.getFilter() == null) {
+			return CUSTOM;
+		}
+		return normalizeNode(filterSpecification.getFilter());
+	}
+
+	private static String normalizeNode(final FilterNode node) {
+		return switch (node) {
+			case final FieldNode field -> field.getName();
+			case final CollectionNode ignored -> "[?]";
+			case final PriorityNode priority -> "(" + normalizeNode(priority.getNode()) + ")";
+			case final InfixOperationNode infix -> normalizeNode(infix.getLeft()) + " " + infix.getOperator().getToken() + " " + normalizeNode(infix.getRight());
+			case final PrefixOperationNode prefix -> prefix.getOperator().getToken() + " " + normalizeNode(prefix.getRight());
+			case final PostfixOperationNode postfix -> normalizeNode(postfix.getLeft()) + " " + postfix.getOperator().getToken();
+			case final FunctionNode function -> function.getArguments().stream()
+				.map(SlowFilterMonitor::normalizeNode)
+				.collect(joining(", ", function.getFunction().getName() + "(", ")"));
+			// Inputs and placeholders
+			default -> "?";
+		};
+	}
+
+	/**
+	 * The slowest execution of a filter shape.
+	 *
+	 * @param shape          the filter with its values replaced by {@code ?}
+	 * @param filter         the filter as given by the client
+	 * @param municipalityId the municipality the query was scoped to
+	 * @param sql            the statements Hibernate prepared for the query
+	 * @param duration       how long the query took
+	 * @param occurred       when the query finished
+	 */
+	public record SlowFilter(String shape, String filter, String municipalityId, List<String> sql, Duration duration, OffsetDateTime occurred) {}
+}
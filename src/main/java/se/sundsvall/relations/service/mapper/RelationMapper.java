@@ -5,7 +5,11 @@ import java.util.Objects;
 import java.util.stream.Stream;
 import org.springframework.stereotype.Component;
 import se.sundsvall.relations.api.model.Relation;
+import se.sundsvall.relations.api.model.RelationChange;
+import se.sundsvall.relations.api.model.RelationChangeType;
+import se.sundsvall.relations.api.model.RelationNeighbor;
 import se.sundsvall.relations.api.model.ResourceIdentifier;
+import se.sundsvall.relations.integration.db.model.RelationChangeEntity;
 import se.sundsvall.relations.integration.db.model.RelationEntity;
 import se.sundsvall.relations.integration.db.model.RelationTypeEntity;
 import se.sundsvall.relations.integration.db.model.ResourceIdentifierEntity;
@@ -27,36 +31,42 @@ public class RelationMapper {
 		return RelationEntity.builder()
 			.withMunicipalityId(municipalityId)
 			.withType(type)
-			.withSource(toResourceIdentifierEntity(relation.getSource()))
-			.withTarget(toResourceIdentifierEntity(relation.getTarget()))
+			.withSource(toResourceIdentifierEntity(municipalityId, relation.getSource()))
+			.withTarget(toResourceIdentifierEntity(municipalityId, relation.getTarget()))
 			.build();
 	}
 
 	public void updateRelationEntity(RelationEntity relationEntity, Relation relation, RelationTypeEntity type) {
 		relationEntity.setType(type);
-		relationEntity.setSource(updateResourceIdentifierEntity(relationEntity.getSource(), relation.getSource()));
-		relationEntity.setTarget(updateResourceIdentifierEntity(relationEntity.getTarget(), relation.getTarget()));
+		relationEntity.setSource(updateResourceIdentifierEntity(relationEntity.getMunicipalityId(), relationEntity.getSource(), relation.getSource()));
+		relationEntity.setTarget(updateResourceIdentifierEntity(relationEntity.getMunicipalityId(), relationEntity.getTarget(), relation.getTarget()));
 
 		if (type.getCounterType() != null) {
 			if (relationEntity.getInverseRelation() == null) {
 				// Update from oneway relation to two-way relation
 				relationEntity.setInverseRelation(toInverseRelationEntity(relationEntity));
 			}
-			// Update RelationType
+			// Update RelationType and follow changed identifiers
 			relationEntity.getInverseRelation().setType(type.getCounterType());
+			relationEntity.getInverseRelation().setSource(relationEntity.getTarget());
+			relationEntity.getInverseRelation().setTarget(relationEntity.getSource());
 		}
 	}
 
-	private ResourceIdentifierEntity updateResourceIdentifierEntity(ResourceIdentifierEntity entity, ResourceIdentifier identifier) {
-		entity.setResourceId(identifier.getResourceId());
-		entity.setType(identifier.getType());
-		entity.setService(identifier.getService());
-		entity.setNamespace(identifier.getNamespace());
-		return entity;
+	/**
+	 * Identifiers are shared by all relations of a resource, so a changed identifier is replaced instead of updated.
+	 */
+	private ResourceIdentifierEntity updateResourceIdentifierEntity(String municipalityId, ResourceIdentifierEntity entity, ResourceIdentifier identifier) {
+		final var unchanged = Objects.equals(entity.getResourceId(), identifier.getResourceId())
+			&& Objects.equals(entity.getType(), identifier.getType())
+			&& Objects.equals(entity.getService(), identifier.getService())
+			&& Objects.equals(entity.getNamespace(), identifier.getNamespace());
+		return unchanged ? entity : toResourceIdentifierEntity(municipalityId, identifier);
 	}
 
-	private ResourceIdentifierEntity toResourceIdentifierEntity(ResourceIdentifier identifier) {
+	private ResourceIdentifierEntity toResourceIdentifierEntity(String municipalityId, ResourceIdentifier identifier) {
 		return ResourceIdentifierEntity.builder()
+			.withMunicipalityId(municipalityId)
 			.withResourceId(identifier.getResourceId())
 			.withType(identifier.getType())
 			.withService(identifier.getService())
@@ -75,6 +85,53 @@ public class RelationMapper {
 			.build();
 	}
 
+	public RelationNeighbor toRelationNeighbor(RelationEntity entity) {
+		return RelationNeighbor.builder()
+			.withRelationId(entity.getId())
+			.withType(entity.getType().getName())
+			.withTarget(toResourceIdentifier(entity.getTarget()))
+			.build();
+	}
+
+	public RelationChangeEntity toRelationChangeEntity(RelationChangeType changeType, RelationEntity entity) {
+		return RelationChangeEntity.builder()
+			.withMunicipalityId(entity.getMunicipalityId())
+			.withChangeType(changeType)
+			.withRelationId(entity.getId())
+			.withType(entity.getType().getName())
+			.withSourceResourceId(entity.getSource().getResourceId())
+			.withSourceType(entity.getSource().getType())
+			.withSourceService(entity.getSource().getService())
+			.withSourceNamespace(entity.getSource().getNamespace())
+			.withTargetResourceId(entity.getTarget().getResourceId())
+			.withTargetType(entity.getTarget().getType())
+			.withTargetService(entity.getTarget().getService())
+			.withTargetNamespace(entity.getTarget().getNamespace())
+			.build();
+	}
+
+	public RelationChange toRelationChange(RelationChangeEntity entity) {
+		return RelationChange.builder()
+			.withSequence(entity.getSequence())
+			.withChangeType(entity.getChangeType())
+			.withRelationId(entity.getRelationId())
+			.withType(entity.getType())
+			.withSource(ResourceIdentifier.builder()
+				.withResourceId(entity.getSourceResourceId())
+				.withService(entity.getSourceService())
+				.withNamespace(entity.getSourceNamespace())
+				.withType(entity.getSourceType())
+				.build())
+			.withTarget(ResourceIdentifier.builder()
+				.withResourceId(entity.getTargetResourceId())
+				.withService(entity.getTargetService())
+				.withNamespace(entity.getTargetNamespace())
+				.withType(entity.getTargetType())
+				.build())
+			.withOccurred(entity.getOccurred())
+			.build();
+	}
+
 	private ResourceIdentifier toResourceIdentifier(ResourceIdentifierEntity entity) {
 		return ResourceIdentifier.builder()
 			.withResourceId(entity.getResourceId())
@@ -0,0 +1,5 @@
+create index idx_relation_municipality_id_type_id_created
+   on relation (municipality_id, type_id, created);
+
+create index idx_resource_identifier_resource_id_type_service
+   on resource_identifier (resource_id, type, service);
@@ -0,0 +1,20 @@
+create table relation_change (
+    id bigint not null auto_increment,
+    occurred datetime(6) not null,
+    change_type varchar(255) not null,
+    municipality_id varchar(255) not null,
+    relation_id varchar(255) not null,
+    source_namespace varchar(255),
+    source_resource_id varchar(255) not null,
+    source_service varchar(255) not null,
+    source_type varchar(255) not null,
+    target_namespace varchar(255),
+    target_resource_id varchar(255) not null,
+    target_service varchar(255) not null,
+    target_type varchar(255) not null,
+    type varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_relation_change_municipality_id_id
+   on relation_change (municipality_id, id);
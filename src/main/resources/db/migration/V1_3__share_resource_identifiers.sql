@@ -0,0 +1,80 @@
+-- Resource identifiers are stored once per municipality, service, type, namespace and resource id and shared by all
+-- relations of the resource, instead of one identifier per relation
+
+alter table resource_identifier
+    add column municipality_id varchar(255) after id;
+
+update resource_identifier ri
+    join relation r on r.resource_source_identifier_id = ri.id
+    set ri.municipality_id = r.municipality_id;
+
+update resource_identifier ri
+    join relation r on r.resource_target_identifier_id = ri.id
+    set ri.municipality_id = r.municipality_id
+    where ri.municipality_id is null;
+
+-- The modified timestamp of a relation includes those of its identifiers. They are moved to the relations, so that no
+-- relation changes its modified timestamp when the identifiers are merged
+update relation r
+    join resource_identifier s on s.id = r.resource_source_identifier_id
+    join resource_identifier t on t.id = r.resource_target_identifier_id
+    set r.modified = greatest(
+        coalesce(r.modified, s.modified, t.modified),
+        coalesce(s.modified, r.modified, t.modified),
+        coalesce(t.modified, r.modified, s.modified));
+
+update resource_identifier
+    set modified = null;
+
+-- The foreign keys need an index of their own once the unique constraints are gone
+create index idx_relation_resource_source_identifier_id
+   on relation (resource_source_identifier_id);
+
+create index idx_relation_resource_target_identifier_id
+   on relation (resource_target_identifier_id);
+
+alter table relation
+   drop index uq_relation_resource_source_identifier_id;
+
+alter table relation
+   drop index uq_relation_counter_resource_target_identifier_id;
+
+-- Keeps the identifier with the lowest id of each resource. Resource ids are case-sensitive, so they are compared as
+-- binary instead of with the case-insensitive collation
+create temporary table resource_identifier_survivor (
+    id varchar(255) not null,
+    survivor_id varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+insert into resource_identifier_survivor (id, survivor_id)
+select ri.id, first_value(ri.id) over (
+        partition by ri.municipality_id, binary ri.service, binary ri.type, binary ri.namespace, binary ri.resource_id
+        order by ri.id)
+    from resource_identifier ri;
+
+update relation r
+    join resource_identifier_survivor s on s.id = r.resource_source_identifier_id
+    set r.resource_source_identifier_id = s.survivor_id
+    where s.survivor_id <> s.id;
+
+update relation r
+    join resource_identifier_survivor s on s.id = r.resource_target_identifier_id
+    set r.resource_target_identifier_id = s.survivor_id
+    where s.survivor_id <> s.id;
+
+delete ri from resource_identifier ri
+    join resource_identifier_survivor s on s.id = ri.id
+    where s.survivor_id <> s.id;
+
+drop temporary table resource_identifier_survivor;
+
+-- Identifiers without a municipality are not referred to by any relation
+delete from resource_identifier
+    where municipality_id is null;
+
+alter table resource_identifier
+    modify municipality_id varchar(255) not null;
+
+create index idx_resource_identifier_municipality_id_resource_id
+   on resource_identifier (municipality_id, resource_id);
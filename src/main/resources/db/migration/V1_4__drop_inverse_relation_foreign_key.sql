@@ -0,0 +1,6 @@
+-- The two relations of a two-way pair refer to each other. Foreign keys are checked row by row, so with the foreign key
+-- one of them had to be inserted without the reference and updated afterwards. The unique constraint keeps the column
+-- indexed
+
+alter table relation
+   drop foreign key fk_relation_inverse_relation_relation;
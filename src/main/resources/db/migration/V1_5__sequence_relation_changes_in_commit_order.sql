@@ -0,0 +1,38 @@
+-- Relation changes are ordered in the change feed by a sequence assigned in commit order once they have been committed,
+-- instead of by the auto increment id, which is taken before the commit. Ids are taken from a pooled sequence instead,
+-- so that the inserts can be batched. Existing changes keep their ids as sequences
+
+alter table relation_change
+    add column sequence bigint after occurred;
+
+update relation_change
+    set sequence = id;
+
+create index idx_relation_change_municipality_id_sequence
+   on relation_change (municipality_id, sequence);
+
+create index idx_relation_change_sequence_id
+   on relation_change (sequence, id);
+
+drop index idx_relation_change_municipality_id_id on relation_change;
+
+create table relation_change_sequence (
+    id integer not null,
+    last_sequence bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+insert into relation_change_sequence (id, last_sequence)
+    select 1, coalesce(max(id), 0) from relation_change;
+
+alter table relation_change
+    modify id bigint not null;
+
+-- Ids are handed out in blocks of 50, of which the sequence value is the last. The first block starts after the
+-- highest existing id
+set @create_sequence = concat('create sequence relation_change_seq start with ',
+    (select coalesce(max(id), 0) + 51 from relation_change), ' increment by 50 nocache');
+
+prepare create_sequence from @create_sequence;
+execute create_sequence;
+deallocate prepare create_sequence;
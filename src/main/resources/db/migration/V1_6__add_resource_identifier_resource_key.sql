@@ -0,0 +1,48 @@
+-- Each resource identifier gets a resource key, the SHA-256 hex of its municipality, service, type, namespace and
+-- resource id, which is kept unique. The columns themselves can't be, as their collation ignores case while resource
+-- ids are case-sensitive. The parts are separated by the unit separator and a missing namespace is written as NUL, the
+-- same way as the application computes the key
+
+alter table resource_identifier
+    add column resource_key varchar(64) after municipality_id;
+
+update resource_identifier
+    set resource_key = sha2(convert(concat_ws(char(31 using utf8mb4),
+        municipality_id,
+        coalesce(service, char(0 using utf8mb4)),
+        coalesce(type, char(0 using utf8mb4)),
+        coalesce(namespace, char(0 using utf8mb4)),
+        resource_id) using utf8mb4), 256);
+
+-- Identifiers created twice by concurrent requests since version 1.3 are merged into the one with the lowest id
+create temporary table resource_identifier_survivor (
+    id varchar(255) not null,
+    survivor_id varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+insert into resource_identifier_survivor (id, survivor_id)
+select ri.id, first_value(ri.id) over (partition by ri.resource_key order by ri.id)
+    from resource_identifier ri;
+
+update relation r
+    join resource_identifier_survivor s on s.id = r.resource_source_identifier_id
+    set r.resource_source_identifier_id = s.survivor_id
+    where s.survivor_id <> s.id;
+
+update relation r
+    join resource_identifier_survivor s on s.id = r.resource_target_identifier_id
+    set r.resource_target_identifier_id = s.survivor_id
+    where s.survivor_id <> s.id;
+
+delete ri from resource_identifier ri
+    join resource_identifier_survivor s on s.id = ri.id
+    where s.survivor_id <> s.id;
+
+drop temporary table resource_identifier_survivor;
+
+alter table resource_identifier
+    modify resource_key varchar(64) not null;
+
+alter table resource_identifier
+    add constraint uq_resource_identifier_resource_key unique (resource_key);
@@ -0,0 +1,36 @@
+package se.sundsvall.relations.api;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import se.sundsvall.relations.integration.db.ReadYourWrites;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static se.sundsvall.relations.api.ReadYourWritesFilter.READ_YOUR_WRITES_HEADER;
+
+class ReadYourWritesFilterTest {
+
+	private final ReadYourWritesFilter filter = new ReadYourWritesFilter();
+
+	@ParameterizedTest
+	@CsvSource(value = {
+		"true, true",
+		"TRUE, true",
+		"false, false",
+		"NULL, false"
+	}, nullValues = "NULL")
+	void doFilter(final String header, final boolean expected) throws Exception {
+		final var request = new MockHttpServletRequest();
+		if (header != null) {
+			request.addHeader(READ_YOUR_WRITES_HEADER, header);
+		}
+		final var requested = new AtomicBoolean();
+
+		filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> requested.set(ReadYourWrites.isRequested()));
+
+		assertThat(requested.get()).isEqualTo(expected);
+		assertThat(ReadYourWrites.isRequested()).isFalse();
+	}
+}
@@ -2,11 +2,14 @@ package se.sundsvall.relations.api;
 
 import java.net.URI;
 import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.function.Function;
 import java.util.stream.Stream;
 import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -140,4 +143,207 @@ class RelationResourceFailuresTest {
 			Arguments.of("PUT", relationUriWithId),
 			Arguments.of("DELETE", relationUriWithId));
 	}
+
+	@Test
+	void createRelationsWithEmptyBatch() {
+		final var response = post("batch", List.of());
+
+		assertThat(response.getViolations())
+			.hasSize(1)
+			.extracting("message").containsExactly("must not be empty");
+
+		verifyNoInteractions(serviceMock);
+	}
+
+	@Test
+	void createRelationsWithTooLargeBatch() {
+		final var response = post("batch", Collections.nCopies(1001, createRelationInstance()));
+
+		assertThat(response.getViolations())
+			.hasSize(1)
+			.extracting("message").containsExactly("size must be between 0 and 1000");
+
+		verifyNoInteractions(serviceMock);
+	}
+
+	@Test
+	void createRelationsWithInvalidRelation() {
+		final var relationInstance = createRelationInstance();
+		relationInstance.setId("id");
+
+		final var response = post("batch", List.of(createRelationInstance(), relationInstance));
+
+		assertThat(response.getViolations())
+			.hasSize(1)
+			.extracting("message").containsExactly("must be null");
+
+		verifyNoInteractions(serviceMock);
+	}
+
+	@Test
+	void getRelationsWithoutIds() {
+		final var response = post("lookup", List.of());
+
+		assertThat(response.getViolations())
+			.hasSize(1)
+			.extracting("message").containsExactly("must not be empty");
+
+		verifyNoInteractions(serviceMock);
+	}
+
+	@Test
+	void getRelationsWithTooManyIds() {
+		final var response = post("lookup", Collections.nCopies(101, RELATION_ID));
+
+		assertThat(response.getViolations())
+			.hasSize(1)
+			.extracting("message").containsExactly("size must be between 0 and 100");
+
+		verifyNoInteractions(serviceMock);
+	}
+
+	@Test
+	void getRelationsWithInvalidId() {
+		final var response = post("lookup", List.of(RELATION_ID, "bad-id"));
+
+		assertThat(response.getViolations())
+			.hasSize(1)
+			.extracting("message").containsExactly("not a valid UUID");
+
+		verifyNoInteractions(serviceMock);
+	}
+
+	private ConstraintViolationProblem post(final String path, final Object body) {
+		final var response = webTestClient.post()
+			.uri(uriBuilder -> uriBuilder.path("/{municipalityId}/relations/{path}").build(Map.of("municipalityId", MUNICIPALITY_ID, "path", path)))
+			.bodyValue(body)
+			.exchange()
+			.expectStatus().isBadRequest()
+			.expectBody(ConstraintViolationProblem.class)
+			.returnResult()
+			.getResponseBody();
+
+		assertThat(response).isNotNull();
+		assertThat(response.getTitle()).isEqualTo("Constraint Violation");
+		return response;
+	}
+
+	@Test
+	void getRelationGraphWithInvalidDepth() {
+		final var response = webTestClient.get()
+			.uri(uriBuilder -> uriBuilder.path("/{municipalityId}/relations/graph")
+				.queryParam("resourceId", "sourceId")
+				.queryParam("depth", 11)
+				.build(Map.of("municipalityId", MUNICIPALITY_ID)))
+			.exchange()
+			.expectStatus().isBadRequest()
+			.expectBody(ConstraintViolationProblem.class)
+			.returnResult()
+			.getResponseBody();
+
+		assertThat(response).isNotNull();
+		assertThat(response.getViolations())
+			.hasSize(1)
+			.extracting("message").containsExactly("must be less than or equal to 10");
+
+		verifyNoInteractions(serviceMock);
+	}
+
+	@Test
+	void deleteRelationsWithBlankResource() {
+		final var response = webTestClient.delete()
+			.uri(uriBuilder -> uriBuilder.path("/{municipalityId}/relations")
+				.queryParam("service", " ")
+				.queryParam("type", " ")
+				.queryParam("resourceId", " ")
+				.build(Map.of("municipalityId", MUNICIPALITY_ID)))
+			.exchange()
+			.expectStatus().isBadRequest()
+			.expectBody(ConstraintViolationProblem.class)
+			.returnResult()
+			.getResponseBody();
+
+		assertThat(response).isNotNull();
+		assertThat(response.getViolations())
+			.hasSize(3)
+			.extracting("message").containsOnly("must not be blank");
+
+		verifyNoInteractions(serviceMock);
+	}
+
+	@Test
+	void getRelationChangesWithInvalidLimit() {
+		final var response = webTestClient.get()
+			.uri(uriBuilder -> uriBuilder.path("/{municipalityId}/relations/changes")
+				.queryParam("after", -1)
+				.queryParam("limit", 10001)
+				.build(Map.of("municipalityId", MUNICIPALITY_ID)))
+			.exchange()
+			.expectStatus().isBadRequest()
+			.expectBody(ConstraintViolationProblem.class)
+			.returnResult()
+			.getResponseBody();
+
+		assertThat(response).isNotNull();
+		assertThat(response.getViolations())
+			.extracting("message").containsExactlyInAnyOrder("must be greater than or equal to 0", "must be less than or equal to 10000");
+
+		verifyNoInteractions(serviceMock);
+	}
+
+	@Test
+	void findRelationsWithFilterOnFieldNotAllowed() {
+		webTestClient.get()
+			.uri(uriBuilder -> uriBuilder.path("/{municipalityId}/relations")
+				.queryParam("filter", "type.displayName : 'Parent'")
+				.build(Map.of("municipalityId", MUNICIPALITY_ID)))
+			.exchange()
+			.expectStatus().isBadRequest()
+			.expectBody()
+			.jsonPath("$.detail").isEqualTo("Filtering on 'type.displayName' is not allowed");
+
+		verifyNoInteractions(serviceMock);
+	}
+
+	@Test
+	void findRelationsWithLikeNotAllowed() {
+		webTestClient.get()
+			.uri(uriBuilder -> uriBuilder.path("/{municipalityId}/relations")
+				.queryParam("filter", "source.resourceId ~ '*some-id'")
+				.build(Map.of("municipalityId", MUNICIPALITY_ID)))
+			.exchange()
+			.expectStatus().isBadRequest()
+			.expectBody()
+			.jsonPath("$.detail").isEqualTo("Operator '~' is not allowed in filter");
+
+		verifyNoInteractions(serviceMock);
+	}
+
+	@Test
+	void findRelationsWithFilterOnUnindexedFieldNotAllowed() {
+		webTestClient.get()
+			.uri(uriBuilder -> uriBuilder.path("/{municipalityId}/relations")
+				.queryParam("filter", "modified > '2025-01-01T00:00:00Z'")
+				.build(Map.of("municipalityId", MUNICIPALITY_ID)))
+			.exchange()
+			.expectStatus().isBadRequest()
+			.expectBody()
+			.jsonPath("$.detail").isEqualTo("Filtering on 'modified' is not allowed");
+
+		verifyNoInteractions(serviceMock);
+	}
+
+	@Test
+	void exportRelationsWithOperatorNotAllowed() {
+		webTestClient.get()
+			.uri(uriBuilder -> uriBuilder.path("/{municipalityId}/relations/export")
+				.queryParam("filter", "source.resourceId ~~ 'some-id'")
+				.build(Map.of("municipalityId", MUNICIPALITY_ID)))
+			.exchange()
+			.expectStatus().isBadRequest()
+			.expectBody()
+			.jsonPath("$.detail").isEqualTo("Operator '~~' is not allowed in filter");
+
+		verifyNoInteractions(serviceMock);
+	}
 }
@@ -1,8 +1,10 @@
 package se.sundsvall.relations.api;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -11,26 +13,49 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.webtestclient.autoconfigure.AutoConfigureWebTestClient;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.reactive.server.WebTestClient;
-import se.sundsvall.dept44.models.api.paging.PagingAndSortingMetaData;
 import se.sundsvall.relations.Application;
 import se.sundsvall.relations.api.model.Relation;
+import se.sundsvall.relations.api.model.RelationBatchResult;
+import se.sundsvall.relations.api.model.RelationChange;
+import se.sundsvall.relations.api.model.RelationChangeType;
+import se.sundsvall.relations.api.model.RelationDeleteResponse;
+import se.sundsvall.relations.api.model.RelationGraph;
+import se.sundsvall.relations.api.model.RelationLookupResponse;
+import se.sundsvall.relations.api.model.RelationNeighbor;
 import se.sundsvall.relations.api.model.RelationPageParameters;
 import se.sundsvall.relations.api.model.RelationPagedResponse;
+import se.sundsvall.relations.api.model.RelationPagingMetaData;
+import se.sundsvall.relations.service.ETags;
+import se.sundsvall.relations.service.RelationChangeTopic;
 import se.sundsvall.relations.service.RelationService;
+import tools.jackson.databind.json.JsonMapper;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.http.HttpHeaders.ETAG;
+import static org.springframework.http.HttpHeaders.IF_MATCH;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
 import static org.springframework.http.MediaType.ALL;
 import static org.springframework.http.MediaType.ALL_VALUE;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM;
 import static se.sundsvall.relations.api.RelationTestUtil.createRelationInstance;
 
 @AutoConfigureWebTestClient
@@ -45,6 +70,12 @@ class RelationResourceTest {
 	@Autowired
 	private WebTestClient webTestClient;
 
+	@Autowired
+	private JsonMapper jsonMapper;
+
+	@Autowired
+	private RelationChangeTopic changeTopic;
+
 	@MockitoBean
 	private RelationService serviceMock;
 
@@ -71,6 +102,30 @@ class RelationResourceTest {
 		verify(serviceMock).createRelation(MUNICIPALITY_ID, relationInstance);
 	}
 
+	@Test
+	void createRelations() {
+		final var relations = List.of(createRelationInstance(), createRelationInstance());
+		final var results = List.of(
+			RelationBatchResult.builder().withIndex(0).withId(RELATION_ID).withStatus(201).build(),
+			RelationBatchResult.builder().withIndex(1).withStatus(400).withDetail("'type' is not a valid type").build());
+
+		when(serviceMock.createRelations(any(), any())).thenReturn(results);
+
+		final var response = webTestClient.post()
+			.uri(uriBuilder -> uriBuilder.path("/{municipalityId}/relations/batch").build(Map.of("municipalityId", MUNICIPALITY_ID)))
+			.contentType(APPLICATION_JSON)
+			.bodyValue(relations)
+			.exchange()
+			.expectStatus().isOk()
+			.expectHeader().contentType(APPLICATION_JSON)
+			.expectBodyList(RelationBatchResult.class)
+			.returnResult()
+			.getResponseBody();
+
+		verify(serviceMock).createRelations(MUNICIPALITY_ID, relations);
+		assertThat(response).isEqualTo(results);
+	}
+
 	@Test
 	void getRelation() {
 
@@ -83,6 +138,7 @@ class RelationResourceTest {
 			.exchange()
 			.expectStatus().isOk()
 			.expectHeader().contentType(APPLICATION_JSON)
+			.expectHeader().valueEquals(ETAG, ETags.of(relationInstance))
 			.expectBody(Relation.class)
 			.returnResult()
 			.getResponseBody();
@@ -91,6 +147,48 @@ class RelationResourceTest {
 		assertThat(response).isNotNull().isEqualTo(relationInstance);
 	}
 
+	@Test
+	void getRelationNotModified() {
+		final var relationInstance = createRelationInstance();
+		final var etag = ETags.of(relationInstance);
+
+		when(serviceMock.getRelation(any(), any())).thenReturn(relationInstance);
+
+		webTestClient.get()
+			.uri(uriBuilder -> uriBuilder.path("/{municipalityId}/relations/{id}").build(Map.of("municipalityId", MUNICIPALITY_ID, "id", RELATION_ID)))
+			.header(IF_NONE_MATCH, etag)
+			.exchange()
+			.expectStatus().isNotModified()
+			.expectHeader().valueEquals(ETAG, etag)
+			.expectBody().isEmpty();
+
+		verify(serviceMock).getRelation(MUNICIPALITY_ID, RELATION_ID);
+	}
+
+	@Test
+	void getRelations() {
+		final var missingId = UUID.randomUUID().toString();
+		final var lookupResponse = RelationLookupResponse.builder()
+			.withRelations(List.of(createRelationInstance()))
+			.withMissingIds(List.of(missingId))
+			.build();
+
+		when(serviceMock.getRelations(any(), any())).thenReturn(lookupResponse);
+
+		final var response = webTestClient.post()
+			.uri(uriBuilder -> uriBuilder.path("/{municipalityId}/relations/lookup").build(Map.of("municipalityId", MUNICIPALITY_ID)))
+			.bodyValue(List.of(RELATION_ID, missingId))
+			.exchange()
+			.expectStatus().isOk()
+			.expectHeader().contentType(APPLICATION_JSON)
+			.expectBody(RelationLookupResponse.class)
+			.returnResult()
+			.getResponseBody();
+
+		verify(serviceMock).getRelations(MUNICIPALITY_ID, List.of(RELATION_ID, missingId));
+		assertThat(response).isEqualTo(lookupResponse);
+	}
+
 	@Test
 	void findRelation() {
 		final var pageParameters = new RelationPageParameters();
@@ -99,9 +197,9 @@ class RelationResourceTest {
 		final var pageable = new PageImpl<>(List.of(relationInstance));
 		final var matches = RelationPagedResponse.builder()
 			.withRelations(pageable.getContent())
-			.withMetaData(PagingAndSortingMetaData.create().withPageData(pageable))
+			.withMetaData(RelationPagingMetaData.fromPage(pageable))
 			.build();
-		final var filter = "sourceId:'some-id'";
+		final var filter = "source.resourceId:'some-id'";
 
 		when(serviceMock.findRelations(any(), any(), any())).thenReturn(matches);
 
@@ -126,23 +224,254 @@ class RelationResourceTest {
 
 	}
 
+	@Test
+	void findRelationsWithCursor() {
+		final var pageParameters = new RelationPageParameters();
+		pageParameters.setCursor("someCursor");
+		final var relationInstance = createRelationInstance();
+		final var matches = RelationPagedResponse.builder()
+			.withRelations(List.of(relationInstance))
+			.withMetaData(RelationPagingMetaData.fromCursor(1, pageParameters.getLimit(), pageParameters.sort(), "nextCursor"))
+			.build();
+
+		when(serviceMock.findRelations(any(), any(), any())).thenReturn(matches);
+
+		final var response = webTestClient.get()
+			.uri(uriBuilder -> uriBuilder.path("/{municipalityId}/relations")
+				.queryParam("cursor", pageParameters.getCursor())
+				.build(Map.of("municipalityId", MUNICIPALITY_ID)))
+			.exchange()
+			.expectStatus().isOk()
+			.expectHeader().contentType(APPLICATION_JSON)
+			.expectBody(RelationPagedResponse.class)
+			.returnResult()
+			.getResponseBody();
+
+		verify(serviceMock).findRelations(eq(MUNICIPALITY_ID), any(), eq(pageParameters));
+		assertThat(response).isNotNull();
+		assertThat(response.getRelations()).containsExactly(relationInstance);
+		assertThat(response.getMetaData().getNextCursor()).isEqualTo("nextCursor");
+	}
+
+	@Test
+	void findRelationsWithoutCount() {
+		final var pageParameters = new RelationPageParameters();
+		pageParameters.setSkipCount(true);
+		final var relationInstance = createRelationInstance();
+		final var matches = RelationPagedResponse.builder()
+			.withRelations(List.of(relationInstance))
+			.withMetaData(RelationPagingMetaData.fromSlice(new SliceImpl<>(List.of(relationInstance), PageRequest.of(0, pageParameters.getLimit()), true)))
+			.build();
+
+		when(serviceMock.findRelations(any(), any(), any())).thenReturn(matches);
+
+		final var response = webTestClient.get()
+			.uri(uriBuilder -> uriBuilder.path("/{municipalityId}/relations")
+				.queryParam("skipCount", true)
+				.build(Map.of("municipalityId", MUNICIPALITY_ID)))
+			.exchange()
+			.expectStatus().isOk()
+			.expectHeader().contentType(APPLICATION_JSON)
+			.expectBody(RelationPagedResponse.class)
+			.returnResult()
+			.getResponseBody();
+
+		verify(serviceMock).findRelations(eq(MUNICIPALITY_ID), any(), eq(pageParameters));
+		assertThat(response).isNotNull();
+		assertThat(response.getRelations()).containsExactly(relationInstance);
+		assertThat(response.getMetaData().getHasNext()).isTrue();
+	}
+
+	@Test
+	void exportRelations() {
+		final var relation1 = createRelationInstance();
+		final var relation2 = createRelationInstance();
+		relation1.setId(UUID.randomUUID().toString());
+		relation2.setId(UUID.randomUUID().toString());
+		final var filter = "source.resourceId:'some-id'";
+
+		doAnswer(invocation -> {
+			final Consumer<Relation> consumer = invocation.getArgument(2);
+			consumer.accept(relation1);
+			consumer.accept(relation2);
+			return null;
+		}).when(serviceMock).exportRelations(any(), any(), any());
+
+		final var response = webTestClient.get()
+			.uri(uriBuilder -> uriBuilder.path("/{municipalityId}/relations/export")
+				.queryParam("filter", filter)
+				.build(Map.of("municipalityId", MUNICIPALITY_ID)))
+			.exchange()
+			.expectStatus().isOk()
+			.expectHeader().contentTypeCompatibleWith(APPLICATION_NDJSON)
+			.expectBody(String.class)
+			.returnResult()
+			.getResponseBody();
+
+		verify(serviceMock).exportRelations(eq(MUNICIPALITY_ID), any(), any());
+		assertThat(response).isNotNull();
+		assertThat(response.lines().map(line -> jsonMapper.readValue(line, Relation.class))).containsExactly(relation1, relation2);
+	}
+
+	@Test
+	void getRelationChanges() {
+		final var relation = createRelationInstance();
+		final var change1 = RelationChange.builder()
+			.withSequence(43)
+			.withChangeType(RelationChangeType.CREATED)
+			.withRelationId(UUID.randomUUID().toString())
+			.withType(relation.getType())
+			.withSource(relation.getSource())
+			.withTarget(relation.getTarget())
+			.build();
+		final var change2 = RelationChange.builder()
+			.withSequence(44)
+			.withChangeType(RelationChangeType.DELETED)
+			.withRelationId(change1.getRelationId())
+			.build();
+
+		doAnswer(invocation -> {
+			final Consumer<RelationChange> consumer = invocation.getArgument(3);
+			consumer.accept(change1);
+			consumer.accept(change2);
+			return null;
+		}).when(serviceMock).exportChanges(any(), anyLong(), anyInt(), any());
+
+		final var response = webTestClient.get()
+			.uri(uriBuilder -> uriBuilder.path("/{municipalityId}/relations/changes")
+				.queryParam("after", 42)
+				.build(Map.of("municipalityId", MUNICIPALITY_ID)))
+			.exchange()
+			.expectStatus().isOk()
+			.expectHeader().contentTypeCompatibleWith(APPLICATION_NDJSON)
+			.expectBody(String.class)
+			.returnResult()
+			.getResponseBody();
+
+		verify(serviceMock).exportChanges(eq(MUNICIPALITY_ID), eq(42L), eq(1000), any());
+		assertThat(response).isNotNull();
+		assertThat(response.lines().map(line -> jsonMapper.readValue(line, RelationChange.class))).containsExactly(change1, change2);
+	}
+
+	@Test
+	void subscribe() {
+		final var relation = createRelationInstance();
+		final var change = RelationChange.builder()
+			.withSequence(42)
+			.withChangeType(RelationChangeType.CREATED)
+			.withRelationId(RELATION_ID)
+			.withType(relation.getType())
+			.withSource(relation.getSource())
+			.withTarget(relation.getTarget())
+			.build();
+
+		final var events = webTestClient.get()
+			.uri(uriBuilder -> uriBuilder.path("/{municipalityId}/relations/subscribe")
+				.queryParam("resourceId", relation.getTarget().getResourceId())
+				.build(Map.of("municipalityId", MUNICIPALITY_ID)))
+			.accept(TEXT_EVENT_STREAM)
+			.exchange()
+			.expectStatus().isOk()
+			.expectHeader().contentTypeCompatibleWith(TEXT_EVENT_STREAM)
+			.returnResult(new ParameterizedTypeReference<ServerSentEvent<RelationChange>>() {})
+			.getResponseBody();
+
+		changeTopic.publish(MUNICIPALITY_ID, change);
+
+		final var event = events.blockFirst(Duration.ofSeconds(5));
+		assertThat(event).isNotNull();
+		assertThat(event.id()).isEqualTo("42");
+		assertThat(event.data()).isEqualTo(change);
+		verifyNoInteractions(serviceMock);
+	}
+
+	@Test
+	void getRelationGraph() {
+		final var relationInstance = createRelationInstance();
+		final var graph = RelationGraph.builder()
+			.withNodes(List.of(relationInstance.getSource(), relationInstance.getTarget()))
+			.withEdges(List.of(relationInstance))
+			.build();
+
+		when(serviceMock.getRelationGraph(any(), any(), anyInt(), any())).thenReturn(graph);
+
+		final var response = webTestClient.get()
+			.uri(uriBuilder -> uriBuilder.path("/{municipalityId}/relations/graph")
+				.queryParam("resourceId", "sourceId")
+				.queryParam("depth", 2)
+				.queryParam("types", "type1", "type2")
+				.build(Map.of("municipalityId", MUNICIPALITY_ID)))
+			.exchange()
+			.expectStatus().isOk()
+			.expectHeader().contentType(APPLICATION_JSON)
+			.expectBody(RelationGraph.class)
+			.returnResult()
+			.getResponseBody();
+
+		verify(serviceMock).getRelationGraph(MUNICIPALITY_ID, "sourceId", 2, List.of("type1", "type2"));
+		assertThat(response).isEqualTo(graph);
+	}
+
+	@Test
+	void getRelationGraphWithDefaults() {
+		when(serviceMock.getRelationGraph(any(), any(), anyInt(), any())).thenReturn(RelationGraph.builder().build());
+
+		webTestClient.get()
+			.uri(uriBuilder -> uriBuilder.path("/{municipalityId}/relations/graph")
+				.queryParam("resourceId", "sourceId")
+				.build(Map.of("municipalityId", MUNICIPALITY_ID)))
+			.exchange()
+			.expectStatus().isOk();
+
+		verify(serviceMock).getRelationGraph(MUNICIPALITY_ID, "sourceId", 3, null);
+	}
+
+	@Test
+	void getNeighbors() {
+		final var neighbors = List.of(RelationNeighbor.builder()
+			.withRelationId(RELATION_ID)
+			.withType("type")
+			.withTarget(createRelationInstance().getTarget())
+			.build());
+
+		when(serviceMock.getNeighbors(any(), any(), any(), any())).thenReturn(neighbors);
+
+		final var response = webTestClient.get()
+			.uri(uriBuilder -> uriBuilder.path("/{municipalityId}/relations/neighbors")
+				.queryParam("service", "sourceService")
+				.queryParam("type", "sourceType")
+				.queryParam("resourceId", "sourceId")
+				.build(Map.of("municipalityId", MUNICIPALITY_ID)))
+			.exchange()
+			.expectStatus().isOk()
+			.expectHeader().contentType(APPLICATION_JSON)
+			.expectBodyList(RelationNeighbor.class)
+			.returnResult()
+			.getResponseBody();
+
+		verify(serviceMock).getNeighbors(MUNICIPALITY_ID, "sourceService", "sourceType", "sourceId");
+		assertThat(response).isEqualTo(neighbors);
+	}
+
 	@Test
 	void saveRelation() {
 		final var relationInstance = createRelationInstance();
 
-		when(serviceMock.saveRelation(any(), any())).thenReturn(relationInstance);
+		when(serviceMock.saveRelation(any(), any(), any())).thenReturn(relationInstance);
 
 		final var response = webTestClient.put()
 			.uri(uriBuilder -> uriBuilder.path("/{municipalityId}/relations/{id}").build(Map.of("municipalityId", MUNICIPALITY_ID, "id", RELATION_ID)))
+			.header(IF_MATCH, "\"etag\"")
 			.bodyValue(relationInstance)
 			.exchange()
 			.expectStatus().isOk()
 			.expectHeader().contentType(APPLICATION_JSON)
+			.expectHeader().valueEquals(ETAG, ETags.of(relationInstance))
 			.expectBody(Relation.class)
 			.returnResult()
 			.getResponseBody();
 
-		verify(serviceMock).saveRelation(eq(MUNICIPALITY_ID), relationCaptor.capture());
+		verify(serviceMock).saveRelation(eq(MUNICIPALITY_ID), relationCaptor.capture(), eq("\"etag\""));
 		assertThat(relationCaptor.getValue()).usingRecursiveComparison().ignoringFields("id").isEqualTo(relationInstance);
 		assertThat(relationCaptor.getValue().getId()).isEqualTo(RELATION_ID);
 		assertThat(response).isNotNull().isEqualTo(relationInstance);
@@ -160,4 +489,26 @@ class RelationResourceTest {
 
 		verify(serviceMock).deleteRelation(MUNICIPALITY_ID, RELATION_ID);
 	}
+
+	@Test
+	void deleteRelations() {
+		when(serviceMock.deleteRelations(any(), any(), any(), any())).thenReturn(RelationDeleteResponse.builder().withDeleted(4).build());
+
+		final var response = webTestClient.delete()
+			.uri(uriBuilder -> uriBuilder.path("/{municipalityId}/relations")
+				.queryParam("service", "sourceService")
+				.queryParam("type", "sourceType")
+				.queryParam("resourceId", "sourceId")
+				.build(Map.of("municipalityId", MUNICIPALITY_ID)))
+			.exchange()
+			.expectStatus().isOk()
+			.expectHeader().contentType(APPLICATION_JSON)
+			.expectBody(RelationDeleteResponse.class)
+			.returnResult()
+			.getResponseBody();
+
+		assertThat(response).isNotNull();
+		assertThat(response.getDeleted()).isEqualTo(4);
+		verify(serviceMock).deleteRelations(MUNICIPALITY_ID, "sourceService", "sourceType", "sourceId");
+	}
 }
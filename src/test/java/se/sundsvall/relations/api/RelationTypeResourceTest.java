@@ -11,6 +11,8 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import se.sundsvall.relations.Application;
 import se.sundsvall.relations.api.model.RelationType;
+import se.sundsvall.relations.service.ETags;
+import se.sundsvall.relations.service.RelationTypeCatalog;
 import se.sundsvall.relations.service.RelationTypeService;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -18,6 +20,9 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+import static org.springframework.http.HttpHeaders.ETAG;
+import static org.springframework.http.HttpHeaders.IF_MATCH;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
 import static org.springframework.http.MediaType.ALL;
 import static org.springframework.http.MediaType.ALL_VALUE;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
@@ -92,13 +97,16 @@ class RelationTypeResourceTest {
 		final var relationTypeFirst = RelationType.builder().withName(TYPE_NAME).withCounterName(COUNTER_TYPE_NAME).build();
 		final var relationTypeSecond = RelationType.builder().withName(TYPE_NAME + "-2").withCounterName(COUNTER_TYPE_NAME + "-2").build();
 
-		when(serviceMock.getAllTypes()).thenReturn(List.of(relationTypeFirst, relationTypeSecond));
+		final var catalog = RelationTypeCatalog.of(List.of(relationTypeFirst, relationTypeSecond));
+
+		when(serviceMock.getAllTypes()).thenReturn(catalog);
 
 		final var response = webTestClient.get()
 			.uri("/relation-types")
 			.exchange()
 			.expectStatus().isOk()
 			.expectHeader().contentType(APPLICATION_JSON)
+			.expectHeader().valueEquals(ETAG, catalog.etag())
 			.expectBodyList(RelationType.class)
 			.returnResult()
 			.getResponseBody();
@@ -110,23 +118,42 @@ class RelationTypeResourceTest {
 			.containsExactlyInAnyOrder(relationTypeFirst, relationTypeSecond);
 	}
 
+	@Test
+	void getAllRelationTypesNotModified() {
+		final var catalog = RelationTypeCatalog.of(List.of(RelationType.builder().withName(TYPE_NAME).build()));
+
+		when(serviceMock.getAllTypes()).thenReturn(catalog);
+
+		webTestClient.get()
+			.uri("/relation-types")
+			.header(IF_NONE_MATCH, catalog.etag())
+			.exchange()
+			.expectStatus().isNotModified()
+			.expectHeader().valueEquals(ETAG, catalog.etag())
+			.expectBody().isEmpty();
+
+		verify(serviceMock).getAllTypes();
+	}
+
 	@Test
 	void saveRelationType() {
 		final var relationType = RelationType.builder().withName(TYPE_NAME).withCounterName(COUNTER_TYPE_NAME).build();
 
-		when(serviceMock.saveRelationType(any(), any())).thenReturn(relationType);
+		when(serviceMock.saveRelationType(any(), any(), any())).thenReturn(relationType);
 
 		final var response = webTestClient.put()
 			.uri(uriBuilder -> uriBuilder.path("/relation-types/{type}").build(Map.of("type", TYPE_NAME + "-old-value")))
+			.header(IF_MATCH, "\"etag\"")
 			.bodyValue(relationType)
 			.exchange()
 			.expectStatus().isOk()
 			.expectHeader().contentType(APPLICATION_JSON)
+			.expectHeader().valueEquals(ETAG, ETags.of(relationType))
 			.expectBody(RelationType.class)
 			.returnResult()
 			.getResponseBody();
 
-		verify(serviceMock).saveRelationType(TYPE_NAME + "-old-value", relationType);
+		verify(serviceMock).saveRelationType(TYPE_NAME + "-old-value", relationType, "\"etag\"");
 		assertThat(response).isNotNull().isEqualTo(relationType);
 	}
 
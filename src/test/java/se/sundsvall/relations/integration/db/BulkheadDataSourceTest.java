@@ -0,0 +1,74 @@
+package se.sundsvall.relations.integration.db;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static se.sundsvall.relations.integration.db.BulkheadDataSource.AVAILABLE_GAUGE;
+import static se.sundsvall.relations.integration.db.BulkheadDataSource.REJECTED_COUNTER;
+import static se.sundsvall.relations.integration.db.BulkheadDataSource.WAIT_TIMER;
+
+@ExtendWith(MockitoExtension.class)
+class BulkheadDataSourceTest {
+
+	@Mock
+	private DataSource dataSourceMock;
+
+	@Mock
+	private Connection connectionMock;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void permitIsReleasedOnceOnClose() throws SQLException {
+		final var dataSource = new BulkheadDataSource(dataSourceMock, 1, Duration.ofMillis(10), meterRegistry);
+		when(dataSourceMock.getConnection()).thenReturn(connectionMock);
+
+		final var connection = dataSource.getConnection();
+		connection.setAutoCommit(false);
+
+		assertThat(available()).isZero();
+		connection.close();
+		connection.close();
+		assertThat(available()).isOne();
+		verify(connectionMock).setAutoCommit(false);
+		assertThat(meterRegistry.get(WAIT_TIMER).timer().count()).isOne();
+	}
+
+	@Test
+	void rejectsWhenNoPermitWithinMaxWait() throws SQLException {
+		final var dataSource = new BulkheadDataSource(dataSourceMock, 1, Duration.ofMillis(10), meterRegistry);
+		when(dataSourceMock.getConnection()).thenReturn(connectionMock);
+		dataSource.getConnection();
+
+		assertThatThrownBy(dataSource::getConnection)
+			.isInstanceOf(SQLTransientConnectionException.class)
+			.hasMessage("No database connection available within PT0.01S");
+		assertThat(meterRegistry.get(REJECTED_COUNTER).counter().count()).isOne();
+		assertThat(meterRegistry.get(WAIT_TIMER).timer().count()).isEqualTo(2);
+	}
+
+	@Test
+	void permitIsReleasedWhenConnectionFails() throws SQLException {
+		final var dataSource = new BulkheadDataSource(dataSourceMock, 1, Duration.ofMillis(10), meterRegistry);
+		when(dataSourceMock.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+		assertThatThrownBy(dataSource::getConnection).hasMessage("Connection refused");
+		assertThat(available()).isOne();
+	}
+
+	private double available() {
+		return meterRegistry.get(AVAILABLE_GAUGE).gauge().value();
+	}
+}
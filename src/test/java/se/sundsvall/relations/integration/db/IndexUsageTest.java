@@ -0,0 +1,147 @@
+package se.sundsvall.relations.integration.db;
+
+import com.turkraft.springfilter.converter.FilterSpecificationConverter;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import se.sundsvall.relations.integration.db.model.ResourceIdentifierEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static se.sundsvall.relations.integration.db.model.ResourceIdentifierEntity.resourceKey;
+import static se.sundsvall.relations.service.RelationService.withMunicipalityId;
+
+/**
+ * Verifies, through EXPLAIN against the MariaDB test container, that the SQL Hibernate generates for the most common
+ * queries is resolved through the lookup indexes. The statements are captured by {@link SqlCaptureStatementInspector}
+ * and explained with the same parameters, in the order they are bound. The tables are seeded with relations in several
+ * municipalities and analyzed first, as the optimizer scans tables this small regardless of the indexes.
+ */
+@SpringBootTest
+@ActiveProfiles("junit")
+@Sql(scripts = {
+	"/db/scripts/truncate.sql",
+	"/db/scripts/testdata-junit.sql"
+})
+class IndexUsageTest {
+
+	private static final String MUNICIPALITY_ID = "2281";
+	private static final int MUNICIPALITIES = 20;
+	private static final int RESOURCES_PER_MUNICIPALITY = 100;
+	private static final int RELATIONS_PER_MUNICIPALITY = 200;
+
+	private static final String RELATION_INDEX = "idx_relation_municipality_id_type_id_created";
+	private static final String RESOURCE_IDENTIFIER_INDEX = "idx_resource_identifier_resource_id_type_service";
+	private static final String RESOURCE_IDENTIFIER_MUNICIPALITY_INDEX = "idx_resource_identifier_municipality_id_resource_id";
+	private static final String RELATION_SOURCE_INDEX = "idx_relation_resource_source_identifier_id";
+	private static final String RELATION_TARGET_INDEX = "idx_relation_resource_target_identifier_id";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private RelationRepository relationRepository;
+
+	@Autowired
+	private ResourceIdentifierRepository identifierRepository;
+
+	@Autowired
+	private FilterSpecificationConverter filterSpecificationConverter;
+
+	@BeforeEach
+	void seed() {
+		final var identifiers = new ArrayList<Object[]>();
+		final var relations = new ArrayList<Object[]>();
+		IntStream.range(0, MUNICIPALITIES).forEach(m -> {
+			final var municipalityId = m == 0 ? MUNICIPALITY_ID : String.valueOf(2300 + m);
+			IntStream.range(0, RESOURCES_PER_MUNICIPALITY).forEach(i -> identifiers.add(new Object[] {
+				"seed-" + m + "-" + i, municipalityId, resourceKey(municipalityId, "service-" + i % 3, "type-" + i % 5, null, "resource-" + i),
+				"resource-" + i, "type-" + i % 5, "service-" + i % 3
+			}));
+			IntStream.range(0, RELATIONS_PER_MUNICIPALITY).forEach(i -> relations.add(new Object[] {
+				"seed-" + m + "-" + i, municipalityId, "rt" + (1 + i % 6), Timestamp.valueOf(LocalDateTime.of(2025, 1, 1, 0, 0).plusMinutes(i)),
+				"seed-" + m + "-" + i % RESOURCES_PER_MUNICIPALITY, "seed-" + m + "-" + (i + 1) % RESOURCES_PER_MUNICIPALITY
+			}));
+		});
+		jdbcTemplate.batchUpdate("insert into resource_identifier(id, municipality_id, resource_key, resource_id, type, service) values (?, ?, ?, ?, ?, ?)", identifiers);
+		jdbcTemplate.batchUpdate("""
+			insert into relation(id, municipality_id, type_id, created, resource_source_identifier_id, resource_target_identifier_id)
+			values (?, ?, ?, ?, ?, ?)""", relations);
+		jdbcTemplate.execute("analyze table relation, resource_identifier");
+	}
+
+	@Test
+	void findByMunicipalityIdAndType() {
+		final var sql = sqlOf(() -> relationRepository.findAll(withMunicipalityId(MUNICIPALITY_ID).and(filterSpecificationConverter.convert("type.id : 'rt1'")), Sort.by("created")));
+
+		assertThat(keys(explain(sql, MUNICIPALITY_ID, "rt1"))).contains(RELATION_INDEX);
+	}
+
+	@Test
+	void findBySourceResourceId() {
+		final var filter = filterSpecificationConverter.convert("source.resourceId : 'resource-1' and source.type : 'type-1' and source.service : 'service-1'");
+		final var sql = sqlOf(() -> relationRepository.findAll(withMunicipalityId(MUNICIPALITY_ID).and(filter)));
+
+		assertThat(keys(explain(sql, MUNICIPALITY_ID, "resource-1", "type-1", "service-1"))).contains(RESOURCE_IDENTIFIER_INDEX, RELATION_SOURCE_INDEX);
+	}
+
+	@Test
+	void findBySourceOrTargetResourceId() {
+		final var filter = filterSpecificationConverter.convert("source.resourceId : 'resource-1' or target.resourceId : 'resource-1'");
+		final var sql = sqlOf(() -> relationRepository.findAll(withMunicipalityId(MUNICIPALITY_ID).and(filter)));
+
+		assertThat(keys(explain(sql, MUNICIPALITY_ID, "resource-1", "resource-1"))).contains(RELATION_INDEX);
+	}
+
+	@Test
+	void findResourceIdentifiersAndTheirRelations() {
+		final var resourceIds = List.of("resource-1", "resource-2");
+		final var identifierSql = sqlOf(() -> identifierRepository.findByMunicipalityIdAndResourceIdIn(MUNICIPALITY_ID, resourceIds));
+		final var identifiers = identifierRepository.findByMunicipalityIdAndResourceIdIn(MUNICIPALITY_ID, resourceIds);
+		final var identifierIds = identifiers.stream().map(ResourceIdentifierEntity::getId).toList();
+		final var relationSql = sqlOf(() -> relationRepository.findBySourceOrTargetIn(MUNICIPALITY_ID, identifiers));
+
+		assertThat(identifierIds).hasSize(2);
+		assertThat(keys(explain(identifierSql, MUNICIPALITY_ID, "resource-1", "resource-2"))).contains(RESOURCE_IDENTIFIER_MUNICIPALITY_INDEX);
+		assertThat(keys(explain(relationSql, MUNICIPALITY_ID, identifierIds.get(0), identifierIds.get(1), identifierIds.get(0), identifierIds.get(1))))
+			.contains(RELATION_SOURCE_INDEX, RELATION_TARGET_INDEX);
+	}
+
+	private static String sqlOf(final Runnable query) {
+		SqlCaptureStatementInspector.startCapture();
+		try {
+			query.run();
+			return SqlCaptureStatementInspector.stopCapture().getFirst();
+		} finally {
+			SqlCaptureStatementInspector.stopCapture();
+		}
+	}
+
+	private List<Map<String, Object>> explain(final String sql, final Object... arguments) {
+		assertThat(sql.chars().filter(character -> character == '?')).as("parameters of %s", sql).hasSize(arguments.length);
+		return jdbcTemplate.queryForList("explain " + sql, arguments);
+	}
+
+	/**
+	 * The indexes the plan reads, from the {@code key} column. Index merges list several indexes in one row.
+	 */
+	private static List<String> keys(final List<Map<String, Object>> plan) {
+		return plan.stream()
+			.map(row -> row.get("key"))
+			.filter(Objects::nonNull)
+			.flatMap(keys -> Arrays.stream(keys.toString().split(",")))
+			.toList();
+	}
+}
@@ -0,0 +1,81 @@
+package se.sundsvall.relations.integration.db;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static se.sundsvall.relations.integration.db.ReadReplicaDataSource.ROUTED_COUNTER;
+
+/**
+ * Runs against two MariaDB test containers, the second one standing in for the read replica. The containers are told
+ * apart by their database name.
+ */
+@SpringBootTest(properties = "relations.datasource.replica.url=jdbc:tc:mariadb:10.6:///" + ReadReplicaDataSourceTest.REPLICA)
+@ActiveProfiles("junit")
+class ReadReplicaDataSourceTest {
+
+	static final String REPLICA = "replica";
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void dataSourceIsRouted() {
+		assertThat(dataSource).isInstanceOf(ReadReplicaDataSource.class);
+	}
+
+	@Test
+	void readOnlyTransactionUsesReplica() {
+		final var routed = routed("replica", "read-only");
+
+		assertThat(database(true)).isEqualTo(REPLICA);
+		assertThat(routed("replica", "read-only")).isEqualTo(routed + 1);
+	}
+
+	@Test
+	void readWriteTransactionUsesPrimary() {
+		assertThat(database(false)).isNotEqualTo(REPLICA);
+	}
+
+	@Test
+	void readOutsideOfTransactionUsesPrimary() {
+		assertThat(jdbcTemplate.queryForObject("select database()", String.class)).isNotEqualTo(REPLICA);
+	}
+
+	@Test
+	void readYourWritesUsesPrimary() {
+		final var routed = routed("primary", "read-your-writes");
+
+		try (final var scope = ReadYourWrites.request()) {
+			assertThat(database(true)).isNotEqualTo(REPLICA);
+		}
+		assertThat(routed("primary", "read-your-writes")).isEqualTo(routed + 1);
+		assertThat(ReadYourWrites.isRequested()).isFalse();
+	}
+
+	private String database(final boolean readOnly) {
+		final var transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.setReadOnly(readOnly);
+		return transactionTemplate.execute(status -> jdbcTemplate.queryForObject("select database()", String.class));
+	}
+
+	private double routed(final String target, final String reason) {
+		return meterRegistry.get(ROUTED_COUNTER).tag("target", target).tag("reason", reason).counter().count();
+	}
+}
@@ -0,0 +1,105 @@
+package se.sundsvall.relations.integration.db;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import se.sundsvall.relations.api.model.RelationChangeType;
+import se.sundsvall.relations.integration.db.model.RelationChangeEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("junit")
+@Sql(scripts = {
+	"/db/scripts/truncate.sql"
+})
+class RelationChangeRepositoryTest {
+
+	private static final String MUNICIPALITY_ID = "2281";
+
+	@Autowired
+	private RelationChangeRepository repository;
+
+	@Test
+	void create() {
+		final var saved = repository.saveAndFlush(change(MUNICIPALITY_ID, "relation-1"));
+
+		assertThat(saved.getId()).isPositive();
+		assertThat(saved.getSequence()).isNull();
+		assertThat(saved.getOccurred()).isNotNull();
+		assertThat(saved.getChangeType()).isEqualTo(RelationChangeType.CREATED);
+	}
+
+	@Test
+	void createBatchesInserts() {
+		final var saved = repository.saveAllAndFlush(List.of(change(MUNICIPALITY_ID, "relation-1"), change(MUNICIPALITY_ID, "relation-2")));
+
+		assertThat(saved).extracting(RelationChangeEntity::getId).doesNotContainNull().doesNotHaveDuplicates();
+	}
+
+	@Test
+	void findChangesAfter() {
+		// Sequences follow the commit order, not the ids
+		repository.save(change(MUNICIPALITY_ID, "relation-1", 3L));
+		repository.save(change(MUNICIPALITY_ID, "relation-2", 1L));
+		repository.save(change("2262", "relation-3", 2L));
+		repository.save(change(MUNICIPALITY_ID, "relation-4", 4L));
+		repository.flush();
+
+		try (final var changes = repository.findByMunicipalityIdAndSequenceGreaterThanOrderBySequence(MUNICIPALITY_ID, 0, Limit.unlimited())) {
+			assertThat(changes).extracting(RelationChangeEntity::getRelationId).containsExactly("relation-2", "relation-1", "relation-4");
+		}
+		try (final var changes = repository.findByMunicipalityIdAndSequenceGreaterThanOrderBySequence(MUNICIPALITY_ID, 1, Limit.of(1))) {
+			assertThat(changes).extracting(RelationChangeEntity::getRelationId).containsExactly("relation-1");
+		}
+		try (final var changes = repository.findByMunicipalityIdAndSequenceGreaterThanOrderBySequence(MUNICIPALITY_ID, 4, Limit.unlimited())) {
+			assertThat(changes).isEmpty();
+		}
+	}
+
+	@Test
+	void findChangesAfterLeavesOutChangesWithoutSequence() {
+		repository.saveAndFlush(change(MUNICIPALITY_ID, "relation-1"));
+
+		try (final var changes = repository.findByMunicipalityIdAndSequenceGreaterThanOrderBySequence(MUNICIPALITY_ID, 0, Limit.unlimited())) {
+			assertThat(changes).isEmpty();
+		}
+	}
+
+	@Test
+	void findWithoutSequence() {
+		final var first = repository.save(change(MUNICIPALITY_ID, "relation-1"));
+		repository.save(change(MUNICIPALITY_ID, "relation-2", 1L));
+		final var third = repository.save(change("2262", "relation-3"));
+		repository.flush();
+
+		assertThat(repository.findBySequenceIsNullOrderById(Limit.unlimited())).extracting(RelationChangeEntity::getId).containsExactly(first.getId(), third.getId());
+		assertThat(repository.findBySequenceIsNullOrderById(Limit.of(1))).extracting(RelationChangeEntity::getId).containsExactly(first.getId());
+	}
+
+	private static RelationChangeEntity change(final String municipalityId, final String relationId) {
+		return change(municipalityId, relationId, null);
+	}
+
+	private static RelationChangeEntity change(final String municipalityId, final String relationId, final Long sequence) {
+		return RelationChangeEntity.builder()
+			.withMunicipalityId(municipalityId)
+			.withChangeType(RelationChangeType.CREATED)
+			.withRelationId(relationId)
+			.withType("type-1")
+			.withSourceResourceId("source-1")
+			.withSourceType("source-type-1")
+			.withSourceService("source-service-1")
+			.withTargetResourceId("target-1")
+			.withTargetType("target-type-1")
+			.withTargetService("target-service-1")
+			.withSequence(sequence)
+			.build();
+	}
+}
@@ -1,15 +1,28 @@
 package se.sundsvall.relations.integration.db;
 
 import com.turkraft.springfilter.converter.FilterSpecificationConverter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
 import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.annotation.Transactional;
 import se.sundsvall.relations.integration.db.model.RelationEntity;
 import se.sundsvall.relations.integration.db.model.ResourceIdentifierEntity;
 
@@ -17,6 +30,8 @@ import static java.time.temporal.ChronoUnit.SECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.tuple;
 import static org.assertj.core.api.Assertions.within;
+import static se.sundsvall.relations.integration.db.RelationExportRepositoryImpl.CLEAR_INTERVAL;
+import static se.sundsvall.relations.service.RelationService.withMunicipalityId;
 
 @SpringBootTest
 @ActiveProfiles("junit")
@@ -32,9 +47,18 @@ class RelationRepositoryTest {
 	@Autowired
 	private RelationTypeRepository typeRepository;
 
+	@Autowired
+	private ResourceIdentifierRepository identifierRepository;
+
 	@Autowired
 	private FilterSpecificationConverter filterSpecificationConverter;
 
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
 	@Test
 	void create() {
 		final var type = typeRepository.findById("rt1").orElseThrow(() -> new RuntimeException("Error in test data"));
@@ -52,11 +76,13 @@ class RelationRepositoryTest {
 			.withType(type)
 			.withMunicipalityId(municipalityId)
 			.withSource(ResourceIdentifierEntity.builder()
+				.withMunicipalityId(municipalityId)
 				.withResourceId(sourceId)
 				.withType(sourceType)
 				.withService(sourceService)
 				.withNamespace(sourceNamespace).build())
 			.withTarget(ResourceIdentifierEntity.builder()
+				.withMunicipalityId(municipalityId)
 				.withResourceId(targetId)
 				.withType(targetType)
 				.withService(targetService)
@@ -101,6 +127,136 @@ class RelationRepositoryTest {
 	}
 
 	@Test
+	void createTwoWayInOneBatch() {
+		final var type = typeRepository.findById("rt1").orElseThrow(() -> new RuntimeException("Error in test data"));
+		final var relationEntity = RelationEntity.builder()
+			.withType(type)
+			.withMunicipalityId("2281")
+			.withSource(ResourceIdentifierEntity.builder().withMunicipalityId("2281").withResourceId("batch-source").withType("type").withService("service").build())
+			.withTarget(ResourceIdentifierEntity.builder().withMunicipalityId("2281").withResourceId("batch-target").withType("type").withService("service").build())
+			.build();
+		final var inverseEntity = RelationEntity.builder()
+			.withType(type.getCounterType())
+			.withMunicipalityId("2281")
+			.withSource(relationEntity.getTarget())
+			.withTarget(relationEntity.getSource())
+			.withInverseRelation(relationEntity)
+			.build();
+		relationEntity.setInverseRelation(inverseEntity);
+		final var statistics = clearedStatistics();
+
+		repository.save(relationEntity);
+
+		// One batch for the two identifiers and one for the pair of relations, without closing the pair by an update
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+		assertThat(statistics.getEntityInsertCount()).isEqualTo(4);
+		assertThat(statistics.getEntityUpdateCount()).isZero();
+		assertThat(repository.findById(relationEntity.getId())).hasValueSatisfying(relation -> assertThat(relation.getInverseRelationId()).isEqualTo(inverseEntity.getId()));
+		assertThat(repository.findById(inverseEntity.getId())).hasValueSatisfying(relation -> assertThat(relation.getInverseRelationId()).isEqualTo(relationEntity.getId()));
+	}
+
+	@Test
+	@Transactional
+	void saveAllAssignsIdsBeforeFlush() {
+		final var type = typeRepository.findById("rt5").orElseThrow(() -> new RuntimeException("Error in test data"));
+		final var entities = IntStream.range(0, 3)
+			.mapToObj(i -> RelationEntity.builder()
+				.withType(type)
+				.withMunicipalityId("2281")
+				.withSource(ResourceIdentifierEntity.builder().withMunicipalityId("2281").withResourceId("source-" + i).withType("type").withService("service").build())
+				.withTarget(ResourceIdentifierEntity.builder().withMunicipalityId("2281").withResourceId("target-" + i).withType("type").withService("service").build())
+				.build())
+			.toList();
+
+		final var saved = repository.saveAll(entities);
+
+		// Ids must be generated without an insert, otherwise Hibernate can not group the inserts into JDBC batches
+		assertThat(saved).allSatisfy(entity -> {
+			assertThat(entity.getId()).isNotNull();
+			assertThat(entity.getSource().getId()).isNotNull();
+			assertThat(entity.getTarget().getId()).isNotNull();
+		});
+	}
+
+	@Test
+	@Transactional
+	void generatedIdsAreTimeOrdered() {
+		final var type = typeRepository.findById("rt5").orElseThrow(() -> new RuntimeException("Error in test data"));
+		final var entities = IntStream.range(0, 3)
+			.mapToObj(i -> RelationEntity.builder()
+				.withType(type)
+				.withMunicipalityId("2281")
+				.withSource(ResourceIdentifierEntity.builder().withMunicipalityId("2281").withResourceId("source-" + i).withType("type").withService("service").build())
+				.withTarget(ResourceIdentifierEntity.builder().withMunicipalityId("2281").withResourceId("target-" + i).withType("type").withService("service").build())
+				.build())
+			.toList();
+
+		final var saved = repository.saveAll(entities);
+		final var relationIds = saved.stream().map(RelationEntity::getId).map(UUID::fromString).toList();
+		final var identifierIds = saved.stream()
+			.flatMap(entity -> Stream.of(entity.getSource().getId(), entity.getTarget().getId()))
+			.map(UUID::fromString)
+			.toList();
+
+		// Version 7 ids start with a millisecond timestamp, which keeps new rows at the end of the primary key index
+		assertThat(relationIds).allSatisfy(id -> assertThat(id.version()).isEqualTo(7));
+		assertThat(identifierIds).allSatisfy(id -> assertThat(id.version()).isEqualTo(7));
+		assertThat(relationIds).extracting(id -> id.getMostSignificantBits() >>> 16).isSorted();
+	}
+
+	@Test
+	@Transactional
+	void identifiersAreSharedBetweenRelations() {
+		final var type = typeRepository.findById("rt5").orElseThrow(() -> new RuntimeException("Error in test data"));
+		final var shared = ResourceIdentifierEntity.builder().withMunicipalityId("2281").withResourceId("shared").withType("type").withService("service").build();
+		final var entities = IntStream.range(0, 3)
+			.mapToObj(i -> RelationEntity.builder()
+				.withType(type)
+				.withMunicipalityId("2281")
+				.withSource(shared)
+				.withTarget(ResourceIdentifierEntity.builder().withMunicipalityId("2281").withResourceId("target-" + i).withType("type").withService("service").build())
+				.build())
+			.toList();
+
+		repository.saveAll(entities);
+		repository.flush();
+
+		assertThat(identifierRepository.findByMunicipalityIdAndResourceIdIn("2281", List.of("shared"))).hasSize(1);
+		assertThat(repository.findAll(withMunicipalityId("2281").and((root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("source"), shared))))
+			.extracting(RelationEntity::getId)
+			.containsExactlyInAnyOrderElementsOf(entities.stream().map(RelationEntity::getId).toList());
+	}
+
+	@Test
+	@Transactional
+	void resourceKeyMatchesMigration() {
+		final var identifier = ResourceIdentifierEntity.builder().withMunicipalityId("2281").withResourceId("Åre-1").withType("type").withService("service").build();
+		identifierRepository.saveAndFlush(identifier);
+
+		final var migrated = entityManager.createNativeQuery("""
+			select sha2(convert(concat_ws(char(31 using utf8mb4), municipality_id, coalesce(service, char(0 using utf8mb4)), coalesce(type, char(0 using utf8mb4)),
+				coalesce(namespace, char(0 using utf8mb4)), resource_id) using utf8mb4), 256)
+			from resource_identifier where id = :id""", String.class)
+			.setParameter("id", identifier.getId())
+			.getSingleResult();
+
+		assertThat(identifier.getResourceKey()).hasSize(64).isEqualTo(migrated);
+	}
+
+	@Test
+	@Transactional
+	void insertIfAbsentKeepsIdentifiersUnique() {
+		identifierRepository.insertIfAbsent(identifier("first", "resource-1"));
+		identifierRepository.insertIfAbsent(identifier("second", "resource-1"));
+		identifierRepository.insertIfAbsent(identifier("other-case", "RESOURCE-1"));
+
+		assertThat(identifierRepository.findWithLockByResourceKeyIn(List.of(identifier(null, "resource-1").getResourceKey(), identifier(null, "RESOURCE-1").getResourceKey())))
+			.extracting(ResourceIdentifierEntity::getId)
+			.containsExactlyInAnyOrder("first", "other-case");
+	}
+
+	@Test
+	@Transactional
 	void update() {
 
 		final var entity = repository.findById("1").orElseThrow(() -> new RuntimeException("Error in test data"));
@@ -134,15 +290,35 @@ class RelationRepositoryTest {
 
 		assertThat(repository.findById("2")).isNotEmpty(); // Inverse
 
+		final var statistics = clearedStatistics();
 		repository.deleteById("1");
 		repository.flush();
 
+		assertThat(statistics.getEntityDeleteCount()).isEqualTo(2);
+		assertThat(statistics.getEntityUpdateCount()).isZero();
+
 		assertThat(repository.findById("1")).isEmpty();
 		assertThat(repository.findById("2")).isEmpty();
 		// Ensure that deletion does not cascade to RelationType
 		assertThat(typeRepository.existsByName("type-1")).isTrue();
 	}
 
+	@Test
+	@Transactional
+	void deleteBySourceOrTarget() {
+		final var identifier = identifierRepository.findById("100").orElseThrow(() -> new RuntimeException("Error in test data"));
+		final var relations = repository.findBySourceOrTargetIn("2281", List.of(identifier));
+		final var statistics = clearedStatistics();
+
+		final var deleted = repository.deleteByIdIn(relations.stream().map(RelationEntity::getId).toList());
+
+		assertThat(relations).extracting(RelationEntity::getId).containsExactlyInAnyOrder("1", "2");
+		assertThat(deleted).isEqualTo(2);
+		assertThat(statistics.getPrepareStatementCount()).isOne();
+		assertThat(repository.findBySourceOrTargetIn("2281", List.of(identifier))).isEmpty();
+		assertThat(repository.findBySourceOrTargetIn("other", List.of(identifier))).isEmpty();
+	}
+
 	@Test
 	void read() {
 		final var entity = repository.findByIdAndMunicipalityId("1", "2281");
@@ -151,6 +327,19 @@ class RelationRepositoryTest {
 		assertThat(entity.get().getType().getName()).isEqualTo("type-1");
 	}
 
+	@Test
+	void readByIdsInOneStatement() {
+		final var statistics = clearedStatistics();
+
+		final var entities = repository.findByMunicipalityIdAndIdIn("2281", List.of("1", "3", "missing"));
+
+		assertThat(statistics.getPrepareStatementCount()).isOne();
+		assertThat(entities).extracting(RelationEntity::getId, relation -> relation.getTarget().getResourceId()).containsExactlyInAnyOrder(
+			tuple("1", "target_id-1"),
+			tuple("3", "target_id-2"));
+		assertThat(repository.findByMunicipalityIdAndIdIn("other", List.of("1", "3"))).isEmpty();
+	}
+
 	@Test
 	void readWithSpecification() {
 
@@ -176,6 +365,92 @@ class RelationRepositoryTest {
 		assertThat(relations.getTotalElements()).isZero();
 	}
 
+	@Test
+	void readPageInOneStatement() {
+		final var statistics = clearedStatistics();
+
+		final var relations = repository.findAll(withMunicipalityId("2281"), PageRequest.of(0, 2, Sort.by("id")));
+
+		// One select for the page with type, source and target joined, and one for the total count
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+		assertThat(statistics.getEntityFetchCount()).isZero();
+		assertThat(relations).extracting(RelationEntity::getId, relation -> relation.getType().getName(), relation -> relation.getSource().getResourceId(), relation -> relation.getTarget().getResourceId())
+			.containsExactly(
+				tuple("1", "type-1", "source_id-1", "target_id-1"),
+				tuple("2", "counter_type-1", "target_id-1", "source_id-1"));
+	}
+
+	@Test
+	void scrollInOneStatement() {
+		final var statistics = clearedStatistics();
+
+		final var window = repository.findBy(withMunicipalityId("2281"), query -> query.sortBy(Sort.by("id")).limit(2).scroll(ScrollPosition.keyset()));
+
+		assertThat(statistics.getPrepareStatementCount()).isOne();
+		assertThat(statistics.getEntityFetchCount()).isZero();
+		assertThat(window).extracting(RelationEntity::getId, relation -> relation.getSource().getResourceId()).containsExactly(
+			tuple("1", "source_id-1"),
+			tuple("2", "target_id-1"));
+	}
+
+	@Test
+	void readByIdInOneStatement() {
+		final var statistics = clearedStatistics();
+
+		final var entity = repository.findByIdAndMunicipalityId("3", "2281");
+
+		assertThat(statistics.getPrepareStatementCount()).isOne();
+		assertThat(entity).hasValueSatisfying(relation -> {
+			assertThat(relation.getType().getCounterType().getName()).isEqualTo("counter_type-2");
+			assertThat(relation.getTarget().getResourceId()).isEqualTo("target_id-2");
+		});
+	}
+
+	@Test
+	@Transactional
+	void streamAllWithSpecification() {
+		final Specification<RelationEntity> specification = filterSpecificationConverter.convert("(source.resourceId : 'source_id-2')");
+
+		try (final var relations = repository.streamAll(specification)) {
+			assertThat(relations.toList())
+				.extracting(RelationEntity::getId, RelationEntity::getMunicipalityId, relation -> relation.getType().getName(), relation -> relation.getTarget().getResourceId())
+				.containsExactly(tuple("3", "2281", "type-2", "target_id-2"));
+		}
+	}
+
+	@Test
+	@Transactional
+	void streamAllWithoutSpecification() {
+		try (final var relations = repository.streamAll(null)) {
+			final var result = relations.toList();
+
+			assertThat(result).extracting(RelationEntity::getId).containsExactlyInAnyOrder("1", "2", "3", "4");
+			assertThat(result).filteredOn(relation -> "1".equals(relation.getId()))
+				.extracting(relation -> relation.getInverseRelation().getId())
+				.containsExactly("2");
+		}
+	}
+
+	@Test
+	@Transactional
+	void streamAllClearsPersistenceContext() {
+		final var type = typeRepository.findById("rt5").orElseThrow(() -> new RuntimeException("Error in test data"));
+		final var source = identifierRepository.findById("100").orElseThrow(() -> new RuntimeException("Error in test data"));
+		final var target = identifierRepository.findById("201").orElseThrow(() -> new RuntimeException("Error in test data"));
+		repository.saveAll(IntStream.range(0, CLEAR_INTERVAL * 3)
+			.mapToObj(i -> RelationEntity.builder().withMunicipalityId("2281").withType(type).withSource(source).withTarget(target).build())
+			.toList());
+		entityManager.flush();
+		entityManager.clear();
+		final var session = entityManager.unwrap(Session.class);
+
+		try (final var relations = repository.streamAll(null)) {
+			final var entityCounts = relations.map(relation -> session.getStatistics().getEntityCount()).toList();
+
+			assertThat(entityCounts).hasSize(CLEAR_INTERVAL * 3 + 4).allMatch(count -> count <= CLEAR_INTERVAL + 10);
+		}
+	}
+
 	@Test
 	void existsByType() {
 		final var rt1 = typeRepository.findById("rt1").orElseThrow(() -> new RuntimeException("Error in test data"));
@@ -184,4 +459,21 @@ class RelationRepositoryTest {
 		assertThat(repository.existsByType(rt1)).isTrue();
 		assertThat(repository.existsByType(rt5)).isFalse();
 	}
+
+	private static ResourceIdentifierEntity identifier(final String id, final String resourceId) {
+		return ResourceIdentifierEntity.builder()
+			.withId(id)
+			.withMunicipalityId("2281")
+			.withResourceKey(ResourceIdentifierEntity.resourceKey("2281", "service", "type", null, resourceId))
+			.withResourceId(resourceId)
+			.withType("type")
+			.withService("service")
+			.build();
+	}
+
+	private Statistics clearedStatistics() {
+		final var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		return statistics;
+	}
 }
@@ -1,5 +1,6 @@
 package se.sundsvall.relations.integration.db;
 
+import java.util.UUID;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
@@ -40,7 +41,7 @@ class RelationTypeRepositoryTest {
 		final var savedEntity = repository.save(relationType);
 
 		assertThat(savedEntity).isNotNull();
-		assertThat(savedEntity.getId()).isNotNull();
+		assertThat(UUID.fromString(savedEntity.getId()).version()).isEqualTo(7);
 		assertThat(savedEntity.getName()).isEqualTo("type");
 		assertThat(savedEntity.getDisplayName()).isEqualTo("typeDisplayName");
 		assertThat(savedEntity.getCounterType()).isSameAs(relationCounterType);
@@ -0,0 +1,90 @@
+package se.sundsvall.relations.service;
+
+import com.turkraft.springfilter.converter.FilterStringConverterImpl;
+import com.turkraft.springfilter.language.AndOperator;
+import com.turkraft.springfilter.language.EqualOperator;
+import com.turkraft.springfilter.language.InOperator;
+import com.turkraft.springfilter.parser.node.CollectionNode;
+import com.turkraft.springfilter.parser.node.FieldNode;
+import com.turkraft.springfilter.parser.node.FilterNode;
+import com.turkraft.springfilter.parser.node.InfixOperationNode;
+import com.turkraft.springfilter.parser.node.InputNode;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import se.sundsvall.relations.service.CachingFilterStringConverter.FilterTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+import static se.sundsvall.relations.service.CachingFilterStringConverter.FILTER_TEMPLATES_CACHE;
+
+@ExtendWith(MockitoExtension.class)
+class CachingFilterStringConverterTest {
+
+	private static final String TEMPLATE = "type.name:'\uE0000' and source.resourceId in ['\uE0001', '\uE0002']";
+
+	@Mock
+	private FilterStringConverterImpl delegateMock;
+
+	@Test
+	void filterTemplate() {
+		final var template = FilterTemplate.of("type.name:'PARENT' and source.resourceId in ['1', 'some id']");
+
+		assertThat(template.text()).isEqualTo(TEMPLATE);
+		assertThat(template.values()).containsExactly("PARENT", "1", "some id");
+		assertThat(FilterTemplate.of("created > 5").text()).isEqualTo("created > 5");
+		assertThat(FilterTemplate.of("source.resourceId:'it\\'s'")).isNull();
+		assertThat(FilterTemplate.of("source.resourceId:'unbalanced")).isNull();
+		assertThat(FilterTemplate.of("source.resourceId:'\uE000'")).isNull();
+	}
+
+	@Test
+	void convertParsesEachTemplateOnce() {
+		final var converter = new CachingFilterStringConverter(delegateMock, new ConcurrentMapCacheManager(FILTER_TEMPLATES_CACHE));
+		when(delegateMock.convert(TEMPLATE)).thenReturn(new InfixOperationNode(
+			new InfixOperationNode(new FieldNode("type.name"), new EqualOperator(), new InputNode("\uE0000")),
+			new AndOperator(),
+			new InfixOperationNode(new FieldNode("source.resourceId"), new InOperator(), new CollectionNode(List.of(new InputNode("\uE0001"), new InputNode("\uE0002"))))));
+
+		final var first = converter.convert("type.name:'PARENT' and source.resourceId in ['1', '2']");
+		final var second = converter.convert("type.name:'CHILD' and source.resourceId in ['3', '4']");
+
+		verify(delegateMock).convert(TEMPLATE);
+		verifyNoMoreInteractions(delegateMock);
+		assertThat(values(first)).containsExactly("PARENT", "1", "2");
+		assertThat(values(second)).containsExactly("CHILD", "3", "4");
+		assertThat(first).isNotSameAs(second);
+	}
+
+	@Test
+	void convertWithoutTemplate() {
+		final var converter = new CachingFilterStringConverter(delegateMock, new ConcurrentMapCacheManager(FILTER_TEMPLATES_CACHE));
+		final var filter = "source.resourceId:'it\\'s'";
+		final var node = new InputNode("it's");
+		when(delegateMock.convert(filter)).thenReturn(node);
+
+		assertThat(converter.convert(filter)).isSameAs(node);
+	}
+
+	@Test
+	void convertWithoutCache() {
+		final var converter = new CachingFilterStringConverter(delegateMock, new ConcurrentMapCacheManager("otherCache"));
+		final var filter = "type.name:'PARENT'";
+		final var node = new InputNode("PARENT");
+		when(delegateMock.convert(filter)).thenReturn(node);
+
+		assertThat(converter.convert(filter)).isSameAs(node);
+	}
+
+	private static List<Object> values(final FilterNode node) {
+		if (node instanceof final InputNode input) {
+			return List.of(input.getValue());
+		}
+		return node.getChildren().stream().flatMap(child -> values(child).stream()).toList();
+	}
+}
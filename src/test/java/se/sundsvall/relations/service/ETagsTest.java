@@ -0,0 +1,86 @@
+package se.sundsvall.relations.service;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import se.sundsvall.relations.api.model.Relation;
+import se.sundsvall.relations.api.model.RelationType;
+import se.sundsvall.relations.api.model.ResourceIdentifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ETagsTest {
+
+	private static final OffsetDateTime CREATED = OffsetDateTime.parse("2025-01-01T12:00:00+01:00");
+
+	@Test
+	void relationTagIsQuotedAndStable() {
+		final var relation = Relation.builder().withId("id").withType("LINK").withCreated(CREATED).build();
+		final var sameInstantOtherOffset = Relation.builder().withId("id").withType("LINK").withCreated(CREATED.withOffsetSameInstant(ZoneOffset.UTC)).build();
+
+		assertThat(ETags.of(relation))
+			.matches("\"[0-9a-f]{32}\"")
+			.isEqualTo(ETags.of(sameInstantOtherOffset));
+	}
+
+	@Test
+	void relationTagChangesWithRepresentation() {
+		final var relation = Relation.builder().withId("id").withType("LINK").withCreated(CREATED).build();
+
+		assertThat(ETags.of(relation))
+			.isNotEqualTo(ETags.of(Relation.builder().withId("id").withType("LINK").withCreated(CREATED).withModified(CREATED.plusSeconds(1)).build()))
+			.isNotEqualTo(ETags.of(Relation.builder().withId("id").withType("PARENT").withCreated(CREATED).build()));
+	}
+
+	@Test
+	void relationTagChangesWithSourceAndTarget() {
+		final var resource = resource("resource-1", "namespace");
+		final var otherResource = resource("resource-2", "namespace");
+		final var relation = relation(resource, otherResource);
+
+		// Updates within the same millisecond share the modified timestamp
+		assertThat(ETags.of(relation))
+			.isEqualTo(ETags.of(relation(resource("resource-1", "namespace"), resource("resource-2", "namespace"))))
+			.isNotEqualTo(ETags.of(relation(otherResource, resource)))
+			.isNotEqualTo(ETags.of(relation(resource, resource("resource-2", "other-namespace"))))
+			.isNotEqualTo(ETags.of(relation(resource, null)));
+	}
+
+	@Test
+	void relationTypeTags() {
+		final var type = RelationType.builder().withName("PARENT").withCounterName("CHILD").build();
+		final var renamed = RelationType.builder().withName("PARENT").withCounterName("CHILD").withDisplayName("Parent").build();
+
+		assertThat(ETags.of(type)).isNotEqualTo(ETags.of(renamed));
+		assertThat(ETags.of(List.of(type, renamed))).isNotEqualTo(ETags.of(List.of(type)));
+	}
+
+	@ParameterizedTest
+	@NullSource
+	@ValueSource(strings = {
+		"*", "\"current\"", "\"other\", \"current\""
+	})
+	void matches(final String ifMatch) {
+		assertThat(ETags.matches(ifMatch, "\"current\"")).isTrue();
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+		"\"other\"", "W/\"current\"", ""
+	})
+	void doesNotMatch(final String ifMatch) {
+		assertThat(ETags.matches(ifMatch, "\"current\"")).isFalse();
+	}
+
+	private static Relation relation(final ResourceIdentifier source, final ResourceIdentifier target) {
+		return Relation.builder().withId("id").withType("LINK").withCreated(CREATED).withModified(CREATED).withSource(source).withTarget(target).build();
+	}
+
+	private static ResourceIdentifier resource(final String resourceId, final String namespace) {
+		return ResourceIdentifier.builder().withResourceId(resourceId).withType("type").withService("service").withNamespace(namespace).build();
+	}
+}
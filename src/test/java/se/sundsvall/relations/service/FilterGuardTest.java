@@ -0,0 +1,111 @@
+package se.sundsvall.relations.service;
+
+import com.turkraft.springfilter.converter.FilterSpecification;
+import com.turkraft.springfilter.language.AndOperator;
+import com.turkraft.springfilter.language.EqualOperator;
+import com.turkraft.springfilter.language.InsensitiveLikeOperator;
+import com.turkraft.springfilter.language.IsNullOperator;
+import com.turkraft.springfilter.language.NotOperator;
+import com.turkraft.springfilter.language.OrOperator;
+import com.turkraft.springfilter.parser.node.FieldNode;
+import com.turkraft.springfilter.parser.node.FilterNode;
+import com.turkraft.springfilter.parser.node.InfixOperationNode;
+import com.turkraft.springfilter.parser.node.InputNode;
+import com.turkraft.springfilter.parser.node.PostfixOperationNode;
+import com.turkraft.springfilter.parser.node.PrefixOperationNode;
+import com.turkraft.springfilter.parser.node.PriorityNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.jpa.domain.Specification;
+import se.sundsvall.dept44.problem.ThrowableProblem;
+import se.sundsvall.relations.integration.db.model.RelationEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+@ExtendWith(MockitoExtension.class)
+class FilterGuardTest {
+
+	@Mock
+	private FilterSpecification<RelationEntity> filterSpecificationMock;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final FilterGuard guard = new FilterGuard(meterRegistry, 3, 2, List.of("type.name", "source.resourceId", "modified"), List.of("and", "or", "not", ":", "is null"));
+
+	@Test
+	void allowedFilter() {
+		// not (type.name : 'PARENT' and modified is null)
+		when(filterSpecificationMock.getFilter()).thenReturn(new PrefixOperationNode(new NotOperator(), new PriorityNode(
+			new InfixOperationNode(equal("type.name", "PARENT"), new AndOperator(), new PostfixOperationNode(new FieldNode("modified"), new IsNullOperator())))));
+
+		assertThatNoException().isThrownBy(() -> guard.check(filterSpecificationMock));
+	}
+
+	@Test
+	void filterWithoutFilterNode() {
+		assertThatNoException().isThrownBy(() -> guard.check(null));
+		assertThatNoException().isThrownBy(() -> guard.check(Specification.unrestricted()));
+	}
+
+	@Test
+	void fieldNotAllowed() {
+		when(filterSpecificationMock.getFilter()).thenReturn(equal("target.type", "case"));
+
+		assertRejected("Filtering on 'target.type' is not allowed", "field");
+	}
+
+	@Test
+	void operatorNotAllowed() {
+		when(filterSpecificationMock.getFilter()).thenReturn(new InfixOperationNode(new FieldNode("type.name"), new InsensitiveLikeOperator(), new InputNode("parent")));
+
+		assertRejected("Operator '~~' is not allowed in filter", "operator");
+	}
+
+	@Test
+	void tooDeep() {
+		// not (not (type.name : 'PARENT'))
+		when(filterSpecificationMock.getFilter()).thenReturn(new PrefixOperationNode(new NotOperator(), new PriorityNode(
+			new PrefixOperationNode(new NotOperator(), new PriorityNode(
+				new PrefixOperationNode(new NotOperator(), equal("type.name", "PARENT")))))));
+
+		assertRejected("Filter is nested deeper than 3 levels", "depth");
+	}
+
+	@Test
+	void tooManyPredicates() {
+		when(filterSpecificationMock.getFilter()).thenReturn(new InfixOperationNode(
+			new InfixOperationNode(equal("type.name", "PARENT"), new OrOperator(), equal("type.name", "CHILD")),
+			new OrOperator(), equal("source.resourceId", "1")));
+
+		assertRejected("Filter has more than 2 predicates", "predicates");
+	}
+
+	@Test
+	void emptyAllowListsAllowEverything() {
+		final var unrestricted = new FilterGuard(meterRegistry, 10, 10, List.of(), List.of());
+		when(filterSpecificationMock.getFilter()).thenReturn(new InfixOperationNode(new FieldNode("type.displayName"), new InsensitiveLikeOperator(), new InputNode("parent")));
+
+		assertThatNoException().isThrownBy(() -> unrestricted.check(filterSpecificationMock));
+	}
+
+	private void assertRejected(final String detail, final String reason) {
+		assertThatThrownBy(() -> guard.check(filterSpecificationMock))
+			.isInstanceOfSatisfying(ThrowableProblem.class, problem -> {
+				assertThat(problem.getStatus()).isEqualTo(BAD_REQUEST);
+				assertThat(problem.getDetail()).isEqualTo(detail);
+			});
+		assertThat(meterRegistry.get(FilterGuard.REJECTED_COUNTER).tag("reason", reason).counter().count()).isOne();
+	}
+
+	private static FilterNode equal(final String field, final String value) {
+		return new InfixOperationNode(new FieldNode(field), new EqualOperator(), new InputNode(value));
+	}
+}
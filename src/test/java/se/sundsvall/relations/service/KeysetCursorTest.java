@@ -0,0 +1,107 @@
+package se.sundsvall.relations.service;
+
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import se.sundsvall.dept44.problem.Problem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+	@Test
+	void encodeAndDecode() {
+		final var keys = new LinkedHashMap<String, Object>();
+		keys.put("created", OffsetDateTime.parse("2025-01-01T12:00:00.123+01:00"));
+		keys.put("source.resourceId", "some\tid with\nspecial characters");
+		keys.put("count", 42L);
+		keys.put("size", 7);
+		keys.put("id", "b9702590-1a65-4b78-9de5-44e46e25b62c");
+
+		final var cursor = KeysetCursor.encode(ScrollPosition.forward(keys));
+		final var result = KeysetCursor.decode(cursor, Sort.by("created", "source.resourceId"));
+
+		assertThat(cursor).doesNotContain("=", "+", "/");
+		assertThat(result.scrollsForward()).isTrue();
+		assertThat(result.getKeys()).containsExactlyEntriesOf(keys);
+	}
+
+	@ParameterizedTest
+	@NullAndEmptySource
+	void decodeWithoutCursor(final String cursor) {
+		assertThat(KeysetCursor.decode(cursor, Sort.unsorted())).isEqualTo(ScrollPosition.keyset());
+	}
+
+	@Test
+	void decodeWithSortNotMatchingCursor() {
+		final var cursor = KeysetCursor.encode(ScrollPosition.forward(Map.of("id", "someId")));
+		final var sort = Sort.by("created");
+
+		assertThatThrownBy(() -> KeysetCursor.decode(cursor, sort))
+			.isInstanceOf(Problem.class)
+			.hasMessage("Bad Request: Cursor '%s' is not valid for the requested sort order".formatted(cursor));
+	}
+
+	@Test
+	void decodeInvalidCursor() {
+		final var sort = Sort.unsorted();
+
+		assertThatThrownBy(() -> KeysetCursor.decode("***", sort))
+			.isInstanceOf(Problem.class)
+			.hasMessage("Bad Request: Cursor '***' is not valid for the requested sort order");
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+		"modified", "inverseRelationId", "source.namespace", "source.modified", "target.namespace", "target.modified"
+	})
+	void decodeWithNullableSortProperty(final String property) {
+		final var cursor = KeysetCursor.encode(ScrollPosition.forward(Map.of(property, "someValue", "id", "someId")));
+		final var sort = Sort.by(property);
+
+		assertThatThrownBy(() -> KeysetCursor.decode(cursor, sort))
+			.isInstanceOf(Problem.class)
+			.hasMessage("Bad Request: Sort on '%s' can not be combined with a cursor, as it may be empty".formatted(property));
+		assertThatThrownBy(() -> KeysetCursor.decode("", sort))
+			.isInstanceOf(Problem.class)
+			.hasMessage("Bad Request: Sort on '%s' can not be combined with a cursor, as it may be empty".formatted(property));
+	}
+
+	@Test
+	void encodeNullValue() {
+		final var keys = new HashMap<String, Object>();
+		keys.put("modified", null);
+		keys.put("id", "someId");
+		final var position = ScrollPosition.forward(keys);
+
+		// Never written as the text 'null', which would be read back as a value to compare with
+		assertThatThrownBy(() -> KeysetCursor.encode(position))
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessage("Position has no value for key 'modified'");
+	}
+
+	@Test
+	void encodeNonKeysetPosition() {
+		final var position = ScrollPosition.offset();
+
+		assertThatThrownBy(() -> KeysetCursor.encode(position))
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessage("Only keyset positions can be encoded as cursor");
+	}
+
+	@Test
+	void decodedPositionIsKeyset() {
+		final var cursor = KeysetCursor.encode(ScrollPosition.forward(Map.of("id", "someId")));
+
+		assertThat(KeysetCursor.decode(cursor, Sort.unsorted())).isInstanceOf(KeysetScrollPosition.class);
+	}
+}
@@ -0,0 +1,212 @@
+package se.sundsvall.relations.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import se.sundsvall.relations.api.model.RelationNeighbor;
+import se.sundsvall.relations.api.model.ResourceIdentifier;
+import se.sundsvall.relations.integration.db.RelationRepository;
+import se.sundsvall.relations.integration.db.model.RelationEntity;
+import se.sundsvall.relations.integration.db.model.RelationTypeEntity;
+import se.sundsvall.relations.integration.db.model.ResourceIdentifierEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RelationAdjacencyIndexTest {
+
+	private static final String MUNICIPALITY_ID = "2281";
+
+	private final RelationTypeEntity linkType = RelationTypeEntity.builder().withId("rt1").withName("LINK").build();
+	private final RelationTypeEntity parentType = RelationTypeEntity.builder().withId("rt2").withName("PARENT").build();
+	private final RelationTypeEntity childType = RelationTypeEntity.builder().withId("rt3").withName("CHILD").withCounterType(parentType).build();
+
+	@Mock
+	private RelationRepository relationRepositoryMock;
+
+	@Mock
+	private RelationEntity relationEntityMock;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@AfterEach
+	void clearSynchronization() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void disabled() {
+		final var index = new RelationAdjacencyIndex(relationRepositoryMock, meterRegistry, false);
+
+		index.rebuild();
+		index.add(relationEntityMock);
+		index.remove(relationEntityMock);
+
+		assertThat(index.isEnabled()).isFalse();
+		assertThat(index.getNeighbors(MUNICIPALITY_ID, "service", "type", "A")).isEmpty();
+		assertThat(meterRegistry.getMeters()).isEmpty();
+		verifyNoInteractions(relationRepositoryMock, relationEntityMock);
+	}
+
+	@Test
+	void notAnsweringBeforeRebuild() {
+		final var index = new RelationAdjacencyIndex(relationRepositoryMock, meterRegistry, true);
+
+		assertThat(index.getNeighbors(MUNICIPALITY_ID, "service", "type", "A")).isEmpty();
+	}
+
+	@Test
+	void rebuild() {
+		final var aToB = relation(linkType, "A", "B");
+		final var aToC = relation(parentType, "A", "C");
+		final var bToA = relation(linkType, "B", "A");
+		final var index = new RelationAdjacencyIndex(relationRepositoryMock, meterRegistry, true);
+
+		when(relationRepositoryMock.streamAll(null)).thenReturn(Stream.of(aToB, aToC, bToA));
+
+		index.rebuild();
+
+		verify(relationRepositoryMock).streamAll(null);
+		assertThat(index.getNeighbors(MUNICIPALITY_ID, "service", "type", "A")).hasValueSatisfying(neighbors -> assertThat(neighbors).containsExactlyInAnyOrder(
+			neighbor(aToB.getId(), "LINK", "B"),
+			neighbor(aToC.getId(), "PARENT", "C")));
+		assertThat(index.getNeighbors(MUNICIPALITY_ID, "service", "type", "B")).hasValue(List.of(neighbor(bToA.getId(), "LINK", "A")));
+		assertThat(index.getNeighbors(MUNICIPALITY_ID, "service", "type", "C")).hasValueSatisfying(neighbors -> assertThat(neighbors).isEmpty());
+		assertThat(index.getNeighbors("other", "service", "type", "A")).hasValueSatisfying(neighbors -> assertThat(neighbors).isEmpty());
+
+		assertThat(meterRegistry.get("relations.adjacency.index.nodes").gauge().value()).isEqualTo(3);
+		assertThat(meterRegistry.get("relations.adjacency.index.edges").gauge().value()).isEqualTo(3);
+		assertThat(meterRegistry.get("relations.adjacency.index.memory").gauge().value()).isPositive();
+	}
+
+	@Test
+	void addAndRemoveTwoWayRelation() {
+		final var index = rebuiltEmptyIndex();
+		final var relation = relation(childType, "A", "B");
+		final var inverse = relation(parentType, "B", "A");
+		relation.setInverseRelation(inverse);
+
+		index.add(relation);
+		index.add(relation);
+
+		assertThat(index.getNeighbors(MUNICIPALITY_ID, "service", "type", "A")).hasValue(List.of(neighbor(relation.getId(), "CHILD", "B")));
+		assertThat(index.getNeighbors(MUNICIPALITY_ID, "service", "type", "B")).hasValue(List.of(neighbor(inverse.getId(), "PARENT", "A")));
+
+		index.remove(relation);
+
+		assertThat(index.getNeighbors(MUNICIPALITY_ID, "service", "type", "A")).hasValueSatisfying(neighbors -> assertThat(neighbors).isEmpty());
+		assertThat(index.getNeighbors(MUNICIPALITY_ID, "service", "type", "B")).hasValueSatisfying(neighbors -> assertThat(neighbors).isEmpty());
+		assertThat(meterRegistry.get("relations.adjacency.index.edges").gauge().value()).isZero();
+		assertThat(meterRegistry.get("relations.adjacency.index.nodes").gauge().value()).isZero();
+	}
+
+	@Test
+	void resourcesInOtherNamespacesAreKeptApart() {
+		final var index = rebuiltEmptyIndex();
+		final var first = relation(linkType, "A", "B");
+		final var second = relation(linkType, "A", "C");
+		second.getSource().setNamespace("other");
+		second.getTarget().setNamespace("other");
+		index.add(first);
+		index.add(second);
+
+		assertThat(index.getNeighbors(MUNICIPALITY_ID, "service", "type", "A")).hasValueSatisfying(neighbors -> assertThat(neighbors).containsExactlyInAnyOrder(
+			neighbor(first.getId(), "LINK", "B"),
+			RelationNeighbor.builder()
+				.withRelationId(second.getId())
+				.withType("LINK")
+				.withTarget(ResourceIdentifier.builder().withResourceId("C").withService("service").withType("type").withNamespace("other").build())
+				.build()));
+		assertThat(meterRegistry.get("relations.adjacency.index.nodes").gauge().value()).isEqualTo(4);
+
+		index.remove(first);
+
+		assertThat(index.getNeighbors(MUNICIPALITY_ID, "service", "type", "A")).hasValueSatisfying(neighbors -> assertThat(neighbors)
+			.extracting(neighbor -> neighbor.getTarget().getNamespace())
+			.containsExactly("other"));
+		assertThat(meterRegistry.get("relations.adjacency.index.nodes").gauge().value()).isEqualTo(2);
+	}
+
+	@Test
+	void removeCapturesRelationWhenCalled() {
+		final var index = rebuiltEmptyIndex();
+		final var relation = relation(linkType, "A", "B");
+		index.add(relation);
+
+		TransactionSynchronizationManager.initSynchronization();
+		index.remove(relation);
+		relation.getSource().setResourceId("changed");
+		TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+		assertThat(index.getNeighbors(MUNICIPALITY_ID, "service", "type", "A")).hasValueSatisfying(neighbors -> assertThat(neighbors).isEmpty());
+	}
+
+	@Test
+	void changesAreAppliedAfterCommit() {
+		final var index = rebuiltEmptyIndex();
+		final var relation = relation(linkType, "A", "B");
+
+		TransactionSynchronizationManager.initSynchronization();
+		index.add(relation);
+
+		assertThat(index.getNeighbors(MUNICIPALITY_ID, "service", "type", "A")).hasValueSatisfying(neighbors -> assertThat(neighbors).isEmpty());
+
+		TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+		assertThat(index.getNeighbors(MUNICIPALITY_ID, "service", "type", "A")).hasValue(List.of(neighbor(relation.getId(), "LINK", "B")));
+	}
+
+	@Test
+	void updateType() {
+		final var index = rebuiltEmptyIndex();
+		final var relation = relation(childType, "A", "B");
+		final var inverse = relation(parentType, "B", "A");
+		relation.setInverseRelation(inverse);
+		index.add(relation);
+
+		index.updateType(RelationTypeEntity.builder().withId("rt3").withName("SUBTASK")
+			.withCounterType(RelationTypeEntity.builder().withId("rt2").withName("SUPERTASK").build())
+			.build());
+
+		assertThat(index.getNeighbors(MUNICIPALITY_ID, "service", "type", "A")).hasValue(List.of(neighbor(relation.getId(), "SUBTASK", "B")));
+		assertThat(index.getNeighbors(MUNICIPALITY_ID, "service", "type", "B")).hasValue(List.of(neighbor(inverse.getId(), "SUPERTASK", "A")));
+	}
+
+	private RelationAdjacencyIndex rebuiltEmptyIndex() {
+		final var index = new RelationAdjacencyIndex(relationRepositoryMock, meterRegistry, true);
+		when(relationRepositoryMock.streamAll(null)).thenReturn(Stream.empty());
+		index.rebuild();
+		return index;
+	}
+
+	private static RelationEntity relation(final RelationTypeEntity type, final String sourceId, final String targetId) {
+		return RelationEntity.builder()
+			.withId(UUID.randomUUID().toString())
+			.withMunicipalityId(MUNICIPALITY_ID)
+			.withType(type)
+			.withSource(ResourceIdentifierEntity.builder().withResourceId(sourceId).withService("service").withType("type").withNamespace("namespace").build())
+			.withTarget(ResourceIdentifierEntity.builder().withResourceId(targetId).withService("service").withType("type").withNamespace("namespace").build())
+			.build();
+	}
+
+	private static RelationNeighbor neighbor(final String relationId, final String type, final String targetId) {
+		return RelationNeighbor.builder()
+			.withRelationId(relationId)
+			.withType(type)
+			.withTarget(ResourceIdentifier.builder().withResourceId(targetId).withService("service").withType("type").withNamespace("namespace").build())
+			.build();
+	}
+}
@@ -0,0 +1,102 @@
+package se.sundsvall.relations.service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import se.sundsvall.relations.api.model.RelationChange;
+import se.sundsvall.relations.integration.db.RelationChangeRepository;
+import se.sundsvall.relations.integration.db.RelationChangeSequenceRepository;
+import se.sundsvall.relations.integration.db.model.RelationChangeEntity;
+import se.sundsvall.relations.integration.db.model.RelationChangeSequenceEntity;
+import se.sundsvall.relations.service.mapper.RelationMapper;
+
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static se.sundsvall.relations.integration.db.model.RelationChangeSequenceEntity.COUNTER_ID;
+import static se.sundsvall.relations.service.RelationChangeRelay.BATCH_SIZE;
+
+@ExtendWith(MockitoExtension.class)
+class RelationChangeRelayTest {
+
+	private static final String MUNICIPALITY_ID = "2281";
+
+	@Mock
+	private RelationChangeRepository relationChangeRepositoryMock;
+
+	@Mock
+	private RelationChangeSequenceRepository relationChangeSequenceRepositoryMock;
+
+	@Mock
+	private RelationChangeTopic changeTopicMock;
+
+	@Spy
+	private RelationMapper mapperSpy;
+
+	@InjectMocks
+	private RelationChangeRelay relay;
+
+	@Test
+	void relayContinuesAfterLastPublishedChange() {
+		when(relationChangeSequenceRepositoryMock.findById(COUNTER_ID)).thenReturn(Optional.of(RelationChangeSequenceEntity.builder().withId(COUNTER_ID).withLastSequence(40).build()));
+		when(relationChangeRepositoryMock.findBySequenceGreaterThanOrderBySequence(40, Limit.of(BATCH_SIZE))).thenReturn(List.of(change(41), change(42)));
+		when(relationChangeRepositoryMock.findBySequenceGreaterThanOrderBySequence(42, Limit.of(BATCH_SIZE))).thenReturn(List.of(change(43)));
+
+		relay.relay();
+		relay.relay();
+
+		// Changes sequenced before the first run are left to the change feed
+		final var expected = LongStream.rangeClosed(41, 43).mapToObj(RelationChangeRelayTest::relationChange).toList();
+		final var inOrder = inOrder(changeTopicMock);
+		expected.forEach(change -> inOrder.verify(changeTopicMock).publish(MUNICIPALITY_ID, change));
+		verify(relationChangeSequenceRepositoryMock).findById(COUNTER_ID);
+	}
+
+	@Test
+	void relayReadsUntilBatchIsNotFull() {
+		final var fullBatch = LongStream.rangeClosed(1, BATCH_SIZE).mapToObj(RelationChangeRelayTest::change).toList();
+		when(relationChangeSequenceRepositoryMock.findById(COUNTER_ID)).thenReturn(Optional.empty());
+		when(relationChangeRepositoryMock.findBySequenceGreaterThanOrderBySequence(0, Limit.of(BATCH_SIZE))).thenReturn(fullBatch);
+		when(relationChangeRepositoryMock.findBySequenceGreaterThanOrderBySequence(BATCH_SIZE, Limit.of(BATCH_SIZE))).thenReturn(List.of());
+
+		relay.relay();
+
+		final var last = relationChange(BATCH_SIZE);
+		verify(changeTopicMock).publish(MUNICIPALITY_ID, last);
+		verify(relationChangeRepositoryMock).findBySequenceGreaterThanOrderBySequence(eq((long) BATCH_SIZE), any());
+	}
+
+	@Test
+	void relayWithFailingRepository() {
+		when(relationChangeSequenceRepositoryMock.findById(COUNTER_ID)).thenReturn(Optional.empty());
+		when(relationChangeRepositoryMock.findBySequenceGreaterThanOrderBySequence(anyLong(), any())).thenThrow(new IllegalStateException("Database unavailable"));
+
+		assertThatNoException().isThrownBy(relay::relay);
+
+		verifyNoInteractions(changeTopicMock);
+	}
+
+	private static RelationChangeEntity change(final long sequence) {
+		return RelationChangeEntity.builder()
+			.withMunicipalityId(MUNICIPALITY_ID)
+			.withSequence(sequence)
+			.withRelationId("relation-" + sequence)
+			.build();
+	}
+
+	private static RelationChange relationChange(final long sequence) {
+		return new RelationMapper().toRelationChange(change(sequence));
+	}
+}
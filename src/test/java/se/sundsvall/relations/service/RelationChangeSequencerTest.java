@@ -0,0 +1,100 @@
+package se.sundsvall.relations.service;
+
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import se.sundsvall.relations.api.model.RelationChangeType;
+import se.sundsvall.relations.integration.db.RelationChangeRepository;
+import se.sundsvall.relations.integration.db.RelationChangeSequenceRepository;
+import se.sundsvall.relations.integration.db.model.RelationChangeEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static se.sundsvall.relations.integration.db.model.RelationChangeSequenceEntity.COUNTER_ID;
+
+@SpringBootTest
+@ActiveProfiles("junit")
+@Sql(scripts = {
+	"/db/scripts/truncate.sql"
+})
+class RelationChangeSequencerTest {
+
+	@Autowired
+	private RelationChangeSequencer sequencer;
+
+	@Autowired
+	private RelationChangeRepository changeRepository;
+
+	@Autowired
+	private RelationChangeSequenceRepository sequenceRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void assignsSequencesInCommitOrder() {
+		final var transactionTemplate = new TransactionTemplate(transactionManager);
+
+		// The first change takes the lower id but commits after the second has been given its sequence
+		final var first = transactionTemplate.execute(status -> {
+			final var saved = changeRepository.saveAndFlush(change("relation-1"));
+			CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(inner -> changeRepository.save(change("relation-2")))).join();
+			CompletableFuture.runAsync(sequencer::assign).join();
+			return saved;
+		});
+		sequencer.assign();
+
+		final var changes = changeRepository.findAll();
+		final var second = changes.stream().filter(change -> "relation-2".equals(change.getRelationId())).findFirst().orElseThrow();
+		assertThat(first.getId()).isLessThan(second.getId());
+		assertThat(changes).extracting(RelationChangeEntity::getRelationId, RelationChangeEntity::getSequence)
+			.containsExactlyInAnyOrder(tuple("relation-2", 1L), tuple("relation-1", 2L));
+		assertThat(sequenceRepository.findById(COUNTER_ID)).hasValueSatisfying(counter -> assertThat(counter.getLastSequence()).isEqualTo(2L));
+	}
+
+	@Test
+	void assignWithoutChanges() {
+		assertThat(sequencer.assign()).isZero();
+	}
+
+	@Test
+	void requestAfterShutdown() {
+		final var changeRepositoryMock = mock(RelationChangeRepository.class);
+		final var stoppedSequencer = new RelationChangeSequencer(changeRepositoryMock, mock(RelationChangeSequenceRepository.class), mock(RelationChangeRelay.class),
+			transactionManager);
+		stoppedSequencer.shutdown();
+
+		// Requested after the commit of a write, which must not fail once it has been committed
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			assertThat(TransactionSynchronizationManager.isSynchronizationActive()).isTrue();
+			stoppedSequencer.requestAfterCommit();
+		});
+
+		assertThatNoException().isThrownBy(stoppedSequencer::sweep);
+		verifyNoInteractions(changeRepositoryMock);
+	}
+
+	private static RelationChangeEntity change(final String relationId) {
+		return RelationChangeEntity.builder()
+			.withMunicipalityId("2281")
+			.withChangeType(RelationChangeType.CREATED)
+			.withRelationId(relationId)
+			.withType("type-1")
+			.withSourceResourceId("source-1")
+			.withSourceType("source-type-1")
+			.withSourceService("source-service-1")
+			.withTargetResourceId("target-1")
+			.withTargetType("target-type-1")
+			.withTargetService("target-service-1")
+			.build();
+	}
+}
@@ -0,0 +1,137 @@
+package se.sundsvall.relations.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import se.sundsvall.relations.api.model.RelationChange;
+import se.sundsvall.relations.api.model.ResourceIdentifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static se.sundsvall.relations.service.RelationChangeTopic.DROPPED_COUNTER;
+import static se.sundsvall.relations.service.RelationChangeTopic.SUBSCRIBERS_GAUGE;
+
+class RelationChangeTopicTest {
+
+	private static final String MUNICIPALITY_ID = "2281";
+	private static final int QUEUE_CAPACITY = 2;
+	private static final Runnable NO_OVERFLOW = () -> {};
+	private static final RelationChange CHANGE = RelationChange.builder()
+		.withSequence(42)
+		.withSource(ResourceIdentifier.builder().withResourceId("source").build())
+		.withTarget(ResourceIdentifier.builder().withResourceId("target").build())
+		.build();
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void deliversToSubscribersOfSourceAndTarget() {
+		final var topic = directTopic();
+		final var sourceChanges = new ArrayList<RelationChange>();
+		final var targetChanges = new ArrayList<RelationChange>();
+		final var otherChanges = new ArrayList<RelationChange>();
+		topic.subscribe(MUNICIPALITY_ID, "source", sourceChanges::add, NO_OVERFLOW);
+		topic.subscribe(MUNICIPALITY_ID, "target", targetChanges::add, NO_OVERFLOW);
+		topic.subscribe(MUNICIPALITY_ID, "other", otherChanges::add, NO_OVERFLOW);
+		topic.subscribe("2262", "source", otherChanges::add, NO_OVERFLOW);
+
+		topic.publish(MUNICIPALITY_ID, CHANGE);
+
+		assertThat(sourceChanges).containsExactly(CHANGE);
+		assertThat(targetChanges).containsExactly(CHANGE);
+		assertThat(otherChanges).isEmpty();
+		assertThat(subscribers()).isEqualTo(4);
+	}
+
+	@Test
+	void closedSubscriptionIsNotCalled() {
+		final var topic = directTopic();
+		final var changes = new ArrayList<RelationChange>();
+		final var subscription = topic.subscribe(MUNICIPALITY_ID, "source", changes::add, NO_OVERFLOW);
+
+		subscription.close();
+		subscription.close();
+		topic.publish(MUNICIPALITY_ID, CHANGE);
+
+		assertThat(changes).isEmpty();
+		assertThat(subscribers()).isZero();
+	}
+
+	@Test
+	void failingSubscriberDoesNotStopDelivery() {
+		final var topic = directTopic();
+		final var changes = new ArrayList<RelationChange>();
+		topic.subscribe(MUNICIPALITY_ID, "source", change -> {
+			throw new IllegalStateException("Emitter completed");
+		}, NO_OVERFLOW);
+		topic.subscribe(MUNICIPALITY_ID, "target", changes::add, NO_OVERFLOW);
+
+		topic.publish(MUNICIPALITY_ID, CHANGE);
+
+		assertThat(changes).containsExactly(CHANGE);
+	}
+
+	@Test
+	void slowSubscriberIsDroppedWithoutHoldingUpOthers() {
+		final var tasks = new ArrayList<Runnable>();
+		final var topic = new RelationChangeTopic(meterRegistry, QUEUE_CAPACITY, tasks::add);
+		final var changes = new ArrayList<RelationChange>();
+		final var overflows = new ArrayList<Boolean>();
+		topic.subscribe(MUNICIPALITY_ID, "source", changes::add, () -> overflows.add(true));
+
+		IntStream.range(0, QUEUE_CAPACITY + 1).forEach(i -> topic.publish(MUNICIPALITY_ID, CHANGE));
+
+		assertThat(subscribers()).isZero();
+		assertThat(meterRegistry.get(DROPPED_COUNTER).counter().count()).isOne();
+		List.copyOf(tasks).forEach(Runnable::run);
+		assertThat(overflows).containsExactly(true);
+		assertThat(changes).isEmpty();
+	}
+
+	@Test
+	void deliversInOrderOnceDrained() {
+		final var tasks = new ArrayList<Runnable>();
+		final var topic = new RelationChangeTopic(meterRegistry, QUEUE_CAPACITY, tasks::add);
+		final var changes = new ArrayList<RelationChange>();
+		final var second = RelationChange.builder().withSequence(43).withSource(CHANGE.getSource()).build();
+		topic.subscribe(MUNICIPALITY_ID, "source", changes::add, NO_OVERFLOW);
+
+		topic.publish(MUNICIPALITY_ID, CHANGE);
+		topic.publish(MUNICIPALITY_ID, second);
+
+		assertThat(tasks).hasSize(1);
+		assertThat(changes).isEmpty();
+		tasks.getFirst().run();
+		assertThat(changes).containsExactly(CHANGE, second);
+	}
+
+	@Test
+	void publishesAfterCommit() {
+		final var topic = directTopic();
+		final var changes = new ArrayList<RelationChange>();
+		topic.subscribe(MUNICIPALITY_ID, "source", changes::add, NO_OVERFLOW);
+
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			topic.publish(MUNICIPALITY_ID, CHANGE);
+			assertThat(changes).isEmpty();
+
+			TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+
+		assertThat(changes).containsExactly(CHANGE);
+	}
+
+	private RelationChangeTopic directTopic() {
+		return new RelationChangeTopic(meterRegistry, QUEUE_CAPACITY, Runnable::run);
+	}
+
+	private double subscribers() {
+		return meterRegistry.get(SUBSCRIBERS_GAUGE).gauge().value();
+	}
+}
@@ -0,0 +1,61 @@
+package se.sundsvall.relations.service;
+
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import se.sundsvall.relations.api.model.Relation;
+import se.sundsvall.relations.api.model.ResourceIdentifier;
+import se.sundsvall.relations.integration.db.SqlCaptureStatementInspector;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the statements the service prepares on the request thread, which leaves out those of the change sequencer
+ * running after the commit.
+ */
+@SpringBootTest
+@ActiveProfiles("junit")
+@Sql(scripts = {
+	"/db/scripts/truncate.sql",
+	"/db/scripts/testdata-junit.sql"
+})
+class RelationServiceStatementTest {
+
+	private static final String MUNICIPALITY_ID = "2281";
+	private static final Pattern INSERT_RELATION = Pattern.compile("^insert into relation\\s*\\(");
+	private static final Pattern INSERT_RELATION_CHANGE = Pattern.compile("^insert into relation_change\\s*\\(");
+
+	@Autowired
+	private RelationService service;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void createTwoWayRelationInOneBatch() {
+		final var relation = Relation.builder()
+			.withType("type-1")
+			.withSource(ResourceIdentifier.builder().withResourceId("source_id-1").withType("source_type-1").withService("source_source-1").withNamespace("source_namespace-1").build())
+			.withTarget(ResourceIdentifier.builder().withResourceId("target_id-2").withType("target_type-2").withService("target_source-2").withNamespace("target_namespace-2").build())
+			.build();
+
+		SqlCaptureStatementInspector.startCapture();
+		final var id = service.createRelation(MUNICIPALITY_ID, relation);
+		final var statements = SqlCaptureStatementInspector.stopCapture();
+
+		// The pair and its two changes are each inserted by one batch, and the pair is linked without a following update.
+		// Fewer statements than the capture keeps, so none were left out
+		assertThat(statements).hasSizeLessThan(10);
+		assertThat(statements).filteredOn(sql -> INSERT_RELATION.matcher(sql).find()).hasSize(1);
+		assertThat(statements).filteredOn(sql -> INSERT_RELATION_CHANGE.matcher(sql).find()).hasSize(1);
+		assertThat(statements).noneMatch(sql -> sql.startsWith("update") || sql.startsWith("insert into resource_identifier"));
+		assertThat(jdbcTemplate.queryForList("SELECT type_id FROM relation WHERE id = ? OR inverse_relation_id = ? ORDER BY type_id", String.class, id, id))
+			.containsExactly("rt1", "rt2");
+		assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM relation_change WHERE relation_id IN (SELECT id FROM relation WHERE id = ? OR inverse_relation_id = ?)", Integer.class, id, id))
+			.isEqualTo(2);
+	}
+}
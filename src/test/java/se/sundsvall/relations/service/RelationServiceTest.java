@@ -1,8 +1,17 @@
 package se.sundsvall.relations.service;
 
 import com.turkraft.springfilter.converter.FilterSpecificationConverter;
+import com.turkraft.springfilter.converter.FilterStringConverter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,24 +22,45 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor.SpecificationFluentQuery;
 import se.sundsvall.dept44.problem.Problem;
 import se.sundsvall.relations.api.model.Relation;
+import se.sundsvall.relations.api.model.RelationBatchResult;
+import se.sundsvall.relations.api.model.RelationChange;
+import se.sundsvall.relations.api.model.RelationChangeType;
+import se.sundsvall.relations.api.model.RelationNeighbor;
 import se.sundsvall.relations.api.model.RelationPageParameters;
+import se.sundsvall.relations.api.model.ResourceIdentifier;
 import se.sundsvall.relations.integration.db.RelationRepository;
 import se.sundsvall.relations.integration.db.RelationTypeRepository;
 import se.sundsvall.relations.integration.db.model.RelationEntity;
 import se.sundsvall.relations.integration.db.model.RelationTypeEntity;
+import se.sundsvall.relations.integration.db.model.ResourceIdentifierEntity;
 import se.sundsvall.relations.service.mapper.RelationMapper;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -50,15 +80,34 @@ class RelationServiceTest {
 	@Mock
 	private RelationMapper mapperMock;
 	@Mock
+	private RelationAdjacencyIndex adjacencyIndexMock;
+	@Mock
 	private RelationTypeEntity relationTypeEntityMock;
 	@Mock
 	private Page<RelationEntity> pageMock;
 	@Spy
 	private FilterSpecificationConverter filterSpecificationConverterSpy;
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	@Spy
+	private ServiceMetrics metrics = new ServiceMetrics(meterRegistry);
+	@Mock
+	private RelationChangeLog changeLogMock;
+	@Mock
+	private ResourceIdentifierResolver resourceIdentifierResolverMock;
+	@Spy
+	private SlowFilterMonitor slowFilterMonitor = new SlowFilterMonitor(mock(FilterStringConverter.class), Duration.ofHours(1), Duration.ofMinutes(1), 10);
 	@Captor
 	private ArgumentCaptor<Specification<RelationEntity>> specificationCaptor;
 	@Captor
 	private ArgumentCaptor<Pageable> pageableCaptor;
+	@Captor
+	private ArgumentCaptor<Function<SpecificationFluentQuery<RelationEntity>, Window<RelationEntity>>> queryCaptor;
+	@Mock
+	private SpecificationFluentQuery<RelationEntity> fluentQueryMock;
+	@Mock
+	private CacheManager cacheManagerMock;
+	@Mock
+	private Cache cacheMock;
 	@InjectMocks
 	private RelationService service;
 
@@ -83,8 +132,15 @@ class RelationServiceTest {
 		verify(mapperMock).toRelationEntity(eq(MUNICIPALITY_ID), same(relation), same(relationTypeEntityMock));
 		verify(relationTypeEntityMock).getCounterType();
 		verify(mapperMock).toInverseRelationEntity(same(entity));
+		verify(resourceIdentifierResolverMock).resolve(MUNICIPALITY_ID, List.of(entity));
 		verify(relationRepositoryMock).save(same(entity));
+		verify(relationRepositoryMock).flush();
+		verify(adjacencyIndexMock).add(argThat(saved -> id.equals(saved.getId())));
+		verify(changeLogMock).recordWithInverse(eq(RelationChangeType.CREATED), argThat(saved -> id.equals(saved.iterator().next().getId())));
 		assertThat(entity.getInverseRelation()).isSameAs(inverseEntity);
+		assertThat(meterRegistry.get(ServiceMetrics.OPERATION_TIMER)
+			.tags("operation", "create_relation", "municipality", MUNICIPALITY_ID, "type", typeName, "outcome", "created")
+			.timer().count()).isOne();
 
 		verifyNoMoreInteractions(relationRepositoryMock, mapperMock, relationTypeRepositoryMock);
 	}
@@ -103,7 +159,85 @@ class RelationServiceTest {
 		verify(relationTypeRepositoryMock).findByName(typeName);
 		verifyNoMoreInteractions(relationTypeRepositoryMock);
 		verifyNoInteractions(relationRepositoryMock, mapperMock);
+		assertThat(meterRegistry.get(ServiceMetrics.OPERATION_TIMER).tags("operation", "create_relation", "outcome", "invalid_type").timer().count()).isOne();
+	}
 
+	@Test
+	void createRelationRemovedType() {
+		final var relation = Relation.builder().withType("typeName").build();
+		final var cause = new SQLIntegrityConstraintViolationException("Cannot add or update a child row: a foreign key constraint fails (`relation`, CONSTRAINT `fk_relation_type_relation_type` ...)");
+
+		when(relationTypeRepositoryMock.findByName(any())).thenReturn(Optional.of(relationTypeEntityMock));
+		when(mapperMock.toRelationEntity(any(), any(), any())).thenReturn(RelationEntity.builder().build());
+		doThrow(new DataIntegrityViolationException("could not execute statement", cause)).when(relationRepositoryMock).flush();
+		when(cacheManagerMock.getCache(RelationTypeRepository.RELATION_TYPES_CACHE)).thenReturn(cacheMock);
+
+		assertThatThrownBy(() -> service.createRelation(MUNICIPALITY_ID, relation))
+			.isInstanceOf(Problem.class)
+			.hasMessage("Bad Request: A relation type used by the request has been removed");
+
+		verify(cacheMock).clear();
+		assertThat(meterRegistry.get(ServiceMetrics.OPERATION_TIMER).tags("operation", "create_relation", "outcome", "removed_type").timer().count()).isOne();
+		verifyNoInteractions(adjacencyIndexMock, changeLogMock);
+	}
+
+	@Test
+	void createRelationOtherIntegrityViolation() {
+		final var relation = Relation.builder().withType("typeName").build();
+		final var exception = new DataIntegrityViolationException("could not execute statement", new SQLIntegrityConstraintViolationException("Duplicate entry"));
+
+		when(relationTypeRepositoryMock.findByName(any())).thenReturn(Optional.of(relationTypeEntityMock));
+		when(mapperMock.toRelationEntity(any(), any(), any())).thenReturn(RelationEntity.builder().build());
+		doThrow(exception).when(relationRepositoryMock).flush();
+
+		assertThatThrownBy(() -> service.createRelation(MUNICIPALITY_ID, relation)).isSameAs(exception);
+
+		verifyNoInteractions(cacheManagerMock, adjacencyIndexMock, changeLogMock);
+	}
+
+	@Test
+	void createRelations() {
+		final var oneWayType = RelationTypeEntity.builder().withName("oneWay").build();
+		final var twoWayType = RelationTypeEntity.builder().withName("twoWay").withCounterType(RelationTypeEntity.builder().build()).build();
+		final var relation1 = Relation.builder().withType("twoWay").build();
+		final var relation2 = Relation.builder().withType("invalid").build();
+		final var relation3 = Relation.builder().withType("oneWay").build();
+		final var relation4 = Relation.builder().withType("twoWay").build();
+		final var entity1 = RelationEntity.builder().withId("id1").build();
+		final var entity3 = RelationEntity.builder().withId("id3").build();
+		final var entity4 = RelationEntity.builder().withId("id4").build();
+
+		when(relationTypeRepositoryMock.findByName("twoWay")).thenReturn(Optional.of(twoWayType));
+		when(relationTypeRepositoryMock.findByName("invalid")).thenReturn(Optional.empty());
+		when(relationTypeRepositoryMock.findByName("oneWay")).thenReturn(Optional.of(oneWayType));
+		when(mapperMock.toRelationEntity(MUNICIPALITY_ID, relation1, twoWayType)).thenReturn(entity1);
+		when(mapperMock.toRelationEntity(MUNICIPALITY_ID, relation3, oneWayType)).thenReturn(entity3);
+		when(mapperMock.toRelationEntity(MUNICIPALITY_ID, relation4, twoWayType)).thenReturn(entity4);
+		when(mapperMock.toInverseRelationEntity(any())).thenReturn(RelationEntity.builder().build());
+		when(relationRepositoryMock.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+		final var results = service.createRelations(MUNICIPALITY_ID, List.of(relation1, relation2, relation3, relation4));
+
+		verify(relationTypeRepositoryMock).findByName("twoWay");
+		verify(relationTypeRepositoryMock).findByName("invalid");
+		verify(relationTypeRepositoryMock).findByName("oneWay");
+		verify(mapperMock, times(3)).toRelationEntity(any(), any(), any());
+		verify(mapperMock).toInverseRelationEntity(same(entity1));
+		verify(mapperMock).toInverseRelationEntity(same(entity4));
+		verify(resourceIdentifierResolverMock).resolve(MUNICIPALITY_ID, List.of(entity1, entity3, entity4));
+		verify(relationRepositoryMock).saveAll(List.of(entity1, entity3, entity4));
+		verify(relationRepositoryMock).flush();
+		verify(changeLogMock).recordWithInverse(RelationChangeType.CREATED, List.of(entity1, entity3, entity4));
+		verifyNoMoreInteractions(relationRepositoryMock, mapperMock, relationTypeRepositoryMock, changeLogMock, resourceIdentifierResolverMock);
+
+		assertThat(entity1.getInverseRelation()).isNotNull();
+		assertThat(entity3.getInverseRelation()).isNull();
+		assertThat(results).extracting(RelationBatchResult::getIndex, RelationBatchResult::getId, RelationBatchResult::getStatus, RelationBatchResult::getDetail)
+			.containsExactly(
+				tuple(0, "id1", 201, null),
+				tuple(1, null, 400, "'invalid' is not a valid type"),
+				tuple(2, "id3", 201, null),
+				tuple(3, "id4", 201, null));
 	}
 
 	@Test
@@ -138,6 +272,7 @@ class RelationServiceTest {
 		verify(pageMock).getSize();
 		verify(pageMock).getNumber();
 		verify(pageMock, times(2)).getSort();
+		verify(slowFilterMonitor).time(eq(MUNICIPALITY_ID), same(filter), any());
 		verifyNoMoreInteractions(relationRepositoryMock, pageMock, mapperMock);
 
 		assertThat(result.getRelations()).containsExactly(relation);
@@ -146,6 +281,7 @@ class RelationServiceTest {
 		assertThat(result.getMetaData().getCount()).isEqualTo(4L);
 		assertThat(result.getMetaData().getLimit()).isEqualTo(100);
 		assertThat(result.getMetaData().getPage()).isEqualTo(1);
+		assertThat(meterRegistry.get(ServiceMetrics.FIND_ROWS_SUMMARY).tag("municipality", MUNICIPALITY_ID).summary().totalAmount()).isOne();
 		if (filter != null) {
 			assertThat(specificationCaptor.getValue()).usingRecursiveComparison().isEqualTo(withMunicipalityId(MUNICIPALITY_ID).and(filter));
 		} else {
@@ -194,6 +330,307 @@ class RelationServiceTest {
 		assertThat(specificationCaptor.getValue()).usingRecursiveComparison().isEqualTo(withMunicipalityId(MUNICIPALITY_ID));
 	}
 
+	@Test
+	void findRelationsWithCursor() {
+		final var nextPosition = ScrollPosition.forward(Map.of("created", "2025-01-01T12:00Z", "id", "someId"));
+		final var page = new RelationPageParameters();
+		page.setLimit(2);
+		page.setSortBy(List.of("created"));
+		page.setSortDirection(DESC);
+		page.setCursor("");
+		final var relation = Relation.builder().build();
+		final var entity = RelationEntity.builder().build();
+		final var window = Window.from(List.of(entity, entity), index -> nextPosition, true);
+
+		when(relationRepositoryMock.findBy(ArgumentMatchers.<Specification<RelationEntity>>any(), any())).thenReturn(window);
+		when(fluentQueryMock.sortBy(any())).thenReturn(fluentQueryMock);
+		when(fluentQueryMock.limit(anyInt())).thenReturn(fluentQueryMock);
+		when(mapperMock.toRelation(any())).thenReturn(relation);
+
+		final var result = service.findRelations(MUNICIPALITY_ID, null, page);
+
+		verify(relationRepositoryMock).findBy(specificationCaptor.capture(), queryCaptor.capture());
+		verify(mapperMock, times(2)).toRelation(same(entity));
+		verifyNoMoreInteractions(relationRepositoryMock, mapperMock);
+
+		queryCaptor.getValue().apply(fluentQueryMock);
+		verify(fluentQueryMock).sortBy(Sort.by(DESC, "created"));
+		verify(fluentQueryMock).limit(2);
+		verify(fluentQueryMock).scroll(ScrollPosition.keyset());
+
+		assertThat(specificationCaptor.getValue()).usingRecursiveComparison().isEqualTo(withMunicipalityId(MUNICIPALITY_ID));
+		assertThat(result.getRelations()).containsExactly(relation, relation);
+		assertThat(result.getMetaData().getCount()).isEqualTo(2);
+		assertThat(result.getMetaData().getLimit()).isEqualTo(2);
+		assertThat(result.getMetaData().getSortBy()).containsExactly("created");
+		assertThat(result.getMetaData().getNextCursor()).isEqualTo(KeysetCursor.encode(nextPosition));
+	}
+
+	@Test
+	void findRelationsWithoutCount() {
+		final var page = new RelationPageParameters();
+		page.setPage(2);
+		page.setLimit(2);
+		page.setSortBy(List.of("created"));
+		page.setSortDirection(DESC);
+		page.setSkipCount(true);
+		final var pageRequest = PageRequest.of(1, 2, Sort.by(DESC, "created"));
+		final var relation = Relation.builder().build();
+		final var entity = RelationEntity.builder().build();
+
+		when(relationRepositoryMock.findBy(ArgumentMatchers.<Specification<RelationEntity>>any(), any())).thenReturn(new SliceImpl<>(List.of(entity, entity), pageRequest, true));
+		when(mapperMock.toRelation(any())).thenReturn(relation);
+
+		final var result = service.findRelations(MUNICIPALITY_ID, null, page);
+
+		verify(relationRepositoryMock).findBy(specificationCaptor.capture(), queryCaptor.capture());
+		verify(mapperMock, times(2)).toRelation(same(entity));
+		verifyNoMoreInteractions(relationRepositoryMock, mapperMock);
+
+		queryCaptor.getValue().apply(fluentQueryMock);
+		verify(fluentQueryMock).slice(pageRequest);
+
+		assertThat(specificationCaptor.getValue()).usingRecursiveComparison().isEqualTo(withMunicipalityId(MUNICIPALITY_ID));
+		assertThat(result.getRelations()).containsExactly(relation, relation);
+		assertThat(result.getMetaData().getPage()).isEqualTo(2);
+		assertThat(result.getMetaData().getCount()).isEqualTo(2);
+		assertThat(result.getMetaData().getLimit()).isEqualTo(2);
+		assertThat(result.getMetaData().getSortBy()).containsExactly("created");
+		assertThat(result.getMetaData().getHasNext()).isTrue();
+	}
+
+	@Test
+	void findRelationsWithCursorOnLastPage() {
+		final var position = ScrollPosition.forward(Map.of("id", "someId"));
+		final var page = new RelationPageParameters();
+		page.setCursor(KeysetCursor.encode(position));
+
+		when(relationRepositoryMock.findBy(ArgumentMatchers.<Specification<RelationEntity>>any(), any())).thenReturn(Window.from(List.of(), index -> position, false));
+		when(fluentQueryMock.sortBy(any())).thenReturn(fluentQueryMock);
+		when(fluentQueryMock.limit(anyInt())).thenReturn(fluentQueryMock);
+
+		final var result = service.findRelations(MUNICIPALITY_ID, null, page);
+
+		verify(relationRepositoryMock).findBy(ArgumentMatchers.<Specification<RelationEntity>>any(), queryCaptor.capture());
+		queryCaptor.getValue().apply(fluentQueryMock);
+		verify(fluentQueryMock).scroll(position);
+
+		assertThat(result.getRelations()).isEmpty();
+		assertThat(result.getMetaData().getNextCursor()).isNull();
+		verifyNoInteractions(mapperMock);
+	}
+
+	@Test
+	void findRelationsWithInvalidCursor() {
+		final var page = new RelationPageParameters();
+		page.setCursor("not-a-cursor");
+
+		assertThatThrownBy(() -> service.findRelations(MUNICIPALITY_ID, null, page))
+			.isInstanceOf(Problem.class)
+			.hasMessage("Bad Request: Cursor 'not-a-cursor' is not valid for the requested sort order");
+
+		verifyNoInteractions(relationRepositoryMock, mapperMock);
+		assertThat(meterRegistry.get(ServiceMetrics.OPERATION_TIMER).tags("operation", "find_relations", "filter", "none", "outcome", "invalid_cursor").timer().count()).isOne();
+	}
+
+	@Test
+	void findRelationsWithCursorSortedOnNullableProperty() {
+		final var page = new RelationPageParameters();
+		page.setSortBy(List.of("modified"));
+		page.setCursor("");
+
+		// Rows without a modified timestamp can't be continued from, as the keyset condition matches nothing for them
+		assertThatThrownBy(() -> service.findRelations(MUNICIPALITY_ID, null, page))
+			.isInstanceOf(Problem.class)
+			.hasMessage("Bad Request: Sort on 'modified' can not be combined with a cursor, as it may be empty");
+
+		verifyNoInteractions(relationRepositoryMock, mapperMock);
+		assertThat(meterRegistry.get(ServiceMetrics.OPERATION_TIMER).tags("operation", "find_relations", "filter", "none", "outcome", "invalid_cursor").timer().count()).isOne();
+	}
+
+	@Test
+	void exportRelations() {
+		final Specification<RelationEntity> filter = filterSpecificationConverterSpy.convert("id: 'someId'");
+		final var entity1 = RelationEntity.builder().build();
+		final var entity2 = RelationEntity.builder().build();
+		final var relation1 = Relation.builder().withId("1").build();
+		final var relation2 = Relation.builder().withId("2").build();
+		final var exported = new ArrayList<Relation>();
+
+		when(relationRepositoryMock.streamAll(any())).thenReturn(Stream.of(entity1, entity2));
+		when(mapperMock.toRelation(same(entity1))).thenReturn(relation1);
+		when(mapperMock.toRelation(same(entity2))).thenReturn(relation2);
+
+		service.exportRelations(MUNICIPALITY_ID, filter, exported::add);
+
+		verify(relationRepositoryMock).streamAll(specificationCaptor.capture());
+		verify(mapperMock, times(2)).toRelation(any());
+		verifyNoMoreInteractions(relationRepositoryMock, mapperMock);
+
+		assertThat(exported).containsExactly(relation1, relation2);
+		assertThat(specificationCaptor.getValue()).usingRecursiveComparison().isEqualTo(withMunicipalityId(MUNICIPALITY_ID).and(filter));
+	}
+
+	@Test
+	void exportRelationsClosesStreamWhenConsumerFails() {
+		final var closed = new ArrayList<Boolean>();
+		final var stream = Stream.of(RelationEntity.builder().build()).onClose(() -> closed.add(true));
+
+		when(relationRepositoryMock.streamAll(any())).thenReturn(stream);
+		when(mapperMock.toRelation(any())).thenReturn(Relation.builder().build());
+
+		assertThatThrownBy(() -> service.exportRelations(MUNICIPALITY_ID, null, relation -> {
+			throw new IllegalStateException("Client disconnected");
+		}))
+			.isInstanceOf(IllegalStateException.class)
+			.hasMessage("Client disconnected");
+
+		assertThat(closed).containsExactly(true);
+		verify(relationRepositoryMock).streamAll(specificationCaptor.capture());
+		assertThat(specificationCaptor.getValue()).usingRecursiveComparison().isEqualTo(withMunicipalityId(MUNICIPALITY_ID));
+	}
+
+	@Test
+	void exportChanges() {
+		final var change1 = RelationChange.builder().withSequence(43).build();
+		final var change2 = RelationChange.builder().withSequence(44).build();
+		final var closed = new ArrayList<Boolean>();
+		final var exported = new ArrayList<RelationChange>();
+
+		when(changeLogMock.changesAfter(any(), anyLong(), anyInt())).thenReturn(Stream.of(change1, change2).onClose(() -> closed.add(true)));
+
+		service.exportChanges(MUNICIPALITY_ID, 42, 100, exported::add);
+
+		verify(changeLogMock).changesAfter(MUNICIPALITY_ID, 42, 100);
+		verifyNoMoreInteractions(changeLogMock);
+		verifyNoInteractions(relationRepositoryMock);
+		assertThat(exported).containsExactly(change1, change2);
+		assertThat(closed).containsExactly(true);
+	}
+
+	@Test
+	void getRelationGraph() {
+		final var a = resource("A");
+		final var b = resource("B");
+		final var c = resource("C");
+		final var aToB = edge("1", a, b);
+		final var bToC = edge("2", b, c);
+		final var cToA = edge("3", c, a);
+
+		when(relationRepositoryMock.findBy(ArgumentMatchers.<Specification<RelationEntity>>any(), any()))
+			.thenReturn(List.of(aToB.getKey()), List.of(bToC.getKey()), List.of(cToA.getKey()));
+
+		final var result = service.getRelationGraph(MUNICIPALITY_ID, "A", 5, List.of("type"));
+
+		verify(relationRepositoryMock, times(3)).findBy(specificationCaptor.capture(), any());
+		verify(mapperMock, times(3)).toRelation(any());
+		verifyNoMoreInteractions(relationRepositoryMock);
+
+		assertThat(result.getNodes()).containsExactly(a, b, c);
+		assertThat(result.getEdges()).containsExactly(aToB.getValue(), bToC.getValue(), cToA.getValue());
+		assertThat(result.isTruncated()).isFalse();
+		assertThat(specificationCaptor.getAllValues().getFirst()).usingRecursiveComparison()
+			.isEqualTo(withMunicipalityId(MUNICIPALITY_ID).and(RelationService.withSourceResourceIdIn(List.of("A"))).and(RelationService.withTypeIn(List.of("type"))));
+	}
+
+	@Test
+	void getRelationGraphStopsAtDepth() {
+		final var a = resource("A");
+		final var b = resource("B");
+		final var aToB = edge("1", a, b);
+
+		when(relationRepositoryMock.findBy(ArgumentMatchers.<Specification<RelationEntity>>any(), any())).thenReturn(List.of(aToB.getKey()));
+
+		final var result = service.getRelationGraph(MUNICIPALITY_ID, "A", 1, null);
+
+		verify(relationRepositoryMock).findBy(ArgumentMatchers.<Specification<RelationEntity>>any(), any());
+		verifyNoMoreInteractions(relationRepositoryMock);
+
+		assertThat(result.getNodes()).containsExactly(a, b);
+		assertThat(result.getEdges()).containsExactly(aToB.getValue());
+		assertThat(result.isTruncated()).isFalse();
+	}
+
+	@Test
+	void getRelationGraphTruncatesAtNodeLimit() {
+		final var a = resource("A");
+		final var entities = IntStream.range(0, RelationService.GRAPH_MAX_NODES + 1)
+			.mapToObj(i -> edge(String.valueOf(i), a, resource("T" + i)).getKey())
+			.toList();
+
+		when(relationRepositoryMock.findBy(ArgumentMatchers.<Specification<RelationEntity>>any(), any())).thenReturn(entities);
+
+		final var result = service.getRelationGraph(MUNICIPALITY_ID, "A", 3, null);
+
+		assertThat(result.isTruncated()).isTrue();
+		assertThat(result.getNodes()).hasSize(RelationService.GRAPH_MAX_NODES);
+		assertThat(result.getEdges()).hasSize(RelationService.GRAPH_MAX_NODES - 1);
+		verify(relationRepositoryMock).findBy(ArgumentMatchers.<Specification<RelationEntity>>any(), any());
+	}
+
+	@Test
+	void getRelationGraphTruncatesWhenSkippedRowsFillTheLimit() {
+		final var a = resource("A");
+		final var b = resource("B");
+		final var otherB = ResourceIdentifier.builder().withResourceId("B").withType("type").withService("other").build();
+		final var aToB = edge("A1", a, b);
+		final var fromOtherB = IntStream.range(0, RelationService.GRAPH_MAX_EDGES)
+			.mapToObj(i -> edge(String.valueOf(i), otherB, resource("T" + i)).getKey())
+			.toList();
+
+		when(relationRepositoryMock.findBy(ArgumentMatchers.<Specification<RelationEntity>>any(), any()))
+			.thenReturn(List.of(aToB.getKey()), fromOtherB);
+
+		final var result = service.getRelationGraph(MUNICIPALITY_ID, "A", 3, null);
+
+		assertThat(result.isTruncated()).isTrue();
+		assertThat(result.getNodes()).containsExactly(a, b);
+		assertThat(result.getEdges()).containsExactly(aToB.getValue());
+		verify(relationRepositoryMock, times(2)).findBy(ArgumentMatchers.<Specification<RelationEntity>>any(), any());
+	}
+
+	private static ResourceIdentifier resource(final String resourceId) {
+		return ResourceIdentifier.builder().withResourceId(resourceId).withType("type").withService("service").build();
+	}
+
+	private Map.Entry<RelationEntity, Relation> edge(final String id, final ResourceIdentifier source, final ResourceIdentifier target) {
+		final var entity = RelationEntity.builder().withId(id).build();
+		final var relation = Relation.builder().withId(id).withSource(source).withTarget(target).build();
+		lenient().when(mapperMock.toRelation(same(entity))).thenReturn(relation);
+		return Map.entry(entity, relation);
+	}
+
+	@Test
+	void getNeighborsFromIndex() {
+		final var neighbors = List.of(RelationNeighbor.builder().withRelationId("id").build());
+
+		when(adjacencyIndexMock.getNeighbors(any(), any(), any(), any())).thenReturn(Optional.of(neighbors));
+
+		final var result = service.getNeighbors(MUNICIPALITY_ID, "service", "type", "resourceId");
+
+		assertThat(result).isSameAs(neighbors);
+		verify(adjacencyIndexMock).getNeighbors(MUNICIPALITY_ID, "service", "type", "resourceId");
+		verifyNoInteractions(relationRepositoryMock, mapperMock);
+	}
+
+	@Test
+	void getNeighborsFromDatabase() {
+		final var entity = RelationEntity.builder().build();
+		final var neighbor = RelationNeighbor.builder().withRelationId("id").build();
+
+		when(adjacencyIndexMock.getNeighbors(any(), any(), any(), any())).thenReturn(Optional.empty());
+		when(relationRepositoryMock.findAll(ArgumentMatchers.<Specification<RelationEntity>>any())).thenReturn(List.of(entity));
+		when(mapperMock.toRelationNeighbor(same(entity))).thenReturn(neighbor);
+
+		final var result = service.getNeighbors(MUNICIPALITY_ID, "service", "type", "resourceId");
+
+		assertThat(result).containsExactly(neighbor);
+		verify(relationRepositoryMock).findAll(specificationCaptor.capture());
+		verifyNoMoreInteractions(relationRepositoryMock);
+		assertThat(specificationCaptor.getValue()).usingRecursiveComparison()
+			.isEqualTo(withMunicipalityId(MUNICIPALITY_ID).and(RelationService.withSource("service", "type", "resourceId")));
+	}
+
 	@Test
 	void saveRelation() {
 		final var id = "id";
@@ -202,7 +639,9 @@ class RelationServiceTest {
 			.withId(id)
 			.withType(typeName)
 			.build();
-		final var entity = RelationEntity.builder().build();
+		final var source = ResourceIdentifierEntity.builder().withId("sourceId").build();
+		final var target = ResourceIdentifierEntity.builder().withId("targetId").build();
+		final var entity = RelationEntity.builder().withSource(source).withTarget(target).build();
 		final var savedEntity = RelationEntity.builder().build();
 		final var responseRelation = Relation.builder().build();
 
@@ -211,7 +650,7 @@ class RelationServiceTest {
 		when(relationRepositoryMock.save(any())).thenReturn(savedEntity);
 		when(mapperMock.toRelation(any())).thenReturn(responseRelation);
 
-		final var result = service.saveRelation(MUNICIPALITY_ID, relation);
+		final var result = service.saveRelation(MUNICIPALITY_ID, relation, null);
 
 		assertThat(result).isSameAs(responseRelation);
 		verify(relationRepositoryMock).findByIdAndMunicipalityId(id, MUNICIPALITY_ID);
@@ -219,8 +658,14 @@ class RelationServiceTest {
 		verify(mapperMock).updateRelationEntity(same(entity), same(relation), same(relationTypeEntityMock));
 		verify(relationTypeEntityMock).getCounterType();
 		verify(mapperMock).toRelation(same(savedEntity));
-
-		verifyNoMoreInteractions(relationRepositoryMock, mapperMock, relationTypeRepositoryMock);
+		verify(adjacencyIndexMock).remove(same(entity));
+		verify(adjacencyIndexMock).add(same(savedEntity));
+		verify(changeLogMock).record(eq(RelationChangeType.UPDATED), same(savedEntity));
+		verify(resourceIdentifierResolverMock).resolve(MUNICIPALITY_ID, List.of(entity));
+		verify(resourceIdentifierResolverMock).removeUnreferenced(same(source), same(target));
+		verify(relationRepositoryMock).flush();
+
+		verifyNoMoreInteractions(relationRepositoryMock, mapperMock, relationTypeRepositoryMock, adjacencyIndexMock, changeLogMock, resourceIdentifierResolverMock);
 	}
 
 	@Test
@@ -241,7 +686,7 @@ class RelationServiceTest {
 		when(relationRepositoryMock.save(any())).thenReturn(savedEntity);
 		when(mapperMock.toRelation(any())).thenReturn(responseRelation);
 
-		final var result = service.saveRelation(MUNICIPALITY_ID, relation);
+		final var result = service.saveRelation(MUNICIPALITY_ID, relation, null);
 
 		assertThat(result).isSameAs(responseRelation);
 		verify(relationRepositoryMock).findByIdAndMunicipalityId(id, MUNICIPALITY_ID);
@@ -249,16 +694,57 @@ class RelationServiceTest {
 		verify(mapperMock).updateRelationEntity(same(entity), same(relation), same(relationTypeEntityMock));
 		verify(relationTypeEntityMock).getCounterType();
 		verify(relationRepositoryMock).delete(same(inverseEntity));
+		assertThat(entity.getInverseRelation()).isNull();
+		assertThat(inverseEntity.getInverseRelation()).isNull();
 		verify(mapperMock).toRelation(same(savedEntity));
+		verify(changeLogMock).record(eq(RelationChangeType.DELETED), same(inverseEntity));
+		verify(changeLogMock).record(eq(RelationChangeType.UPDATED), same(savedEntity));
+		verify(relationRepositoryMock).flush();
 
-		verifyNoMoreInteractions(relationRepositoryMock, mapperMock, relationTypeRepositoryMock);
+		verifyNoMoreInteractions(relationRepositoryMock, mapperMock, relationTypeRepositoryMock, changeLogMock);
+	}
+
+	@Test
+	void saveRelationWithMatchingETag() {
+		final var relation = Relation.builder().withId("id").withType("typeName").build();
+		final var entity = RelationEntity.builder().build();
+		final var currentRelation = Relation.builder().withId("id").withType("typeName").withCreated(OffsetDateTime.now()).build();
+
+		when(relationRepositoryMock.findByIdAndMunicipalityId(any(), any())).thenReturn(Optional.of(entity));
+		when(relationTypeRepositoryMock.findByName(any())).thenReturn(Optional.of(relationTypeEntityMock));
+		when(relationRepositoryMock.save(any())).thenReturn(entity);
+		when(mapperMock.toRelation(any())).thenReturn(currentRelation);
+
+		final var result = service.saveRelation(MUNICIPALITY_ID, relation, "\"other\", " + ETags.of(currentRelation));
+
+		assertThat(result).isSameAs(currentRelation);
+		verify(mapperMock, times(2)).toRelation(same(entity));
+		verify(mapperMock).updateRelationEntity(same(entity), same(relation), same(relationTypeEntityMock));
+	}
+
+	@Test
+	void saveRelationWithOutdatedETag() {
+		final var id = "id";
+		final var entity = RelationEntity.builder().build();
+
+		when(relationRepositoryMock.findByIdAndMunicipalityId(any(), any())).thenReturn(Optional.of(entity));
+		when(mapperMock.toRelation(any())).thenReturn(Relation.builder().withId(id).withCreated(OffsetDateTime.now()).build());
+
+		assertThatThrownBy(() -> service.saveRelation(MUNICIPALITY_ID, Relation.builder().withId(id).build(), "\"outdated\""))
+			.isInstanceOf(Problem.class)
+			.hasMessage("Precondition Failed: Relation with id 'id' has been modified");
+
+		verify(relationRepositoryMock).findByIdAndMunicipalityId(id, MUNICIPALITY_ID);
+		verify(mapperMock).toRelation(same(entity));
+		verifyNoMoreInteractions(relationRepositoryMock, mapperMock);
+		verifyNoInteractions(relationTypeRepositoryMock, adjacencyIndexMock);
 	}
 
 	@Test
 	void saveRelationNotFound() {
 		final var id = "id";
 
-		assertThatThrownBy(() -> service.saveRelation(MUNICIPALITY_ID, Relation.builder().withId(id).build()))
+		assertThatThrownBy(() -> service.saveRelation(MUNICIPALITY_ID, Relation.builder().withId(id).build(), null))
 			.isInstanceOf(Problem.class)
 			.hasMessage("Not Found: Relation with id 'id' not found");
 
@@ -273,7 +759,7 @@ class RelationServiceTest {
 		final var typeName = "typeName";
 		when(relationRepositoryMock.findByIdAndMunicipalityId(any(), any())).thenReturn(Optional.of(RelationEntity.builder().build()));
 
-		assertThatThrownBy(() -> service.saveRelation(MUNICIPALITY_ID, Relation.builder().withId(id).withType(typeName).build()))
+		assertThatThrownBy(() -> service.saveRelation(MUNICIPALITY_ID, Relation.builder().withId(id).withType(typeName).build(), null))
 			.isInstanceOf(Problem.class)
 			.hasMessage("Bad Request: 'typeName' is not a valid type");
 
@@ -286,17 +772,57 @@ class RelationServiceTest {
 	@Test
 	void deleteRelation() {
 		final var id = "id";
-		final var entity = RelationEntity.builder().build();
+		final var source = ResourceIdentifierEntity.builder().withId("sourceId").build();
+		final var target = ResourceIdentifierEntity.builder().withId("targetId").build();
+		final var entity = RelationEntity.builder().withSource(source).withTarget(target).build();
 
 		when(relationRepositoryMock.findByIdAndMunicipalityId(any(), any())).thenReturn(Optional.of(entity));
 
 		service.deleteRelation(MUNICIPALITY_ID, id);
 
+		verify(changeLogMock).recordWithInverse(RelationChangeType.DELETED, List.of(entity));
 		verify(relationRepositoryMock).delete(same(entity));
-		verifyNoMoreInteractions(relationRepositoryMock);
+		verify(resourceIdentifierResolverMock).removeUnreferenced(same(source), same(target));
+		verify(adjacencyIndexMock).remove(same(entity));
+		verifyNoMoreInteractions(relationRepositoryMock, changeLogMock, resourceIdentifierResolverMock);
 		verifyNoInteractions(mapperMock);
 	}
 
+	@Test
+	void deleteRelations() {
+		final var source = ResourceIdentifierEntity.builder().withId("sourceId").build();
+		final var target = ResourceIdentifierEntity.builder().withId("targetId").build();
+		final var entity = RelationEntity.builder().withId("id").withSource(source).withTarget(target).build();
+		final var inverseEntity = RelationEntity.builder().withId("inverseId").withSource(target).withTarget(source).build();
+
+		when(resourceIdentifierResolverMock.find(any(), any(), any(), any())).thenReturn(List.of(source));
+		when(relationRepositoryMock.findBySourceOrTargetIn(any(), any())).thenReturn(List.of(entity, inverseEntity));
+		when(relationRepositoryMock.deleteByIdIn(any())).thenReturn(2);
+
+		final var result = service.deleteRelations(MUNICIPALITY_ID, "service", "type", "resourceId");
+
+		assertThat(result.getDeleted()).isEqualTo(2);
+		verify(resourceIdentifierResolverMock).find(MUNICIPALITY_ID, "service", "type", "resourceId");
+		verify(relationRepositoryMock).findBySourceOrTargetIn(MUNICIPALITY_ID, List.of(source));
+		verify(changeLogMock).record(RelationChangeType.DELETED, List.of(entity, inverseEntity));
+		verify(adjacencyIndexMock).remove(same(entity));
+		verify(adjacencyIndexMock).remove(same(inverseEntity));
+		verify(relationRepositoryMock).deleteByIdIn(List.of("id", "inverseId"));
+		verify(resourceIdentifierResolverMock).removeUnreferenced(same(source), same(target), same(target), same(source));
+		verifyNoMoreInteractions(relationRepositoryMock, changeLogMock, resourceIdentifierResolverMock);
+		assertThat(meterRegistry.get(ServiceMetrics.OPERATION_TIMER).tags("operation", "delete_relations", "outcome", "deleted").timer().count()).isOne();
+	}
+
+	@Test
+	void deleteRelationsOfUnknownResource() {
+		final var result = service.deleteRelations(MUNICIPALITY_ID, "service", "type", "resourceId");
+
+		assertThat(result.getDeleted()).isZero();
+		verify(resourceIdentifierResolverMock).find(MUNICIPALITY_ID, "service", "type", "resourceId");
+		verifyNoInteractions(relationRepositoryMock, changeLogMock, adjacencyIndexMock);
+		verifyNoMoreInteractions(resourceIdentifierResolverMock);
+	}
+
 	@Test
 	void deleteRelationNotFound() {
 		final var id = "id";
@@ -308,6 +834,7 @@ class RelationServiceTest {
 		verify(relationRepositoryMock).findByIdAndMunicipalityId(id, MUNICIPALITY_ID);
 		verifyNoInteractions(mapperMock);
 		verifyNoMoreInteractions(relationRepositoryMock);
+		assertThat(meterRegistry.get(ServiceMetrics.OPERATION_TIMER).tags("operation", "delete_relation", "outcome", "not_found").timer().count()).isOne();
 	}
 
 	@Test
@@ -327,6 +854,26 @@ class RelationServiceTest {
 		verifyNoMoreInteractions(relationRepositoryMock, mapperMock);
 	}
 
+	@Test
+	void getRelations() {
+		final var entity1 = RelationEntity.builder().withId("id1").build();
+		final var entity3 = RelationEntity.builder().withId("id3").build();
+		final var relation1 = Relation.builder().withId("id1").build();
+		final var relation3 = Relation.builder().withId("id3").build();
+
+		when(relationRepositoryMock.findByMunicipalityIdAndIdIn(any(), any())).thenReturn(List.of(entity3, entity1));
+		when(mapperMock.toRelation(same(entity1))).thenReturn(relation1);
+		when(mapperMock.toRelation(same(entity3))).thenReturn(relation3);
+
+		final var result = service.getRelations(MUNICIPALITY_ID, List.of("id1", "id2", "id1", "id3"));
+
+		verify(relationRepositoryMock).findByMunicipalityIdAndIdIn(MUNICIPALITY_ID, List.of("id1", "id2", "id3"));
+		verify(mapperMock, times(2)).toRelation(any());
+		verifyNoMoreInteractions(relationRepositoryMock, mapperMock);
+		assertThat(result.getRelations()).containsExactly(relation1, relation3);
+		assertThat(result.getMissingIds()).containsExactly("id2");
+	}
+
 	@Test
 	void getRelationNotFound() {
 		final var id = "id";
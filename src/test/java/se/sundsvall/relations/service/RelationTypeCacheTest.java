@@ -0,0 +1,79 @@
+package se.sundsvall.relations.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import se.sundsvall.dept44.problem.Problem;
+import se.sundsvall.relations.api.model.Relation;
+import se.sundsvall.relations.integration.db.RelationTypeRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static se.sundsvall.relations.api.RelationTestUtil.createRelationInstance;
+import static se.sundsvall.relations.integration.db.RelationTypeRepository.RELATION_TYPES_CACHE;
+
+/**
+ * Runs the service with the relation types cached, as in production. The other tests disable caching.
+ */
+@SpringBootTest(properties = "spring.cache.type=caffeine")
+@ActiveProfiles("junit")
+@Sql(scripts = {
+	"/db/scripts/truncate.sql",
+	"/db/scripts/testdata-junit.sql"
+})
+class RelationTypeCacheTest {
+
+	private static final String MUNICIPALITY_ID = "2281";
+
+	@Autowired
+	private RelationService service;
+
+	@Autowired
+	private RelationTypeRepository relationTypeRepository;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void createAndReplaceWithCachedType() {
+		cacheManager.getCache(RELATION_TYPES_CACHE).clear();
+		relationTypeRepository.findByName("type-3");
+
+		final var id = service.createRelation(MUNICIPALITY_ID, relation(null));
+		final var replaced = service.saveRelation(MUNICIPALITY_ID, relation(id), null);
+
+		assertThat(replaced.getType()).isEqualTo("type-3");
+		assertThat(jdbcTemplate.queryForList("SELECT type_id FROM relation WHERE id = ? OR inverse_relation_id = ? ORDER BY type_id", String.class, id, id))
+			.containsExactly("rt5", "rt6");
+	}
+
+	@Test
+	void createWithTypeRemovedElsewhere() {
+		relationTypeRepository.findByName("type-3");
+		jdbcTemplate.update("UPDATE relation_type SET counter_type_id = NULL WHERE id IN ('rt5', 'rt6')");
+		jdbcTemplate.update("DELETE FROM relation_type WHERE id IN ('rt5', 'rt6')");
+
+		assertThatThrownBy(() -> service.createRelation(MUNICIPALITY_ID, relation(null)))
+			.isInstanceOf(Problem.class)
+			.hasMessage("Bad Request: A relation type used by the request has been removed");
+
+		assertThat(cacheManager.getCache(RELATION_TYPES_CACHE).get("type-3")).isNull();
+		assertThatThrownBy(() -> service.createRelation(MUNICIPALITY_ID, relation(null)))
+			.isInstanceOf(Problem.class)
+			.hasMessage("Bad Request: 'type-3' is not a valid type");
+	}
+
+	private static Relation relation(final String id) {
+		final var relation = createRelationInstance();
+		relation.setId(id);
+		relation.setType("type-3");
+		return relation;
+	}
+}
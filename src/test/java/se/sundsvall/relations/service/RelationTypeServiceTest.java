@@ -1,5 +1,6 @@
 package se.sundsvall.relations.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.Test;
@@ -7,7 +8,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import se.sundsvall.dept44.problem.ThrowableProblem;
 import se.sundsvall.relations.api.model.RelationType;
 import se.sundsvall.relations.integration.db.RelationRepository;
@@ -22,10 +26,12 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.PRECONDITION_FAILED;
 
 @ExtendWith(MockitoExtension.class)
 class RelationTypeServiceTest {
@@ -45,9 +51,46 @@ class RelationTypeServiceTest {
 	@Mock
 	private RelationTypeMapper mapperMock;
 
+	@Mock
+	private CacheManager cacheManagerMock;
+
+	@Mock
+	private Cache cacheMock;
+
+	@Mock
+	private RelationAdjacencyIndex adjacencyIndexMock;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Spy
+	private ServiceMetrics metrics = new ServiceMetrics(meterRegistry);
+
 	@InjectMocks
 	private RelationTypeService relationTypeService;
 
+	@Test
+	void warmUpCache_shouldPutAllTypesInCache() {
+		final var type = RelationTypeEntity.builder().withName(TYPE_NAME).build();
+		final var counterType = RelationTypeEntity.builder().withName(COUNTER_TYPE_NAME).withCounterType(type).build();
+		type.setCounterType(counterType);
+
+		when(cacheManagerMock.getCache("relationTypes")).thenReturn(cacheMock);
+		when(relationTypeRepositoryMock.findAll()).thenReturn(List.of(type, counterType));
+
+		relationTypeService.warmUpCache();
+
+		verify(cacheMock).put(TYPE_NAME, type);
+		verify(cacheMock).put(COUNTER_TYPE_NAME, counterType);
+	}
+
+	@Test
+	void warmUpCache_shouldDoNothingWhenCacheIsMissing() {
+		relationTypeService.warmUpCache();
+
+		verify(cacheManagerMock).getCache("relationTypes");
+		verifyNoInteractions(relationTypeRepositoryMock, cacheMock);
+	}
+
 	@Test
 	void createType_shouldReturnNameOnSuccess() {
 		final var relationType = RelationType.builder().withName(TYPE_NAME).withCounterName(COUNTER_TYPE_NAME).build();
@@ -65,6 +108,9 @@ class RelationTypeServiceTest {
 		verify(relationTypeRepositoryMock).existsByName(same(COUNTER_TYPE_NAME));
 		verify(relationTypeRepositoryMock).save(same(entity));
 		verify(mapperMock).toRelationTypeEntity(same(relationType));
+		assertThat(meterRegistry.get(ServiceMetrics.OPERATION_TIMER)
+			.tags("operation", "create_type", "municipality", "none", "type", TYPE_NAME, "outcome", "created")
+			.timer().count()).isOne();
 	}
 
 	@Test
@@ -78,6 +124,7 @@ class RelationTypeServiceTest {
 		verify(relationTypeRepositoryMock, never()).existsByName(anyString());
 		verify(relationTypeRepositoryMock, never()).save(any());
 		verify(mapperMock, never()).toRelationTypeEntity(any());
+		assertThat(meterRegistry.get(ServiceMetrics.OPERATION_TIMER).tags("operation", "create_type", "outcome", "conflict").timer().count()).isOne();
 	}
 
 	@Test
@@ -154,7 +201,8 @@ class RelationTypeServiceTest {
 
 		final var result = relationTypeService.getAllTypes();
 
-		assertThat(result).containsAll(relationTypeList);
+		assertThat(result.types()).containsExactlyElementsOf(relationTypeList);
+		assertThat(result.etag()).isEqualTo(ETags.of(relationTypeList));
 		verify(relationTypeRepositoryMock).findAll();
 		verify(mapperMock).toRelationType(same(entityList.get(0)));
 		verify(mapperMock).toRelationType(same(entityList.get(1)));
@@ -201,7 +249,7 @@ class RelationTypeServiceTest {
 
 		final var argumentCaptor = ArgumentCaptor.forClass(RelationTypeEntity.class);
 
-		final var result = relationTypeService.saveRelationType(TYPE_NAME, relationTypeToSave);
+		final var result = relationTypeService.saveRelationType(TYPE_NAME, relationTypeToSave, null);
 
 		assertEquals(updatedRelationType, result);
 		verify(relationTypeRepositoryMock).findByName(same(TYPE_NAME));
@@ -210,6 +258,7 @@ class RelationTypeServiceTest {
 		verify(mapperMock).toRelationTypeEntity(same(relationTypeToSave));
 		verify(relationTypeRepositoryMock).save(argumentCaptor.capture());
 		verify(mapperMock).toRelationType(same(updatedEntity));
+		verify(adjacencyIndexMock).updateType(same(updatedEntity));
 
 		final var capturedEntity = argumentCaptor.getValue();
 		assertEquals(ID, capturedEntity.getId());
@@ -217,13 +266,31 @@ class RelationTypeServiceTest {
 
 	}
 
+	@Test
+	void saveRelationType_shouldThrowPreconditionFailedOnOutdatedETag() {
+		final var existingEntity = RelationTypeEntity.builder().withId(ID).withName(TYPE_NAME).build();
+		final var relationTypeToSave = RelationType.builder().withName(OTHER_TYPE_NAME).build();
+
+		when(relationTypeRepositoryMock.findByName(anyString())).thenReturn(Optional.of(existingEntity));
+		when(mapperMock.toRelationType(any())).thenReturn(RelationType.builder().withName(TYPE_NAME).build());
+
+		final var exception = assertThrows(ThrowableProblem.class, () -> relationTypeService.saveRelationType(TYPE_NAME, relationTypeToSave, "\"outdated\""));
+
+		assertEquals(PRECONDITION_FAILED, exception.getStatus());
+		assertEquals("Precondition Failed: Relation type with type 'TYPE_NAME' has been modified", exception.getMessage());
+		verify(relationTypeRepositoryMock).findByName(same(TYPE_NAME));
+		verify(mapperMock).toRelationType(same(existingEntity));
+		verify(relationTypeRepositoryMock, never()).save(any());
+		verifyNoInteractions(adjacencyIndexMock);
+	}
+
 	@Test
 	void saveRelationType_shouldThrowNotFoundIfNotExists() {
 		final var relationTypeToSave = RelationType.builder().withName(OTHER_TYPE_NAME).build();
 
 		when(relationTypeRepositoryMock.findByName(anyString())).thenReturn(Optional.empty());
 
-		final var exception = assertThrows(ThrowableProblem.class, () -> relationTypeService.saveRelationType(TYPE_NAME, relationTypeToSave));
+		final var exception = assertThrows(ThrowableProblem.class, () -> relationTypeService.saveRelationType(TYPE_NAME, relationTypeToSave, null));
 
 		assertEquals(NOT_FOUND, exception.getStatus());
 		assertEquals("Not Found: Relation type with type 'TYPE_NAME' not found", exception.getMessage());
@@ -242,7 +309,7 @@ class RelationTypeServiceTest {
 		when(relationTypeRepositoryMock.findByName(anyString())).thenReturn(Optional.of(existingEntity));
 		when(relationTypeRepositoryMock.existsByName(OTHER_TYPE_NAME)).thenReturn(true);
 
-		final var exception = assertThrows(ThrowableProblem.class, () -> relationTypeService.saveRelationType(TYPE_NAME, relationTypeToSave));
+		final var exception = assertThrows(ThrowableProblem.class, () -> relationTypeService.saveRelationType(TYPE_NAME, relationTypeToSave, null));
 
 		assertEquals(CONFLICT, exception.getStatus());
 		assertEquals("Conflict: Value 'OTHER_TYPE_NAME' already exists as a type or counter type.", exception.getMessage());
@@ -263,7 +330,7 @@ class RelationTypeServiceTest {
 		when(relationTypeRepositoryMock.existsByName(OTHER_TYPE_NAME)).thenReturn(false);
 		when(relationTypeRepositoryMock.existsByName(OTHER_COUNTER_TYPE_NAME)).thenReturn(true);
 
-		final var exception = assertThrows(ThrowableProblem.class, () -> relationTypeService.saveRelationType(TYPE_NAME, relationTypeToSave));
+		final var exception = assertThrows(ThrowableProblem.class, () -> relationTypeService.saveRelationType(TYPE_NAME, relationTypeToSave, null));
 
 		assertEquals(CONFLICT, exception.getStatus());
 		assertEquals("Conflict: Value 'OTHER_COUNTER_TYPE_NAME' already exists as a type or counter type.", exception.getMessage());
@@ -281,7 +348,7 @@ class RelationTypeServiceTest {
 
 		when(relationTypeRepositoryMock.findByName(anyString())).thenReturn(Optional.of(existingEntity));
 
-		final var exception = assertThrows(ThrowableProblem.class, () -> relationTypeService.saveRelationType(TYPE_NAME, relationTypeToSave));
+		final var exception = assertThrows(ThrowableProblem.class, () -> relationTypeService.saveRelationType(TYPE_NAME, relationTypeToSave, null));
 
 		assertEquals(CONFLICT, exception.getStatus());
 		assertEquals("Conflict: Type and counter type cannot be the same: 'OTHER_TYPE_NAME'", exception.getMessage());
@@ -311,7 +378,7 @@ class RelationTypeServiceTest {
 		when(mapperMock.toRelationTypeEntity(any())).thenReturn(updatedEntity);
 		when(relationRepositoryMock.existsByType(any())).thenReturn(true);
 
-		final var exception = assertThrows(ThrowableProblem.class, () -> relationTypeService.saveRelationType(TYPE_NAME, relationTypeToSave));
+		final var exception = assertThrows(ThrowableProblem.class, () -> relationTypeService.saveRelationType(TYPE_NAME, relationTypeToSave, null));
 
 		assertEquals(CONFLICT, exception.getStatus());
 		assertEquals("Conflict: Type 'USED' is used by one or many Relations", exception.getMessage());
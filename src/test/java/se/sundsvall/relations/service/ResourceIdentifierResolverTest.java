@@ -0,0 +1,162 @@
+package se.sundsvall.relations.service;
+
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import se.sundsvall.relations.integration.db.ResourceIdentifierRepository;
+import se.sundsvall.relations.integration.db.model.RelationEntity;
+import se.sundsvall.relations.integration.db.model.ResourceIdentifierEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ResourceIdentifierResolverTest {
+
+	private static final String MUNICIPALITY_ID = "2281";
+
+	@Mock
+	private ResourceIdentifierRepository resourceIdentifierRepositoryMock;
+
+	@Captor
+	private ArgumentCaptor<ResourceIdentifierEntity> identifierCaptor;
+
+	@InjectMocks
+	private ResourceIdentifierResolver resolver;
+
+	@Test
+	void resolveReusesStoredAndInsertsMissingIdentifiers() {
+		final var stored = stored("id-1", "resource-1");
+		final var inserted = stored("id-2", "resource-2");
+		final var relation = relation(identifier(null, "resource-1"), identifier(null, "resource-2"));
+		when(resourceIdentifierRepositoryMock.findWithLockByResourceKeyIn(Stream.of(keyOf("resource-1"), keyOf("resource-2")).sorted().toList())).thenReturn(List.of(stored));
+		when(resourceIdentifierRepositoryMock.findWithLockByResourceKeyIn(List.of(keyOf("resource-2")))).thenReturn(List.of(inserted));
+
+		resolver.resolve(MUNICIPALITY_ID, List.of(relation));
+
+		assertThat(relation.getSource()).isSameAs(stored);
+		assertThat(relation.getTarget()).isSameAs(inserted);
+		verify(resourceIdentifierRepositoryMock).insertIfAbsent(identifierCaptor.capture());
+		assertThat(identifierCaptor.getValue().getId()).isNotNull();
+		assertThat(identifierCaptor.getValue()).extracting(ResourceIdentifierEntity::getMunicipalityId, ResourceIdentifierEntity::getResourceKey, ResourceIdentifierEntity::getResourceId)
+			.containsExactly(MUNICIPALITY_ID, keyOf("resource-2"), "resource-2");
+	}
+
+	@Test
+	void resolveReadsBackIdentifiersInsertedConcurrently() {
+		final var concurrent = stored("id-1", "resource-1");
+		final var relation = relation(identifier(null, "resource-1"), identifier(null, "resource-1"));
+		when(resourceIdentifierRepositoryMock.findWithLockByResourceKeyIn(List.of(keyOf("resource-1")))).thenReturn(List.of(), List.of(concurrent));
+
+		resolver.resolve(MUNICIPALITY_ID, List.of(relation));
+
+		assertThat(relation.getSource()).isSameAs(concurrent);
+		assertThat(relation.getTarget()).isSameAs(concurrent);
+		verify(resourceIdentifierRepositoryMock).insertIfAbsent(any());
+	}
+
+	@Test
+	void resolveSharesNewIdentifiersWithinBatch() {
+		final var first = relation(identifier(null, "resource-1"), identifier(null, "resource-2"));
+		final var second = relation(identifier(null, "resource-2"), identifier(null, "resource-3"));
+		when(resourceIdentifierRepositoryMock.findWithLockByResourceKeyIn(any()))
+			.thenReturn(List.of(), List.of(stored("id-1", "resource-1"), stored("id-2", "resource-2"), stored("id-3", "resource-3")));
+
+		resolver.resolve(MUNICIPALITY_ID, List.of(first, second));
+
+		assertThat(second.getSource()).isSameAs(first.getTarget());
+		assertThat(second.getTarget()).isNotSameAs(first.getTarget());
+		assertThat(Stream.of(first.getSource(), first.getTarget(), second.getTarget())).extracting(ResourceIdentifierEntity::getId).containsExactly("id-1", "id-2", "id-3");
+		verify(resourceIdentifierRepositoryMock, times(3)).insertIfAbsent(identifierCaptor.capture());
+		assertThat(identifierCaptor.getAllValues()).extracting(ResourceIdentifierEntity::getResourceKey).isSorted();
+	}
+
+	@Test
+	void resolvePointsInverseAtResolvedIdentifiers() {
+		final var stored = stored("id-1", "resource-1");
+		final var storedTarget = stored("id-2", "resource-2");
+		final var relation = relation(identifier(null, "resource-1"), identifier(null, "resource-2"));
+		final var inverse = relation(relation.getTarget(), relation.getSource());
+		relation.setInverseRelation(inverse);
+		when(resourceIdentifierRepositoryMock.findWithLockByResourceKeyIn(any())).thenReturn(List.of(stored, storedTarget));
+
+		resolver.resolve(MUNICIPALITY_ID, List.of(relation));
+
+		assertThat(inverse.getSource()).isSameAs(storedTarget);
+		assertThat(inverse.getTarget()).isSameAs(stored);
+		verify(resourceIdentifierRepositoryMock, never()).insertIfAbsent(any());
+	}
+
+	@Test
+	void resolveWithoutRelations() {
+		resolver.resolve(MUNICIPALITY_ID, List.of());
+
+		verifyNoInteractions(resourceIdentifierRepositoryMock);
+	}
+
+	@Test
+	void findMatchesExactly() {
+		final var matching = identifier("id-1", "resource-1");
+		final var otherCase = identifier("id-2", "Resource-1");
+		final var otherService = ResourceIdentifierEntity.builder().withId("id-3").withResourceId("resource-1").withService("other").withType("type").build();
+		when(resourceIdentifierRepositoryMock.findByMunicipalityIdAndResourceIdIn(MUNICIPALITY_ID, List.of("resource-1"))).thenReturn(List.of(matching, otherCase, otherService));
+
+		assertThat(resolver.find(MUNICIPALITY_ID, "service", "type", "resource-1")).containsExactly(matching);
+	}
+
+	@Test
+	void removeUnreferenced() {
+		resolver.removeUnreferenced(identifier("id-2", "resource-2"), null, identifier(null, "resource-3"), identifier("id-1", "resource-1"), identifier("id-2", "resource-2"));
+
+		final var inOrder = inOrder(resourceIdentifierRepositoryMock);
+		inOrder.verify(resourceIdentifierRepositoryMock).findWithLockByIdIn(List.of("id-1", "id-2"));
+		inOrder.verify(resourceIdentifierRepositoryMock).deleteUnreferenced(List.of("id-1", "id-2"));
+	}
+
+	@Test
+	void removeUnreferencedWithoutStoredIdentifiers() {
+		resolver.removeUnreferenced(null, identifier(null, "resource-1"));
+
+		verifyNoInteractions(resourceIdentifierRepositoryMock);
+	}
+
+	private static ResourceIdentifierEntity identifier(final String id, final String resourceId) {
+		return ResourceIdentifierEntity.builder()
+			.withId(id)
+			.withMunicipalityId(MUNICIPALITY_ID)
+			.withResourceId(resourceId)
+			.withService("service")
+			.withType("type")
+			.build();
+	}
+
+	private static ResourceIdentifierEntity stored(final String id, final String resourceId) {
+		final var identifier = identifier(id, resourceId);
+		identifier.setResourceKey(keyOf(resourceId));
+		return identifier;
+	}
+
+	private static String keyOf(final String resourceId) {
+		return ResourceIdentifierEntity.resourceKey(MUNICIPALITY_ID, "service", "type", null, resourceId);
+	}
+
+	private static RelationEntity relation(final ResourceIdentifierEntity source, final ResourceIdentifierEntity target) {
+		return RelationEntity.builder()
+			.withMunicipalityId(MUNICIPALITY_ID)
+			.withSource(source)
+			.withTarget(target)
+			.build();
+	}
+}
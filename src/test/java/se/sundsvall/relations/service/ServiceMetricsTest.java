@@ -0,0 +1,119 @@
+package se.sundsvall.relations.service;
+
+import com.turkraft.springfilter.converter.FilterSpecification;
+import com.turkraft.springfilter.language.AndOperator;
+import com.turkraft.springfilter.language.EqualOperator;
+import com.turkraft.springfilter.parser.node.FieldNode;
+import com.turkraft.springfilter.parser.node.InfixOperationNode;
+import com.turkraft.springfilter.parser.node.InputNode;
+import com.turkraft.springfilter.parser.node.PriorityNode;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.jpa.domain.Specification;
+import se.sundsvall.dept44.problem.Problem;
+import se.sundsvall.relations.integration.db.model.RelationEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CONFLICT;
+import static org.springframework.http.HttpStatus.PRECONDITION_FAILED;
+import static se.sundsvall.relations.service.ServiceMetrics.OPERATION_TIMER;
+import static se.sundsvall.relations.service.ServiceMetrics.OUTCOME_INVALID_CURSOR;
+import static se.sundsvall.relations.service.ServiceMetrics.OUTCOME_INVALID_TYPE;
+import static se.sundsvall.relations.service.ServiceMetrics.OUTCOME_REMOVED_TYPE;
+import static se.sundsvall.relations.service.ServiceMetrics.Operation.CREATE_RELATION;
+import static se.sundsvall.relations.service.ServiceMetrics.Operation.FIND_RELATIONS;
+import static se.sundsvall.relations.service.ServiceMetrics.Operation.SAVE_RELATION;
+import static se.sundsvall.relations.service.ServiceMetrics.Operation.SAVE_TYPE;
+import static se.sundsvall.relations.service.ServiceMetrics.withOutcome;
+
+@ExtendWith(MockitoExtension.class)
+class ServiceMetricsTest {
+
+	@Mock
+	private FilterSpecification<RelationEntity> filterSpecificationMock;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final ServiceMetrics metrics = new ServiceMetrics(meterRegistry);
+
+	@Test
+	void recordSuccess() {
+		final var result = metrics.record(CREATE_RELATION, "2281", "PARENT", () -> "id");
+
+		assertThat(result).isEqualTo("id");
+		assertThat(meterRegistry.get(OPERATION_TIMER)
+			.tags("operation", "create_relation", "municipality", "2281", "type", "PARENT", "filter", "none", "outcome", "created")
+			.timer().count()).isOne();
+	}
+
+	@Test
+	void recordProblems() {
+		assertThatThrownBy(() -> metrics.record(CREATE_RELATION, "2281", "UNKNOWN", () -> {
+			throw withOutcome(OUTCOME_INVALID_TYPE, Problem.valueOf(BAD_REQUEST, "invalid type"));
+		})).isInstanceOf(Problem.class);
+		assertThatThrownBy(() -> metrics.record(CREATE_RELATION, "2281", "PARENT", () -> {
+			throw withOutcome(OUTCOME_REMOVED_TYPE, Problem.valueOf(BAD_REQUEST, "removed type"));
+		})).isInstanceOf(Problem.class);
+		assertThatThrownBy(() -> metrics.record(FIND_RELATIONS, "2281", null, null, () -> {
+			throw withOutcome(OUTCOME_INVALID_CURSOR, Problem.valueOf(BAD_REQUEST, "invalid cursor"));
+		})).isInstanceOf(Problem.class);
+		assertThatThrownBy(() -> metrics.record(FIND_RELATIONS, "2281", null, null, () -> {
+			throw Problem.valueOf(BAD_REQUEST, "other");
+		})).isInstanceOf(Problem.class);
+		assertThatThrownBy(() -> metrics.record(SAVE_RELATION, "2281", "PARENT", () -> {
+			throw Problem.valueOf(PRECONDITION_FAILED, "modified");
+		})).isInstanceOf(Problem.class);
+		assertThatThrownBy(() -> metrics.record(SAVE_TYPE, null, "PARENT", () -> {
+			throw Problem.valueOf(CONFLICT, "exists");
+		})).isInstanceOf(Problem.class);
+		assertThatThrownBy(() -> metrics.record(SAVE_TYPE, null, "PARENT", () -> {
+			throw new IllegalStateException();
+		})).isInstanceOf(IllegalStateException.class);
+
+		assertThat(meterRegistry.get(OPERATION_TIMER).tags("operation", "create_relation", "type", "UNKNOWN", "outcome", "invalid_type").timer().count()).isOne();
+		assertThat(meterRegistry.get(OPERATION_TIMER).tags("operation", "create_relation", "type", "PARENT", "outcome", "removed_type").timer().count()).isOne();
+		assertThat(meterRegistry.get(OPERATION_TIMER).tags("operation", "find_relations", "type", "none", "outcome", "invalid_cursor").timer().count()).isOne();
+		assertThat(meterRegistry.get(OPERATION_TIMER).tags("operation", "find_relations", "type", "none", "outcome", "bad_request").timer().count()).isOne();
+		assertThat(meterRegistry.get(OPERATION_TIMER).tags("operation", "save_relation", "outcome", "precondition_failed").timer().count()).isOne();
+		assertThat(meterRegistry.get(OPERATION_TIMER).tags("operation", "save_type", "municipality", "none", "outcome", "conflict").timer().count()).isOne();
+		assertThat(meterRegistry.get(OPERATION_TIMER).tags("operation", "save_type", "outcome", "error").timer().count()).isOne();
+	}
+
+	@Test
+	void recordFoundRows() {
+		metrics.recordFoundRows("2281", 20);
+		metrics.recordFoundRows("2281", 5);
+
+		final var summary = meterRegistry.get(ServiceMetrics.FIND_ROWS_SUMMARY).tags("municipality", "2281").summary();
+		assertThat(summary.count()).isEqualTo(2);
+		assertThat(summary.totalAmount()).isEqualTo(25);
+		assertThat(summary.getId().getTag("filter")).isNull();
+		assertThat(summary.takeSnapshot().histogramCounts()).extracting(CountAtBucket::bucket).containsExactly(1.0, 10.0, 50.0, 100.0, 500.0, 1000.0);
+	}
+
+	@Test
+	void filterShape() {
+		final var bySource = new InfixOperationNode(new FieldNode("source.resourceId"), new EqualOperator(), new InputNode("1"));
+		final var byType = new InfixOperationNode(new FieldNode("type.name"), new EqualOperator(), new InputNode("PARENT"));
+		when(filterSpecificationMock.getFilter()).thenReturn(new InfixOperationNode(new PriorityNode(byType), new AndOperator(), bySource));
+
+		assertThat(ServiceMetrics.filterShape(filterSpecificationMock)).isEqualTo("source.resourceId,type.name");
+		assertThat(ServiceMetrics.filterShape(null)).isEqualTo("none");
+		assertThat(ServiceMetrics.filterShape(Specification.unrestricted())).isEqualTo("custom");
+	}
+
+	@Test
+	void typeTagValuesAreBounded() {
+		IntStream.rangeClosed(0, ServiceMetrics.MAX_TAG_VALUES).forEach(i -> metrics.record(CREATE_RELATION, "2281", "TYPE_" + i, () -> "id"));
+
+		assertThat(meterRegistry.find(OPERATION_TIMER).timers()).hasSize(ServiceMetrics.MAX_TAG_VALUES + 1);
+		assertThat(meterRegistry.get(OPERATION_TIMER).tag("type", "other").timer().count()).isOne();
+	}
+}
@@ -0,0 +1,32 @@
+package se.sundsvall.relations.service;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import se.sundsvall.relations.service.SlowFilterMonitor.SlowFilter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SlowFilterEndpointTest {
+
+	@Mock
+	private SlowFilterMonitor slowFilterMonitorMock;
+
+	@InjectMocks
+	private SlowFilterEndpoint endpoint;
+
+	@Test
+	void slowFilters() {
+		final var slowest = List.of(new SlowFilter("type.name : ?", "type.name : 'PARENT'", "2281", List.of("select 1"), Duration.ofSeconds(2), OffsetDateTime.now()));
+		when(slowFilterMonitorMock.getSlowest()).thenReturn(slowest);
+
+		assertThat(endpoint.slowFilters()).isSameAs(slowest);
+	}
+}
@@ -0,0 +1,111 @@
+package se.sundsvall.relations.service;
+
+import com.turkraft.springfilter.converter.FilterSpecification;
+import com.turkraft.springfilter.converter.FilterStringConverter;
+import com.turkraft.springfilter.language.AndOperator;
+import com.turkraft.springfilter.language.EqualOperator;
+import com.turkraft.springfilter.language.InOperator;
+import com.turkraft.springfilter.language.IsNullOperator;
+import com.turkraft.springfilter.language.NotOperator;
+import com.turkraft.springfilter.parser.node.CollectionNode;
+import com.turkraft.springfilter.parser.node.FieldNode;
+import com.turkraft.springfilter.parser.node.InfixOperationNode;
+import com.turkraft.springfilter.parser.node.InputNode;
+import com.turkraft.springfilter.parser.node.PostfixOperationNode;
+import com.turkraft.springfilter.parser.node.PrefixOperationNode;
+import com.turkraft.springfilter.parser.node.PriorityNode;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.jpa.domain.Specification;
+import se.sundsvall.relations.integration.db.SqlCaptureStatementInspector;
+import se.sundsvall.relations.integration.db.model.RelationEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SlowFilterMonitorTest {
+
+	private static final String MUNICIPALITY_ID = "2281";
+
+	@Mock
+	private FilterStringConverter filterStringConverterMock;
+
+	@Mock
+	private FilterSpecification<RelationEntity> filterSpecificationMock;
+
+	@Test
+	void timeCapturesSql() {
+		final var monitor = new SlowFilterMonitor(filterStringConverterMock, Duration.ZERO, Duration.ofMinutes(1), 10);
+		final var filter = new InfixOperationNode(new FieldNode("type.name"), new EqualOperator(), new InputNode("PARENT"));
+		when(filterSpecificationMock.getFilter()).thenReturn(filter);
+		when(filterStringConverterMock.convert(filter)).thenReturn("type.name : 'PARENT'");
+
+		final var result = monitor.time(MUNICIPALITY_ID, filterSpecificationMock, () -> {
+			new SqlCaptureStatementInspector().inspect("select r1_0.id from relation r1_0 where r1_0.type_id=?");
+			return "result";
+		});
+
+		assertThat(result).isEqualTo("result");
+		assertThat(monitor.getSlowest()).singleElement().satisfies(slowFilter -> {
+			assertThat(slowFilter.shape()).isEqualTo("type.name : ?");
+			assertThat(slowFilter.filter()).isEqualTo("type.name : 'PARENT'");
+			assertThat(slowFilter.municipalityId()).isEqualTo(MUNICIPALITY_ID);
+			assertThat(slowFilter.sql()).containsExactly("select r1_0.id from relation r1_0 where r1_0.type_id=?");
+			assertThat(slowFilter.occurred()).isNotNull();
+		});
+		// Statements outside of a capture are not kept
+		assertThat(SqlCaptureStatementInspector.stopCapture()).isEmpty();
+	}
+
+	@Test
+	void keepsSlowestExecutionOfSlowestShapes() {
+		final var monitor = new SlowFilterMonitor(filterStringConverterMock, Duration.ofHours(1), Duration.ofMinutes(1), 2);
+
+		monitor.record(MUNICIPALITY_ID, null, List.of("a"), 100);
+		monitor.record(MUNICIPALITY_ID, null, List.of("b"), 300);
+		monitor.record(MUNICIPALITY_ID, null, List.of("c"), 200);
+		monitor.record(MUNICIPALITY_ID, Specification.unrestricted(), List.of("d"), 50);
+		monitor.record(MUNICIPALITY_ID, Specification.unrestricted(), List.of("e"), 150);
+		monitor.record(MUNICIPALITY_ID, Specification.unrestricted(), List.of("f"), 250);
+
+		assertThat(monitor.getSlowest())
+			.extracting(SlowFilterMonitor.SlowFilter::shape, SlowFilterMonitor.SlowFilter::sql, SlowFilterMonitor.SlowFilter::duration)
+			.containsExactly(
+				tuple(SlowFilterMonitor.NONE, List.of("b"), Duration.ofNanos(300)),
+				tuple(SlowFilterMonitor.CUSTOM, List.of("f"), Duration.ofNanos(250)));
+		verifyNoInteractions(filterStringConverterMock);
+	}
+
+	@Test
+	void evictsFastestShapeWhenFull() {
+		final var monitor = new SlowFilterMonitor(filterStringConverterMock, Duration.ofHours(1), Duration.ofMinutes(1), 1);
+
+		monitor.record(MUNICIPALITY_ID, null, List.of(), 100);
+		monitor.record(MUNICIPALITY_ID, Specification.unrestricted(), List.of(), 50);
+		assertThat(monitor.getSlowest()).extracting(SlowFilterMonitor.SlowFilter::shape).containsExactly(SlowFilterMonitor.NONE);
+
+		monitor.record(MUNICIPALITY_ID, Specification.unrestricted(), List.of(), 150);
+		assertThat(monitor.getSlowest()).extracting(SlowFilterMonitor.SlowFilter::shape).containsExactly(SlowFilterMonitor.CUSTOM);
+	}
+
+	@Test
+	void normalize() {
+		final var byType = new InfixOperationNode(new FieldNode("type.name"), new EqualOperator(), new InputNode("PARENT"));
+		final var bySource = new InfixOperationNode(new FieldNode("source.resourceId"), new InOperator(), new CollectionNode(List.of(new InputNode("1"), new InputNode("2"))));
+		final var withoutModified = new PostfixOperationNode(new FieldNode("modified"), new IsNullOperator());
+		when(filterSpecificationMock.getFilter()).thenReturn(new InfixOperationNode(
+			new InfixOperationNode(byType, new AndOperator(), new PrefixOperationNode(new NotOperator(), new PriorityNode(bySource))),
+			new AndOperator(), withoutModified));
+
+		assertThat(SlowFilterMonitor.normalize(filterSpecificationMock)).isEqualTo("type.name : ? and not (source.resourceId in [?]) and modified is null");
+		assertThat(SlowFilterMonitor.normalize(null)).isEqualTo("none");
+		assertThat(SlowFilterMonitor.normalize(Specification.unrestricted())).isEqualTo("custom");
+	}
+}
@@ -11,6 +11,7 @@ import se.sundsvall.relations.integration.db.model.ResourceIdentifierEntity;
 import static java.time.temporal.ChronoUnit.SECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.within;
+import static se.sundsvall.relations.api.model.RelationChangeType.DELETED;
 
 class RelationMapperTest {
 
@@ -59,6 +60,8 @@ class RelationMapperTest {
 		assertThat(entity.getTarget().getService()).isEqualTo(targetService);
 		assertThat(entity.getTarget().getType()).isEqualTo(targetType);
 		assertThat(entity.getTarget().getNamespace()).isEqualTo(targetNamespace);
+		assertThat(entity.getSource().getMunicipalityId()).isEqualTo(municipalityId);
+		assertThat(entity.getTarget().getMunicipalityId()).isEqualTo(municipalityId);
 	}
 
 	@Test
@@ -121,6 +124,81 @@ class RelationMapperTest {
 		assertThat(relation.getTarget().getNamespace()).isEqualTo(targetNamespace);
 	}
 
+	@Test
+	void toRelationNeighbor() {
+		final var entity = RelationEntity.builder()
+			.withId("id")
+			.withType(RelationTypeEntity.builder().withName("typeName").build())
+			.withSource(ResourceIdentifierEntity.builder().withResourceId("sourceResourceId").build())
+			.withTarget(ResourceIdentifierEntity.builder()
+				.withResourceId("targetResourceId")
+				.withService("targetService")
+				.withType("targetType")
+				.withNamespace("targetNamespace")
+				.build())
+			.build();
+
+		final var neighbor = mapper.toRelationNeighbor(entity);
+
+		assertThat(neighbor).hasNoNullFieldsOrProperties();
+		assertThat(neighbor.getRelationId()).isEqualTo("id");
+		assertThat(neighbor.getType()).isEqualTo("typeName");
+		assertThat(neighbor.getTarget()).isEqualTo(ResourceIdentifier.builder()
+			.withResourceId("targetResourceId")
+			.withService("targetService")
+			.withType("targetType")
+			.withNamespace("targetNamespace")
+			.build());
+	}
+
+	@Test
+	void toRelationChangeEntityAndBack() {
+		final var entity = RelationEntity.builder()
+			.withId("id")
+			.withMunicipalityId("municipalityId")
+			.withType(RelationTypeEntity.builder().withName("typeName").build())
+			.withSource(ResourceIdentifierEntity.builder()
+				.withResourceId("sourceResourceId")
+				.withService("sourceService")
+				.withType("sourceType")
+				.withNamespace("sourceNamespace")
+				.build())
+			.withTarget(ResourceIdentifierEntity.builder()
+				.withResourceId("targetResourceId")
+				.withService("targetService")
+				.withType("targetType")
+				.withNamespace("targetNamespace")
+				.build())
+			.build();
+		final var occurred = OffsetDateTime.now();
+
+		final var changeEntity = mapper.toRelationChangeEntity(DELETED, entity);
+		changeEntity.setId(7L);
+		changeEntity.setSequence(42L);
+		changeEntity.setOccurred(occurred);
+		final var change = mapper.toRelationChange(changeEntity);
+
+		assertThat(changeEntity).hasNoNullFieldsOrProperties();
+		assertThat(change).hasNoNullFieldsOrProperties();
+		assertThat(change.getSequence()).isEqualTo(42L);
+		assertThat(change.getChangeType()).isEqualTo(DELETED);
+		assertThat(change.getRelationId()).isEqualTo("id");
+		assertThat(change.getType()).isEqualTo("typeName");
+		assertThat(change.getSource()).isEqualTo(ResourceIdentifier.builder()
+			.withResourceId("sourceResourceId")
+			.withService("sourceService")
+			.withType("sourceType")
+			.withNamespace("sourceNamespace")
+			.build());
+		assertThat(change.getTarget()).isEqualTo(ResourceIdentifier.builder()
+			.withResourceId("targetResourceId")
+			.withService("targetService")
+			.withType("targetType")
+			.withNamespace("targetNamespace")
+			.build());
+		assertThat(change.getOccurred()).isEqualTo(occurred);
+	}
+
 	@Test
 	void toInverseRelationEntity() {
 		final var id = "id";
@@ -215,6 +293,64 @@ class RelationMapperTest {
 		assertThat(inverseEntity.getInverseRelation()).isSameAs(entity);
 	}
 
+	@Test
+	void updateRelationEntityReplacesChangedIdentifiers() {
+		final var municipalityId = "municipalityId";
+		final var counterType = RelationTypeEntity.builder().build();
+		final var relationType = RelationTypeEntity.builder().withCounterType(counterType).build();
+		final var primarySource = ResourceIdentifierEntity.builder()
+			.withId("sourceId")
+			.withMunicipalityId(municipalityId)
+			.withResourceId("sourceResourceId")
+			.withService("service")
+			.withType("type")
+			.build();
+		final var primaryTarget = ResourceIdentifierEntity.builder()
+			.withId("targetId")
+			.withMunicipalityId(municipalityId)
+			.withResourceId("targetResourceId")
+			.withService("service")
+			.withType("type")
+			.build();
+		final var primaryEntity = RelationEntity.builder()
+			.withMunicipalityId(municipalityId)
+			.withType(relationType)
+			.withSource(primarySource)
+			.withTarget(primaryTarget)
+			.build();
+		final var inverseEntity = RelationEntity.builder()
+			.withMunicipalityId(municipalityId)
+			.withType(counterType)
+			.withSource(primaryTarget)
+			.withTarget(primarySource)
+			.withInverseRelation(primaryEntity)
+			.build();
+		primaryEntity.setInverseRelation(inverseEntity);
+		final var relation = Relation.builder()
+			.withSource(ResourceIdentifier.builder()
+				.withResourceId("sourceResourceId")
+				.withService("service")
+				.withType("type")
+				.build())
+			.withTarget(ResourceIdentifier.builder()
+				.withResourceId("TargetResourceId")
+				.withService("service")
+				.withType("type")
+				.build())
+			.build();
+
+		mapper.updateRelationEntity(primaryEntity, relation, relationType);
+
+		assertThat(primaryEntity.getSource()).isSameAs(primarySource);
+		assertThat(primaryEntity.getTarget()).isNotSameAs(primaryTarget);
+		assertThat(primaryEntity.getTarget().getId()).isNull();
+		assertThat(primaryEntity.getTarget().getMunicipalityId()).isEqualTo(municipalityId);
+		assertThat(primaryEntity.getTarget().getResourceId()).isEqualTo("TargetResourceId");
+		assertThat(primaryTarget.getResourceId()).isEqualTo("targetResourceId");
+		assertThat(inverseEntity.getSource()).isSameAs(primaryEntity.getTarget());
+		assertThat(inverseEntity.getTarget()).isSameAs(primarySource);
+	}
+
 	@Test
 	void updateRelationEntityUpdatedType() {
 		final var primaryId = "primaryId";
@@ -1,4 +1,6 @@
 
+    create sequence relation_change_seq start with 1 increment by 50 nocache;
+
     create table relation (
         created datetime(6),
         modified datetime(6),
@@ -11,6 +13,31 @@
         primary key (id)
     ) engine=InnoDB;
 
+    create table relation_change (
+        id bigint not null,
+        occurred datetime(6) not null,
+        sequence bigint,
+        change_type varchar(255) not null,
+        municipality_id varchar(255) not null,
+        relation_id varchar(255) not null,
+        source_namespace varchar(255),
+        source_resource_id varchar(255) not null,
+        source_service varchar(255) not null,
+        source_type varchar(255) not null,
+        target_namespace varchar(255),
+        target_resource_id varchar(255) not null,
+        target_service varchar(255) not null,
+        target_type varchar(255) not null,
+        type varchar(255) not null,
+        primary key (id)
+    ) engine=InnoDB;
+
+    create table relation_change_sequence (
+        id integer not null,
+        last_sequence bigint not null,
+        primary key (id)
+    ) engine=InnoDB;
+
     create table relation_type (
         counter_type_id varchar(255),
         display_name varchar(255),
@@ -22,32 +49,47 @@
     create table resource_identifier (
         modified datetime(6),
         id varchar(255) not null,
+        municipality_id varchar(255) not null,
         namespace varchar(255),
         resource_id varchar(255) not null,
+        resource_key varchar(64) not null,
         service varchar(255) not null,
         type varchar(255) not null,
         primary key (id)
     ) engine=InnoDB;
 
-    alter table if exists relation
-       add constraint uq_relation_resource_source_identifier_id unique (resource_source_identifier_id);
+    create index idx_relation_municipality_id_type_id_created 
+       on relation (municipality_id, type_id, created);
 
-    alter table if exists relation
-       add constraint uq_relation_counter_resource_target_identifier_id unique (resource_target_identifier_id);
+    create index idx_relation_resource_source_identifier_id 
+       on relation (resource_source_identifier_id);
+
+    create index idx_relation_resource_target_identifier_id 
+       on relation (resource_target_identifier_id);
 
     alter table if exists relation
        add constraint uq_relation_inverse_relation_id unique (inverse_relation_id);
 
+    create index idx_relation_change_municipality_id_sequence 
+       on relation_change (municipality_id, sequence);
+
+    create index idx_relation_change_sequence_id 
+       on relation_change (sequence, id);
+
     alter table if exists relation_type
        add constraint uq_relation_type_name unique (name);
 
     alter table if exists relation_type
        add constraint uq_relation_type_counter_type_id unique (counter_type_id);
 
-    alter table if exists relation
-       add constraint fk_relation_inverse_relation_relation
-       foreign key (inverse_relation_id)
-       references relation (id);
+    create index idx_resource_identifier_resource_id_type_service 
+       on resource_identifier (resource_id, type, service);
+
+    create index idx_resource_identifier_municipality_id_resource_id 
+       on resource_identifier (municipality_id, resource_id);
+
+    alter table if exists resource_identifier
+       add constraint uq_resource_identifier_resource_key unique (resource_key);
 
     alter table if exists relation
        add constraint fk_relation_source_resource_identifier
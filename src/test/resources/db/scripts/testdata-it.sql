@@ -13,12 +13,12 @@ UPDATE relation_type SET counter_type_id = '6c52970d-a6f8-4dce-b563-f910632647d5
 UPDATE relation_type SET counter_type_id = '9e7059bc-1f0f-4c39-ad72-f919f819dfa7' WHERE id = '1bdb4dc7-d4a7-4041-bcf2-207a78ad63ca';
 UPDATE relation_type SET counter_type_id = '1bdb4dc7-d4a7-4041-bcf2-207a78ad63ca' WHERE id = '9e7059bc-1f0f-4c39-ad72-f919f819dfa7';
 
-INSERT INTO resource_identifier(id, resource_id, type, service, namespace, modified)
+INSERT INTO resource_identifier(id, municipality_id, resource_key, resource_id, type, service, namespace, modified)
 VALUES
-  (100, 'source_id-1', 'source_type-1', 'source_source-1', 'source_namespace-1', null),
-  (101, 'target_id-1', 'target_type-1', 'target_source-1', 'target_namespace-1', '2025-01-01 14:00:00.000'),
-  (200, 'source_id-2', 'source_type-2', 'source_source-2', 'source_namespace-2', null),
-  (201, 'target_id-2', 'target_type-2', 'target_source-2', 'target_namespace-2', null);
+  (100, '2281', sha2(concat_ws(char(31), '2281', 'source_source-1', 'source_type-1', 'source_namespace-1', 'source_id-1'), 256), 'source_id-1', 'source_type-1', 'source_source-1', 'source_namespace-1', null),
+  (101, '2281', sha2(concat_ws(char(31), '2281', 'target_source-1', 'target_type-1', 'target_namespace-1', 'target_id-1'), 256), 'target_id-1', 'target_type-1', 'target_source-1', 'target_namespace-1', '2025-01-01 14:00:00.000'),
+  (200, '2281', sha2(concat_ws(char(31), '2281', 'source_source-2', 'source_type-2', 'source_namespace-2', 'source_id-2'), 256), 'source_id-2', 'source_type-2', 'source_source-2', 'source_namespace-2', null),
+  (201, '2281', sha2(concat_ws(char(31), '2281', 'target_source-2', 'target_type-2', 'target_namespace-2', 'target_id-2'), 256), 'target_id-2', 'target_type-2', 'target_source-2', 'target_namespace-2', null);
 
 
 INSERT INTO relation(id, municipality_id, type_id, created, modified, resource_source_identifier_id, resource_target_identifier_id)
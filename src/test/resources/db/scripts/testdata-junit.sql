@@ -13,12 +13,12 @@ UPDATE relation_type SET counter_type_id = 'rt3' WHERE id = 'rt4';
 UPDATE relation_type SET counter_type_id = 'rt5' WHERE id = 'rt6';
 UPDATE relation_type SET counter_type_id = 'rt6' WHERE id = 'rt5';
 
-INSERT INTO resource_identifier(id, resource_id, type, service, namespace)
+INSERT INTO resource_identifier(id, municipality_id, resource_key, resource_id, type, service, namespace)
 VALUES
-  (100, 'source_id-1', 'source_type-1', 'source_source-1', 'source_namespace-1'),
-  (101, 'target_id-1', 'target_type-1', 'target_source-1', 'target_namespace-1'),
-  (200, 'source_id-2', 'source_type-2', 'source_source-2', 'source_namespace-2'),
-  (201, 'target_id-2', 'target_type-2', 'target_source-2', 'target_namespace-2');
+  (100, '2281', sha2(concat_ws(char(31), '2281', 'source_source-1', 'source_type-1', 'source_namespace-1', 'source_id-1'), 256), 'source_id-1', 'source_type-1', 'source_source-1', 'source_namespace-1'),
+  (101, '2281', sha2(concat_ws(char(31), '2281', 'target_source-1', 'target_type-1', 'target_namespace-1', 'target_id-1'), 256), 'target_id-1', 'target_type-1', 'target_source-1', 'target_namespace-1'),
+  (200, '2281', sha2(concat_ws(char(31), '2281', 'source_source-2', 'source_type-2', 'source_namespace-2', 'source_id-2'), 256), 'source_id-2', 'source_type-2', 'source_source-2', 'source_namespace-2'),
+  (201, '2281', sha2(concat_ws(char(31), '2281', 'target_source-2', 'target_type-2', 'target_namespace-2', 'target_id-2'), 256), 'target_id-2', 'target_type-2', 'target_source-2', 'target_namespace-2');
 
 INSERT INTO relation(id, municipality_id, type_id, created, modified, resource_source_identifier_id, resource_target_identifier_id)
 VALUES
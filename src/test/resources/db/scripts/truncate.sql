@@ -1,5 +1,7 @@
 SET FOREIGN_KEY_CHECKS = 0;
 TRUNCATE table resource_identifier;
 TRUNCATE table relation;
+TRUNCATE table relation_change;
+TRUNCATE table relation_change_sequence;
 TRUNCATE table relation_type;
 SET FOREIGN_KEY_CHECKS = 1;